@@ -0,0 +1,134 @@
+/*
+ * Copyright 2021-2021 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.event.gateway.kafka.benchmark;
+
+import java.io.Serializable;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import org.alfresco.repo.event.databind.ObjectMapperFactory;
+import org.alfresco.repo.event.v1.model.DataAttributes;
+import org.alfresco.repo.event.v1.model.EventData;
+import org.alfresco.repo.event.v1.model.EventType;
+import org.alfresco.repo.event.v1.model.NodeResource;
+import org.alfresco.repo.event.v1.model.RepoEvent;
+import org.alfresco.repo.event.v1.model.Resource;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Synthetic ACS node events used by the benchmarks. The sizes roughly follow the events produced by ACS for a plain
+ * folder (small), a document with the usual content model aspects (medium) and a document with a large custom model
+ * (large).
+ */
+public final class BenchmarkEvents {
+
+    public static final String SMALL = "small";
+    public static final String MEDIUM = "medium";
+    public static final String LARGE = "large";
+
+    private static final ObjectMapper OBJECT_MAPPER = ObjectMapperFactory.createInstance();
+
+    private BenchmarkEvents() {
+        // Hide default constructor
+    }
+
+    /**
+     * Get the {@link ObjectMapper} configured for the ACS event model.
+     *
+     * @return the {@link ObjectMapper}
+     */
+    public static ObjectMapper objectMapper() {
+        return OBJECT_MAPPER;
+    }
+
+    /**
+     * Build a node event of the given size.
+     *
+     * @param size      given size of the event ({@link #SMALL}, {@link #MEDIUM} or {@link #LARGE})
+     * @param eventType given type of the event
+     * @param nodeType  given type of the node
+     * @return the built {@link RepoEvent}
+     */
+    @SuppressWarnings("unchecked")
+    public static RepoEvent<DataAttributes<Resource>> nodeEvent(String size, String eventType, String nodeType) {
+        int propertyCount = switch (size) {
+            case SMALL -> 5;
+            case MEDIUM -> 40;
+            case LARGE -> 400;
+            default -> throw new IllegalArgumentException("Unknown event size " + size);
+        };
+        Map<String, Serializable> properties = new HashMap<>();
+        for (int i = 0; i < propertyCount; i++) {
+            properties.put("cm:property" + i, "value of the property " + i);
+        }
+        Set<String> aspectNames = new LinkedHashSet<>();
+        List<String> primaryHierarchy = new ArrayList<>();
+        for (int i = 0; i < propertyCount / 5; i++) {
+            aspectNames.add("cm:aspect" + i);
+            primaryHierarchy.add(UUID.randomUUID().toString());
+        }
+        NodeResource nodeResource = NodeResource.builder()
+                .setId(UUID.randomUUID().toString())
+                .setName("node-" + size)
+                .setNodeType(nodeType)
+                .setProperties(properties)
+                .setAspectNames(aspectNames)
+                .setPrimaryHierarchy(primaryHierarchy)
+                .build();
+        EventData<NodeResource> eventData = EventData.<NodeResource>builder()
+                .setResource(nodeResource)
+                .build();
+        RepoEvent<? extends DataAttributes<? extends Resource>> repoEvent = RepoEvent.<EventData<NodeResource>>builder()
+                .setId(UUID.randomUUID().toString())
+                .setType(eventType)
+                .setTime(ZonedDateTime.now())
+                .setData(eventData)
+                .build();
+        return (RepoEvent<DataAttributes<Resource>>) repoEvent;
+    }
+
+    /**
+     * Build a node creation event of the given size.
+     *
+     * @param size given size of the event
+     * @return the built {@link RepoEvent}
+     */
+    public static RepoEvent<DataAttributes<Resource>> nodeCreatedEvent(String size) {
+        return nodeEvent(size, EventType.NODE_CREATED.getType(), "cm:content");
+    }
+
+    /**
+     * Serialize the given event as ACS does.
+     *
+     * @param repoEvent given {@link RepoEvent}
+     * @return the event in JSON format
+     */
+    public static String toJson(RepoEvent<DataAttributes<Resource>> repoEvent) {
+        try {
+            return OBJECT_MAPPER.writeValueAsString(repoEvent);
+        } catch (JsonProcessingException excp) {
+            throw new IllegalStateException("Error serializing the benchmark event", excp);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2021-2021 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.event.gateway.kafka.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Compares the results of a JMH run (JSON format) with the results of a baseline run and fails if any benchmark is
+ * slower than its baseline by more than the given threshold (in percentage). All the benchmarks of this module measure
+ * the average time per operation, so a higher score is a worse score.
+ * <p>
+ * Usage: <code>BenchmarkRegressionGate &lt;results&gt; [&lt;threshold&gt; [&lt;baseline&gt;]]</code>. When no baseline
+ * is given (or it doesn't exist) the results are only printed.
+ */
+public final class BenchmarkRegressionGate {
+
+    private static final double DEFAULT_THRESHOLD = 10.0;
+
+    private BenchmarkRegressionGate() {
+        // Hide default constructor
+    }
+
+    public static void main(final String[] args) throws IOException {
+        if (args.length < 1) {
+            throw new IllegalArgumentException("Usage: BenchmarkRegressionGate <results> [<threshold> [<baseline>]]");
+        }
+        ObjectMapper objectMapper = new ObjectMapper();
+        Map<String, Double> results = readScores(objectMapper, new File(args[0]));
+        double threshold = args.length > 1 && !args[1].isBlank() ? Double.parseDouble(args[1]) : DEFAULT_THRESHOLD;
+        File baselineFile = args.length > 2 && !args[2].isBlank() ? new File(args[2]) : null;
+        if (Objects.isNull(baselineFile) || !baselineFile.isFile()) {
+            System.out.println("No benchmark baseline available, regression gate skipped");
+            results.forEach((benchmark, score) -> System.out.printf("%-100s %12.2f%n", benchmark, score));
+            return;
+        }
+        Map<String, Double> baseline = readScores(objectMapper, baselineFile);
+
+        int regressions = 0;
+        for (Map.Entry<String, Double> result : results.entrySet()) {
+            Double baselineScore = baseline.get(result.getKey());
+            if (Objects.isNull(baselineScore) || baselineScore <= 0) {
+                System.out.printf("%-100s %12.2f (no baseline)%n", result.getKey(), result.getValue());
+                continue;
+            }
+            double change = (result.getValue() - baselineScore) * 100 / baselineScore;
+            boolean regression = change > threshold;
+            if (regression) {
+                regressions++;
+            }
+            System.out.printf("%-100s %12.2f %12.2f %+8.2f%%%s%n", result.getKey(), baselineScore, result.getValue(),
+                    change, regression ? " REGRESSION" : "");
+        }
+        if (regressions > 0) {
+            throw new IllegalStateException(String.format(
+                    "%d benchmarks are more than %.1f%% slower than the baseline", regressions, threshold));
+        }
+        System.out.printf("No benchmark is more than %.1f%% slower than the baseline%n", threshold);
+    }
+
+    private static Map<String, Double> readScores(final ObjectMapper objectMapper, final File file) throws IOException {
+        Map<String, Double> scores = new TreeMap<>();
+        for (JsonNode result : objectMapper.readTree(file)) {
+            StringBuilder key = new StringBuilder(result.path("benchmark").asText());
+            JsonNode params = result.path("params");
+            Iterator<Map.Entry<String, JsonNode>> paramIterator = params.fields();
+            while (paramIterator.hasNext()) {
+                Map.Entry<String, JsonNode> param = paramIterator.next();
+                key.append(':').append(param.getKey()).append('=').append(param.getValue().asText());
+            }
+            scores.put(key.toString(), result.path("primaryMetric").path("score").asDouble());
+        }
+        return scores;
+    }
+}
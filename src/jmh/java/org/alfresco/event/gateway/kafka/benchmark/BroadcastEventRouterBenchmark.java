@@ -0,0 +1,71 @@
+/*
+ * Copyright 2021-2021 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.event.gateway.kafka.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.alfresco.event.gateway.kafka.consumption.BroadcastEventRouter;
+import org.alfresco.event.gateway.kafka.consumption.DefaultEventConsumerRegistry;
+import org.alfresco.repo.event.v1.model.DataAttributes;
+import org.alfresco.repo.event.v1.model.RepoEvent;
+import org.alfresco.repo.event.v1.model.Resource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmark of {@link BroadcastEventRouter#routeEvent} with different numbers of registered consumers. The routing
+ * tasks are run in the calling thread, so the score is the cost of fanning out one event to all the consumers without
+ * the noise of the thread pool.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BroadcastEventRouterBenchmark {
+
+    @Param({ "1", "100", "1000" })
+    private int consumerCount;
+
+    private BroadcastEventRouter eventRouter;
+    private RepoEvent<DataAttributes<Resource>> repoEvent;
+
+    @Setup
+    public void setup(final Blackhole blackhole) {
+        DefaultEventConsumerRegistry eventConsumerRegistry = new DefaultEventConsumerRegistry();
+        for (int i = 0; i < consumerCount; i++) {
+            eventConsumerRegistry.register(blackhole::consume);
+        }
+        eventRouter = new BroadcastEventRouter(eventConsumerRegistry, Runnable::run);
+        repoEvent = BenchmarkEvents.nodeCreatedEvent(BenchmarkEvents.SMALL);
+    }
+
+    @Benchmark
+    public void routeEvent() {
+        eventRouter.routeEvent(repoEvent);
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2021-2021 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.event.gateway.kafka.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.alfresco.event.gateway.kafka.subscription.DefaultEventSubscription;
+import org.alfresco.event.gateway.kafka.subscription.filter.EventTypeFilter;
+import org.alfresco.event.gateway.kafka.subscription.filter.NodeTypeFilter;
+import org.alfresco.repo.event.v1.model.DataAttributes;
+import org.alfresco.repo.event.v1.model.EventType;
+import org.alfresco.repo.event.v1.model.RepoEvent;
+import org.alfresco.repo.event.v1.model.Resource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks of {@link DefaultEventSubscription#consumeEvent} for an event that passes its filters (and is handed to
+ * the publisher) and for an event that is discarded.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DefaultEventSubscriptionBenchmark {
+
+    private DefaultEventSubscription eventSubscription;
+    private RepoEvent<DataAttributes<Resource>> matchedEvent;
+    private RepoEvent<DataAttributes<Resource>> discardedEvent;
+
+    @Setup
+    public void setup(final Blackhole blackhole) {
+        eventSubscription = new DefaultEventSubscription(blackhole::consume,
+                List.of(EventTypeFilter.of(EventType.NODE_CREATED.getType()), NodeTypeFilter.of("cm:content")),
+                List.of());
+        matchedEvent = BenchmarkEvents.nodeEvent(BenchmarkEvents.MEDIUM, EventType.NODE_CREATED.getType(),
+                "cm:content");
+        discardedEvent = BenchmarkEvents.nodeEvent(BenchmarkEvents.MEDIUM, EventType.NODE_CREATED.getType(),
+                "cm:folder");
+    }
+
+    @TearDown
+    public void tearDown() {
+        eventSubscription.release();
+    }
+
+    @Benchmark
+    public void consumeMatchedEvent() {
+        eventSubscription.consumeEvent(matchedEvent);
+    }
+
+    @Benchmark
+    public void consumeDiscardedEvent() {
+        eventSubscription.consumeEvent(discardedEvent);
+    }
+}
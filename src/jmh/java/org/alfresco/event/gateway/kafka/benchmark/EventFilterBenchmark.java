@@ -0,0 +1,102 @@
+/*
+ * Copyright 2021-2021 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.event.gateway.kafka.benchmark;
+
+import static org.alfresco.event.gateway.kafka.subscription.filter.EventFilterConfigurationConstants.EVENT_TYPES;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.alfresco.event.gateway.kafka.entity.Filter;
+import org.alfresco.event.gateway.kafka.entity.Subscription;
+import org.alfresco.event.gateway.kafka.subscription.filter.EventFilter;
+import org.alfresco.event.gateway.kafka.subscription.filter.EventTypeFilterFactory;
+import org.alfresco.event.gateway.kafka.subscription.filter.NodeTypeFilter;
+import org.alfresco.repo.event.v1.model.DataAttributes;
+import org.alfresco.repo.event.v1.model.EventType;
+import org.alfresco.repo.event.v1.model.RepoEvent;
+import org.alfresco.repo.event.v1.model.Resource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the event filters: the OR chains built by {@link EventTypeFilterFactory} (matching on the first and on
+ * the last link of the chain, and not matching at all) and the {@link NodeTypeFilter}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventFilterBenchmark {
+
+    private EventFilter eventTypeFilter;
+    private EventFilter nodeTypeFilter;
+    private RepoEvent<DataAttributes<Resource>> firstTypeEvent;
+    private RepoEvent<DataAttributes<Resource>> lastTypeEvent;
+    private RepoEvent<DataAttributes<Resource>> otherTypeEvent;
+
+    @Setup
+    public void setup() {
+        Filter filter = new Filter();
+        filter.setType("event-type");
+        filter.setConfig(Map.of(EVENT_TYPES, String.join(",", EventType.NODE_CREATED.getType(),
+                EventType.NODE_UPDATED.getType(), EventType.NODE_DELETED.getType(),
+                EventType.CHILD_ASSOC_CREATED.getType(), EventType.CHILD_ASSOC_DELETED.getType())));
+        eventTypeFilter = new EventTypeFilterFactory().getEventFilter(new Subscription(), filter);
+        nodeTypeFilter = NodeTypeFilter.of("cm:content");
+        firstTypeEvent = BenchmarkEvents.nodeEvent(BenchmarkEvents.MEDIUM, EventType.NODE_CREATED.getType(),
+                "cm:content");
+        lastTypeEvent = BenchmarkEvents.nodeEvent(BenchmarkEvents.MEDIUM, EventType.CHILD_ASSOC_DELETED.getType(),
+                "cm:folder");
+        otherTypeEvent = BenchmarkEvents.nodeEvent(BenchmarkEvents.MEDIUM, EventType.PEER_ASSOC_CREATED.getType(),
+                "cm:folder");
+    }
+
+    @Benchmark
+    public boolean eventTypeChainFirstMatch() {
+        return eventTypeFilter.test(firstTypeEvent);
+    }
+
+    @Benchmark
+    public boolean eventTypeChainLastMatch() {
+        return eventTypeFilter.test(lastTypeEvent);
+    }
+
+    @Benchmark
+    public boolean eventTypeChainNoMatch() {
+        return eventTypeFilter.test(otherTypeEvent);
+    }
+
+    @Benchmark
+    public boolean nodeTypeMatch() {
+        return nodeTypeFilter.test(firstTypeEvent);
+    }
+
+    @Benchmark
+    public boolean nodeTypeNoMatch() {
+        return nodeTypeFilter.test(lastTypeEvent);
+    }
+}
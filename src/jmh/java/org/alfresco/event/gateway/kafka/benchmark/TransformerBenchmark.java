@@ -0,0 +1,73 @@
+/*
+ * Copyright 2021-2021 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.event.gateway.kafka.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.alfresco.event.gateway.kafka.consumption.JsonToRepoEventTransformer;
+import org.alfresco.event.gateway.kafka.subscription.RepoEventToJsonTransformer;
+import org.alfresco.repo.event.v1.model.DataAttributes;
+import org.alfresco.repo.event.v1.model.RepoEvent;
+import org.alfresco.repo.event.v1.model.Resource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the parsing of the ACS events and of their serialization before being published.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransformerBenchmark {
+
+    @Param({ BenchmarkEvents.SMALL, BenchmarkEvents.MEDIUM, BenchmarkEvents.LARGE })
+    private String eventSize;
+
+    private JsonToRepoEventTransformer jsonToRepoEventTransformer;
+    private RepoEventToJsonTransformer repoEventToJsonTransformer;
+    private RepoEvent<DataAttributes<Resource>> repoEvent;
+    private String eventJson;
+
+    @Setup
+    public void setup() {
+        jsonToRepoEventTransformer = new JsonToRepoEventTransformer(BenchmarkEvents.objectMapper());
+        repoEventToJsonTransformer = new RepoEventToJsonTransformer(BenchmarkEvents.objectMapper());
+        repoEvent = BenchmarkEvents.nodeCreatedEvent(eventSize);
+        eventJson = BenchmarkEvents.toJson(repoEvent);
+    }
+
+    @Benchmark
+    public RepoEvent<DataAttributes<Resource>> parse() {
+        return jsonToRepoEventTransformer.transform(eventJson);
+    }
+
+    @Benchmark
+    public String serialize() {
+        return repoEventToJsonTransformer.transform(repoEvent);
+    }
+}
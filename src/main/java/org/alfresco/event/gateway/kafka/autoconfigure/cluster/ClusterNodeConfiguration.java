@@ -0,0 +1,43 @@
+/*
+ * Copyright 2021-2021 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.alfresco.event.gateway.kafka.autoconfigure.cluster;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration of the id of this event gateway node, shared by every component that identifies the node in the
+ * cluster (the propagation of the subscription changes, the leader election and the Kafka transactional ids). It must
+ * be stable across restarts and unique per node, so it defaults to the host name.
+ */
+@Configuration
+public class ClusterNodeConfiguration {
+
+    @Bean
+    String eventGatewayNodeId(@Value("${alfresco.event.gateway.subscription.cluster.node-id:}") final String nodeId) {
+        if (StringUtils.isNotBlank(nodeId)) {
+            return nodeId;
+        }
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException excp) {
+            throw new IllegalStateException("Cannot derive the node id from the host name, set"
+                    + " alfresco.event.gateway.subscription.cluster.node-id", excp);
+        }
+    }
+}
@@ -12,25 +12,39 @@
  */
 package org.alfresco.event.gateway.kafka.autoconfigure.consumption;
 
+import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
 
 import jakarta.jms.Destination;
 
+import org.alfresco.event.gateway.kafka.consumption.BatchJmsGatewayEventConsumer;
 import org.alfresco.event.gateway.kafka.consumption.BroadcastEventRouter;
+import org.alfresco.event.gateway.kafka.consumption.DeduplicatingEventRouter;
 import org.alfresco.event.gateway.kafka.consumption.DefaultEventConsumerRegistry;
 import org.alfresco.event.gateway.kafka.consumption.EventConsumerRegistry;
 import org.alfresco.event.gateway.kafka.consumption.EventConsumptionStarter;
+import org.alfresco.event.gateway.kafka.consumption.EventDeduplicator;
 import org.alfresco.event.gateway.kafka.consumption.EventRouter;
 import org.alfresco.event.gateway.kafka.consumption.GatewayEventConsumer;
+import org.alfresco.event.gateway.kafka.consumption.GroupMembershipChangeEventConsumer;
 import org.alfresco.event.gateway.kafka.consumption.JsonToRepoEventTransformer;
+import org.alfresco.event.gateway.kafka.consumption.KafkaGatewayEventConsumer;
+import org.alfresco.event.gateway.kafka.consumption.KeyedEventExecutor;
 import org.alfresco.event.gateway.kafka.consumption.LoggingEventConsumer;
+import org.alfresco.event.gateway.kafka.consumption.RoutingBackpressure;
 import org.alfresco.event.gateway.kafka.consumption.SpringIntegrationGatewayEventConsumer;
 import org.alfresco.event.gateway.kafka.consumption.UserDeletionEventConsumer;
+import org.alfresco.event.gateway.kafka.consumption.handling.GroupMembershipChangeHandler;
 import org.alfresco.event.gateway.kafka.consumption.handling.UserDeletionHandler;
+import org.alfresco.event.gateway.kafka.metrics.GatewayMetrics;
+import org.alfresco.event.gateway.kafka.storage.EventStore;
+import org.alfresco.event.gateway.kafka.storage.StoringEventRouter;
 import org.alfresco.repo.event.databind.ObjectMapperFactory;
 import org.apache.activemq.ActiveMQConnectionFactory;
 import org.apache.activemq.command.ActiveMQTopic;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingClass;
@@ -45,6 +59,10 @@ import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
 @Configuration
 public class EventConsumptionConfiguration {
 
@@ -74,22 +92,87 @@ public class EventConsumptionConfiguration {
         return activeMQConnectionFactory -> activeMQConnectionFactory.setClientID(clientId);
     }
 
+    @ConditionalOnProperty(value = "alfresco.event.gateway.consumer.type", havingValue = "activemq", matchIfMissing = true)
     @Bean
     GatewayEventConsumer eventConsumer(IntegrationFlowContext integrationFlowContext,
             ActiveMQConnectionFactory activeMQConnectionFactory,
             JsonToRepoEventTransformer jsonToRepoEventTransformer,
             EventRouter eventRouter,
             @Qualifier("eventGatewayMainInputDestination") Destination inputDestination,
-            @Value("${alfresco.event.gateway.consumer.activemq.durableSubscription:true}") final Boolean durableSubscription) {
+            @Value("${alfresco.event.gateway.consumer.activemq.durableSubscription:true}") final Boolean durableSubscription,
+            @Value("${alfresco.event.gateway.consumer.activemq.batch.enabled:false}") final boolean batchEnabled,
+            @Value("${alfresco.event.gateway.consumer.activemq.batch.max-size:500}") final int maxBatchSize,
+            @Value("${alfresco.event.gateway.consumer.activemq.batch.max-wait:100}") final long maxBatchWait,
+            @Value("${alfresco.event.gateway.consumer.activemq.subscription-name:" + SpringIntegrationGatewayEventConsumer.DEFAULT_SUBSCRIPTION_NAME + "}") final String subscriptionName,
+            @Value("${alfresco.event.gateway.storage.kafka.exactly-once.enabled:false}") final boolean exactlyOnceStorage,
+            ObjectProvider<RoutingBackpressure> routingBackpressure) {
+        if (batchEnabled) {
+            return new BatchJmsGatewayEventConsumer(activeMQConnectionFactory, jsonToRepoEventTransformer, eventRouter,
+                    inputDestination, durableSubscription, subscriptionName, maxBatchSize, maxBatchWait,
+                    routingBackpressure.getIfAvailable());
+        }
         return new SpringIntegrationGatewayEventConsumer(integrationFlowContext, activeMQConnectionFactory,
                 jsonToRepoEventTransformer, eventRouter,
-                inputDestination, durableSubscription);
+                inputDestination, durableSubscription, subscriptionName, routingBackpressure.getIfAvailable(),
+                exactlyOnceStorage);
+    }
+
+    @ConditionalOnProperty(value = "alfresco.event.gateway.consumer.activemq.backpressure.enabled", havingValue = "true", matchIfMissing = true)
+    @Bean
+    RoutingBackpressure routingBackpressure(EventRouter eventRouter,
+            @Value("${alfresco.event.gateway.consumer.activemq.backpressure.high-water-mark:0.8}") final double highWaterMark,
+            @Value("${alfresco.event.gateway.consumer.activemq.backpressure.low-water-mark:0.5}") final double lowWaterMark,
+            @Value("${alfresco.event.gateway.consumer.activemq.backpressure.check-interval:50}") final long checkInterval,
+            MeterRegistry meterRegistry) {
+        return new RoutingBackpressure(eventRouter, highWaterMark, lowWaterMark, checkInterval, meterRegistry);
+    }
+
+    @ConditionalOnProperty(value = "alfresco.event.gateway.consumer.activemq.backpressure.enabled", havingValue = "true", matchIfMissing = true)
+    @Bean
+    ActiveMQConnectionFactoryCustomizer prefetchActiveMQConnectionFactoryCustomizer(
+            @Value("${alfresco.event.gateway.consumer.activemq.backpressure.prefetch:100}") final int prefetch) {
+        // Keep the bursts in the broker: a paused consumer holds at most this number of undelivered messages (the
+        // ActiveMQ default for durable subscribers, while non-durable ones would otherwise prefetch 32767)
+        return activeMQConnectionFactory -> {
+            activeMQConnectionFactory.getPrefetchPolicy().setTopicPrefetch(prefetch);
+            activeMQConnectionFactory.getPrefetchPolicy().setDurableTopicPrefetch(prefetch);
+        };
+    }
+
+    @ConditionalOnProperty(value = "alfresco.event.gateway.consumer.type", havingValue = "kafka")
+    @Bean
+    GatewayEventConsumer kafkaGatewayEventConsumer(JsonToRepoEventTransformer jsonToRepoEventTransformer,
+            EventRouter eventRouter,
+            @Value("${alfresco.event.gateway.consumer.kafka.bootstrap-servers:${spring.kafka.bootstrap-servers}}") final String bootstrapServers,
+            @Value("${alfresco.event.gateway.consumer.kafka.topic:alfresco.repo.event2}") final String topic,
+            @Value("${alfresco.event.gateway.consumer.kafka.group-id:alfresco-event-gateway}") final String groupId,
+            @Value("${alfresco.event.gateway.consumer.kafka.concurrency:4}") final int concurrency,
+            @Value("${alfresco.event.gateway.consumer.kafka.max-poll-records:500}") final int maxPollRecords,
+            @Value("${alfresco.event.gateway.consumer.kafka.retry-interval:1000}") final long retryInterval,
+            ObjectProvider<RoutingBackpressure> routingBackpressure) {
+        return new KafkaGatewayEventConsumer(jsonToRepoEventTransformer, eventRouter, bootstrapServers, topic, groupId,
+                concurrency, maxPollRecords, retryInterval, routingBackpressure.getIfAvailable());
     }
 
     @Bean
     EventRouter eventRouter(EventConsumerRegistry eventConsumerRegistry,
-            @Qualifier("consumptionExecutor") Executor executor) {
-        return new BroadcastEventRouter(eventConsumerRegistry, executor);
+            @Qualifier("consumptionExecutor") Executor executor, MeterRegistry meterRegistry,
+            @Value("${alfresco.event.gateway.consumer.deduplication.enabled:true}") final boolean deduplicationEnabled,
+            @Value("${alfresco.event.gateway.consumer.deduplication.max-entries:100000}") final int maxEntries,
+            @Value("${alfresco.event.gateway.consumer.deduplication.window:600000}") final long window,
+            @Value("${alfresco.event.gateway.consumer.deduplication.false-positive-probability:0.01}") final double falsePositiveProbability,
+            @Value("${alfresco.event.gateway.storage.kafka.exactly-once.enabled:false}") final boolean exactlyOnceStorage,
+            ObjectProvider<EventStore> eventStore) {
+        EventRouter eventRouter = new BroadcastEventRouter(eventConsumerRegistry, executor, meterRegistry);
+        if (exactlyOnceStorage && Objects.nonNull(eventStore.getIfAvailable())) {
+            // Store the events before the gateway event consumer acknowledges them
+            eventRouter = new StoringEventRouter(eventRouter, eventStore.getIfAvailable());
+        }
+        if (!deduplicationEnabled) {
+            return eventRouter;
+        }
+        return new DeduplicatingEventRouter(eventRouter,
+                new EventDeduplicator(maxEntries, window, falsePositiveProbability, meterRegistry));
     }
 
     @Bean
@@ -97,13 +180,37 @@ public class EventConsumptionConfiguration {
             @Value("${alfresco.event.gateway.consumption.executor.corePoolSize:2}") Integer corePoolSize,
             @Value("${alfresco.event.gateway.consumption.executor.maxPoolSize:2}") Integer maxPoolSize,
             @Value("${alfresco.event.gateway.consumption.executor.queueCapacity:500}") Integer queueCapacity,
-            @Value("${alfresco.event.gateway.consumption.executor.threadNamePrefix:Consumption-}") String threadNamePrefix) {
+            @Value("${alfresco.event.gateway.consumption.executor.threadNamePrefix:Consumption-}") String threadNamePrefix,
+            @Value("${alfresco.event.gateway.consumption.executor.ordered:true}") boolean ordered,
+            MeterRegistry meterRegistry) {
+        if (ordered) {
+            // One lane per core thread (keeping the events of each node in order), sharing the queue capacity in
+            // events (each event is consumed by all the consumers in a single task)
+            KeyedEventExecutor keyedExecutor = new KeyedEventExecutor(corePoolSize,
+                    Math.max(1, queueCapacity / Math.max(1, corePoolSize)), threadNamePrefix, meterRegistry);
+            Gauge.builder(GatewayMetrics.ROUTING_QUEUE_SIZE, keyedExecutor, KeyedEventExecutor::getQueueSize)
+                    .register(meterRegistry);
+            Gauge.builder(GatewayMetrics.ROUTING_ACTIVE, keyedExecutor, KeyedEventExecutor::getActiveCount)
+                    .register(meterRegistry);
+            return keyedExecutor;
+        }
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
         executor.setCorePoolSize(corePoolSize);
         executor.setMaxPoolSize(maxPoolSize);
         executor.setQueueCapacity(queueCapacity);
         executor.setThreadNamePrefix(threadNamePrefix);
+        // Count the rejections, still failing the routing as the default policy does
+        Counter rejectedCounter = meterRegistry.counter(GatewayMetrics.ROUTING_REJECTED);
+        ThreadPoolExecutor.AbortPolicy abortPolicy = new ThreadPoolExecutor.AbortPolicy();
+        executor.setRejectedExecutionHandler((runnable, threadPoolExecutor) -> {
+            rejectedCounter.increment();
+            abortPolicy.rejectedExecution(runnable, threadPoolExecutor);
+        });
         executor.initialize();
+        Gauge.builder(GatewayMetrics.ROUTING_QUEUE_SIZE, executor, ThreadPoolTaskExecutor::getQueueSize)
+                .register(meterRegistry);
+        Gauge.builder(GatewayMetrics.ROUTING_ACTIVE, executor, ThreadPoolTaskExecutor::getActiveCount)
+                .register(meterRegistry);
         return executor;
     }
 
@@ -126,8 +233,8 @@ public class EventConsumptionConfiguration {
     }
 
     @Bean
-    JsonToRepoEventTransformer jsonToRepoEventTransformer(ObjectMapper objectMapper) {
-        return new JsonToRepoEventTransformer(objectMapper);
+    JsonToRepoEventTransformer jsonToRepoEventTransformer(ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        return new JsonToRepoEventTransformer(objectMapper, meterRegistry);
     }
 
     @Bean
@@ -135,4 +242,10 @@ public class EventConsumptionConfiguration {
             Set<UserDeletionHandler> userDeletionHandlers) {
         return new UserDeletionEventConsumer(eventConsumerRegistry, userDeletionHandlers);
     }
+
+    @Bean
+    GroupMembershipChangeEventConsumer groupMembershipChangeEventConsumer(EventConsumerRegistry eventConsumerRegistry,
+            Set<GroupMembershipChangeHandler> groupMembershipChangeHandlers) {
+        return new GroupMembershipChangeEventConsumer(eventConsumerRegistry, groupMembershipChangeHandlers);
+    }
 }
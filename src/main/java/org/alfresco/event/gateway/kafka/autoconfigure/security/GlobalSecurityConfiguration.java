@@ -12,16 +12,22 @@
  */
 package org.alfresco.event.gateway.kafka.autoconfigure.security;
 
+import java.time.Duration;
 import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
 
 import org.alfresco.core.handler.GroupsApiClient;
-import org.alfresco.event.gateway.kafka.security.ACSAuthoritiesService;
+import org.alfresco.event.gateway.kafka.security.CachingACSAuthoritiesService;
 import org.alfresco.event.gateway.kafka.security.HeadersForwardDelegatedAuthenticationProvider;
 import org.alfresco.event.gateway.kafka.security.SubscriptionOwnerValidator;
 import org.alfresco.event.gateway.kafka.subscription.EventSubscriptionService;
 import org.alfresco.rest.sdk.feign.DelegatedAuthenticationProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.web.SecurityFilterChain;
 
@@ -48,8 +54,28 @@ public class GlobalSecurityConfiguration {
     }
 
     @Bean
-    public ACSAuthoritiesService acsAuthoritiesService(GroupsApiClient groupsApiClient) {
-        return new ACSAuthoritiesService(groupsApiClient);
+    public CachingACSAuthoritiesService acsAuthoritiesService(GroupsApiClient groupsApiClient,
+            @Qualifier("acsPageFetchExecutor") Executor acsPageFetchExecutor,
+            @Value("${alfresco.event.gateway.security.authorities.page-fetch.concurrent:true}") boolean concurrentPageFetch,
+            @Value("${alfresco.event.gateway.security.authorities.cache.maximum-size:10000}") long maximumSize,
+            @Value("${alfresco.event.gateway.security.authorities.cache.time-to-live:300000}") long timeToLive) {
+        return new CachingACSAuthoritiesService(groupsApiClient, concurrentPageFetch ? acsPageFetchExecutor : null,
+                maximumSize, Duration.ofMillis(timeToLive));
+    }
+
+    @Bean
+    public Executor acsPageFetchExecutor(
+            @Value("${alfresco.event.gateway.security.authorities.page-fetch.parallelism:4}") Integer parallelism,
+            @Value("${alfresco.event.gateway.security.authorities.page-fetch.queue-capacity:100}") Integer queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(parallelism);
+        executor.setMaxPoolSize(parallelism);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("ACSPageFetch-");
+        // Fetch the page in the requesting thread when all the workers are busy
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        return executor;
     }
 
     @Bean
@@ -16,12 +16,15 @@ import org.alfresco.event.gateway.kafka.consumption.EventConsumerRegistry;
 import org.alfresco.event.gateway.kafka.storage.KafkaEventStore;
 import org.alfresco.event.gateway.kafka.subscription.RepoEventToJsonTransformer;
 import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.integration.dsl.context.IntegrationFlowContext;
 
+import io.micrometer.core.instrument.MeterRegistry;
+
 @Configuration
 public class EventStorageConfiguration {
 
@@ -29,13 +32,25 @@ public class EventStorageConfiguration {
     @Bean
     KafkaEventStore kafkaEventConsumer(EventConsumerRegistry eventConsumerRegistry,
             IntegrationFlowContext integrationFlowContext,
-            RepoEventToJsonTransformer repoEventToJsonTransformer,
+            RepoEventToJsonTransformer repoEventToJsonTransformer, MeterRegistry meterRegistry,
             @Value("${alfresco.event.gateway.storage.kafka.bootstrapServers:}") final String gatewayBootstrapServers,
             @Value("${spring.kafka.bootstrap-servers:}") final String springBootstrapServers,
-            @Value("${alfresco.event.gateway.storage.kafka.topic:alfresco-event-gateway}") final String topic) {
+            @Value("${alfresco.event.gateway.storage.kafka.topic:alfresco-event-gateway}") final String topic,
+            @Value("${alfresco.event.gateway.storage.kafka.exactly-once.enabled:false}") final boolean exactlyOnce,
+            @Value("${alfresco.event.gateway.storage.kafka.exactly-once.transaction-id-prefix:}") final String transactionIdPrefix,
+            @Qualifier("eventGatewayNodeId") final String nodeId) {
         String bootstrapServers = StringUtils.isNotBlank(gatewayBootstrapServers) ? gatewayBootstrapServers
                 : springBootstrapServers;
         return new KafkaEventStore(eventConsumerRegistry, integrationFlowContext, repoEventToJsonTransformer,
-                bootstrapServers, topic);
+                bootstrapServers, topic, meterRegistry,
+                exactlyOnce ? getTransactionIdPrefix(transactionIdPrefix, nodeId) : null);
+    }
+
+    private static String getTransactionIdPrefix(final String transactionIdPrefix, final String nodeId) {
+        if (StringUtils.isNotBlank(transactionIdPrefix)) {
+            return transactionIdPrefix;
+        }
+        // The prefix must survive restarts, so that a restarted instance fences the transactions left open by its crash
+        return "alfresco-event-gateway-" + nodeId + "-";
     }
 }
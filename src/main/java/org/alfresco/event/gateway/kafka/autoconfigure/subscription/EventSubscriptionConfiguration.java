@@ -14,21 +14,30 @@ package org.alfresco.event.gateway.kafka.autoconfigure.subscription;
 
 import static org.alfresco.event.gateway.kafka.subscription.filter.EventFilterConfigurationConstants.EVENT_TYPE;
 
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import jakarta.validation.Validator;
+
 import org.alfresco.event.gateway.kafka.SubscriptionConfigurationConstants;
 import org.alfresco.event.gateway.kafka.bootstrapping.SystemBootstrapChecker;
 import org.alfresco.event.gateway.kafka.consumption.EventConsumerRegistry;
+import org.alfresco.event.gateway.kafka.subscription.CachingEventSubscriptionService;
 import org.alfresco.event.gateway.kafka.subscription.DefaultEventSubscriptionFactory;
 import org.alfresco.event.gateway.kafka.subscription.DefaultEventSubscriptionRegistry;
+import org.alfresco.event.gateway.kafka.subscription.EventSubscriptionBootstrapper;
 import org.alfresco.event.gateway.kafka.subscription.EventSubscriptionFactory;
 import org.alfresco.event.gateway.kafka.subscription.EventSubscriptionRegistry;
 import org.alfresco.event.gateway.kafka.subscription.EventSubscriptionService;
 import org.alfresco.event.gateway.kafka.subscription.EventSubscriptionServiceImpl;
+import org.alfresco.event.gateway.kafka.subscription.LazySubscriptionPublisherManager;
 import org.alfresco.event.gateway.kafka.subscription.RepoEventToJsonTransformer;
+import org.alfresco.event.gateway.kafka.subscription.SubscriptionChangeListener;
+import org.alfresco.event.gateway.kafka.subscription.SubscriptionOwnership;
 import org.alfresco.event.gateway.kafka.subscription.SubscriptionPublisherFactory;
+import org.alfresco.event.gateway.kafka.subscription.cluster.LeaderElection;
 import org.alfresco.event.gateway.kafka.subscription.filter.EventFilterFactory;
 import org.alfresco.event.gateway.kafka.subscription.filter.EventTypeFilterFactory;
 import org.alfresco.event.gateway.kafka.subscription.handling.SubscriptionDisableUserDeletionHandler;
@@ -41,39 +50,58 @@ import org.alfresco.event.gateway.kafka.subscription.rest.SubscriptionPatchValid
 import org.alfresco.event.gateway.kafka.subscription.scheduled.ScheduledSubscriptionStatusTask;
 import org.alfresco.event.gateway.kafka.subscription.storage.EventSubscriptionStorage;
 import org.alfresco.event.gateway.kafka.subscription.transformation.EventTransformation;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.core.env.Environment;
 import org.springframework.integration.dsl.context.IntegrationFlowContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import io.micrometer.core.instrument.MeterRegistry;
+
 @Configuration
 public class EventSubscriptionConfiguration {
 
     SubscriptionPublisherFactory jmsActiveMQSubscriptionPublisherFactory(IntegrationFlowContext integrationFlowContext,
             RepoEventToJsonTransformer repoEventToJsonTransformer, Environment environment,
-            SystemBootstrapChecker systemBootstrapChecker) {
+            SystemBootstrapChecker systemBootstrapChecker,
+            LazySubscriptionPublisherManager lazySubscriptionPublisherManager, MeterRegistry meterRegistry) {
         return new JmsActiveMQSubscriptionPublisherFactory(integrationFlowContext, repoEventToJsonTransformer,
                 new ActiveMQDestinationResolver(new JmsDestinationValidator(), systemBootstrapChecker),
-                new SpringPropertiesBrokerConfigResolver(environment));
+                new SpringPropertiesBrokerConfigResolver(environment), lazySubscriptionPublisherManager,
+                meterRegistry);
     }
 
     @Bean
     Map<String, SubscriptionPublisherFactory> subscriptionPublisherFactoryMap(
             IntegrationFlowContext integrationFlowContext,
             RepoEventToJsonTransformer repoEventToJsonTransformer, Environment environment,
-            SystemBootstrapChecker systemBootstrapChecker) {
+            SystemBootstrapChecker systemBootstrapChecker,
+            ObjectProvider<LazySubscriptionPublisherManager> lazySubscriptionPublisherManager,
+            MeterRegistry meterRegistry) {
         Map<String, SubscriptionPublisherFactory> subscriptionPublisherFactoryMap = new HashMap<>();
         subscriptionPublisherFactoryMap.put(SubscriptionConfigurationConstants.SUBSCRIPTION_TYPE_JMS_ACTIVEMQ,
                 jmsActiveMQSubscriptionPublisherFactory(integrationFlowContext, repoEventToJsonTransformer, environment,
-                        systemBootstrapChecker));
+                        systemBootstrapChecker, lazySubscriptionPublisherManager.getIfAvailable(), meterRegistry));
 
         return subscriptionPublisherFactoryMap;
     }
 
+    @Bean
+    @ConditionalOnProperty(name = "alfresco.event.gateway.subscription.publisher.lazy.enabled", havingValue = "true")
+    LazySubscriptionPublisherManager lazySubscriptionPublisherManager(
+            @Value("${alfresco.event.gateway.subscription.publisher.lazy.idle-timeout:600000}") long idleTimeout,
+            @Value("${alfresco.event.gateway.subscription.publisher.lazy.warm-up-threshold:10}") long warmUpThreshold) {
+        return new LazySubscriptionPublisherManager(idleTimeout, warmUpThreshold);
+    }
+
     @Bean(EVENT_TYPE)
     EventTypeFilterFactory eventTypeFilterFactory() {
         return new EventTypeFilterFactory();
@@ -83,22 +111,43 @@ public class EventSubscriptionConfiguration {
     EventSubscriptionFactory eventSubscriptionFactory(
             Map<String, SubscriptionPublisherFactory> subscriptionPublisherFactoryMap,
             Map<String, EventFilterFactory> eventFilterFactoryMap,
-            List<EventTransformation> eventTransformations) {
+            List<EventTransformation> eventTransformations, MeterRegistry meterRegistry) {
         return new DefaultEventSubscriptionFactory(subscriptionPublisherFactoryMap, eventFilterFactoryMap,
-                eventTransformations);
+                eventTransformations, meterRegistry);
     }
 
     @Bean
-    RepoEventToJsonTransformer repoEventToJsonTransformer(ObjectMapper objectMapper) {
-        return new RepoEventToJsonTransformer(objectMapper);
+    RepoEventToJsonTransformer repoEventToJsonTransformer(ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        return new RepoEventToJsonTransformer(objectMapper, meterRegistry);
+    }
+
+    @Bean
+    EventSubscriptionBootstrapper eventSubscriptionBootstrapper(EventSubscriptionFactory eventSubscriptionFactory,
+            @Value("${alfresco.event.gateway.subscription.bootstrap.parallelism:4}") int parallelism) {
+        return new EventSubscriptionBootstrapper(eventSubscriptionFactory, parallelism);
     }
 
     @Bean
     EventSubscriptionService eventSubscriptionService(EventSubscriptionStorage eventSubscriptionStorage,
             EventSubscriptionFactory eventSubscriptionFactory, EventConsumerRegistry eventConsumerRegistry,
-            EventSubscriptionRegistry eventSubscriptionRegistry) {
+            EventSubscriptionRegistry eventSubscriptionRegistry,
+            EventSubscriptionBootstrapper eventSubscriptionBootstrapper,
+            ObjectProvider<SubscriptionChangeListener> subscriptionChangeListeners,
+            ObjectProvider<SubscriptionOwnership> subscriptionOwnership) {
         return new EventSubscriptionServiceImpl(eventSubscriptionStorage, eventSubscriptionFactory,
-                eventConsumerRegistry, eventSubscriptionRegistry);
+                eventConsumerRegistry, eventSubscriptionRegistry, eventSubscriptionBootstrapper,
+                subscriptionChangeListeners.orderedStream().toList(), subscriptionOwnership.getIfAvailable());
+    }
+
+    @Bean
+    @Primary
+    @ConditionalOnProperty(name = "alfresco.event.gateway.subscription.cache.enabled", havingValue = "true", matchIfMissing = true)
+    CachingEventSubscriptionService cachingEventSubscriptionService(
+            @Qualifier("eventSubscriptionService") EventSubscriptionService eventSubscriptionService,
+            @Value("${alfresco.event.gateway.subscription.cache.maximum-size:10000}") long maximumSize,
+            @Value("${alfresco.event.gateway.subscription.cache.time-to-live:30000}") long timeToLive) {
+        return new CachingEventSubscriptionService(eventSubscriptionService, maximumSize,
+                Duration.ofMillis(timeToLive));
     }
 
     @Bean
@@ -109,26 +158,34 @@ public class EventSubscriptionConfiguration {
     @Bean
     EventSubscriptionController eventSubscriptionController(EventSubscriptionService eventSubscriptionService,
             ObjectMapper objectMapper,
-            SubscriptionPatchValidator subscriptionPatchValidator) {
-        return new EventSubscriptionController(eventSubscriptionService, objectMapper, subscriptionPatchValidator);
+            SubscriptionPatchValidator subscriptionPatchValidator, Validator validator,
+            @Value("${alfresco.event.gateway.subscription.security.managers.group:#{null}}") String managersGroup) {
+        return new EventSubscriptionController(eventSubscriptionService, objectMapper, subscriptionPatchValidator,
+                validator, managersGroup);
     }
 
     @Bean
-    EventSubscriptionRegistry eventSubscriptionRegistry() {
-        return new DefaultEventSubscriptionRegistry();
+    EventSubscriptionRegistry eventSubscriptionRegistry(MeterRegistry meterRegistry) {
+        return new DefaultEventSubscriptionRegistry(meterRegistry);
     }
 
     @Bean
     @ConditionalOnProperty(name = "scheduled.subscription.status.enabled", havingValue = "true", matchIfMissing = true)
-    ScheduledSubscriptionStatusTask scheduledSubscriptionStatusTask(EventSubscriptionStorage eventSubscriptionStorage,
-            EventSubscriptionService eventSubscriptionService,
-            @Value("${scheduled.subscription.limit.timestamp:86400000}") long limitTime) {
-        return new ScheduledSubscriptionStatusTask(eventSubscriptionStorage, eventSubscriptionService, limitTime);
+    ScheduledSubscriptionStatusTask scheduledSubscriptionStatusTask(EventSubscriptionService eventSubscriptionService,
+            @Value("${scheduled.subscription.limit.timestamp:86400000}") long limitTime,
+            @Value("${scheduled.subscription.fixed.delay:86400000}") long sweepInterval,
+            ObjectProvider<LeaderElection> leaderElectionProvider, PlatformTransactionManager transactionManager) {
+        return new ScheduledSubscriptionStatusTask(eventSubscriptionService, limitTime,
+                leaderElectionProvider.getIfAvailable(), new TransactionTemplate(transactionManager), sweepInterval);
     }
 
     @Bean
     SubscriptionDisableUserDeletionHandler subscriptionDisableUserDeletionHandler(
-            EventSubscriptionService eventSubscriptionService) {
-        return new SubscriptionDisableUserDeletionHandler(eventSubscriptionService);
+            EventSubscriptionService eventSubscriptionService,
+            @Value("${alfresco.event.gateway.subscription.user-deletion.coalescing-window:1000}") long coalescingWindow,
+            @Value("${alfresco.event.gateway.subscription.user-deletion.max-batch-size:500}") int maxBatchSize,
+            @Value("${alfresco.event.gateway.subscription.user-deletion.max-retries:5}") int maxRetries) {
+        return new SubscriptionDisableUserDeletionHandler(eventSubscriptionService, coalescingWindow, maxBatchSize,
+                maxRetries);
     }
 }
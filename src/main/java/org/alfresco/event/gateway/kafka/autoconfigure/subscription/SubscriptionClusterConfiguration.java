@@ -0,0 +1,52 @@
+/*
+ * Copyright 2021-2021 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.alfresco.event.gateway.kafka.autoconfigure.subscription;
+
+import org.alfresco.event.gateway.kafka.subscription.EventSubscriptionService;
+import org.alfresco.event.gateway.kafka.subscription.cluster.KafkaSubscriptionChangePublisher;
+import org.alfresco.event.gateway.kafka.subscription.cluster.KafkaSubscriptionChangeReceiver;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Configuration of the propagation of the subscription changes across the event gateway nodes of a cluster.
+ */
+@Configuration
+@ConditionalOnProperty(name = "alfresco.event.gateway.subscription.cluster.enabled", havingValue = "true")
+public class SubscriptionClusterConfiguration {
+
+    @Bean
+    KafkaSubscriptionChangePublisher kafkaSubscriptionChangePublisher(ObjectMapper objectMapper,
+            @Qualifier("eventGatewayNodeId") String nodeId,
+            @Value("${alfresco.event.gateway.subscription.cluster.kafka.bootstrap-servers:${spring.kafka.bootstrap-servers:}}") String bootstrapServers,
+            @Value("${alfresco.event.gateway.subscription.cluster.kafka.topic:alfresco-event-gateway-subscriptions}") String topic,
+            @Value("${alfresco.event.gateway.subscription.cluster.kafka.partitions:1}") int partitions,
+            @Value("${alfresco.event.gateway.subscription.cluster.kafka.replicas:1}") int replicas) {
+        return new KafkaSubscriptionChangePublisher(nodeId, bootstrapServers, topic, partitions, replicas,
+                objectMapper);
+    }
+
+    @Bean
+    KafkaSubscriptionChangeReceiver kafkaSubscriptionChangeReceiver(EventSubscriptionService eventSubscriptionService,
+            @Qualifier("eventGatewayNodeId") String nodeId, ObjectMapper objectMapper,
+            @Value("${alfresco.event.gateway.subscription.cluster.kafka.bootstrap-servers:${spring.kafka.bootstrap-servers:}}") String bootstrapServers,
+            @Value("${alfresco.event.gateway.subscription.cluster.kafka.topic:alfresco-event-gateway-subscriptions}") String topic) {
+        return new KafkaSubscriptionChangeReceiver(eventSubscriptionService, nodeId, bootstrapServers, topic,
+                objectMapper);
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2021-2021 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.alfresco.event.gateway.kafka.autoconfigure.subscription;
+
+import org.alfresco.event.gateway.kafka.subscription.cluster.DatabaseLeaderElection;
+import org.alfresco.event.gateway.kafka.subscription.storage.LeaderLeaseStorage;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Configuration of the election of the event gateway node running the cluster-wide maintenance tasks. The other nodes
+ * learn about the changes made by the leader through the cluster propagation, so it has to be enabled as well.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "alfresco.event.gateway.subscription", name = {
+        "cluster.enabled", "leader-election.enabled" }, havingValue = "true")
+public class SubscriptionLeaderElectionConfiguration {
+
+    @Bean
+    DatabaseLeaderElection subscriptionLeaderElection(LeaderLeaseStorage leaderLeaseStorage,
+            PlatformTransactionManager transactionManager,
+            @Qualifier("eventGatewayNodeId") String nodeId,
+            @Value("${alfresco.event.gateway.subscription.leader-election.lease-name:alfresco-event-gateway-maintenance}") String leaseName,
+            @Value("${alfresco.event.gateway.subscription.leader-election.lease-duration:15000}") long leaseDuration,
+            @Value("${alfresco.event.gateway.subscription.leader-election.renew-interval:5000}") long renewInterval) {
+        return new DatabaseLeaderElection(leaderLeaseStorage, new TransactionTemplate(transactionManager), leaseName,
+                nodeId, leaseDuration, renewInterval);
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2021-2021 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.alfresco.event.gateway.kafka.autoconfigure.subscription;
+
+import org.alfresco.event.gateway.kafka.subscription.EventSubscriptionRegistry;
+import org.alfresco.event.gateway.kafka.subscription.EventSubscriptionService;
+import org.alfresco.event.gateway.kafka.subscription.cluster.KafkaSubscriptionShardCoordinator;
+import org.alfresco.event.gateway.kafka.subscription.cluster.ShardedSubscriptionOwnership;
+import org.alfresco.event.gateway.kafka.subscription.storage.EventSubscriptionStorage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration of the sharding of the subscriptions across the event gateway nodes of a cluster. It requires the
+ * propagation of the subscription changes (see {@link SubscriptionClusterConfiguration}), so that the changes made in
+ * any node reach the owner of the subscription.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "alfresco.event.gateway.subscription", name = { "cluster.enabled", "sharding.enabled" }, havingValue = "true")
+public class SubscriptionShardingConfiguration {
+
+    @Bean
+    ShardedSubscriptionOwnership shardedSubscriptionOwnership(
+            @Value("${alfresco.event.gateway.subscription.sharding.shards:64}") int shardCount) {
+        return new ShardedSubscriptionOwnership(shardCount);
+    }
+
+    @Bean
+    KafkaSubscriptionShardCoordinator kafkaSubscriptionShardCoordinator(
+            ShardedSubscriptionOwnership shardedSubscriptionOwnership,
+            EventSubscriptionService eventSubscriptionService, EventSubscriptionStorage eventSubscriptionStorage,
+            EventSubscriptionRegistry eventSubscriptionRegistry,
+            @Value("${alfresco.event.gateway.subscription.cluster.kafka.bootstrap-servers:${spring.kafka.bootstrap-servers:}}") String bootstrapServers,
+            @Value("${alfresco.event.gateway.subscription.sharding.kafka.topic:alfresco-event-gateway-subscription-shards}") String topic,
+            @Value("${alfresco.event.gateway.subscription.sharding.kafka.group-id:alfresco-event-gateway-subscription-shards}") String groupId,
+            @Value("${alfresco.event.gateway.subscription.cluster.kafka.replicas:1}") int replicas) {
+        return new KafkaSubscriptionShardCoordinator(shardedSubscriptionOwnership, eventSubscriptionService,
+                eventSubscriptionStorage, eventSubscriptionRegistry, bootstrapServers, topic, groupId, replicas);
+    }
+}
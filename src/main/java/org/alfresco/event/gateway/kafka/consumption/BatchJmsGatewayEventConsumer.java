@@ -0,0 +1,269 @@
+/*
+ * Copyright 2021-2021 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.alfresco.event.gateway.kafka.consumption;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.jms.Connection;
+import jakarta.jms.ConnectionFactory;
+import jakarta.jms.Destination;
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+import jakarta.jms.MessageConsumer;
+import jakarta.jms.Session;
+import jakarta.jms.TextMessage;
+import jakarta.jms.Topic;
+
+import org.alfresco.event.gateway.kafka.consumption.exception.EventConsumptionException;
+import org.alfresco.repo.event.v1.model.DataAttributes;
+import org.alfresco.repo.event.v1.model.RepoEvent;
+import org.alfresco.repo.event.v1.model.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Implementation of {@link GatewayEventConsumer} that consumes the ACS events from the configured ActiveMQ destination
+ * in batches, to reduce the per-message overhead of the one-by-one consumption of
+ * {@link SpringIntegrationGatewayEventConsumer}.
+ * <p>
+ * A dedicated thread drains up to <code>maxBatchSize</code> messages, waiting at most <code>maxBatchWait</code>
+ * milliseconds since the first one is received. The messages of the batch are parsed in one pass and routed as a batch
+ * with {@link EventRouter#routeEvents}. The session uses <code>CLIENT_ACKNOWLEDGE</code> and the whole batch is
+ * acknowledged once it is routed. If the routing fails the session is recovered, so the batch is redelivered (some
+ * consumers may receive its events twice). The messages that cannot be parsed are logged and acknowledged with their
+ * batch.
+ * <p>
+ * The consumption can be paused and resumed, which stops receiving messages without closing the subscription. If a
+ * {@link RoutingBackpressure} is given, the consumer also waits for routing capacity before receiving each batch.
+ * <p>
+ * Any unexpected error while consuming a batch recovers the session (so the batch is redelivered) and the consumption
+ * goes on after a while, the same as when the connection to the broker fails.
+ * <p>
+ * The durable subscription must have the same name as the one of {@link SpringIntegrationGatewayEventConsumer}, so that
+ * toggling the batch mode keeps consuming the events retained in the broker for the gateway.
+ */
+public class BatchJmsGatewayEventConsumer implements GatewayEventConsumer {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BatchJmsGatewayEventConsumer.class);
+    private static final long RECEIVE_TIMEOUT = 1000;
+    private static final long RECOVERY_INTERVAL = 5000;
+
+    private final ConnectionFactory connectionFactory;
+    private final JsonToRepoEventTransformer jsonToRepoEventTransformer;
+    private final EventRouter eventRouter;
+    private final Destination inputDestination;
+    private final Boolean durableSubscription;
+    private final String subscriptionName;
+    private final int maxBatchSize;
+    private final long maxBatchWait;
+    private final RoutingBackpressure routingBackpressure;
+
+    private volatile boolean running;
+    private volatile boolean paused;
+    private Thread consumerThread;
+
+    /**
+     * Constructor.
+     *
+     * @param connectionFactory          given {@link ConnectionFactory}
+     * @param jsonToRepoEventTransformer given {@link JsonToRepoEventTransformer}
+     * @param eventRouter                given {@link EventRouter}
+     * @param inputDestination           given input destination
+     * @param durableSubscription        given durable subscription value
+     * @param subscriptionName           given name of the durable subscription
+     * @param maxBatchSize               given maximum number of messages of a batch
+     * @param maxBatchWait               given maximum milliseconds to wait for a batch to be completed
+     */
+    public BatchJmsGatewayEventConsumer(final ConnectionFactory connectionFactory,
+            final JsonToRepoEventTransformer jsonToRepoEventTransformer, final EventRouter eventRouter,
+            final Destination inputDestination, final Boolean durableSubscription, final String subscriptionName,
+            final int maxBatchSize, final long maxBatchWait) {
+        this(connectionFactory, jsonToRepoEventTransformer, eventRouter, inputDestination, durableSubscription,
+                subscriptionName, maxBatchSize, maxBatchWait, null);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param connectionFactory          given {@link ConnectionFactory}
+     * @param jsonToRepoEventTransformer given {@link JsonToRepoEventTransformer}
+     * @param eventRouter                given {@link EventRouter}
+     * @param inputDestination           given input destination
+     * @param durableSubscription        given durable subscription value
+     * @param subscriptionName           given name of the durable subscription
+     * @param maxBatchSize               given maximum number of messages of a batch
+     * @param maxBatchWait               given maximum milliseconds to wait for a batch to be completed
+     * @param routingBackpressure        given {@link RoutingBackpressure} (<code>null</code> to disable backpressure)
+     */
+    public BatchJmsGatewayEventConsumer(final ConnectionFactory connectionFactory,
+            final JsonToRepoEventTransformer jsonToRepoEventTransformer, final EventRouter eventRouter,
+            final Destination inputDestination, final Boolean durableSubscription, final String subscriptionName,
+            final int maxBatchSize, final long maxBatchWait, final RoutingBackpressure routingBackpressure) {
+        this.connectionFactory = connectionFactory;
+        this.jsonToRepoEventTransformer = jsonToRepoEventTransformer;
+        this.eventRouter = eventRouter;
+        this.inputDestination = inputDestination;
+        this.durableSubscription = durableSubscription;
+        this.subscriptionName = subscriptionName;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.maxBatchWait = Math.max(0, maxBatchWait);
+        this.routingBackpressure = routingBackpressure;
+    }
+
+    @Override
+    public synchronized void startConsumingEvents() {
+        if (running) {
+            LOGGER.debug("Batch gateway event consumer already started");
+            return;
+        }
+        LOGGER.debug("Starting the batch gateway event consumer (batches of up to {} events or {} milliseconds)",
+                maxBatchSize, maxBatchWait);
+        running = true;
+        consumerThread = new Thread(this::consume, "GatewayEventBatchConsumer");
+        consumerThread.start();
+    }
+
+    @Override
+    public void pauseConsumingEvents() {
+        LOGGER.debug("Pausing the batch gateway event consumer");
+        paused = true;
+    }
+
+    @Override
+    public void resumeConsumingEvents() {
+        LOGGER.debug("Resuming the batch gateway event consumer");
+        paused = false;
+    }
+
+    /**
+     * Stop the consumption of events, waiting for the batch in progress to be routed.
+     */
+    @PreDestroy
+    public synchronized void stop() {
+        running = false;
+        if (Objects.nonNull(consumerThread)) {
+            try {
+                consumerThread.join(RECEIVE_TIMEOUT + maxBatchWait + RECOVERY_INTERVAL);
+            } catch (InterruptedException excp) {
+                Thread.currentThread().interrupt();
+            }
+            consumerThread = null;
+        }
+    }
+
+    private void consume() {
+        while (running) {
+            try (Connection connection = connectionFactory.createConnection()) {
+                Session session = connection.createSession(false, Session.CLIENT_ACKNOWLEDGE);
+                MessageConsumer messageConsumer = Boolean.TRUE.equals(durableSubscription)
+                        ? session.createDurableSubscriber((Topic) inputDestination, subscriptionName)
+                        : session.createConsumer(inputDestination);
+                connection.start();
+                while (running) {
+                    if (paused) {
+                        TimeUnit.MILLISECONDS.sleep(RECEIVE_TIMEOUT);
+                        continue;
+                    }
+                    try {
+                        if (Objects.nonNull(routingBackpressure)) {
+                            routingBackpressure.awaitCapacity();
+                        }
+                        consumeBatch(session, messageConsumer);
+                    } catch (RuntimeException excp) {
+                        // The batch in progress is redelivered, the consumer thread must not die
+                        LOGGER.error("Unexpected error consuming events from {}, recovering in {} milliseconds",
+                                inputDestination, RECOVERY_INTERVAL, excp);
+                        session.recover();
+                        sleepBeforeRecovery();
+                    }
+                }
+            } catch (JMSException | RuntimeException excp) {
+                LOGGER.error("Error consuming events from {}, reconnecting in {} milliseconds", inputDestination,
+                        RECOVERY_INTERVAL, excp);
+                sleepBeforeRecovery();
+            } catch (InterruptedException excp) {
+                Thread.currentThread().interrupt();
+                running = false;
+            }
+        }
+        LOGGER.debug("Batch gateway event consumer stopped");
+    }
+
+    /**
+     * Receive, parse and route a batch of events, acknowledging it once routed.
+     *
+     * @param session         given {@link Session} in <code>CLIENT_ACKNOWLEDGE</code> mode
+     * @param messageConsumer given {@link MessageConsumer}
+     * @throws JMSException if the messages cannot be received or acknowledged
+     */
+    void consumeBatch(final Session session, final MessageConsumer messageConsumer) throws JMSException {
+        Message firstMessage = messageConsumer.receive(RECEIVE_TIMEOUT);
+        if (Objects.isNull(firstMessage)) {
+            return;
+        }
+        List<Message> messages = new ArrayList<>(maxBatchSize);
+        messages.add(firstMessage);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxBatchWait);
+        while (messages.size() < maxBatchSize) {
+            long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            Message message = remainingMillis > 0 ? messageConsumer.receive(remainingMillis)
+                    : messageConsumer.receiveNoWait();
+            if (Objects.isNull(message)) {
+                break;
+            }
+            messages.add(message);
+        }
+
+        List<RepoEvent<DataAttributes<Resource>>> events = parse(messages);
+        try {
+            eventRouter.routeEvents(events);
+        } catch (RuntimeException excp) {
+            LOGGER.error("Error routing a batch of {} events, it will be redelivered", events.size(), excp);
+            session.recover();
+            return;
+        }
+        // In CLIENT_ACKNOWLEDGE mode acknowledging a message acknowledges all the messages consumed by the session
+        messages.get(messages.size() - 1).acknowledge();
+    }
+
+    private List<RepoEvent<DataAttributes<Resource>>> parse(final List<Message> messages) throws JMSException {
+        List<RepoEvent<DataAttributes<Resource>>> events = new ArrayList<>(messages.size());
+        for (Message message : messages) {
+            if (message instanceof TextMessage textMessage) {
+                try {
+                    events.add(jsonToRepoEventTransformer.transform(textMessage.getText()));
+                } catch (EventConsumptionException excp) {
+                    LOGGER.error("Skipping the unreadable event message {}", message.getJMSMessageID());
+                }
+            }
+            else {
+                LOGGER.error("Skipping the event message {} of unexpected type {}", message.getJMSMessageID(),
+                        message.getClass().getSimpleName());
+            }
+        }
+        return events;
+    }
+
+    private void sleepBeforeRecovery() {
+        try {
+            TimeUnit.MILLISECONDS.sleep(RECOVERY_INTERVAL);
+        } catch (InterruptedException excp) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
@@ -12,17 +12,48 @@
  */
 package org.alfresco.event.gateway.kafka.consumption;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
+import org.alfresco.event.gateway.kafka.metrics.GatewayMetrics;
 import org.alfresco.repo.event.v1.model.DataAttributes;
+import org.alfresco.repo.event.v1.model.NodeResource;
 import org.alfresco.repo.event.v1.model.RepoEvent;
 import org.alfresco.repo.event.v1.model.Resource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 
 /**
  * Implementation of {@link EventRouter} that broadcasts any event to all the {@link EventConsumer}'s registered in the
  * {@link EventConsumerRegistry}.
+ * <p>
+ * The time each consumption task waits in the queue of the {@link Executor} before it starts is recorded. The consumers
+ * are notified when a consumption is routed to them and when it is done (see {@link EventConsumer#consumptionRouted()}),
+ * so they know about the consumptions still waiting in the queue.
+ * <p>
+ * A batch of events is routed as a single task per consumer that receives the whole batch through
+ * {@link EventConsumer#consumeEvents(List)}.
+ * <p>
+ * When the {@link Executor} is a {@link KeyedEventExecutor}, every event is consumed by all the consumers in a single
+ * task run in the lane of its node (the id of its {@link NodeResource}), so every consumer receives the events of the
+ * same node in the order they were routed, and the capacity of the lanes counts events, whatever the number of
+ * consumers. A batch is then split by lane, each part being consumed by all the consumers in a single task.
+ * <p>
+ * When the {@link Executor} is a {@link KeyedEventExecutor} or is backed by a {@link ThreadPoolExecutor}, the load of
+ * the router is the occupation of its queues, and the router has capacity for the next event while its consumption
+ * tasks fit in the queues (a free slot in every lane, or as many free slots as registered consumers). Otherwise the
+ * router reports no load and always has capacity.
  */
 public class BroadcastEventRouter implements EventRouter {
 
@@ -30,6 +61,9 @@ public class BroadcastEventRouter implements EventRouter {
 
     private final EventConsumerRegistry eventConsumerRegistry;
     private final Executor executor;
+    private final Timer queueWaitTimer;
+    private final BlockingQueue<Runnable> executorQueue;
+    private final KeyedEventExecutor keyedExecutor;
 
     /**
      * Constructor.
@@ -38,19 +72,175 @@ public class BroadcastEventRouter implements EventRouter {
      * @param executor              given {@link Executor}
      */
     public BroadcastEventRouter(final EventConsumerRegistry eventConsumerRegistry, final Executor executor) {
+        this(eventConsumerRegistry, executor, null);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param eventConsumerRegistry given {@link EventConsumerRegistry}
+     * @param executor              given {@link Executor}
+     * @param meterRegistry         given {@link MeterRegistry} (<code>null</code> to disable the metrics)
+     */
+    public BroadcastEventRouter(final EventConsumerRegistry eventConsumerRegistry, final Executor executor,
+            final MeterRegistry meterRegistry) {
         this.eventConsumerRegistry = eventConsumerRegistry;
         this.executor = executor;
+        this.queueWaitTimer = GatewayMetrics.registryOrNoop(meterRegistry).timer(GatewayMetrics.ROUTING_QUEUE_WAIT);
+        this.executorQueue = getExecutorQueue(executor);
+        this.keyedExecutor = executor instanceof KeyedEventExecutor keyedEventExecutor ? keyedEventExecutor : null;
+    }
+
+    private static BlockingQueue<Runnable> getExecutorQueue(final Executor executor) {
+        if (executor instanceof ThreadPoolTaskExecutor threadPoolTaskExecutor) {
+            return threadPoolTaskExecutor.getThreadPoolExecutor().getQueue();
+        }
+        if (executor instanceof ThreadPoolExecutor threadPoolExecutor) {
+            return threadPoolExecutor.getQueue();
+        }
+        return null;
     }
 
     @Override
     public void routeEvent(RepoEvent<DataAttributes<Resource>> event) {
         LOGGER.debug("Routing the event {}", event);
-        eventConsumerRegistry.getAll()
-                .forEach(eventConsumer -> this.executeConsumer(eventConsumer, event));
+        EventConsumer[] eventConsumers = eventConsumerRegistry.getSnapshot();
+        if (Objects.nonNull(keyedExecutor)) {
+            if (eventConsumers.length > 0) {
+                Object orderingKey = getOrderingKey(event);
+                execute(task -> keyedExecutor.execute(orderingKey, task), eventConsumers,
+                        () -> invokeConsumers(eventConsumers, event));
+            }
+            return;
+        }
+        // Plain array traversal over the registry snapshot, no stream pipeline allocated per routed event
+        for (EventConsumer eventConsumer : eventConsumers) {
+            execute(executor, eventConsumer, () -> invokeConsumer(eventConsumer, event));
+        }
+    }
+
+    @Override
+    public void routeEvents(List<RepoEvent<DataAttributes<Resource>>> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        LOGGER.debug("Routing a batch of {} events", events.size());
+        EventConsumer[] eventConsumers = eventConsumerRegistry.getSnapshot();
+        if (Objects.isNull(keyedExecutor)) {
+            for (EventConsumer eventConsumer : eventConsumers) {
+                execute(executor, eventConsumer, () -> invokeConsumer(eventConsumer, events));
+            }
+            return;
+        }
+        if (eventConsumers.length == 0) {
+            return;
+        }
+        splitByLane(events).forEach((lane, laneEvents) -> execute(task -> keyedExecutor.executeInLane(lane, task),
+                eventConsumers, () -> invokeConsumers(eventConsumers, laneEvents)));
+    }
+
+    private Map<Integer, List<RepoEvent<DataAttributes<Resource>>>> splitByLane(
+            final List<RepoEvent<DataAttributes<Resource>>> events) {
+        Map<Integer, List<RepoEvent<DataAttributes<Resource>>>> eventsByLane = new LinkedHashMap<>();
+        for (RepoEvent<DataAttributes<Resource>> event : events) {
+            eventsByLane.computeIfAbsent(keyedExecutor.getLane(getOrderingKey(event)), lane -> new ArrayList<>())
+                    .add(event);
+        }
+        return eventsByLane;
+    }
+
+    private static Object getOrderingKey(final RepoEvent<DataAttributes<Resource>> event) {
+        DataAttributes<Resource> data = Objects.nonNull(event) ? event.getData() : null;
+        if (Objects.nonNull(data) && data.getResource() instanceof NodeResource nodeResource) {
+            return nodeResource.getId();
+        }
+        return null;
+    }
+
+    @Override
+    public double getLoad() {
+        if (Objects.nonNull(keyedExecutor)) {
+            return keyedExecutor.getLoad();
+        }
+        if (Objects.isNull(executorQueue)) {
+            return 0;
+        }
+        int queueSize = executorQueue.size();
+        int capacity = queueSize + executorQueue.remainingCapacity();
+        // A synchronous queue hands the consumptions off directly, there is no occupation to measure
+        return capacity > 0 ? (double) queueSize / capacity : 0;
+    }
+
+    @Override
+    public boolean hasCapacity() {
+        if (Objects.nonNull(keyedExecutor)) {
+            return keyedExecutor.hasCapacity();
+        }
+        if (Objects.isNull(executorQueue)) {
+            return true;
+        }
+        int remainingCapacity = executorQueue.remainingCapacity();
+        int capacity = executorQueue.size() + remainingCapacity;
+        // A fan-out larger than the whole queue cannot wait for more room than an empty queue
+        return remainingCapacity >= Math.min(eventConsumerRegistry.getSnapshot().length, capacity);
     }
 
-    private void executeConsumer(final EventConsumer eventConsumer, RepoEvent<DataAttributes<Resource>> event) {
-        executor.execute(() -> this.invokeConsumer(eventConsumer, event));
+    private void execute(final Executor laneExecutor, final EventConsumer eventConsumer, final Runnable consumption) {
+        eventConsumer.consumptionRouted();
+        final long routedTime = System.nanoTime();
+        try {
+            laneExecutor.execute(() -> {
+                queueWaitTimer.record(System.nanoTime() - routedTime, TimeUnit.NANOSECONDS);
+                try {
+                    consumption.run();
+                } finally {
+                    eventConsumer.consumptionDone();
+                }
+            });
+        } catch (RuntimeException excp) {
+            eventConsumer.consumptionDone();
+            throw excp;
+        }
+    }
+
+    private void execute(final Executor laneExecutor, final EventConsumer[] eventConsumers,
+            final Runnable consumption) {
+        for (EventConsumer eventConsumer : eventConsumers) {
+            eventConsumer.consumptionRouted();
+        }
+        final long routedTime = System.nanoTime();
+        try {
+            laneExecutor.execute(() -> {
+                queueWaitTimer.record(System.nanoTime() - routedTime, TimeUnit.NANOSECONDS);
+                try {
+                    consumption.run();
+                } finally {
+                    consumptionsDone(eventConsumers);
+                }
+            });
+        } catch (RuntimeException excp) {
+            consumptionsDone(eventConsumers);
+            throw excp;
+        }
+    }
+
+    private static void consumptionsDone(final EventConsumer[] eventConsumers) {
+        for (EventConsumer eventConsumer : eventConsumers) {
+            eventConsumer.consumptionDone();
+        }
+    }
+
+    private void invokeConsumers(final EventConsumer[] eventConsumers, RepoEvent<DataAttributes<Resource>> event) {
+        for (EventConsumer eventConsumer : eventConsumers) {
+            invokeConsumer(eventConsumer, event);
+        }
+    }
+
+    private void invokeConsumers(final EventConsumer[] eventConsumers,
+            final List<RepoEvent<DataAttributes<Resource>>> events) {
+        for (EventConsumer eventConsumer : eventConsumers) {
+            invokeConsumer(eventConsumer, events);
+        }
     }
 
     private void invokeConsumer(final EventConsumer eventConsumer, RepoEvent<DataAttributes<Resource>> event) {
@@ -60,4 +250,14 @@ public class BroadcastEventRouter implements EventRouter {
             LOGGER.error(String.format("Error invoking the consumer %s with the event %s", eventConsumer, event), e);
         }
     }
+
+    private void invokeConsumer(final EventConsumer eventConsumer,
+            final List<RepoEvent<DataAttributes<Resource>>> events) {
+        try {
+            eventConsumer.consumeEvents(events);
+        } catch (Exception e) {
+            LOGGER.error(String.format("Error invoking the consumer %s with a batch of %d events", eventConsumer,
+                    events.size()), e);
+        }
+    }
 }
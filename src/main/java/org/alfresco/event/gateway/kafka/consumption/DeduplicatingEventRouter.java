@@ -0,0 +1,79 @@
+/*
+ * Copyright 2021-2021 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.alfresco.event.gateway.kafka.consumption;
+
+import java.util.List;
+
+import org.alfresco.repo.event.v1.model.DataAttributes;
+import org.alfresco.repo.event.v1.model.RepoEvent;
+import org.alfresco.repo.event.v1.model.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link EventRouter} decorator that discards the events already routed (according to an {@link EventDeduplicator})
+ * before routing the rest with the decorated router. As the gateway event consumers hand the events to the router right
+ * after transforming them, the duplicates never reach the event store nor the subscriptions.
+ */
+public class DeduplicatingEventRouter implements EventRouter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DeduplicatingEventRouter.class);
+
+    private final EventRouter eventRouter;
+    private final EventDeduplicator eventDeduplicator;
+
+    /**
+     * Constructor.
+     *
+     * @param eventRouter       given decorated {@link EventRouter}
+     * @param eventDeduplicator given {@link EventDeduplicator}
+     */
+    public DeduplicatingEventRouter(final EventRouter eventRouter, final EventDeduplicator eventDeduplicator) {
+        this.eventRouter = eventRouter;
+        this.eventDeduplicator = eventDeduplicator;
+    }
+
+    @Override
+    public void routeEvent(RepoEvent<DataAttributes<Resource>> event) {
+        if (eventDeduplicator.isDuplicate(event)) {
+            LOGGER.debug("Discarding the duplicate event {}", event.getId());
+            return;
+        }
+        eventRouter.routeEvent(event);
+        eventDeduplicator.markRouted(List.of(event));
+    }
+
+    @Override
+    public void routeEvents(List<RepoEvent<DataAttributes<Resource>>> events) {
+        List<RepoEvent<DataAttributes<Resource>>> uniqueEvents = eventDeduplicator.removeDuplicates(events);
+        if (uniqueEvents.size() < events.size()) {
+            LOGGER.debug("Discarding {} duplicate events of a batch of {}", events.size() - uniqueEvents.size(),
+                    events.size());
+        }
+        if (uniqueEvents.isEmpty()) {
+            return;
+        }
+        eventRouter.routeEvents(uniqueEvents);
+        eventDeduplicator.markRouted(uniqueEvents);
+    }
+
+    @Override
+    public double getLoad() {
+        return eventRouter.getLoad();
+    }
+
+    @Override
+    public boolean hasCapacity() {
+        return eventRouter.hasCapacity();
+    }
+}
@@ -12,9 +12,11 @@
  */
 package org.alfresco.event.gateway.kafka.consumption;
 
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.Objects;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Stream;
 
 import org.slf4j.Logger;
@@ -23,40 +25,102 @@ import org.slf4j.LoggerFactory;
 /**
  * Default implementation of {@link EventConsumerRegistry} that uses a {@link Set} to store the {@link EventConsumer}
  * objects.
+ * <p>
+ * Registrations are rare while reads happen once per routed event, so every modification of the registry publishes a
+ * new immutable array snapshot through a volatile reference (copy-on-write). Readers never lock and traverse a plain
+ * array, while writers are serialized on the registry monitor.
  */
 public class DefaultEventConsumerRegistry implements EventConsumerRegistry {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(DefaultEventConsumerRegistry.class);
+    private static final EventConsumer[] EMPTY_SNAPSHOT = new EventConsumer[0];
 
-    private Set<EventConsumer> registry = ConcurrentHashMap.newKeySet();
+    private final Set<EventConsumer> registry = new LinkedHashSet<>();
+    private volatile EventConsumer[] snapshot = EMPTY_SNAPSHOT;
 
     @Override
     public void register(EventConsumer eventConsumer) {
         Objects.requireNonNull(eventConsumer);
         LOGGER.debug("Registering the event consumer {}", eventConsumer);
-        if (registry.add(eventConsumer)) {
-            LOGGER.debug("Event consumer successfully registered");
+        synchronized (registry) {
+            if (registry.add(eventConsumer)) {
+                publishSnapshot();
+                LOGGER.debug("Event consumer successfully registered");
+            }
+            else {
+                LOGGER.debug("Event consumer already registered");
+            }
         }
-        else {
-            LOGGER.debug("Event consumer already registered");
+    }
+
+    @Override
+    public void registerAll(Collection<? extends EventConsumer> eventConsumers) {
+        Objects.requireNonNull(eventConsumers);
+        LOGGER.debug("Registering {} event consumers", eventConsumers.size());
+        eventConsumers.forEach(Objects::requireNonNull);
+        synchronized (registry) {
+            // Single publication instead of copying the snapshot once per added consumer
+            if (registry.addAll(eventConsumers)) {
+                publishSnapshot();
+            }
         }
+        LOGGER.debug("Event consumers successfully registered");
     }
 
     @Override
     public void deregister(EventConsumer eventConsumer) {
         Objects.requireNonNull(eventConsumer);
-        LOGGER.debug("Registering the event consumer {}", eventConsumer);
-        if (registry.remove(eventConsumer)) {
-            LOGGER.debug("Event consumer successfully de-registered");
+        LOGGER.debug("De-registering the event consumer {}", eventConsumer);
+        synchronized (registry) {
+            if (registry.remove(eventConsumer)) {
+                publishSnapshot();
+                LOGGER.debug("Event consumer successfully de-registered");
+            }
+            else {
+                LOGGER.debug("Event consumer not existing in the registry");
+            }
+        }
+    }
+
+    @Override
+    public void deregisterAll(Collection<? extends EventConsumer> eventConsumers) {
+        Objects.requireNonNull(eventConsumers);
+        LOGGER.debug("De-registering {} event consumers", eventConsumers.size());
+        synchronized (registry) {
+            // Single publication instead of copying the snapshot once per removed consumer
+            if (registry.removeAll(eventConsumers)) {
+                publishSnapshot();
+            }
         }
-        else {
-            LOGGER.debug("Event consumer not existing in the registry");
+        LOGGER.debug("Event consumers successfully de-registered");
+    }
+
+    @Override
+    public void replace(EventConsumer previousEventConsumer, EventConsumer newEventConsumer) {
+        Objects.requireNonNull(previousEventConsumer);
+        Objects.requireNonNull(newEventConsumer);
+        LOGGER.debug("Replacing the event consumer {} by {}", previousEventConsumer, newEventConsumer);
+        synchronized (registry) {
+            registry.remove(previousEventConsumer);
+            registry.add(newEventConsumer);
+            // Single publication, so no routed event sees both consumers or none of them
+            publishSnapshot();
         }
+        LOGGER.debug("Event consumer successfully replaced");
     }
 
     @Override
     public Stream<EventConsumer> getAll() {
         LOGGER.debug("Providing all the registered event consumers");
-        return registry.stream();
+        return Arrays.stream(snapshot);
+    }
+
+    @Override
+    public EventConsumer[] getSnapshot() {
+        return snapshot;
+    }
+
+    private void publishSnapshot() {
+        snapshot = registry.isEmpty() ? EMPTY_SNAPSHOT : registry.toArray(EMPTY_SNAPSHOT);
     }
 }
@@ -12,6 +12,8 @@
  */
 package org.alfresco.event.gateway.kafka.consumption;
 
+import java.util.List;
+
 import org.alfresco.repo.event.v1.model.DataAttributes;
 import org.alfresco.repo.event.v1.model.RepoEvent;
 import org.alfresco.repo.event.v1.model.Resource;
@@ -28,4 +30,29 @@ public interface EventConsumer {
      * @param event the {@link RepoEvent} to be consumed
      */
     void consumeEvent(RepoEvent<DataAttributes<Resource>> event);
+
+    /**
+     * Consume a batch of {@link RepoEvent} objects, in order. By default the events are consumed one by one, the
+     * implementations able to amortise the per-event costs over the batch should override it.
+     *
+     * @param events the {@link List} of {@link RepoEvent} to be consumed
+     */
+    default void consumeEvents(List<RepoEvent<DataAttributes<Resource>>> events) {
+        events.forEach(this::consumeEvent);
+    }
+
+    /**
+     * Notify the consumer that a consumption (of an event or a batch) has been routed to it and is waiting to run. Every
+     * call is matched by a later call to {@link #consumptionDone()}, once the consumption has run or if it could not be
+     * queued, so the consumer can keep its resources while it has pending consumptions. By default nothing is done.
+     */
+    default void consumptionRouted() {
+    }
+
+    /**
+     * Notify the consumer that a consumption previously notified through {@link #consumptionRouted()} has finished (or
+     * will never run). By default nothing is done.
+     */
+    default void consumptionDone() {
+    }
 }
@@ -12,6 +12,7 @@
  */
 package org.alfresco.event.gateway.kafka.consumption;
 
+import java.util.Collection;
 import java.util.stream.Stream;
 
 /**
@@ -28,6 +29,16 @@ public interface EventConsumerRegistry {
      */
     void register(EventConsumer eventConsumer);
 
+    /**
+     * Add a group of new {@link EventConsumer} objects to the registry, skipping the ones already registered. From this
+     * moment, they start receiving new events. This default implementation just adds them one by one.
+     *
+     * @param eventConsumers the {@link EventConsumer} objects to register
+     */
+    default void registerAll(Collection<? extends EventConsumer> eventConsumers) {
+        eventConsumers.forEach(this::register);
+    }
+
     /**
      * Remove an existing {@link EventConsumer} from the registry, so that it doesn't receive any new events.
      *
@@ -35,10 +46,45 @@ public interface EventConsumerRegistry {
      */
     void deregister(EventConsumer eventConsumer);
 
+    /**
+     * Remove a group of existing {@link EventConsumer} objects from the registry, so that they don't receive any new
+     * events. This default implementation just removes them one by one.
+     *
+     * @param eventConsumers the {@link EventConsumer} objects to remove from the registry
+     */
+    default void deregisterAll(Collection<? extends EventConsumer> eventConsumers) {
+        eventConsumers.forEach(this::deregister);
+    }
+
+    /**
+     * Replace a registered {@link EventConsumer} by a new one. Implementations should make the swap atomic, so that any
+     * event is delivered either to the previous consumer or to the new one, but never to both or to none of them. This
+     * default implementation is not atomic and just registers the new consumer before removing the previous one.
+     *
+     * @param previousEventConsumer the {@link EventConsumer} to remove from the registry
+     * @param newEventConsumer      the {@link EventConsumer} to add to the registry
+     */
+    default void replace(EventConsumer previousEventConsumer, EventConsumer newEventConsumer) {
+        register(newEventConsumer);
+        deregister(previousEventConsumer);
+    }
+
     /**
      * Retrieve all the registered {@link EventConsumer} objects in the registry.
      *
      * @return a {@link Stream} with all the {@link EventConsumer} objects of the registry
      */
     Stream<EventConsumer> getAll();
+
+    /**
+     * Retrieve a point-in-time snapshot of all the registered {@link EventConsumer} objects in the registry. This
+     * method is intended for hot paths (i.e. event routing) where the consumers are traversed once per event.
+     * <p>
+     * The returned array is shared and must not be modified by the caller.
+     *
+     * @return an array with all the {@link EventConsumer} objects of the registry
+     */
+    default EventConsumer[] getSnapshot() {
+        return getAll().toArray(EventConsumer[]::new);
+    }
 }
@@ -14,6 +14,8 @@ package org.alfresco.event.gateway.kafka.consumption;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
 import org.springframework.context.event.ContextRefreshedEvent;
 import org.springframework.context.event.EventListener;
 import org.springframework.core.annotation.Order;
@@ -21,6 +23,10 @@ import org.springframework.core.annotation.Order;
 /**
  * This components triggers the startup of the {@link GatewayEventConsumer} once the spring application context is fully
  * loaded.
+ * <p>
+ * It also pauses the consumption while the application refuses traffic (i.e. during a graceful shutdown, or when the
+ * readiness state is changed by an operator) and resumes it once the application accepts traffic again, so the events
+ * not read yet stay in the ACS event source.
  */
 @Order(1000)
 public class EventConsumptionStarter {
@@ -45,4 +51,16 @@ public class EventConsumptionStarter {
         gatewayEventConsumer.startConsumingEvents();
         LOGGER.info("Gateway event consumption started in {} milliseconds", (System.currentTimeMillis() - startTime));
     }
+
+    @EventListener
+    public void onReadinessStateChange(AvailabilityChangeEvent<ReadinessState> event) {
+        if (ReadinessState.REFUSING_TRAFFIC.equals(event.getState())) {
+            LOGGER.info("Pausing the gateway event consumption as the application refuses traffic");
+            gatewayEventConsumer.pauseConsumingEvents();
+        }
+        else {
+            LOGGER.info("Resuming the gateway event consumption as the application accepts traffic");
+            gatewayEventConsumer.resumeConsumingEvents();
+        }
+    }
 }
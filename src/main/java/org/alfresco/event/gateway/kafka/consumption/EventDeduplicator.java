@@ -0,0 +1,189 @@
+/*
+ * Copyright 2021-2021 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.alfresco.event.gateway.kafka.consumption;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.LongSupplier;
+
+import org.alfresco.event.gateway.kafka.metrics.GatewayMetrics;
+import org.alfresco.repo.event.v1.model.DataAttributes;
+import org.alfresco.repo.event.v1.model.RepoEvent;
+import org.alfresco.repo.event.v1.model.Resource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Component that recognises the ACS events already routed by their id, i.e. the ones redelivered by the broker after a
+ * failover.
+ * <p>
+ * The ids of the routed events are remembered in a time-windowed {@link RotatingBloomFilter} (rotated every
+ * <code>window</code> milliseconds, so an id is remembered between one and two windows) and in an exact LRU map bounded
+ * to <code>maxEntries</code> ids. An event is a duplicate if the Bloom filter reports its id as seen and the LRU map
+ * confirms it, so the Bloom filter false positives never discard an event. The ids are only remembered once their
+ * events are routed, so an event whose routing failed is not discarded when it is redelivered.
+ * <p>
+ * The checks are counted per result (duplicate or unique), along with the hit rate and the Bloom filter hits that the
+ * LRU map does not confirm. Those are either Bloom filter false positives or ids evicted from the LRU map before the
+ * end of the window, which are counted on their own when evicted (a redelivery of their events is not detected, so a
+ * steady eviction count calls for a larger <code>maxEntries</code>).
+ */
+public class EventDeduplicator {
+
+    private final long window;
+    private final LongSupplier clock;
+    private final RotatingBloomFilter bloomFilter;
+    // Routing time of each recent event id
+    private final Map<String, Long> recentEventIds;
+    private final Counter duplicateCounter;
+    private final Counter uniqueCounter;
+    private final Counter unconfirmedCounter;
+    private final Counter evictedCounter;
+    private long nextRotationTime;
+
+    /**
+     * Constructor.
+     *
+     * @param maxEntries               given maximum number of event ids remembered
+     * @param window                   given milliseconds between two rotations of the Bloom filter
+     * @param falsePositiveProbability given false positive probability of the Bloom filter
+     * @param meterRegistry            given {@link MeterRegistry} (<code>null</code> to disable the metrics)
+     */
+    public EventDeduplicator(final int maxEntries, final long window, final double falsePositiveProbability,
+            final MeterRegistry meterRegistry) {
+        this(maxEntries, window, falsePositiveProbability, meterRegistry, System::currentTimeMillis);
+    }
+
+    EventDeduplicator(final int maxEntries, final long window, final double falsePositiveProbability,
+            final MeterRegistry meterRegistry, final LongSupplier clock) {
+        int capacity = Math.max(1, maxEntries);
+        this.window = Math.max(1, window);
+        this.clock = clock;
+        this.bloomFilter = new RotatingBloomFilter(capacity, falsePositiveProbability);
+        this.recentEventIds = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                if (size() <= capacity) {
+                    return false;
+                }
+                if (clock.getAsLong() - eldest.getValue() < EventDeduplicator.this.window) {
+                    evictedCounter.increment();
+                }
+                return true;
+            }
+        };
+        this.nextRotationTime = clock.getAsLong() + this.window;
+        MeterRegistry registry = GatewayMetrics.registryOrNoop(meterRegistry);
+        this.duplicateCounter = registry.counter(GatewayMetrics.DEDUP, GatewayMetrics.TAG_RESULT,
+                GatewayMetrics.RESULT_DUPLICATE);
+        this.uniqueCounter = registry.counter(GatewayMetrics.DEDUP, GatewayMetrics.TAG_RESULT,
+                GatewayMetrics.RESULT_UNIQUE);
+        this.unconfirmedCounter = registry.counter(GatewayMetrics.DEDUP_UNCONFIRMED);
+        this.evictedCounter = registry.counter(GatewayMetrics.DEDUP_EVICTED);
+        Gauge.builder(GatewayMetrics.DEDUP_HIT_RATE, this, EventDeduplicator::getHitRate).register(registry);
+    }
+
+    /**
+     * Check if an event has already been routed. The events without id are never considered duplicates.
+     *
+     * @param event given event
+     * @return <code>true</code> if the event is a duplicate and should be discarded
+     */
+    public synchronized boolean isDuplicate(final RepoEvent<DataAttributes<Resource>> event) {
+        rotateIfNeeded();
+        boolean duplicate = isSeen(event.getId());
+        (duplicate ? duplicateCounter : uniqueCounter).increment();
+        return duplicate;
+    }
+
+    /**
+     * Remove from a batch the events already routed, as well as the repeated ones within the batch.
+     *
+     * @param events given {@link List} of events
+     * @return the {@link List} of events to route, in the same order
+     */
+    public synchronized List<RepoEvent<DataAttributes<Resource>>> removeDuplicates(
+            final List<RepoEvent<DataAttributes<Resource>>> events) {
+        rotateIfNeeded();
+        List<RepoEvent<DataAttributes<Resource>>> uniqueEvents = new ArrayList<>(events.size());
+        Set<String> batchEventIds = new HashSet<>();
+        for (RepoEvent<DataAttributes<Resource>> event : events) {
+            String eventId = event.getId();
+            boolean duplicate = isSeen(eventId) || (Objects.nonNull(eventId) && !batchEventIds.add(eventId));
+            (duplicate ? duplicateCounter : uniqueCounter).increment();
+            if (!duplicate) {
+                uniqueEvents.add(event);
+            }
+        }
+        return uniqueEvents;
+    }
+
+    /**
+     * Remember the ids of the given events, once they have been routed.
+     *
+     * @param events given {@link List} of routed events
+     */
+    public synchronized void markRouted(final List<RepoEvent<DataAttributes<Resource>>> events) {
+        rotateIfNeeded();
+        long routedTime = clock.getAsLong();
+        for (RepoEvent<DataAttributes<Resource>> event : events) {
+            String eventId = event.getId();
+            if (Objects.nonNull(eventId)) {
+                bloomFilter.put(eventId);
+                recentEventIds.put(eventId, routedTime);
+            }
+        }
+    }
+
+    /**
+     * Get the ratio of the checked events that were duplicates.
+     *
+     * @return the hit rate, between <code>0</code> and <code>1</code>
+     */
+    public double getHitRate() {
+        double duplicates = duplicateCounter.count();
+        double total = duplicates + uniqueCounter.count();
+        return total > 0 ? duplicates / total : 0;
+    }
+
+    private boolean isSeen(final String eventId) {
+        if (Objects.isNull(eventId) || !bloomFilter.mightContain(eventId)) {
+            return false;
+        }
+        if (recentEventIds.containsKey(eventId)) {
+            return true;
+        }
+        // Either a false positive or an id evicted from the LRU map
+        unconfirmedCounter.increment();
+        return false;
+    }
+
+    private void rotateIfNeeded() {
+        long now = clock.getAsLong();
+        if (now >= nextRotationTime) {
+            bloomFilter.rotate();
+            // After a long idle period both generations are expired
+            if (now >= nextRotationTime + window) {
+                bloomFilter.rotate();
+            }
+            nextRotationTime = now + window;
+        }
+    }
+}
@@ -12,6 +12,8 @@
  */
 package org.alfresco.event.gateway.kafka.consumption;
 
+import java.util.List;
+
 import org.alfresco.repo.event.v1.model.DataAttributes;
 import org.alfresco.repo.event.v1.model.RepoEvent;
 import org.alfresco.repo.event.v1.model.Resource;
@@ -29,4 +31,36 @@ public interface EventRouter {
      * @param event the {@link RepoEvent} that is routed to the consumer/s
      */
     void routeEvent(RepoEvent<DataAttributes<Resource>> event);
+
+    /**
+     * Route a batch of events to the corresponding {@link EventConsumer}/s, preserving their order. By default the
+     * events are routed one by one.
+     *
+     * @param events the {@link List} of {@link RepoEvent} that are routed to the consumer/s
+     */
+    default void routeEvents(List<RepoEvent<DataAttributes<Resource>>> events) {
+        events.forEach(this::routeEvent);
+    }
+
+    /**
+     * Get the fraction of the routing capacity currently in use, from <code>0</code> (idle) to <code>1</code> (no more
+     * events can be accepted). It is the signal the gateway event consumers use to apply backpressure. By default the
+     * router has no bounded capacity and this method returns <code>0</code>.
+     *
+     * @return the load of the router, between <code>0</code> and <code>1</code>
+     */
+    default double getLoad() {
+        return 0;
+    }
+
+    /**
+     * Check whether one more event (or batch) can be routed right now without rejecting any of the consumptions it fans
+     * out to. It is checked by the gateway event consumers along with the load, as a single event may need more room
+     * than the load leaves. By default the router has no bounded capacity and this method returns <code>true</code>.
+     *
+     * @return <code>true</code> if the next event fits in the router, <code>false</code> otherwise
+     */
+    default boolean hasCapacity() {
+        return true;
+    }
 }
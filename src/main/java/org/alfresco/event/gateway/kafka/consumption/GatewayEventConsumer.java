@@ -31,4 +31,17 @@ public interface GatewayEventConsumer {
      * of services are up and ready.
      */
     void startConsumingEvents();
+
+    /**
+     * Temporarily stop reading events from the ACS event source, i.e. when the gateway cannot keep up with them. The
+     * events not read stay in the source. By default the consumption cannot be paused and this method does nothing.
+     */
+    default void pauseConsumingEvents() {
+    }
+
+    /**
+     * Resume reading events from the ACS event source after {@link #pauseConsumingEvents()} was invoked.
+     */
+    default void resumeConsumingEvents() {
+    }
 }
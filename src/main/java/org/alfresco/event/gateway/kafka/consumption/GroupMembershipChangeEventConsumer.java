@@ -0,0 +1,78 @@
+/*
+ * Copyright 2021-2021 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.alfresco.event.gateway.kafka.consumption;
+
+import java.util.Objects;
+import java.util.Set;
+
+import org.alfresco.event.gateway.kafka.consumption.handling.GroupMembershipChangeHandler;
+import org.alfresco.event.gateway.kafka.subscription.filter.EventFilter;
+import org.alfresco.event.gateway.kafka.subscription.filter.EventTypeFilter;
+import org.alfresco.event.gateway.kafka.subscription.filter.NodeTypeFilter;
+import org.alfresco.repo.event.v1.model.ChildAssociationResource;
+import org.alfresco.repo.event.v1.model.DataAttributes;
+import org.alfresco.repo.event.v1.model.EventType;
+import org.alfresco.repo.event.v1.model.RepoEvent;
+import org.alfresco.repo.event.v1.model.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link EventConsumer} implementation that consumes events that imply a change in the group memberships in ACS (a
+ * member added to or removed from a group, or a group updated or deleted) and invokes the corresponding
+ * {@link GroupMembershipChangeHandler}'s.
+ */
+public class GroupMembershipChangeEventConsumer extends AbstractEventConsumer {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(GroupMembershipChangeEventConsumer.class);
+    private static final String AUTHORITY_CONTAINER_TYPE = "cm:authorityContainer";
+    private static final String MEMBER_ASSOC_TYPE = "cm:member";
+    private static final EventFilter GROUP_CHANGE_FILTER = EventTypeFilter.of(EventType.NODE_UPDATED.getType())
+            .or(EventTypeFilter.of(EventType.NODE_DELETED.getType()))
+            .and(NodeTypeFilter.of(AUTHORITY_CONTAINER_TYPE));
+    private static final EventFilter MEMBER_ASSOC_FILTER = EventTypeFilter.of(EventType.CHILD_ASSOC_CREATED.getType())
+            .or(EventTypeFilter.of(EventType.CHILD_ASSOC_DELETED.getType()));
+
+    private final Set<GroupMembershipChangeHandler> groupMembershipChangeHandlers;
+
+    /**
+     * Constructor.
+     *
+     * @param eventConsumerRegistry         given {@link EventConsumerRegistry}
+     * @param groupMembershipChangeHandlers given {@link Set} of {@link GroupMembershipChangeHandler}'s
+     */
+    public GroupMembershipChangeEventConsumer(final EventConsumerRegistry eventConsumerRegistry,
+            final Set<GroupMembershipChangeHandler> groupMembershipChangeHandlers) {
+        super(eventConsumerRegistry, true);
+        this.groupMembershipChangeHandlers = groupMembershipChangeHandlers;
+    }
+
+    @Override
+    public void consumeEvent(RepoEvent<DataAttributes<Resource>> repoEvent) {
+        LOGGER.debug("Checking if this consumer is applicable");
+        if (isApplicable(repoEvent)) {
+            LOGGER.debug("Invoking handlers bound to group membership changes for event {}", repoEvent);
+            groupMembershipChangeHandlers.forEach(GroupMembershipChangeHandler::groupMembershipsChanged);
+        }
+    }
+
+    private boolean isApplicable(RepoEvent<DataAttributes<Resource>> repoEvent) {
+        return GROUP_CHANGE_FILTER.test(repoEvent) || (MEMBER_ASSOC_FILTER.test(repoEvent) && isMemberAssoc(repoEvent));
+    }
+
+    private boolean isMemberAssoc(RepoEvent<DataAttributes<Resource>> repoEvent) {
+        return Objects.nonNull(repoEvent.getData())
+                && repoEvent.getData().getResource() instanceof ChildAssociationResource childAssociationResource
+                && MEMBER_ASSOC_TYPE.equals(childAssociationResource.getAssocType());
+    }
+}
@@ -12,7 +12,10 @@
  */
 package org.alfresco.event.gateway.kafka.consumption;
 
+import java.util.concurrent.TimeUnit;
+
 import org.alfresco.event.gateway.kafka.consumption.exception.EventConsumptionException;
+import org.alfresco.event.gateway.kafka.metrics.GatewayMetrics;
 import org.alfresco.repo.event.v1.model.DataAttributes;
 import org.alfresco.repo.event.v1.model.RepoEvent;
 import org.alfresco.repo.event.v1.model.Resource;
@@ -24,15 +27,24 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
 /**
  * {@link GenericTransformer} implementation that transforms a repository event in JSON format (following the Repo Event
  * JSON schema) into a {@link RepoEvent} object.
+ * <p>
+ * As it is the first step of the consumption flow, it also counts the received events and times their parsing.
  */
 public class JsonToRepoEventTransformer implements GenericTransformer<String, RepoEvent<DataAttributes<Resource>>> {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(JsonToRepoEventTransformer.class);
 
     private final ObjectMapper objectMapper;
+    private final Counter receivedCounter;
+    private final Timer parseSuccessTimer;
+    private final Timer parseFailureTimer;
 
     /**
      * Constructor.
@@ -40,16 +52,37 @@ public class JsonToRepoEventTransformer implements GenericTransformer<String, Re
      * @param objectMapper given {@link ObjectMapper}
      */
     public JsonToRepoEventTransformer(final ObjectMapper objectMapper) {
+        this(objectMapper, null);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param objectMapper  given {@link ObjectMapper}
+     * @param meterRegistry given {@link MeterRegistry} (<code>null</code> to disable the metrics)
+     */
+    public JsonToRepoEventTransformer(final ObjectMapper objectMapper, final MeterRegistry meterRegistry) {
         this.objectMapper = objectMapper;
+        MeterRegistry registry = GatewayMetrics.registryOrNoop(meterRegistry);
+        this.receivedCounter = registry.counter(GatewayMetrics.INGEST_RECEIVED);
+        this.parseSuccessTimer = registry.timer(GatewayMetrics.INGEST_PARSE, GatewayMetrics.TAG_OUTCOME,
+                GatewayMetrics.OUTCOME_SUCCESS);
+        this.parseFailureTimer = registry.timer(GatewayMetrics.INGEST_PARSE, GatewayMetrics.TAG_OUTCOME,
+                GatewayMetrics.OUTCOME_FAILURE);
     }
 
     @Override
     public RepoEvent<DataAttributes<Resource>> transform(final String eventJSON) {
         LOGGER.debug("Transforming JSON event {}", eventJSON);
+        receivedCounter.increment();
+        long startTime = System.nanoTime();
         try {
-            return objectMapper.readValue(eventJSON, new TypeReference<>() {
+            RepoEvent<DataAttributes<Resource>> repoEvent = objectMapper.readValue(eventJSON, new TypeReference<>() {
             });
+            parseSuccessTimer.record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+            return repoEvent;
         } catch (final JsonProcessingException excp) {
+            parseFailureTimer.record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
             LOGGER.error("An error occurred transforming the JSON event {}", eventJSON);
             throw new EventConsumptionException("An error occurred transforming the JSON event", excp);
         }
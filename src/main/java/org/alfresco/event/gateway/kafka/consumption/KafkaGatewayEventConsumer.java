@@ -0,0 +1,201 @@
+/*
+ * Copyright 2021-2021 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.alfresco.event.gateway.kafka.consumption;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import jakarta.annotation.PreDestroy;
+
+import org.alfresco.event.gateway.kafka.consumption.exception.EventConsumptionException;
+import org.alfresco.repo.event.v1.model.DataAttributes;
+import org.alfresco.repo.event.v1.model.RepoEvent;
+import org.alfresco.repo.event.v1.model.Resource;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.listener.BatchAcknowledgingMessageListener;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.ContainerProperties.AckMode;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.util.backoff.FixedBackOff;
+
+/**
+ * Implementation of {@link GatewayEventConsumer} that reads the ACS events from a Kafka topic, for the deployments
+ * where the ACS events are already bridged into Kafka.
+ * <p>
+ * The topic partitions are consumed in parallel by up to <code>concurrency</code> consumers of the same group, each of
+ * them receiving the records in batches of up to <code>maxPollRecords</code>. The events of a batch are handed to the
+ * {@link EventRouter} as a whole ({@link EventRouter#routeEvents(List)}) and its offsets are committed once they have
+ * been routed, so the events not routed yet are read again after a restart or a rebalance. The events that cannot be
+ * parsed are logged and skipped. If the batch cannot be routed (i.e. the routing executor is full), none of its offsets
+ * are committed and the whole batch is redelivered after <code>retryInterval</code> milliseconds.
+ * <p>
+ * When a {@link RoutingBackpressure} is given, the listener thread waits for the router to have capacity before routing
+ * each batch, so the bursts of events stay in the topic instead of being rejected by the routing executor. As the
+ * consumer does not poll the topic meanwhile, the pauses must be shorter than the <code>max.poll.interval.ms</code> of
+ * the consumer, otherwise its partitions are reassigned to the other consumers of the group.
+ * <p>
+ * Note the offsets are committed when the consumptions of the events are queued in the routing executor, not when they
+ * complete. The consumptions still queued when the gateway stops are lost, and the consumers that received an event
+ * whose routing was rejected part-way through its fan-out receive it again when it is redelivered. That is, the
+ * delivery to the event consumers is neither at-least-once nor at-most-once, unless the events are stored in
+ * exactly-once mode (the storage is then part of the routing, see
+ * {@link org.alfresco.event.gateway.kafka.storage.StoringEventRouter}).
+ * <p>
+ * The consumption can be paused and resumed, which stops polling the topic without leaving the consumer group.
+ */
+public class KafkaGatewayEventConsumer implements GatewayEventConsumer {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(KafkaGatewayEventConsumer.class);
+
+    private final JsonToRepoEventTransformer jsonToRepoEventTransformer;
+    private final EventRouter eventRouter;
+    private final RoutingBackpressure routingBackpressure;
+    private final ConcurrentMessageListenerContainer<String, String> listenerContainer;
+
+    /**
+     * Constructor.
+     *
+     * @param jsonToRepoEventTransformer given {@link JsonToRepoEventTransformer}
+     * @param eventRouter                given {@link EventRouter}
+     * @param bootstrapServers           given Kafka bootstrap server locations
+     * @param topic                      given topic to read the ACS events from
+     * @param groupId                    given consumer group id
+     * @param concurrency                given number of consumers reading the topic partitions in parallel
+     * @param maxPollRecords             given maximum number of events received in a batch
+     * @param retryInterval              given milliseconds to wait before redelivering the events not routed
+     */
+    public KafkaGatewayEventConsumer(final JsonToRepoEventTransformer jsonToRepoEventTransformer,
+            final EventRouter eventRouter, final String bootstrapServers, final String topic, final String groupId,
+            final int concurrency, final int maxPollRecords, final long retryInterval) {
+        this(jsonToRepoEventTransformer, eventRouter, bootstrapServers, topic, groupId, concurrency, maxPollRecords,
+                retryInterval, null);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param jsonToRepoEventTransformer given {@link JsonToRepoEventTransformer}
+     * @param eventRouter                given {@link EventRouter}
+     * @param bootstrapServers           given Kafka bootstrap server locations
+     * @param topic                      given topic to read the ACS events from
+     * @param groupId                    given consumer group id
+     * @param concurrency                given number of consumers reading the topic partitions in parallel
+     * @param maxPollRecords             given maximum number of events received in a batch
+     * @param retryInterval              given milliseconds to wait before redelivering the events not routed
+     * @param routingBackpressure        given {@link RoutingBackpressure} applied before routing each batch
+     *                                   (<code>null</code> to disable it)
+     */
+    public KafkaGatewayEventConsumer(final JsonToRepoEventTransformer jsonToRepoEventTransformer,
+            final EventRouter eventRouter, final String bootstrapServers, final String topic, final String groupId,
+            final int concurrency, final int maxPollRecords, final long retryInterval,
+            final RoutingBackpressure routingBackpressure) {
+        this.jsonToRepoEventTransformer = jsonToRepoEventTransformer;
+        this.eventRouter = eventRouter;
+        this.routingBackpressure = routingBackpressure;
+        ContainerProperties containerProperties = new ContainerProperties(topic);
+        containerProperties.setAckMode(AckMode.MANUAL_IMMEDIATE);
+        containerProperties.setMessageListener((BatchAcknowledgingMessageListener<String, String>) this::onEvents);
+        this.listenerContainer = new ConcurrentMessageListenerContainer<>(
+                consumerFactory(bootstrapServers, groupId, maxPollRecords), containerProperties);
+        this.listenerContainer.setConcurrency(Math.max(1, concurrency));
+        this.listenerContainer.setCommonErrorHandler(
+                new DefaultErrorHandler(new FixedBackOff(retryInterval, FixedBackOff.UNLIMITED_ATTEMPTS)));
+        this.listenerContainer.setBeanName("GatewayEventConsumer");
+    }
+
+    @Override
+    public void startConsumingEvents() {
+        if (!listenerContainer.isRunning()) {
+            LOGGER.debug("Starting the Kafka gateway event consumer");
+            listenerContainer.start();
+        }
+        else {
+            LOGGER.debug("Kafka gateway event consumer already started");
+        }
+    }
+
+    @Override
+    public void pauseConsumingEvents() {
+        LOGGER.debug("Pausing the Kafka gateway event consumer");
+        listenerContainer.pause();
+    }
+
+    @Override
+    public void resumeConsumingEvents() {
+        LOGGER.debug("Resuming the Kafka gateway event consumer");
+        listenerContainer.resume();
+    }
+
+    /**
+     * Stop the consumption of events.
+     */
+    @PreDestroy
+    public void stop() {
+        listenerContainer.stop();
+    }
+
+    /**
+     * Route a batch of events read from Kafka and commit their offsets.
+     *
+     * @param records        given {@link List} of {@link ConsumerRecord}'s holding the events in JSON format
+     * @param acknowledgment given {@link Acknowledgment} to commit the offsets of the batch
+     * @throws BatchListenerFailedException if the events cannot be routed
+     */
+    public void onEvents(final List<ConsumerRecord<String, String>> records, final Acknowledgment acknowledgment) {
+        LOGGER.debug("Routing a batch of {} events", records.size());
+        List<RepoEvent<DataAttributes<Resource>>> repoEvents = new ArrayList<>(records.size());
+        for (ConsumerRecord<String, String> record : records) {
+            try {
+                repoEvents.add(jsonToRepoEventTransformer.transform(record.value()));
+            } catch (EventConsumptionException excp) {
+                LOGGER.error("Skipping the unreadable event at offset {} of partition {}-{}", record.offset(),
+                        record.topic(), record.partition());
+            }
+        }
+        if (!repoEvents.isEmpty()) {
+            if (routingBackpressure != null) {
+                routingBackpressure.awaitCapacity();
+            }
+            try {
+                eventRouter.routeEvents(repoEvents);
+            } catch (RuntimeException excp) {
+                throw new BatchListenerFailedException("Error routing a batch of " + repoEvents.size() + " events",
+                        excp, 0);
+            }
+        }
+        acknowledgment.acknowledge();
+    }
+
+    private DefaultKafkaConsumerFactory<String, String> consumerFactory(final String bootstrapServers,
+            final String groupId, final int maxPollRecords) {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        return new DefaultKafkaConsumerFactory<>(props);
+    }
+}
@@ -0,0 +1,242 @@
+/*
+ * Copyright 2021-2021 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.alfresco.event.gateway.kafka.consumption;
+
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import org.alfresco.event.gateway.kafka.metrics.GatewayMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * {@link Executor} that runs the tasks in a fixed number of lanes, each of them drained in order by its own thread.
+ * <p>
+ * The tasks submitted with a key always run in the same lane (the one the hash of the key maps to), so the tasks with
+ * the same key run one after another in the order they were submitted, while the tasks with different keys run in
+ * parallel. The tasks without key are spread over the lanes in turn.
+ * <p>
+ * The lanes are lock-free queues bounded to a capacity: a task submitted to a full lane is rejected with a
+ * {@link RejectedExecutionException} (and counted). The pending tasks are still run on shutdown.
+ */
+public class KeyedEventExecutor implements Executor {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(KeyedEventExecutor.class);
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long SHUTDOWN_TIMEOUT = 5000;
+
+    private final Lane[] lanes;
+    private final AtomicInteger nextLane = new AtomicInteger();
+    private final Counter rejectedCounter;
+    private volatile boolean running = true;
+
+    /**
+     * Constructor.
+     *
+     * @param laneCount        given number of lanes (and threads)
+     * @param laneCapacity     given maximum number of pending tasks of each lane
+     * @param threadNamePrefix given prefix of the name of the lane threads
+     * @param meterRegistry    given {@link MeterRegistry} (<code>null</code> to disable the metrics)
+     */
+    public KeyedEventExecutor(final int laneCount, final int laneCapacity, final String threadNamePrefix,
+            final MeterRegistry meterRegistry) {
+        this.rejectedCounter = GatewayMetrics.registryOrNoop(meterRegistry).counter(GatewayMetrics.ROUTING_REJECTED);
+        this.lanes = new Lane[Math.max(1, laneCount)];
+        ThreadFactory threadFactory = new CustomizableThreadFactory(threadNamePrefix);
+        for (int i = 0; i < lanes.length; i++) {
+            lanes[i] = new Lane(Math.max(1, laneCapacity));
+            lanes[i].thread = threadFactory.newThread(lanes[i]);
+        }
+        for (Lane lane : lanes) {
+            lane.thread.start();
+        }
+    }
+
+    /**
+     * Run a task without ordering constraints in the next lane.
+     *
+     * @param task given task
+     */
+    @Override
+    public void execute(final Runnable task) {
+        execute(null, task);
+    }
+
+    /**
+     * Run a task after the tasks previously submitted with the same key.
+     *
+     * @param key  given ordering key (<code>null</code> if the task has no ordering constraints)
+     * @param task given task
+     */
+    public void execute(final Object key, final Runnable task) {
+        executeInLane(getLane(key), task);
+    }
+
+    /**
+     * Get the lane the tasks with the given key run in.
+     *
+     * @param key given ordering key (<code>null</code> to get the next lane in turn)
+     * @return the index of the lane
+     */
+    public int getLane(final Object key) {
+        if (Objects.isNull(key)) {
+            return Math.floorMod(nextLane.getAndIncrement(), lanes.length);
+        }
+        int hash = key.hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), lanes.length);
+    }
+
+    /**
+     * Run a task in a specific lane, after the tasks previously submitted to it.
+     *
+     * @param laneIndex given index of the lane, as returned by {@link #getLane(Object)}
+     * @param task      given task
+     */
+    public void executeInLane(final int laneIndex, final Runnable task) {
+        Objects.requireNonNull(task);
+        if (!running) {
+            throw new RejectedExecutionException("Executor shut down, task rejected");
+        }
+        if (!lanes[laneIndex].offer(task)) {
+            rejectedCounter.increment();
+            throw new RejectedExecutionException("Lane " + laneIndex + " is full, task rejected");
+        }
+    }
+
+    /**
+     * Get the number of tasks waiting in the lanes.
+     *
+     * @return the number of pending tasks
+     */
+    public int getQueueSize() {
+        int queueSize = 0;
+        for (Lane lane : lanes) {
+            queueSize += lane.size.get();
+        }
+        return queueSize;
+    }
+
+    /**
+     * Get the number of lanes running a task.
+     *
+     * @return the number of busy lanes
+     */
+    public int getActiveCount() {
+        int activeCount = 0;
+        for (Lane lane : lanes) {
+            activeCount += lane.active ? 1 : 0;
+        }
+        return activeCount;
+    }
+
+    /**
+     * Get the occupation of the fullest lane, as that is the first one to reject tasks.
+     *
+     * @return the load of the executor, between <code>0</code> and <code>1</code>
+     */
+    public double getLoad() {
+        double load = 0;
+        for (Lane lane : lanes) {
+            load = Math.max(load, (double) lane.size.get() / lane.capacity);
+        }
+        return load;
+    }
+
+    /**
+     * Check whether every lane can take one more task, i.e. whether a task is accepted whatever its key.
+     *
+     * @return <code>true</code> if no lane is full, <code>false</code> otherwise
+     */
+    public boolean hasCapacity() {
+        for (Lane lane : lanes) {
+            if (lane.size.get() >= lane.capacity) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Stop accepting tasks and wait for the pending ones to run.
+     */
+    public void shutdown() {
+        running = false;
+        for (Lane lane : lanes) {
+            LockSupport.unpark(lane.thread);
+        }
+        long deadline = System.currentTimeMillis() + SHUTDOWN_TIMEOUT;
+        for (Lane lane : lanes) {
+            try {
+                lane.thread.join(Math.max(1, deadline - System.currentTimeMillis()));
+            } catch (InterruptedException excp) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private final class Lane implements Runnable {
+
+        private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger size = new AtomicInteger();
+        private final int capacity;
+        private Thread thread;
+        private volatile boolean active;
+
+        private Lane(final int capacity) {
+            this.capacity = capacity;
+        }
+
+        private boolean offer(final Runnable task) {
+            // Reserve the slot first, so the lane never holds more tasks than its capacity
+            if (size.incrementAndGet() > capacity) {
+                size.decrementAndGet();
+                return false;
+            }
+            tasks.offer(task);
+            LockSupport.unpark(thread);
+            return true;
+        }
+
+        @Override
+        public void run() {
+            while (running || !tasks.isEmpty()) {
+                Runnable task = tasks.poll();
+                if (Objects.isNull(task)) {
+                    LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                    continue;
+                }
+                size.decrementAndGet();
+                active = true;
+                try {
+                    task.run();
+                } catch (RuntimeException excp) {
+                    LOGGER.error("Error running a task in lane {}", Thread.currentThread().getName(), excp);
+                } finally {
+                    active = false;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2021-2021 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.alfresco.event.gateway.kafka.consumption;
+
+import java.util.Arrays;
+
+/**
+ * Bloom filter made of two generations: the values are added to the current generation and looked up in both of them.
+ * Rotating the filter drops the previous generation and starts a new empty one, so a value is remembered for one to two
+ * rotation periods while the memory stays bounded.
+ * <p>
+ * This class is not thread-safe.
+ */
+class RotatingBloomFilter {
+
+    private final int bitCount;
+    private final int hashCount;
+    private long[] currentBits;
+    private long[] previousBits;
+
+    /**
+     * Constructor.
+     *
+     * @param expectedInsertions       given number of values expected to be added to a generation
+     * @param falsePositiveProbability given desired probability of a value reported as added when it was not
+     */
+    RotatingBloomFilter(final int expectedInsertions, final double falsePositiveProbability) {
+        int insertions = Math.max(1, expectedInsertions);
+        double probability = Math.min(Math.max(falsePositiveProbability, Double.MIN_VALUE), 0.5);
+        long optimalBitCount = (long) Math.ceil(-insertions * Math.log(probability) / (Math.log(2) * Math.log(2)));
+        this.bitCount = (int) Math.min(Math.max(64, optimalBitCount), Integer.MAX_VALUE - 63);
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / insertions * Math.log(2)));
+        this.currentBits = new long[(bitCount + 63) / 64];
+        this.previousBits = new long[currentBits.length];
+    }
+
+    /**
+     * Check if the value might have been added in the current or the previous generation.
+     *
+     * @param value given value
+     * @return <code>false</code> if the value was definitely not added, <code>true</code> if it might have been
+     */
+    boolean mightContain(final String value) {
+        int hash1 = value.hashCode();
+        int hash2 = mix(hash1);
+        return contains(currentBits, hash1, hash2) || contains(previousBits, hash1, hash2);
+    }
+
+    /**
+     * Add the value to the current generation.
+     *
+     * @param value given value
+     */
+    void put(final String value) {
+        int hash1 = value.hashCode();
+        int hash2 = mix(hash1);
+        for (int i = 0; i < hashCount; i++) {
+            int bit = bitIndex(hash1, hash2, i);
+            currentBits[bit >>> 6] |= 1L << bit;
+        }
+    }
+
+    /**
+     * Drop the previous generation and start a new one.
+     */
+    void rotate() {
+        long[] emptyBits = previousBits;
+        Arrays.fill(emptyBits, 0L);
+        previousBits = currentBits;
+        currentBits = emptyBits;
+    }
+
+    private boolean contains(final long[] bits, final int hash1, final int hash2) {
+        for (int i = 0; i < hashCount; i++) {
+            int bit = bitIndex(hash1, hash2, i);
+            if ((bits[bit >>> 6] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Double hashing (Kirsch-Mitzenmacher): the k indexes derived from two hashes of the value
+    private int bitIndex(final int hash1, final int hash2, final int i) {
+        return Math.floorMod(hash1 + i * hash2, bitCount);
+    }
+
+    private static int mix(final int hash) {
+        // Finalization step of MurmurHash3, forced odd so that the k indexes differ
+        int h = hash;
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h | 1;
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2021-2021 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.alfresco.event.gateway.kafka.consumption;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.alfresco.event.gateway.kafka.metrics.GatewayMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Backpressure applied by the {@link GatewayEventConsumer}'s (reading from ActiveMQ or Kafka) when the
+ * {@link EventRouter} cannot keep up with the incoming events.
+ * <p>
+ * The consumers invoke {@link #awaitCapacity()} from their listener thread before routing. When the load of the router
+ * reaches the high-water mark, the listener thread stops receiving until the load drops to the low-water mark, so the
+ * bursts of events stay in the broker instead of being rejected by the routing executor or piled up in memory. The gap
+ * between both marks avoids pausing and resuming the consumption on every event. As an event fans out to several
+ * consumptions, the consumption is also paused while the router has no capacity for the next event
+ * ({@link EventRouter#hasCapacity()}), whatever its load.
+ */
+public class RoutingBackpressure {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RoutingBackpressure.class);
+
+    private final EventRouter eventRouter;
+    private final double highWaterMark;
+    private final double lowWaterMark;
+    private final long checkInterval;
+    private final AtomicInteger pausedConsumers = new AtomicInteger();
+    private final Timer pauseTimer;
+
+    /**
+     * Constructor.
+     *
+     * @param eventRouter   given {@link EventRouter} whose load is checked
+     * @param highWaterMark given load of the router from which the consumption is paused
+     * @param lowWaterMark  given load of the router from which the paused consumption is resumed
+     * @param checkInterval given milliseconds between two checks of the load while the consumption is paused
+     * @param meterRegistry given {@link MeterRegistry} (<code>null</code> to disable the metrics)
+     */
+    public RoutingBackpressure(final EventRouter eventRouter, final double highWaterMark, final double lowWaterMark,
+            final long checkInterval, final MeterRegistry meterRegistry) {
+        if (lowWaterMark < 0 || lowWaterMark > highWaterMark || highWaterMark > 1) {
+            throw new IllegalArgumentException(String.format(
+                    "Invalid backpressure water marks (low %s, high %s), expected 0 <= low <= high <= 1", lowWaterMark,
+                    highWaterMark));
+        }
+        this.eventRouter = eventRouter;
+        this.highWaterMark = highWaterMark;
+        this.lowWaterMark = lowWaterMark;
+        this.checkInterval = Math.max(1, checkInterval);
+        MeterRegistry registry = GatewayMetrics.registryOrNoop(meterRegistry);
+        this.pauseTimer = registry.timer(GatewayMetrics.BACKPRESSURE_PAUSE);
+        Gauge.builder(GatewayMetrics.BACKPRESSURE_PAUSED, pausedConsumers, AtomicInteger::get).register(registry);
+    }
+
+    /**
+     * Block the calling thread while the load of the router is above the water marks or the router has no capacity for
+     * the next event. It returns immediately if the load is below the high-water mark and the router has capacity,
+     * otherwise it waits until the load drops to the low-water mark and the router has capacity (or the thread is
+     * interrupted).
+     */
+    public void awaitCapacity() {
+        double load = eventRouter.getLoad();
+        if (load < highWaterMark && eventRouter.hasCapacity()) {
+            return;
+        }
+        LOGGER.warn("Routing load {} reached the high-water mark {} or no capacity left for the next event, pausing the"
+                + " event consumption", load, highWaterMark);
+        long startTime = System.nanoTime();
+        pausedConsumers.incrementAndGet();
+        try {
+            while (eventRouter.getLoad() > lowWaterMark || !eventRouter.hasCapacity()) {
+                TimeUnit.MILLISECONDS.sleep(checkInterval);
+            }
+        } catch (InterruptedException excp) {
+            Thread.currentThread().interrupt();
+        } finally {
+            pausedConsumers.decrementAndGet();
+            pauseTimer.record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+        }
+        LOGGER.info("Routing load dropped to the low-water mark {}, resuming the event consumption", lowWaterMark);
+    }
+}
@@ -38,10 +38,23 @@ import org.springframework.integration.jms.dsl.Jms;
  * <code>alfresco.repo.event2</code>).
  * <p>
  * Once the JSON messages are retrieved from ActiveMQ, they are transformed to the event model and forwarded to the
- * {@link EventRouter} to be distributed appropriately.
+ * {@link EventRouter} to be distributed appropriately. If a {@link RoutingBackpressure} is given, the listener waits for
+ * routing capacity before routing each event, leaving the rest of events in the broker while the router is overloaded.
+ * <p>
+ * The durable subscription is named after the given subscription name, which must be the same used by the
+ * {@link BatchJmsGatewayEventConsumer} so that switching between both consumers keeps receiving from the same durable
+ * subscription in the broker.
  */
 public class SpringIntegrationGatewayEventConsumer implements GatewayEventConsumer {
 
+    /**
+     * Name of the durable subscription by default, the one the listener container has always used when no name is
+     * given (the class name of its {@link org.springframework.integration.jms.ChannelPublishingJmsMessageListener}), so
+     * that the existing durable subscriptions are kept.
+     */
+    public static final String DEFAULT_SUBSCRIPTION_NAME =
+            "org.springframework.integration.jms.ChannelPublishingJmsMessageListener";
+
     private static final Logger LOGGER = LoggerFactory.getLogger(SpringIntegrationGatewayEventConsumer.class);
 
     private final IntegrationFlowContext integrationFlowContext;
@@ -50,6 +63,9 @@ public class SpringIntegrationGatewayEventConsumer implements GatewayEventConsum
     private final EventRouter eventRouter;
     private final Destination inputDestination;
     private final Boolean durableSubscription;
+    private final String subscriptionName;
+    private final RoutingBackpressure routingBackpressure;
+    private final boolean sessionTransacted;
 
     private IntegrationFlowRegistration integrationFlowRegistration;
 
@@ -69,12 +85,68 @@ public class SpringIntegrationGatewayEventConsumer implements GatewayEventConsum
             EventRouter eventRouter,
             final Destination inputDestination,
             final Boolean durableSubscription) {
+        this(integrationFlowContext, activeMQConnectionFactory, jsonToRepoEventTransformer, eventRouter,
+                inputDestination, durableSubscription, null, false);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param integrationFlowContext     given {@link IntegrationFlowContext}
+     * @param activeMQConnectionFactory  given {@link ActiveMQConnectionFactory}
+     * @param jsonToRepoEventTransformer given {@link JsonToRepoEventTransformer}
+     * @param eventRouter                given {@link EventRouter}
+     * @param inputDestination           given input destination
+     * @param durableSubscription        given durable subscription value
+     * @param routingBackpressure        given {@link RoutingBackpressure} (<code>null</code> to disable backpressure)
+     * @param sessionTransacted          given whether each event is received in a JMS transaction, committed only
+     *                                   once the event is routed (otherwise it is acknowledged on receipt)
+     */
+    public SpringIntegrationGatewayEventConsumer(final IntegrationFlowContext integrationFlowContext,
+            ActiveMQConnectionFactory activeMQConnectionFactory,
+            JsonToRepoEventTransformer jsonToRepoEventTransformer,
+            EventRouter eventRouter,
+            final Destination inputDestination,
+            final Boolean durableSubscription,
+            final RoutingBackpressure routingBackpressure,
+            final boolean sessionTransacted) {
+        this(integrationFlowContext, activeMQConnectionFactory, jsonToRepoEventTransformer, eventRouter,
+                inputDestination, durableSubscription, null, routingBackpressure, sessionTransacted);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param integrationFlowContext     given {@link IntegrationFlowContext}
+     * @param activeMQConnectionFactory  given {@link ActiveMQConnectionFactory}
+     * @param jsonToRepoEventTransformer given {@link JsonToRepoEventTransformer}
+     * @param eventRouter                given {@link EventRouter}
+     * @param inputDestination           given input destination
+     * @param durableSubscription        given durable subscription value
+     * @param subscriptionName           given name of the durable subscription (<code>null</code> for
+     *                                   {@link #DEFAULT_SUBSCRIPTION_NAME})
+     * @param routingBackpressure        given {@link RoutingBackpressure} (<code>null</code> to disable backpressure)
+     * @param sessionTransacted          given whether each event is received in a JMS transaction, committed only
+     *                                   once the event is routed (otherwise it is acknowledged on receipt)
+     */
+    public SpringIntegrationGatewayEventConsumer(final IntegrationFlowContext integrationFlowContext,
+            ActiveMQConnectionFactory activeMQConnectionFactory,
+            JsonToRepoEventTransformer jsonToRepoEventTransformer,
+            EventRouter eventRouter,
+            final Destination inputDestination,
+            final Boolean durableSubscription,
+            final String subscriptionName,
+            final RoutingBackpressure routingBackpressure,
+            final boolean sessionTransacted) {
         this.integrationFlowContext = integrationFlowContext;
         this.activeMQConnectionFactory = activeMQConnectionFactory;
         this.jsonToRepoEventTransformer = jsonToRepoEventTransformer;
         this.eventRouter = eventRouter;
         this.inputDestination = inputDestination;
         this.durableSubscription = durableSubscription;
+        this.subscriptionName = Objects.requireNonNullElse(subscriptionName, DEFAULT_SUBSCRIPTION_NAME);
+        this.routingBackpressure = routingBackpressure;
+        this.sessionTransacted = sessionTransacted;
     }
 
     @Override
@@ -100,11 +172,20 @@ public class SpringIntegrationGatewayEventConsumer implements GatewayEventConsum
 
     private IntegrationFlow defineIntegrationFlow() {
         return IntegrationFlow.from(Jms.messageDrivenChannelAdapter(activeMQConnectionFactory)
-                .configureListenerContainer(container -> container.subscriptionDurable(durableSubscription))
+                .configureListenerContainer(container -> container.subscriptionDurable(durableSubscription)
+                        .subscriptionName(subscriptionName)
+                        .sessionTransacted(sessionTransacted))
                 .destination(inputDestination))
                 .transform(jsonToRepoEventTransformer)
                 .log()
-                .handle(m -> eventRouter.routeEvent((RepoEvent<DataAttributes<Resource>>) m.getPayload()))
+                .handle(m -> routeEvent((RepoEvent<DataAttributes<Resource>>) m.getPayload()))
                 .get();
     }
+
+    void routeEvent(RepoEvent<DataAttributes<Resource>> event) {
+        if (Objects.nonNull(routingBackpressure)) {
+            routingBackpressure.awaitCapacity();
+        }
+        eventRouter.routeEvent(event);
+    }
 }
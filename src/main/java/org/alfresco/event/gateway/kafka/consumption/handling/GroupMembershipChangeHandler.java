@@ -0,0 +1,25 @@
+/*
+ * Copyright 2021-2021 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.alfresco.event.gateway.kafka.consumption.handling;
+
+/**
+ * Component that reacts to changes in the group memberships of ACS users.
+ */
+@FunctionalInterface
+public interface GroupMembershipChangeHandler {
+
+    /**
+     * Handle a change in the group memberships. The users affected by the change are not known.
+     */
+    void groupMembershipsChanged();
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2021-2021 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.alfresco.event.gateway.kafka.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+
+/**
+ * Model that represents a lease on a leadership shared by the event gateway nodes. The node holding a non expired lease
+ * is the leader, and every time the lease changes hands its fencing token is incremented.
+ */
+@Entity
+public class LeaderLease {
+
+    @Id
+    private String name;
+
+    private String owner;
+
+    private long fencingToken;
+
+    private long expiresAt;
+
+    /**
+     * No-arg constructor to be used by JPA
+     */
+    public LeaderLease() {
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param name         given name of the leadership
+     * @param owner        given id of the node holding the lease
+     * @param fencingToken given fencing token of the lease
+     * @param expiresAt    given time in milliseconds when the lease expires
+     */
+    public LeaderLease(String name, String owner, long fencingToken, long expiresAt) {
+        this.name = name;
+        this.owner = owner;
+        this.fencingToken = fencingToken;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public void setOwner(String owner) {
+        this.owner = owner;
+    }
+
+    public long getFencingToken() {
+        return fencingToken;
+    }
+
+    public void setFencingToken(long fencingToken) {
+        this.fencingToken = fencingToken;
+    }
+
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(long expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    @Override
+    public String toString() {
+        return "LeaderLease{" +
+                "name='" + name + '\'' +
+                ", owner='" + owner + '\'' +
+                ", fencingToken=" + fencingToken +
+                ", expiresAt=" + expiresAt +
+                '}';
+    }
+}
@@ -26,12 +26,15 @@ import jakarta.persistence.Enumerated;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.Table;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotEmpty;
 
 import org.alfresco.event.gateway.kafka.ConfigJsonConverter;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.GenericGenerator;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
@@ -40,10 +43,19 @@ import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
  * Model that represents the subscriptions that a client application can request the event gateway to create
  */
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_subscription_created_date_id", columnList = "createdDate, id"),
+        @Index(name = "idx_subscription_status_modified_date", columnList = "status, modifiedDate") })
 @JsonIgnoreProperties({
         "hibernateLazyInitializer", "handler" })
 public class Subscription extends AuditableEntity {
 
+    /**
+     * Maximum number of subscriptions whose lazy filters are fetched by a single query, when the filters of any of the
+     * subscriptions loaded in the persistence context are accessed.
+     */
+    public static final int FILTERS_BATCH_SIZE = 100;
+
     @Id
     @GeneratedValue(generator = "system-uuid")
     @GenericGenerator(name = "system-uuid", strategy = "uuid")
@@ -64,6 +76,7 @@ public class Subscription extends AuditableEntity {
 
     @OneToMany(fetch = FetchType.LAZY, cascade = CascadeType.ALL, orphanRemoval = true)
     @JoinColumn(name = "subscription_id")
+    @BatchSize(size = FILTERS_BATCH_SIZE)
     private List<@Valid Filter> filters = new ArrayList<>();
 
     /**
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2021-2021 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.alfresco.event.gateway.kafka.metrics;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+import org.alfresco.repo.event.v1.model.RepoEvent;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+
+/**
+ * Names and tags of the Micrometer meters published by the event gateway along the event pipeline (ingest, routing,
+ * filtering, serialization and publishing).
+ * <p>
+ * The distribution of the timers (SLO buckets, percentiles) is configured with the standard Spring Boot properties
+ * <code>management.metrics.distribution.*</code>, keyed by meter name.
+ */
+public final class GatewayMetrics {
+
+    private static final String PREFIX = "alfresco.event.gateway.";
+
+    /** Number of events received from the ACS event topic. */
+    public static final String INGEST_RECEIVED = PREFIX + "ingest.received";
+    /** Time spent parsing the received JSON events. */
+    public static final String INGEST_PARSE = PREFIX + "ingest.parse";
+    /** Number of consumptions waiting in the queue of the routing executor. */
+    public static final String ROUTING_QUEUE_SIZE = PREFIX + "routing.queue.size";
+    /** Number of routing executor threads busy with a consumption. */
+    public static final String ROUTING_ACTIVE = PREFIX + "routing.active";
+    /** Time the consumptions wait in the queue of the routing executor. */
+    public static final String ROUTING_QUEUE_WAIT = PREFIX + "routing.queue.wait";
+    /** Number of consumptions rejected by the routing executor. */
+    public static final String ROUTING_REJECTED = PREFIX + "routing.rejected";
+    /** Number of received events checked for duplicates, tagged with the result of the check. */
+    public static final String DEDUP = PREFIX + "dedup";
+    /** Ratio of received events discarded as duplicates since startup. */
+    public static final String DEDUP_HIT_RATE = PREFIX + "dedup.hit.rate";
+    /**
+     * Number of events the Bloom filter reported as seen that were not confirmed as duplicates, either Bloom filter
+     * false positives or events whose id was evicted from the map of recent ids (see {@link #DEDUP_EVICTED}).
+     */
+    public static final String DEDUP_UNCONFIRMED = PREFIX + "dedup.unconfirmed";
+    /** Number of routed event ids evicted from the map of recent ids while the Bloom filter still remembered them. */
+    public static final String DEDUP_EVICTED = PREFIX + "dedup.evicted";
+    /** Number of event consumer threads paused by backpressure, waiting for the routing load to drop. */
+    public static final String BACKPRESSURE_PAUSED = PREFIX + "backpressure.paused";
+    /** Time the event consumption is paused by backpressure. */
+    public static final String BACKPRESSURE_PAUSE = PREFIX + "backpressure.pause";
+    /** Time spent evaluating the filters of a subscription, tagged with the result of the evaluation. */
+    public static final String SUBSCRIPTION_FILTER = PREFIX + "subscription.filter";
+    /** Time spent serializing the events to JSON. */
+    public static final String SERIALIZATION = PREFIX + "serialization";
+    /** Time spent publishing an event to the destination of a subscription. */
+    public static final String PUBLISH = PREFIX + "publish";
+    /** Whether the circuit breaker of the destination of a subscription is open (1) or closed (0). */
+    public static final String PUBLISH_CIRCUIT_OPEN = PREFIX + "publish.circuit.open";
+    /** Time spent sending an event to the Kafka event store. */
+    public static final String STORAGE_KAFKA_SEND = PREFIX + "storage.kafka.send";
+    /** Time from the creation of an event in ACS to its delivery to a destination, tagged with the subscription. */
+    public static final String LATENCY = PREFIX + "latency";
+
+    public static final String TAG_SUBSCRIPTION = "subscription";
+    public static final String TAG_OUTCOME = "outcome";
+    public static final String TAG_RESULT = "result";
+    public static final String TAG_DESTINATION = "destination";
+
+    public static final String OUTCOME_SUCCESS = "success";
+    public static final String OUTCOME_FAILURE = "failure";
+    public static final String RESULT_MATCHED = "matched";
+    public static final String RESULT_DISCARDED = "discarded";
+    public static final String RESULT_DUPLICATE = "duplicate";
+    public static final String RESULT_UNIQUE = "unique";
+    public static final String DESTINATION_KAFKA_STORE = "kafka-store";
+    public static final String DESTINATION_JMS = "jms";
+    public static final String SUBSCRIPTION_NONE = "none";
+
+    private GatewayMetrics() {
+        // Hide default constructor
+    }
+
+    /**
+     * Get the given {@link MeterRegistry} or, if there is none, a registry whose meters don't record anything.
+     *
+     * @param meterRegistry given {@link MeterRegistry} (can be <code>null</code>)
+     * @return the {@link MeterRegistry} to register the meters in
+     */
+    public static MeterRegistry registryOrNoop(MeterRegistry meterRegistry) {
+        // A composite registry without any child registry hands out no-op meters
+        return Objects.nonNull(meterRegistry) ? meterRegistry : new CompositeMeterRegistry();
+    }
+
+    /**
+     * Record the time elapsed since the given event was created in ACS. Events without time are ignored, and the ones
+     * coming from a clock ahead of the local one are recorded as delivered instantly.
+     *
+     * @param latencyTimer given {@link Timer} of the destination the event has just been delivered to
+     * @param event        given delivered {@link RepoEvent}
+     */
+    public static void recordEventLatency(Timer latencyTimer, RepoEvent<?> event) {
+        if (Objects.nonNull(event) && Objects.nonNull(event.getTime())) {
+            long latency = System.currentTimeMillis() - event.getTime().toInstant().toEpochMilli();
+            latencyTimer.record(Math.max(0, latency), TimeUnit.MILLISECONDS);
+        }
+    }
+}
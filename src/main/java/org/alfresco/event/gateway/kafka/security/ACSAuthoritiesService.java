@@ -12,23 +12,36 @@
  */
 package org.alfresco.event.gateway.kafka.security;
 
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
 import org.alfresco.core.handler.GroupsApiClient;
 import org.alfresco.core.model.Group;
 import org.alfresco.core.model.GroupEntry;
 import org.alfresco.core.model.GroupPaging;
 import org.alfresco.core.model.GroupPagingList;
+import org.alfresco.core.model.Pagination;
 import org.alfresco.event.gateway.kafka.acs.client.exception.ACSClientException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
 /**
  * Service component in charge of retrieving authorities from ACS. It uses the ACS REST API to obtain this information.
+ * <p>
+ * By default, the pages of group memberships are requested sequentially. When an {@link Executor} is provided, the
+ * total number of memberships is read from the first page and the remaining pages are requested concurrently using it
+ * (so the parallelism is bounded by the executor).
  */
 public class ACSAuthoritiesService {
 
@@ -36,6 +49,7 @@ public class ACSAuthoritiesService {
     private static final Integer PAGE_SIZE = 100;
 
     private final GroupsApiClient groupsApiClient;
+    private final Executor pageFetchExecutor;
 
     /**
      * Constructor.
@@ -43,7 +57,19 @@ public class ACSAuthoritiesService {
      * @param groupsApiClient given {@link GroupsApiClient}
      */
     public ACSAuthoritiesService(final GroupsApiClient groupsApiClient) {
+        this(groupsApiClient, null);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param groupsApiClient   given {@link GroupsApiClient}
+     * @param pageFetchExecutor given {@link Executor} used to request the pages concurrently (<code>null</code> to
+     *                          request them sequentially)
+     */
+    public ACSAuthoritiesService(final GroupsApiClient groupsApiClient, final Executor pageFetchExecutor) {
         this.groupsApiClient = groupsApiClient;
+        this.pageFetchExecutor = pageFetchExecutor;
     }
 
     /**
@@ -64,7 +90,12 @@ public class ACSAuthoritiesService {
     public Set<String> getUserAuthorities(String username) {
         LOGGER.debug("Getting ACS authorities for the user {}", username);
         Set<String> userAuthorities = new HashSet<>();
-        getUserGroups(username, userAuthorities, 0);
+        if (Objects.isNull(pageFetchExecutor)) {
+            getUserGroups(username, userAuthorities, 0);
+        }
+        else {
+            getUserGroupsConcurrently(username, userAuthorities);
+        }
         LOGGER.debug("Set of ACS authorities for the user {} -> {}", username, userAuthorities);
         return userAuthorities;
     }
@@ -76,26 +107,101 @@ public class ACSAuthoritiesService {
     }
 
     private void getUserGroups(final String username, final Set<String> userGroups, final Integer skipCount) {
-        ResponseEntity<GroupPaging> groupMembershipsResponse = groupsApiClient
-                .listGroupMembershipsForPerson(username, skipCount, PAGE_SIZE, null, null, null, null);
-        // Check result status code
-        if (HttpStatus.OK.equals(groupMembershipsResponse.getStatusCode())) {
-            GroupPagingList groupPagingList = groupMembershipsResponse.getBody().getList();
-            // Add authorities
-            groupPagingList
-                    .getEntries()
-                    .stream()
-                    .map(GroupEntry::getEntry)
-                    .map(Group::getId)
-                    .forEach(userGroups::add);
+        GroupPagingList groupPagingList = getGroupMembershipsPage(username, skipCount);
+        if (Objects.nonNull(groupPagingList)) {
+            addUserGroups(groupPagingList, userGroups);
             // Check for more results
             if (groupPagingList.getPagination().isHasMoreItems()) {
                 getUserGroups(username, userGroups, skipCount + PAGE_SIZE);
             }
         }
+    }
+
+    private void getUserGroupsConcurrently(final String username, final Set<String> userGroups) {
+        GroupPagingList firstGroupPagingList = getGroupMembershipsPage(username, 0);
+        if (Objects.isNull(firstGroupPagingList)) {
+            return;
+        }
+        addUserGroups(firstGroupPagingList, userGroups);
+        Pagination pagination = firstGroupPagingList.getPagination();
+        if (!pagination.isHasMoreItems()) {
+            return;
+        }
+        if (Objects.isNull(pagination.getTotalItems())) {
+            LOGGER.debug("Total number of group memberships unknown for the user {}, requesting pages sequentially",
+                    username);
+            getUserGroups(username, userGroups, PAGE_SIZE);
+            return;
+        }
+
+        // The authorization headers are forwarded from the current request, so its context is propagated
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        List<CompletableFuture<GroupPagingList>> groupPagingListFutures = new ArrayList<>();
+        int lastSkipCount = 0;
+        for (int skipCount = PAGE_SIZE; skipCount < pagination.getTotalItems(); skipCount += PAGE_SIZE) {
+            final int pageSkipCount = skipCount;
+            groupPagingListFutures.add(CompletableFuture.supplyAsync(
+                    () -> getGroupMembershipsPage(username, pageSkipCount, requestAttributes), pageFetchExecutor));
+            lastSkipCount = skipCount;
+        }
+        LOGGER.debug("Requesting {} more pages of group memberships for the user {}", groupPagingListFutures.size(),
+                username);
+
+        GroupPagingList lastGroupPagingList = null;
+        for (CompletableFuture<GroupPagingList> groupPagingListFuture : groupPagingListFutures) {
+            lastGroupPagingList = joinGroupPagingList(groupPagingListFuture);
+            if (Objects.nonNull(lastGroupPagingList)) {
+                addUserGroups(lastGroupPagingList, userGroups);
+            }
+        }
+        // Memberships may have been added since the first page was read
+        if (Objects.nonNull(lastGroupPagingList) && lastGroupPagingList.getPagination().isHasMoreItems()) {
+            getUserGroups(username, userGroups, lastSkipCount + PAGE_SIZE);
+        }
+    }
+
+    private GroupPagingList getGroupMembershipsPage(final String username, final Integer skipCount,
+            final RequestAttributes requestAttributes) {
+        RequestAttributes previousRequestAttributes = RequestContextHolder.getRequestAttributes();
+        RequestContextHolder.setRequestAttributes(requestAttributes);
+        try {
+            return getGroupMembershipsPage(username, skipCount);
+        } finally {
+            RequestContextHolder.setRequestAttributes(previousRequestAttributes);
+        }
+    }
+
+    private GroupPagingList joinGroupPagingList(final CompletableFuture<GroupPagingList> groupPagingListFuture) {
+        try {
+            return groupPagingListFuture.join();
+        } catch (CompletionException excp) {
+            if (excp.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new ACSClientException("Error trying to get authorities", excp);
+        }
+    }
+
+    private void addUserGroups(final GroupPagingList groupPagingList, final Set<String> userGroups) {
+        groupPagingList
+                .getEntries()
+                .stream()
+                .map(GroupEntry::getEntry)
+                .map(Group::getId)
+                .forEach(userGroups::add);
+    }
+
+    private GroupPagingList getGroupMembershipsPage(final String username, final Integer skipCount) {
+        ResponseEntity<GroupPaging> groupMembershipsResponse = groupsApiClient
+                .listGroupMembershipsForPerson(username, skipCount, PAGE_SIZE, null, null, null, null);
+        // Check result status code
+        if (HttpStatus.OK.equals(groupMembershipsResponse.getStatusCode())) {
+            return groupMembershipsResponse.getBody().getList();
+        }
         else if (HttpStatus.NOT_FOUND.equals(groupMembershipsResponse.getStatusCode())) {
             // Missing user, maybe deleted, do nothing
             LOGGER.debug("404 response trying to obtain authorities for the user {}", username);
+            return null;
         }
         else {
             throw new ACSClientException(
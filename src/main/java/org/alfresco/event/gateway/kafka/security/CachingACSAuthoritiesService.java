@@ -0,0 +1,92 @@
+/*
+ * Copyright 2021-2021 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.alfresco.event.gateway.kafka.security;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+import org.alfresco.core.handler.GroupsApiClient;
+import org.alfresco.event.gateway.kafka.consumption.handling.GroupMembershipChangeHandler;
+import org.alfresco.event.gateway.kafka.consumption.handling.UserDeletionHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * {@link ACSAuthoritiesService} that keeps a per-user cache (bounded in size and time) of the ACS authorities.
+ * <p>
+ * Concurrent requests for the authorities of the same user trigger a single retrieval from ACS. The cache entry of a
+ * user is discarded when the user is deleted, and the whole cache is discarded when a group membership change is
+ * received from the ACS event stream.
+ */
+public class CachingACSAuthoritiesService extends ACSAuthoritiesService
+        implements GroupMembershipChangeHandler, UserDeletionHandler {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CachingACSAuthoritiesService.class);
+
+    private final Cache<String, Set<String>> userAuthorities;
+
+    /**
+     * Constructor.
+     *
+     * @param groupsApiClient given {@link GroupsApiClient}
+     * @param maximumSize     given maximum number of users whose authorities are cached
+     * @param timeToLive      given time after which the cached authorities of a user expire
+     */
+    public CachingACSAuthoritiesService(final GroupsApiClient groupsApiClient, final long maximumSize,
+            final Duration timeToLive) {
+        this(groupsApiClient, null, maximumSize, timeToLive);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param groupsApiClient   given {@link GroupsApiClient}
+     * @param pageFetchExecutor given {@link Executor} used to request the pages concurrently (<code>null</code> to
+     *                          request them sequentially)
+     * @param maximumSize       given maximum number of users whose authorities are cached
+     * @param timeToLive        given time after which the cached authorities of a user expire
+     */
+    public CachingACSAuthoritiesService(final GroupsApiClient groupsApiClient, final Executor pageFetchExecutor,
+            final long maximumSize, final Duration timeToLive) {
+        super(groupsApiClient, pageFetchExecutor);
+        this.userAuthorities = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(timeToLive)
+                .build();
+    }
+
+    @Override
+    public Set<String> getUserAuthorities(String username) {
+        Objects.requireNonNull(username);
+        return userAuthorities.get(username, user -> Set.copyOf(super.getUserAuthorities(user)));
+    }
+
+    @Override
+    public void groupMembershipsChanged() {
+        LOGGER.debug("Group memberships changed, discarding all the cached ACS authorities");
+        userAuthorities.invalidateAll();
+    }
+
+    @Override
+    public void userDeleted(String username) {
+        LOGGER.debug("User {} deleted, discarding its cached ACS authorities", username);
+        if (Objects.nonNull(username)) {
+            userAuthorities.invalidate(username);
+        }
+    }
+}
@@ -12,6 +12,8 @@
  */
 package org.alfresco.event.gateway.kafka.storage;
 
+import java.util.List;
+
 import org.alfresco.repo.event.v1.model.DataAttributes;
 import org.alfresco.repo.event.v1.model.RepoEvent;
 import org.alfresco.repo.event.v1.model.Resource;
@@ -28,4 +30,13 @@ public interface EventStore {
      * @param event the {@link RepoEvent} to be stored
      */
     void storeEvent(RepoEvent<DataAttributes<Resource>> event);
+
+    /**
+     * Store a batch of {@link RepoEvent} objects, in order. By default the events are stored one by one.
+     *
+     * @param events the {@link List} of {@link RepoEvent} to be stored
+     */
+    default void storeEvents(List<RepoEvent<DataAttributes<Resource>>> events) {
+        events.forEach(this::storeEvent);
+    }
 }
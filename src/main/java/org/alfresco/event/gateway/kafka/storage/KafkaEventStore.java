@@ -12,18 +12,25 @@
  */
 package org.alfresco.event.gateway.kafka.storage;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 import org.alfresco.event.gateway.kafka.consumption.AbstractEventConsumer;
-import org.alfresco.event.gateway.kafka.consumption.EventConsumer;
 import org.alfresco.event.gateway.kafka.consumption.EventConsumerRegistry;
+import org.alfresco.event.gateway.kafka.metrics.GatewayMetrics;
 import org.alfresco.event.gateway.kafka.subscription.RepoEventToJsonTransformer;
 import org.alfresco.repo.event.v1.model.DataAttributes;
 import org.alfresco.repo.event.v1.model.RepoEvent;
 import org.alfresco.repo.event.v1.model.Resource;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -35,15 +42,35 @@ import org.springframework.integration.kafka.dsl.Kafka;
 import org.springframework.integration.kafka.dsl.KafkaProducerMessageHandlerSpec;
 import org.springframework.integration.support.MessageBuilder;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.core.ProducerFactory;
 import org.springframework.kafka.support.DefaultKafkaHeaderMapper;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.messaging.MessageHeaders;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 
 /**
  * {@link EventStore} implementation that store the events in a Kafka cluster.
  * <p>
- * This implementation makes use of a Spring Integration flow to send the events to Kafka.
+ * This implementation makes use of a Spring Integration flow to send the events to Kafka. The sends are synchronous,
+ * so their latency (serialization included) is recorded per outcome, as well as the end-to-end latency of the stored
+ * events.
+ * <p>
+ * The batches of events bypass the flow: all their records are sent through a {@link KafkaTemplate} sharing the
+ * producer of the flow and the store waits once for all of them to be acknowledged, so the send latency is recorded per
+ * batch.
+ * <p>
+ * If a transactional id prefix is given, the store works in exactly-once mode: the producer is idempotent and every
+ * event or batch is stored in a Kafka transaction (the events of a batch commit together). In that mode the store is
+ * not registered as an asynchronous event consumer, it is expected to be invoked synchronously before the events are
+ * acknowledged to the source (see {@link StoringEventRouter}). The readers of the topic must use the
+ * <code>read_committed</code> isolation level to skip the records of aborted transactions. The transactional id prefix
+ * must be unique per instance and stable across its restarts, so that a restarted instance fences (and aborts) the
+ * transactions left open by its previous run instead of blocking those readers until they time out.
  */
-public class KafkaEventStore extends AbstractEventConsumer implements EventStore, EventConsumer {
+public class KafkaEventStore extends AbstractEventConsumer implements EventStore {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(KafkaEventStore.class);
     private static final String FLOW_BASE_ID = "KafkaEventStorage#";
@@ -53,9 +80,17 @@ public class KafkaEventStore extends AbstractEventConsumer implements EventStore
 
     private final IntegrationFlowContext integrationFlowContext;
     private final RepoEventToJsonTransformer repoEventToJsonTransformer;
+    private final String topic;
+    private final ProducerFactory<String, String> producerFactory;
+    private final boolean transactional;
+    private final DefaultKafkaHeaderMapper headerMapper = new DefaultKafkaHeaderMapper();
 
     private final MessagingTemplate messagingTemplate;
+    private final KafkaTemplate<String, String> batchKafkaTemplate;
     private final UUID internalId;
+    private final Timer sendSuccessTimer;
+    private final Timer sendFailureTimer;
+    private final Timer latencyTimer;
 
     /**
      * Constructor.
@@ -70,21 +105,127 @@ public class KafkaEventStore extends AbstractEventConsumer implements EventStore
             final IntegrationFlowContext integrationFlowContext,
             final RepoEventToJsonTransformer repoEventToJsonTransformer, final String bootstrapServers,
             final String topic) {
-        // Auto-register as an event consumer
-        super(eventConsumerRegistry, true);
+        this(eventConsumerRegistry, integrationFlowContext, repoEventToJsonTransformer, bootstrapServers, topic, null);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param eventConsumerRegistry      given {@link EventConsumerRegistry}
+     * @param integrationFlowContext     given {@link IntegrationFlowContext}
+     * @param repoEventToJsonTransformer given {@link RepoEventToJsonTransformer}
+     * @param bootstrapServers           given Kafka bootstrap server locations
+     * @param topic                      given topic to publish the events in Kafka
+     * @param meterRegistry              given {@link MeterRegistry} (<code>null</code> to disable the metrics)
+     */
+    public KafkaEventStore(final EventConsumerRegistry eventConsumerRegistry,
+            final IntegrationFlowContext integrationFlowContext,
+            final RepoEventToJsonTransformer repoEventToJsonTransformer, final String bootstrapServers,
+            final String topic, final MeterRegistry meterRegistry) {
+        this(eventConsumerRegistry, integrationFlowContext, repoEventToJsonTransformer, bootstrapServers, topic,
+                meterRegistry, null);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param eventConsumerRegistry      given {@link EventConsumerRegistry}
+     * @param integrationFlowContext     given {@link IntegrationFlowContext}
+     * @param repoEventToJsonTransformer given {@link RepoEventToJsonTransformer}
+     * @param bootstrapServers           given Kafka bootstrap server locations
+     * @param topic                      given topic to publish the events in Kafka
+     * @param meterRegistry              given {@link MeterRegistry} (<code>null</code> to disable the metrics)
+     * @param transactionIdPrefix        given prefix of the transactional ids of the producers (<code>null</code> to
+     *                                   disable the exactly-once mode)
+     */
+    public KafkaEventStore(final EventConsumerRegistry eventConsumerRegistry,
+            final IntegrationFlowContext integrationFlowContext,
+            final RepoEventToJsonTransformer repoEventToJsonTransformer, final String bootstrapServers,
+            final String topic, final MeterRegistry meterRegistry, final String transactionIdPrefix) {
+        // Auto-register as an event consumer, unless it is invoked synchronously in exactly-once mode
+        super(eventConsumerRegistry, Objects.isNull(transactionIdPrefix));
         this.integrationFlowContext = integrationFlowContext;
         this.repoEventToJsonTransformer = repoEventToJsonTransformer;
+        this.topic = topic;
+        this.transactional = Objects.nonNull(transactionIdPrefix);
+        this.producerFactory = producerFactory(bootstrapServers, transactionIdPrefix);
+        this.batchKafkaTemplate = new KafkaTemplate<>(producerFactory);
         this.internalId = UUID.randomUUID();
+        MeterRegistry registry = GatewayMetrics.registryOrNoop(meterRegistry);
+        this.sendSuccessTimer = registry.timer(GatewayMetrics.STORAGE_KAFKA_SEND, GatewayMetrics.TAG_OUTCOME,
+                GatewayMetrics.OUTCOME_SUCCESS);
+        this.sendFailureTimer = registry.timer(GatewayMetrics.STORAGE_KAFKA_SEND, GatewayMetrics.TAG_OUTCOME,
+                GatewayMetrics.OUTCOME_FAILURE);
+        // Same tag keys as the latency of the subscriptions, as some registries require it
+        this.latencyTimer = registry.timer(GatewayMetrics.LATENCY, GatewayMetrics.TAG_DESTINATION,
+                GatewayMetrics.DESTINATION_KAFKA_STORE, GatewayMetrics.TAG_SUBSCRIPTION,
+                GatewayMetrics.SUBSCRIPTION_NONE);
+        if (transactional) {
+            // Every send goes through a transaction of the template, the flow is not needed
+            messagingTemplate = null;
+            return;
+        }
         // Register flow
-        IntegrationFlowRegistration integrationFlowRegistration = registerIntegrationFlow(bootstrapServers, topic);
+        IntegrationFlowRegistration integrationFlowRegistration = registerIntegrationFlow(bootstrapServers);
         // once the flow is registered, create a messaging template to be able to send messages to it
         messagingTemplate = createMessagingTemplate(integrationFlowRegistration.getId());
     }
 
     @Override
     public void storeEvent(RepoEvent<DataAttributes<Resource>> event) {
+        if (transactional) {
+            storeEvents(List.of(event));
+            return;
+        }
         LOGGER.debug("Storing the event {}", event);
-        messagingTemplate.send(MessageBuilder.withPayload(event).build());
+        long startTime = System.nanoTime();
+        try {
+            messagingTemplate.send(MessageBuilder.withPayload(event).build());
+            sendSuccessTimer.record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+            GatewayMetrics.recordEventLatency(latencyTimer, event);
+        } catch (RuntimeException excp) {
+            sendFailureTimer.record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+            throw excp;
+        }
+    }
+
+    @Override
+    public void storeEvents(List<RepoEvent<DataAttributes<Resource>>> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        LOGGER.debug("Storing a batch of {} events", events.size());
+        long startTime = System.nanoTime();
+        try {
+            if (transactional) {
+                // The commit flushes the sends, it fails (and the transaction is aborted) if any of them fails
+                batchKafkaTemplate.executeInTransaction(operations -> {
+                    events.forEach(event -> operations.send(buildRecord(event)));
+                    return null;
+                });
+            }
+            else {
+                List<CompletableFuture<SendResult<String, String>>> sends = new ArrayList<>(events.size());
+                for (RepoEvent<DataAttributes<Resource>> event : events) {
+                    sends.add(batchKafkaTemplate.send(buildRecord(event)));
+                }
+                CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new)).join();
+            }
+            sendSuccessTimer.record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+            events.forEach(event -> GatewayMetrics.recordEventLatency(latencyTimer, event));
+        } catch (RuntimeException excp) {
+            sendFailureTimer.record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+            throw excp;
+        }
+    }
+
+    private ProducerRecord<String, String> buildRecord(RepoEvent<DataAttributes<Resource>> event) {
+        ProducerRecord<String, String> producerRecord = new ProducerRecord<>(topic, 0, event.getId(),
+                repoEventToJsonTransformer.transform(event));
+        // Same headers the flow would map from the message
+        headerMapper.fromHeaders(new MessageHeaders(Collections.singletonMap(EVENT_ID_HEADER, event.getId())),
+                producerRecord.headers());
+        return producerRecord;
     }
 
     @Override
@@ -93,44 +234,57 @@ public class KafkaEventStore extends AbstractEventConsumer implements EventStore
         storeEvent(event);
     }
 
-    private IntegrationFlowRegistration registerIntegrationFlow(String bootstrapServers, String topic) {
+    @Override
+    public void consumeEvents(List<RepoEvent<DataAttributes<Resource>>> events) {
+        LOGGER.debug("Consuming a batch of {} events", events.size());
+        storeEvents(events);
+    }
+
+    private IntegrationFlowRegistration registerIntegrationFlow(String bootstrapServers) {
         LOGGER.debug("Registering the Spring integration flow to send events to the Kafka cluster {} to topic {}",
                 bootstrapServers, topic);
-        return this.integrationFlowContext.registration(defineIntegrationFlow(bootstrapServers, topic))
+        return this.integrationFlowContext.registration(defineIntegrationFlow())
                 .id(FLOW_BASE_ID + internalId)
                 .register();
     }
 
-    private IntegrationFlow defineIntegrationFlow(String bootstrapServers, String topic) {
+    private IntegrationFlow defineIntegrationFlow() {
         return f -> f
                 .enrichHeaders(h -> h.headerExpression(EVENT_ID_HEADER, "payload.id"))
                 .transform(repoEventToJsonTransformer)
                 .publishSubscribeChannel(c -> c
                         .subscribe(sf -> sf.handle(
-                                kafkaMessageHandler(bootstrapServers, topic),
+                                kafkaMessageHandler(),
                                 e -> e.id(PRODUCER_BASE_ID + internalId))));
     }
 
-    private KafkaProducerMessageHandlerSpec<Integer, String, ?> kafkaMessageHandler(String bootstrapServers,
-            String topic) {
+    private KafkaProducerMessageHandlerSpec<String, String, ?> kafkaMessageHandler() {
         return Kafka
-                .outboundChannelAdapter(producerFactory(bootstrapServers))
+                .outboundChannelAdapter(producerFactory)
                 .sync(true)
                 .messageKey(m -> m
                         .getHeaders()
                         .get(EVENT_ID_HEADER))
-                .headerMapper(new DefaultKafkaHeaderMapper())
+                .headerMapper(headerMapper)
                 .partitionId(m -> 0)
                 .topicExpression("headers[kafka_topic] ?: '" + topic + "'")
                 .configureKafkaTemplate(t -> t.id(TEMPLATE_BASE_ID + internalId + "#" + topic));
     }
 
-    private ProducerFactory<Integer, String> producerFactory(String bootstrapServers) {
+    private ProducerFactory<String, String> producerFactory(String bootstrapServers, String transactionIdPrefix) {
         Map<String, Object> props = new HashMap<>();
         props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
         props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        return new DefaultKafkaProducerFactory<>(props);
+        if (Objects.isNull(transactionIdPrefix)) {
+            return new DefaultKafkaProducerFactory<>(props);
+        }
+        props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        props.put(ProducerConfig.ACKS_CONFIG, "all");
+        DefaultKafkaProducerFactory<String, String> transactionalProducerFactory = new DefaultKafkaProducerFactory<>(
+                props);
+        transactionalProducerFactory.setTransactionIdPrefix(transactionIdPrefix);
+        return transactionalProducerFactory;
     }
 
     private MessagingTemplate createMessagingTemplate(final String flowId) {
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2021-2021 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.alfresco.event.gateway.kafka.storage;
+
+import java.util.List;
+
+import org.alfresco.event.gateway.kafka.consumption.EventRouter;
+import org.alfresco.repo.event.v1.model.DataAttributes;
+import org.alfresco.repo.event.v1.model.RepoEvent;
+import org.alfresco.repo.event.v1.model.Resource;
+
+/**
+ * {@link EventRouter} decorator that stores the events synchronously in an {@link EventStore} once the decorated router
+ * has routed them. Any storage error is propagated to the gateway event consumer, so the events are not acknowledged to
+ * the source and they are redelivered.
+ * <p>
+ * Combined with a transactional {@link KafkaEventStore}, the source acknowledges the events only after their storage
+ * transaction commits, and a batch routed as a whole is stored in a single transaction. The events are routed before
+ * being stored, so a storage failure may deliver them twice to the subscriptions but never stores them twice (except if
+ * the gateway stops between the commit and the acknowledgement).
+ */
+public class StoringEventRouter implements EventRouter {
+
+    private final EventRouter eventRouter;
+    private final EventStore eventStore;
+
+    /**
+     * Constructor.
+     *
+     * @param eventRouter given decorated {@link EventRouter}
+     * @param eventStore  given {@link EventStore}
+     */
+    public StoringEventRouter(final EventRouter eventRouter, final EventStore eventStore) {
+        this.eventRouter = eventRouter;
+        this.eventStore = eventStore;
+    }
+
+    @Override
+    public void routeEvent(RepoEvent<DataAttributes<Resource>> event) {
+        eventRouter.routeEvent(event);
+        eventStore.storeEvent(event);
+    }
+
+    @Override
+    public void routeEvents(List<RepoEvent<DataAttributes<Resource>>> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        eventRouter.routeEvents(events);
+        eventStore.storeEvents(events);
+    }
+
+    @Override
+    public double getLoad() {
+        return eventRouter.getLoad();
+    }
+
+    @Override
+    public boolean hasCapacity() {
+        return eventRouter.hasCapacity();
+    }
+}
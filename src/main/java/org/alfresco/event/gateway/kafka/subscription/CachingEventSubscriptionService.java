@@ -0,0 +1,256 @@
+/*
+ * Copyright 2021-2021 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.alfresco.event.gateway.kafka.subscription;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+import org.alfresco.event.gateway.kafka.entity.Filter;
+import org.alfresco.event.gateway.kafka.entity.Subscription;
+import org.alfresco.event.gateway.kafka.entity.SubscriptionStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Decorator of {@link EventSubscriptionService} that keeps a read-through cache (bounded in size and time) of the
+ * {@link Subscription} objects fetched by identifier and by user and status.
+ * <p>
+ * The cached entries are invalidated whenever a subscription is created or updated through this service. Detached
+ * copies are cached and returned, so that the callers can't modify the cached values.
+ */
+public class CachingEventSubscriptionService implements EventSubscriptionService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CachingEventSubscriptionService.class);
+
+    private final EventSubscriptionService eventSubscriptionService;
+    private final Cache<String, Subscription> subscriptionsById;
+    private final Cache<UserAndStatus, List<Subscription>> subscriptionsByUserAndStatus;
+
+    /**
+     * Constructor.
+     *
+     * @param eventSubscriptionService given {@link EventSubscriptionService} to delegate to
+     * @param maximumSize              given maximum number of entries of each cache
+     * @param timeToLive               given time after which a cached entry expires
+     */
+    public CachingEventSubscriptionService(final EventSubscriptionService eventSubscriptionService,
+            final long maximumSize, final Duration timeToLive) {
+        this.eventSubscriptionService = eventSubscriptionService;
+        this.subscriptionsById = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(timeToLive)
+                .build();
+        this.subscriptionsByUserAndStatus = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(timeToLive)
+                .build();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Subscription getSubscription(String subscriptionId) {
+        Objects.requireNonNull(subscriptionId);
+        return copyOf(subscriptionsById.get(subscriptionId,
+                id -> copyOf(eventSubscriptionService.getSubscription(id))));
+    }
+
+    @Override
+    public Subscription createSubscription(Subscription subscription) {
+        Subscription createdSubscription = eventSubscriptionService.createSubscription(subscription);
+        invalidate(createdSubscription);
+        return createdSubscription;
+    }
+
+    @Override
+    public Subscription updateSubscription(Subscription subscription) {
+        Objects.requireNonNull(subscription);
+        // The owner of the cached copy is invalidated too, in case it has been changed by the update
+        Subscription cachedSubscription = Objects.nonNull(subscription.getId())
+                ? subscriptionsById.getIfPresent(subscription.getId())
+                : null;
+        try {
+            return eventSubscriptionService.updateSubscription(subscription);
+        } finally {
+            invalidate(cachedSubscription);
+            invalidate(subscription);
+        }
+    }
+
+    @Override
+    public List<SubscriptionOperationResult> createSubscriptions(List<Subscription> subscriptions) {
+        List<SubscriptionOperationResult> results = eventSubscriptionService.createSubscriptions(subscriptions);
+        results.forEach(result -> invalidate(result.subscription()));
+        return results;
+    }
+
+    @Override
+    public List<SubscriptionOperationResult> updateSubscriptions(List<Subscription> subscriptions) {
+        Objects.requireNonNull(subscriptions);
+        List<Subscription> cachedSubscriptions = new ArrayList<>();
+        subscriptions.stream()
+                .map(Subscription::getId)
+                .filter(Objects::nonNull)
+                .map(subscriptionsById::getIfPresent)
+                .filter(Objects::nonNull)
+                .forEach(cachedSubscriptions::add);
+        try {
+            return eventSubscriptionService.updateSubscriptions(subscriptions);
+        } finally {
+            cachedSubscriptions.forEach(this::invalidate);
+            subscriptions.forEach(this::invalidate);
+        }
+    }
+
+    @Override
+    public void refreshEventSubscription(String subscriptionId) {
+        eventSubscriptionService.refreshEventSubscription(subscriptionId);
+    }
+
+    @Override
+    public List<Subscription> findSubscriptionsByUserAndFilterType(String user, String filterType) {
+        return eventSubscriptionService.findSubscriptionsByUserAndFilterType(user, filterType);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Subscription> findSubscriptionsByUserAndStatus(String user, SubscriptionStatus subscriptionStatus) {
+        return copyOf(subscriptionsByUserAndStatus.get(new UserAndStatus(user, subscriptionStatus),
+                key -> copyOf(eventSubscriptionService.findSubscriptionsByUserAndStatus(key.user(), key.status()))));
+    }
+
+    @Override
+    public void streamSubscriptions(SubscriptionPageRequest pageRequest, Consumer<Subscription> consumer) {
+        eventSubscriptionService.streamSubscriptions(pageRequest, consumer);
+    }
+
+    @Override
+    public List<String> deactivateSubscriptionsNotModifiedSince(long cutoffTime) {
+        List<String> deactivatedIds = eventSubscriptionService.deactivateSubscriptionsNotModifiedSince(cutoffTime);
+        if (!deactivatedIds.isEmpty()) {
+            // The owners of the deactivated subscriptions are unknown, so every list by user and status is discarded
+            subscriptionsById.invalidateAll(deactivatedIds);
+            subscriptionsByUserAndStatus.invalidateAll();
+        }
+        return deactivatedIds;
+    }
+
+    @Override
+    public List<String> deactivateSubscriptionsOfUsers(Collection<String> users) {
+        List<String> deactivatedIds = eventSubscriptionService.deactivateSubscriptionsOfUsers(users);
+        if (!deactivatedIds.isEmpty()) {
+            subscriptionsById.invalidateAll(deactivatedIds);
+            users.forEach(user -> Arrays.stream(SubscriptionStatus.values())
+                    .forEach(status -> subscriptionsByUserAndStatus.invalidate(new UserAndStatus(user, status))));
+        }
+        return deactivatedIds;
+    }
+
+    @Override
+    public void refreshSubscriptions(Collection<String> subscriptionIds) {
+        try {
+            eventSubscriptionService.refreshSubscriptions(subscriptionIds);
+        } finally {
+            // The owners of the changed subscriptions are unknown, so every list by user and status is discarded
+            subscriptionsById.invalidateAll(subscriptionIds);
+            subscriptionsByUserAndStatus.invalidateAll();
+        }
+    }
+
+    @Override
+    public List<String> refreshSubscriptionsModifiedSince(long time) {
+        List<String> refreshedIds = eventSubscriptionService.refreshSubscriptionsModifiedSince(time);
+        if (!refreshedIds.isEmpty()) {
+            subscriptionsById.invalidateAll(refreshedIds);
+            subscriptionsByUserAndStatus.invalidateAll();
+        }
+        return refreshedIds;
+    }
+
+    @Override
+    public long getStorageLoadTime() {
+        return eventSubscriptionService.getStorageLoadTime();
+    }
+
+    @Override
+    public void unregisterEventSubscription(String subscriptionId) {
+        eventSubscriptionService.unregisterEventSubscription(subscriptionId);
+    }
+
+    /**
+     * Discard all the cached entries.
+     */
+    public void invalidateAll() {
+        subscriptionsById.invalidateAll();
+        subscriptionsByUserAndStatus.invalidateAll();
+    }
+
+    private void invalidate(Subscription subscription) {
+        if (Objects.isNull(subscription)) {
+            return;
+        }
+        LOGGER.debug("Invalidating cached entries of subscription {}", subscription.getId());
+        if (Objects.nonNull(subscription.getId())) {
+            subscriptionsById.invalidate(subscription.getId());
+        }
+        for (SubscriptionStatus subscriptionStatus : SubscriptionStatus.values()) {
+            subscriptionsByUserAndStatus.invalidate(new UserAndStatus(subscription.getUser(), subscriptionStatus));
+        }
+    }
+
+    private static List<Subscription> copyOf(List<Subscription> subscriptions) {
+        List<Subscription> copies = new ArrayList<>(subscriptions.size());
+        subscriptions.forEach(subscription -> copies.add(copyOf(subscription)));
+        return copies;
+    }
+
+    private static Subscription copyOf(Subscription subscription) {
+        if (Objects.isNull(subscription)) {
+            return null;
+        }
+        Subscription copy = new Subscription();
+        copy.setId(subscription.getId());
+        copy.setStatus(subscription.getStatus());
+        copy.setType(subscription.getType());
+        copy.setUser(subscription.getUser());
+        copy.setConfig(Objects.nonNull(subscription.getConfig()) ? new HashMap<>(subscription.getConfig()) : null);
+        copy.setCreatedDate(subscription.getCreatedDate());
+        copy.setModifiedDate(subscription.getModifiedDate());
+        List<Filter> filters = new ArrayList<>();
+        if (Objects.nonNull(subscription.getFilters())) {
+            subscription.getFilters().forEach(filter -> filters.add(copyOf(filter)));
+        }
+        copy.setFilters(filters);
+        return copy;
+    }
+
+    private static Filter copyOf(Filter filter) {
+        Filter copy = new Filter();
+        copy.setId(filter.getId());
+        copy.setType(filter.getType());
+        copy.setConfig(Objects.nonNull(filter.getConfig()) ? new HashMap<>(filter.getConfig()) : null);
+        return copy;
+    }
+
+    private record UserAndStatus(String user, SubscriptionStatus status) {
+    }
+}
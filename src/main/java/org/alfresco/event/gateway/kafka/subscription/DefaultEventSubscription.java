@@ -12,9 +12,14 @@
  */
 package org.alfresco.event.gateway.kafka.subscription;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
-import org.alfresco.event.gateway.kafka.consumption.EventConsumer;
+import org.alfresco.event.gateway.kafka.metrics.GatewayMetrics;
 import org.alfresco.event.gateway.kafka.subscription.filter.EventFilter;
 import org.alfresco.event.gateway.kafka.subscription.transformation.EventTransformation;
 import org.alfresco.repo.event.v1.model.DataAttributes;
@@ -23,17 +28,41 @@ import org.alfresco.repo.event.v1.model.Resource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
 /**
  * Default implementation of {@link EventSubscription} that re-publishes the event consumed to the corresponding
  * {@link SubscriptionPublisher} if it passes all the configured filters.
+ * <p>
+ * The release of the publisher resources waits for the pending consumptions to finish, so that the events already
+ * routed to this subscription before it was replaced or removed are still published. A consumption is pending from the
+ * moment it is routed (see {@link #consumptionRouted()}), even if it hasn't started yet. Once released, the events that
+ * still reach the subscription are discarded.
+ * <p>
+ * The time spent evaluating the filters is recorded per subscription and per result (matched or discarded), which also
+ * gives the match ratio of the subscription. These meters are shared with the event subscription that replaces this one
+ * (they have the same id), so they are not removed on release but when the subscription is deregistered.
+ * <p>
+ * A batch of events is filtered as a whole by each filter in turn and the matching events are handed to the publisher
+ * together. In that case the filter time recorded for each event is the average of the batch. An event whose filtering
+ * or transformation fails is left out of the batch without affecting the others, while the publication of the batch
+ * either succeeds or fails as a whole.
  */
-public class DefaultEventSubscription implements EventSubscription, EventConsumer {
+public class DefaultEventSubscription implements EventSubscription {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(DefaultEventSubscription.class);
+    private static final int RELEASED = -1;
 
     private final SubscriptionPublisher subscriptionPublisher;
     private final List<EventFilter> eventFilters;
     private final List<EventTransformation> eventTransformations;
+    private final Timer matchedFilterTimer;
+    private final Timer discardedFilterTimer;
+    // Number of pending consumptions, or RELEASED once the publisher is released
+    private final AtomicInteger pendingConsumptions = new AtomicInteger();
+    private final AtomicBoolean releaseRequested = new AtomicBoolean();
 
     /**
      * Constructor.
@@ -45,14 +74,78 @@ public class DefaultEventSubscription implements EventSubscription, EventConsume
     public DefaultEventSubscription(final SubscriptionPublisher subscriptionPublisher,
             final List<EventFilter> eventFilters,
             final List<EventTransformation> eventTransformations) {
+        this(subscriptionPublisher, eventFilters, eventTransformations, null, null);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param subscriptionPublisher given {@link SubscriptionPublisher}
+     * @param eventFilters          given {@link List} of {@link EventFilter}
+     * @param eventTransformations  given {@link List} of {@link EventTransformation}
+     * @param subscriptionId        given id of the subscription, used to tag the meters
+     * @param meterRegistry         given {@link MeterRegistry} (<code>null</code> to disable the metrics)
+     */
+    public DefaultEventSubscription(final SubscriptionPublisher subscriptionPublisher,
+            final List<EventFilter> eventFilters,
+            final List<EventTransformation> eventTransformations, final String subscriptionId,
+            final MeterRegistry meterRegistry) {
         this.subscriptionPublisher = subscriptionPublisher;
         this.eventFilters = eventFilters;
         this.eventTransformations = eventTransformations;
+        MeterRegistry registry = GatewayMetrics.registryOrNoop(meterRegistry);
+        Tags tags = Objects.nonNull(subscriptionId) ? Tags.of(GatewayMetrics.TAG_SUBSCRIPTION, subscriptionId)
+                : Tags.empty();
+        this.matchedFilterTimer = registry.timer(GatewayMetrics.SUBSCRIPTION_FILTER,
+                tags.and(GatewayMetrics.TAG_RESULT, GatewayMetrics.RESULT_MATCHED));
+        this.discardedFilterTimer = registry.timer(GatewayMetrics.SUBSCRIPTION_FILTER,
+                tags.and(GatewayMetrics.TAG_RESULT, GatewayMetrics.RESULT_DISCARDED));
     }
 
     @Override
     public void consumeEvent(RepoEvent<DataAttributes<Resource>> event) {
         LOGGER.debug("Consuming event {}", event);
+        if (!beginConsumption()) {
+            LOGGER.warn("Event subscription already released, discarding the event {}", event);
+            return;
+        }
+        try {
+            filterAndPublish(event);
+        } finally {
+            endConsumption();
+        }
+    }
+
+    @Override
+    public void consumeEvents(List<RepoEvent<DataAttributes<Resource>>> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        LOGGER.debug("Consuming a batch of {} events", events.size());
+        if (!beginConsumption()) {
+            LOGGER.warn("Event subscription already released, discarding a batch of {} events", events.size());
+            return;
+        }
+        try {
+            List<RepoEvent<DataAttributes<Resource>>> matchingEvents = filter(events);
+            List<RepoEvent<DataAttributes<Resource>>> transformedEvents = new ArrayList<>(matchingEvents.size());
+            for (RepoEvent<DataAttributes<Resource>> event : matchingEvents) {
+                try {
+                    transformedEvents.add(transform(event));
+                } catch (RuntimeException excp) {
+                    // A failed event must not prevent the publication of the rest of the batch
+                    LOGGER.error("Error transforming the event {}", event, excp);
+                }
+            }
+            if (!transformedEvents.isEmpty()) {
+                subscriptionPublisher.publishEvents(transformedEvents);
+            }
+        } finally {
+            endConsumption();
+        }
+    }
+
+    private void filterAndPublish(RepoEvent<DataAttributes<Resource>> event) {
         // Publish the event only if all filters are passing (or there are no filters for the subscription)
         if (filter(event)) {
             RepoEvent<DataAttributes<Resource>> transformedEvent = transform(event);
@@ -60,8 +153,78 @@ public class DefaultEventSubscription implements EventSubscription, EventConsume
         }
     }
 
+    @Override
+    public void consumptionRouted() {
+        beginConsumption();
+    }
+
+    @Override
+    public void consumptionDone() {
+        endConsumption();
+    }
+
+    private boolean beginConsumption() {
+        int count;
+        do {
+            count = pendingConsumptions.get();
+            if (count == RELEASED) {
+                return false;
+            }
+        } while (!pendingConsumptions.compareAndSet(count, count + 1));
+        return true;
+    }
+
+    private void endConsumption() {
+        // The consumptions begun after the release were not counted
+        int count = pendingConsumptions.updateAndGet(current -> current == RELEASED ? RELEASED : current - 1);
+        if (count == 0 && releaseRequested.get()) {
+            releasePublisher();
+        }
+    }
+
     private boolean filter(RepoEvent<DataAttributes<Resource>> event) {
-        return eventFilters.stream().allMatch(eventFilter -> eventFilter.test(event));
+        long startTime = System.nanoTime();
+        boolean matched = eventFilters.stream().allMatch(eventFilter -> eventFilter.test(event));
+        (matched ? matchedFilterTimer : discardedFilterTimer).record(System.nanoTime() - startTime,
+                TimeUnit.NANOSECONDS);
+        return matched;
+    }
+
+    private List<RepoEvent<DataAttributes<Resource>>> filter(List<RepoEvent<DataAttributes<Resource>>> events) {
+        long startTime = System.nanoTime();
+        List<RepoEvent<DataAttributes<Resource>>> matchingEvents = events;
+        for (EventFilter eventFilter : eventFilters) {
+            if (matchingEvents.isEmpty()) {
+                break;
+            }
+            matchingEvents = filter(eventFilter, matchingEvents);
+        }
+        long averageTime = (System.nanoTime() - startTime) / events.size();
+        for (int i = 0; i < events.size(); i++) {
+            (i < matchingEvents.size() ? matchedFilterTimer : discardedFilterTimer).record(averageTime,
+                    TimeUnit.NANOSECONDS);
+        }
+        return matchingEvents;
+    }
+
+    private static List<RepoEvent<DataAttributes<Resource>>> filter(final EventFilter eventFilter,
+            final List<RepoEvent<DataAttributes<Resource>>> events) {
+        try {
+            return eventFilter.filter(events);
+        } catch (RuntimeException excp) {
+            // Evaluate the events one by one, so that only the failing ones are left out of the batch
+            List<RepoEvent<DataAttributes<Resource>>> matchingEvents = new ArrayList<>(events.size());
+            for (RepoEvent<DataAttributes<Resource>> event : events) {
+                try {
+                    if (eventFilter.test(event)) {
+                        matchingEvents.add(event);
+                    }
+                } catch (RuntimeException eventExcp) {
+                    LOGGER.error("Error filtering the event {}", event, eventExcp);
+                }
+            }
+            return matchingEvents;
+        }
     }
 
     private RepoEvent<DataAttributes<Resource>> transform(RepoEvent<DataAttributes<Resource>> event) {
@@ -83,6 +246,18 @@ public class DefaultEventSubscription implements EventSubscription, EventConsume
     @Override
     public void release() {
         LOGGER.debug("Releasing resources from event subscription");
-        subscriptionPublisher.release();
+        releaseRequested.set(true);
+        if (!releasePublisher()) {
+            LOGGER.debug("Deferring the release until the pending consumptions finish");
+        }
+    }
+
+    private boolean releasePublisher() {
+        // Only once no consumption is pending, atomically preventing any other from beginning
+        if (pendingConsumptions.compareAndSet(0, RELEASED)) {
+            subscriptionPublisher.release();
+            return true;
+        }
+        return false;
     }
 }
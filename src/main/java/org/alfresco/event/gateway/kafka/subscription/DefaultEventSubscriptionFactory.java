@@ -27,6 +27,8 @@ import org.alfresco.event.gateway.kafka.subscription.transformation.EventTransfo
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import io.micrometer.core.instrument.MeterRegistry;
+
 /**
  * Default implementation of {@link EventSubscriptionFactory} that produces {@link DefaultEventSubscription} objects.
  */
@@ -37,6 +39,7 @@ public class DefaultEventSubscriptionFactory implements EventSubscriptionFactory
     private final Map<String, SubscriptionPublisherFactory> subscriptionPublisherFactoryMap;
     private final Map<String, EventFilterFactory> eventFilterFactoryMap;
     private final List<EventTransformation> eventTransformations;
+    private final MeterRegistry meterRegistry;
 
     /**
      * Constructor.
@@ -50,9 +53,27 @@ public class DefaultEventSubscriptionFactory implements EventSubscriptionFactory
             final Map<String, SubscriptionPublisherFactory> subscriptionPublisherFactoryMap,
             final Map<String, EventFilterFactory> eventFilterFactoryMap,
             final List<EventTransformation> eventTransformations) {
+        this(subscriptionPublisherFactoryMap, eventFilterFactoryMap, eventTransformations, null);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param subscriptionPublisherFactoryMap given {@link Map} of subscription types and subscription publisher
+     *                                        factories
+     * @param eventFilterFactoryMap           given {@link Map} of subscription types and event filter factories
+     * @param eventTransformations            given {@link List} of {@link EventTransformation}
+     * @param meterRegistry                   given {@link MeterRegistry} for the metrics of the event subscriptions
+     *                                        (<code>null</code> to disable them)
+     */
+    public DefaultEventSubscriptionFactory(
+            final Map<String, SubscriptionPublisherFactory> subscriptionPublisherFactoryMap,
+            final Map<String, EventFilterFactory> eventFilterFactoryMap,
+            final List<EventTransformation> eventTransformations, final MeterRegistry meterRegistry) {
         this.subscriptionPublisherFactoryMap = subscriptionPublisherFactoryMap;
         this.eventFilterFactoryMap = eventFilterFactoryMap;
         this.eventTransformations = eventTransformations;
+        this.meterRegistry = meterRegistry;
     }
 
     @Override
@@ -60,7 +81,7 @@ public class DefaultEventSubscriptionFactory implements EventSubscriptionFactory
         Objects.requireNonNull(subscription);
         LOGGER.debug("Building event subscription from subscription with id {}", subscription.getId());
         return new DefaultEventSubscription(getSubscriptionPublisher(subscription), getEventFilters(subscription),
-                eventTransformations);
+                eventTransformations, subscription.getId(), meterRegistry);
     }
 
     private SubscriptionPublisher getSubscriptionPublisher(final Subscription subscription) {
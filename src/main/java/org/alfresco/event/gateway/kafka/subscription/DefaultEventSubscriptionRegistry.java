@@ -12,22 +12,50 @@
  */
 package org.alfresco.event.gateway.kafka.subscription;
 
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
+import org.alfresco.event.gateway.kafka.metrics.GatewayMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.search.Search;
+
 /**
- * Default implementation of {@link EventSubscriptionRegistry} that uses a {@link java.util.Map} to store the
- * {@link EventSubscription} objects.
+ * Default implementation of {@link EventSubscriptionRegistry} that uses a {@link ConcurrentHashMap} to store the
+ * {@link EventSubscription} objects, so that it can be safely accessed from the REST threads, the scheduled tasks and
+ * the consumption executor at the same time.
+ * <p>
+ * The meters of a subscription (the ones tagged with its id) are shared by the successive {@link EventSubscription}'s
+ * registered under its id, so they are removed when the id is deregistered rather than when an
+ * {@link EventSubscription} is released.
  */
 public class DefaultEventSubscriptionRegistry implements EventSubscriptionRegistry {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(DefaultEventSubscriptionRegistry.class);
 
-    private Map<String, EventSubscription> registry = new HashMap<>();
+    private final Map<String, EventSubscription> registry = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Constructor.
+     */
+    public DefaultEventSubscriptionRegistry() {
+        this(null);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param meterRegistry given {@link MeterRegistry} holding the meters of the subscriptions (<code>null</code> if
+     *                      there are no meters to remove)
+     */
+    public DefaultEventSubscriptionRegistry(final MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
 
     @Override
     public void register(String id, EventSubscription eventSubscription) {
@@ -43,6 +71,7 @@ public class DefaultEventSubscriptionRegistry implements EventSubscriptionRegist
         Objects.requireNonNull(id);
         LOGGER.debug("De-registering the event subscription with the id {}", id);
         if (Objects.nonNull(registry.remove(id))) {
+            removeMeters(id);
             LOGGER.debug("Event subscription successfully de-registered");
         }
         else {
@@ -50,10 +79,31 @@ public class DefaultEventSubscriptionRegistry implements EventSubscriptionRegist
         }
     }
 
+    private void removeMeters(String id) {
+        if (Objects.nonNull(meterRegistry)) {
+            Search.in(meterRegistry).tag(GatewayMetrics.TAG_SUBSCRIPTION, id).meters().forEach(meterRegistry::remove);
+        }
+    }
+
+    @Override
+    public EventSubscription replace(String id, EventSubscription eventSubscription) {
+        Objects.requireNonNull(id);
+        Objects.requireNonNull(eventSubscription);
+        LOGGER.debug("Replacing the event subscription with the id {} by {}", id, eventSubscription);
+        EventSubscription previousEventSubscription = registry.put(id, eventSubscription);
+        LOGGER.debug("Event subscription successfully replaced");
+        return previousEventSubscription;
+    }
+
     @Override
     public EventSubscription getById(String id) {
         Objects.requireNonNull(id);
         LOGGER.debug("Obtaining the event subscription under the id {}", id);
         return registry.get(id);
     }
+
+    @Override
+    public Set<String> getIds() {
+        return Set.copyOf(registry.keySet());
+    }
 }
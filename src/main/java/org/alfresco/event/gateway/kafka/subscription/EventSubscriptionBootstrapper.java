@@ -0,0 +1,220 @@
+/*
+ * Copyright 2021-2021 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.alfresco.event.gateway.kafka.subscription;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import org.alfresco.event.gateway.kafka.SubscriptionConfigurationConstants;
+import org.alfresco.event.gateway.kafka.entity.Subscription;
+import org.alfresco.event.gateway.kafka.subscription.exception.EventSubscriptionException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+/**
+ * Component in charge of building the {@link EventSubscription} objects of the subscriptions loaded on startup (and of
+ * the ones created or updated in bulk).
+ * <p>
+ * The event subscriptions are built concurrently using a bounded pool of threads (property
+ * <code>alfresco.event.gateway.subscription.bootstrap.parallelism</code>), grouped by the broker they publish to. Once
+ * all of them are built, they are handed to the registrar in the calling thread. The progress and the timings of each
+ * phase are reported in the log.
+ */
+public class EventSubscriptionBootstrapper {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(EventSubscriptionBootstrapper.class);
+    private static final String NO_BROKER = "<none>";
+    private static final int PROGRESS_STEPS = 10;
+
+    private final EventSubscriptionFactory eventSubscriptionFactory;
+    private final int parallelism;
+
+    /**
+     * Constructor.
+     *
+     * @param eventSubscriptionFactory given {@link EventSubscriptionFactory}
+     * @param parallelism              given maximum number of event subscriptions built at the same time
+     */
+    public EventSubscriptionBootstrapper(final EventSubscriptionFactory eventSubscriptionFactory,
+            final int parallelism) {
+        this.eventSubscriptionFactory = eventSubscriptionFactory;
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    /**
+     * Build the {@link EventSubscription} corresponding to each {@link Subscription} and hand them all to the registrar
+     * at once, so that they can be registered in bulk. If any of the event subscriptions cannot be built, the ones
+     * already built are released and the error is propagated.
+     *
+     * @param subscriptions given {@link List} of {@link Subscription} to bootstrap
+     * @param registrar     given callback invoked with the {@link BuildResult} of every {@link Subscription}
+     */
+    public void bootstrap(final List<Subscription> subscriptions, final Consumer<List<BuildResult>> registrar) {
+        Objects.requireNonNull(subscriptions);
+        Objects.requireNonNull(registrar);
+        if (subscriptions.isEmpty()) {
+            LOGGER.info("No subscriptions to bootstrap");
+            return;
+        }
+
+        Map<String, List<Subscription>> subscriptionsByBroker = groupByBroker(subscriptions);
+        LOGGER.info("Bootstrapping {} subscriptions for {} brokers with parallelism {}", subscriptions.size(),
+                subscriptionsByBroker.size(), parallelism);
+
+        long buildStartTime = System.currentTimeMillis();
+        List<Subscription> orderedSubscriptions = new ArrayList<>(subscriptions.size());
+        subscriptionsByBroker.values().forEach(orderedSubscriptions::addAll);
+        EventSubscription[] eventSubscriptions = buildEventSubscriptions(orderedSubscriptions);
+        long buildTime = System.currentTimeMillis() - buildStartTime;
+
+        long registrationStartTime = System.currentTimeMillis();
+        List<BuildResult> buildResults = new ArrayList<>(eventSubscriptions.length);
+        for (int i = 0; i < eventSubscriptions.length; i++) {
+            buildResults.add(new BuildResult(orderedSubscriptions.get(i), eventSubscriptions[i], null));
+        }
+        registrar.accept(buildResults);
+        long registrationTime = System.currentTimeMillis() - registrationStartTime;
+
+        LOGGER.info("{} subscriptions bootstrapped (build phase {} milliseconds, registration phase {} milliseconds)",
+                eventSubscriptions.length, buildTime, registrationTime);
+    }
+
+    private Map<String, List<Subscription>> groupByBroker(final List<Subscription> subscriptions) {
+        Map<String, List<Subscription>> subscriptionsByBroker = new LinkedHashMap<>();
+        subscriptions.forEach(subscription -> subscriptionsByBroker
+                .computeIfAbsent(getBrokerId(subscription), brokerId -> new ArrayList<>())
+                .add(subscription));
+        return subscriptionsByBroker;
+    }
+
+    private String getBrokerId(final Subscription subscription) {
+        Map<String, String> config = subscription.getConfig();
+        String brokerId = Objects.nonNull(config) ? config.get(SubscriptionConfigurationConstants.BROKER_ID) : null;
+        return Objects.nonNull(brokerId) ? brokerId : NO_BROKER;
+    }
+
+    private EventSubscription[] buildEventSubscriptions(final List<Subscription> subscriptions) {
+        List<BuildResult> buildResults = build(subscriptions);
+        EventSubscription[] eventSubscriptions = new EventSubscription[buildResults.size()];
+        RuntimeException firstError = null;
+        int builtCount = 0;
+        for (int i = 0; i < eventSubscriptions.length; i++) {
+            BuildResult buildResult = buildResults.get(i);
+            eventSubscriptions[i] = buildResult.eventSubscription();
+            if (buildResult.isBuilt()) {
+                builtCount++;
+            }
+            else if (Objects.isNull(firstError)) {
+                firstError = buildResult.error();
+            }
+        }
+        if (Objects.nonNull(firstError)) {
+            releaseBuiltEventSubscriptions(eventSubscriptions);
+            LOGGER.error("Error bootstrapping the subscriptions, {} of {} were built", builtCount,
+                    eventSubscriptions.length);
+            throw firstError;
+        }
+        return eventSubscriptions;
+    }
+
+    /**
+     * Build the {@link EventSubscription} corresponding to each {@link Subscription} concurrently. A failure building
+     * one of them doesn't prevent the others from being built.
+     *
+     * @param subscriptions given {@link List} of {@link Subscription} to build
+     * @return the {@link List} of {@link BuildResult}, in the same order as the given subscriptions
+     */
+    public List<BuildResult> build(final List<Subscription> subscriptions) {
+        Objects.requireNonNull(subscriptions);
+        int total = subscriptions.size();
+        if (total == 0) {
+            return List.of();
+        }
+        BuildResult[] buildResults = new BuildResult[total];
+        AtomicInteger builtCount = new AtomicInteger();
+        Map<String, LongAdder> buildTimeByBroker = new ConcurrentHashMap<>();
+
+        ExecutorService executorService = Executors.newFixedThreadPool(Math.min(parallelism, total),
+                new CustomizableThreadFactory("SubscriptionBootstrap-"));
+        try {
+            CompletableFuture<?>[] futures = new CompletableFuture<?>[total];
+            for (int i = 0; i < total; i++) {
+                final int index = i;
+                final Subscription subscription = subscriptions.get(index);
+                futures[index] = CompletableFuture.runAsync(() -> {
+                    long startTime = System.currentTimeMillis();
+                    try {
+                        buildResults[index] = new BuildResult(subscription,
+                                eventSubscriptionFactory.getEventSubscription(subscription), null);
+                    } catch (RuntimeException excp) {
+                        LOGGER.debug("Error building event subscription for subscription {}", subscription.getId(),
+                                excp);
+                        buildResults[index] = new BuildResult(subscription, null, excp);
+                    }
+                    buildTimeByBroker.computeIfAbsent(getBrokerId(subscription), brokerId -> new LongAdder())
+                            .add(System.currentTimeMillis() - startTime);
+                    reportProgress(builtCount.incrementAndGet(), total);
+                }, executorService);
+            }
+            CompletableFuture.allOf(futures).join();
+        } catch (CompletionException excp) {
+            throw new EventSubscriptionException("Error building the event subscriptions", excp);
+        } finally {
+            executorService.shutdownNow();
+        }
+
+        buildTimeByBroker.forEach((brokerId, buildTime) -> LOGGER
+                .info("Subscriptions for broker {} built in {} milliseconds (accumulated)", brokerId, buildTime.sum()));
+        return List.of(buildResults);
+    }
+
+    private void reportProgress(final int builtCount, final int total) {
+        if (builtCount == total || (builtCount * PROGRESS_STEPS / total) != ((builtCount - 1) * PROGRESS_STEPS / total)) {
+            LOGGER.info("Subscription bootstrap progress: {}/{}", builtCount, total);
+        }
+    }
+
+    private void releaseBuiltEventSubscriptions(final EventSubscription[] eventSubscriptions) {
+        for (EventSubscription eventSubscription : eventSubscriptions) {
+            if (Objects.nonNull(eventSubscription)) {
+                eventSubscription.release();
+            }
+        }
+    }
+
+    /**
+     * Result of building the {@link EventSubscription} of a {@link Subscription}.
+     *
+     * @param subscription      the {@link Subscription}
+     * @param eventSubscription the built {@link EventSubscription} (<code>null</code> if it could not be built)
+     * @param error             the error thrown building it (<code>null</code> if it was built)
+     */
+    public record BuildResult(Subscription subscription, EventSubscription eventSubscription, RuntimeException error) {
+
+        public boolean isBuilt() {
+            return Objects.isNull(error);
+        }
+    }
+}
@@ -12,6 +12,8 @@
  */
 package org.alfresco.event.gateway.kafka.subscription;
 
+import java.util.Set;
+
 /**
  * Registry that manages all the {@link EventSubscription} objects of the event gateway microservice. This component
  * offers functionality to add, remove and retrieve all the event subscriptions.
@@ -35,6 +37,19 @@ public interface EventSubscriptionRegistry {
      */
     void deregister(String id);
 
+    /**
+     * Atomically replace the {@link EventSubscription} registered under an identifier with a new one. If the identifier
+     * was not registered, the new {@link EventSubscription} is simply added to the registry.
+     * <p>
+     * The registry does not release the replaced {@link EventSubscription}, that remains a responsibility of the
+     * caller once the replacement is visible to the rest of components.
+     *
+     * @param id                the identifier to register the {@link EventSubscription} against
+     * @param eventSubscription the new {@link EventSubscription} to register
+     * @return the replaced {@link EventSubscription} or <code>null</code> if the identifier was not in the registry
+     */
+    EventSubscription replace(String id, EventSubscription eventSubscription);
+
     /**
      * Get an {@link EventSubscription} from the registry by its identifier. If no {@link EventSubscription} is
      * registered under that identifier, <code>null</code> is returned instead.
@@ -43,4 +58,11 @@ public interface EventSubscriptionRegistry {
      * @return the corresponding {@link EventSubscription} or <code>null</code> if the identifier is not in the registry
      */
     EventSubscription getById(String id);
+
+    /**
+     * Get the identifiers of all the {@link EventSubscription}'s in the registry.
+     *
+     * @return a point-in-time {@link Set} with the registered identifiers
+     */
+    Set<String> getIds();
 }
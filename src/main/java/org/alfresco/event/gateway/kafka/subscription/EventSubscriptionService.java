@@ -12,7 +12,9 @@
  */
 package org.alfresco.event.gateway.kafka.subscription;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
 
 import org.alfresco.event.gateway.kafka.entity.Subscription;
 import org.alfresco.event.gateway.kafka.entity.SubscriptionStatus;
@@ -46,6 +48,24 @@ public interface EventSubscriptionService {
      */
     Subscription updateSubscription(Subscription subscription);
 
+    /**
+     * Creates a list of {@link Subscription} in a single transaction. The subscriptions whose configuration is not
+     * valid are not created, but they don't prevent the others from being created.
+     *
+     * @param subscriptions the configurations of the {@link Subscription}'s to be created
+     * @return the {@link List} of {@link SubscriptionOperationResult}, in the same order as the given subscriptions
+     */
+    List<SubscriptionOperationResult> createSubscriptions(List<Subscription> subscriptions);
+
+    /**
+     * Updates a list of {@link Subscription} items in a single transaction. The subscriptions that can't be activated
+     * are not updated, but they don't prevent the others from being updated.
+     *
+     * @param subscriptions the new subscriptions information to be updated
+     * @return the {@link List} of {@link SubscriptionOperationResult}, in the same order as the given subscriptions
+     */
+    List<SubscriptionOperationResult> updateSubscriptions(List<Subscription> subscriptions);
+
     /**
      * Refreshes the {@link EventSubscription} instance corresponding to a subscription identifier.
      *
@@ -72,6 +92,59 @@ public interface EventSubscriptionService {
      */
     List<Subscription> findSubscriptionsByUserAndStatus(String user, SubscriptionStatus subscriptionStatus);
 
+    /**
+     * Stream a page of {@link Subscription}'s to the given consumer without loading the whole page in memory. The
+     * consumer is invoked within a read-only transaction, so the filters of each subscription can be accessed lazily.
+     *
+     * @param pageRequest the {@link SubscriptionPageRequest} describing the page to be streamed
+     * @param consumer    the {@link Consumer} invoked with every {@link Subscription} of the page, in order
+     */
+    void streamSubscriptions(SubscriptionPageRequest pageRequest, Consumer<Subscription> consumer);
+
+    /**
+     * Deactivate in a single operation all the active {@link Subscription}'s that haven't been modified since the given
+     * time, and deregister their {@link EventSubscription} instances.
+     *
+     * @param cutoffTime the time in milliseconds since which the active subscriptions must not have been modified
+     * @return the ids of the deactivated subscriptions
+     */
+    List<String> deactivateSubscriptionsNotModifiedSince(long cutoffTime);
+
+    /**
+     * Deactivate in a single operation all the active {@link Subscription}'s owned by any of the given users, and
+     * deregister their {@link EventSubscription} instances.
+     *
+     * @param users the usernames of the owners of the subscriptions to deactivate
+     * @return the ids of the deactivated subscriptions
+     */
+    List<String> deactivateSubscriptionsOfUsers(Collection<String> users);
+
+    /**
+     * Reload the given {@link Subscription}'s from storage and bring their {@link EventSubscription} instances in line
+     * with them: the active ones are (re)built concurrently and the rest are deregistered. This is intended to apply in
+     * this node the changes made in other nodes.
+     *
+     * @param subscriptionIds the ids of the subscriptions to refresh
+     */
+    void refreshSubscriptions(Collection<String> subscriptionIds);
+
+    /**
+     * Refresh (see {@link #refreshSubscriptions(Collection)}) all the {@link Subscription}'s modified in storage since
+     * the given time. This is intended to catch up with the changes made in other nodes while this node was not
+     * receiving their notifications yet.
+     *
+     * @param time the time in milliseconds since which the subscriptions to refresh have been modified
+     * @return the ids of the refreshed subscriptions
+     */
+    List<String> refreshSubscriptionsModifiedSince(long time);
+
+    /**
+     * Get the time at which the active {@link Subscription}'s were loaded from storage on startup.
+     *
+     * @return the time in milliseconds at which the subscriptions were loaded from storage
+     */
+    long getStorageLoadTime();
+
     /**
      * Deregister the {@link EventSubscription} instance corresponding to a subscription identifier.
      *
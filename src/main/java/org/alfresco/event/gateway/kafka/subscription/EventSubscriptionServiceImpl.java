@@ -12,8 +12,17 @@
  */
 package org.alfresco.event.gateway.kafka.subscription;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import jakarta.annotation.PostConstruct;
 
@@ -21,50 +30,135 @@ import org.alfresco.event.gateway.kafka.consumption.EventConsumer;
 import org.alfresco.event.gateway.kafka.consumption.EventConsumerRegistry;
 import org.alfresco.event.gateway.kafka.entity.Subscription;
 import org.alfresco.event.gateway.kafka.entity.SubscriptionStatus;
+import org.alfresco.event.gateway.kafka.subscription.EventSubscriptionBootstrapper.BuildResult;
 import org.alfresco.event.gateway.kafka.subscription.exception.SubscriptionConfigurationException;
 import org.alfresco.event.gateway.kafka.subscription.exception.SubscriptionNotFoundException;
 import org.alfresco.event.gateway.kafka.subscription.storage.EventSubscriptionStorage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 /**
  * Default implementation of {@link EventSubscriptionService}.
+ * <p>
+ * The registration, replacement and removal of the {@link EventSubscription} instances are serialized per subscription
+ * identifier (using a fixed set of lock stripes), as they can be triggered concurrently from the REST API, the scheduled
+ * tasks and the event consumers.
+ * <p>
+ * When a {@link SubscriptionOwnership} is given, only the event subscriptions owned by this node are registered.
+ * <p>
+ * Within a transaction, the event subscriptions of the subscriptions created or updated are built (validating their
+ * configuration) before the commit, but they are only registered or deregistered once the transaction commits, right
+ * before notifying the {@link SubscriptionChangeListener}'s. If it is rolled back, the ones built are just released.
  */
 public class EventSubscriptionServiceImpl implements EventSubscriptionService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(EventSubscriptionServiceImpl.class);
+    private static final int LOCK_STRIPES = 64;
+    private static final int DEACTIVATION_BATCH_SIZE = 1000;
 
     private final EventSubscriptionStorage eventSubscriptionStorage;
     private final EventSubscriptionFactory eventSubscriptionFactory;
     private final EventConsumerRegistry eventConsumerRegistry;
     private final EventSubscriptionRegistry eventSubscriptionRegistry;
+    private final EventSubscriptionBootstrapper eventSubscriptionBootstrapper;
+    private final List<SubscriptionChangeListener> subscriptionChangeListeners;
+    private final SubscriptionOwnership subscriptionOwnership;
+    private final Object[] subscriptionLocks = new Object[LOCK_STRIPES];
+    private volatile long storageLoadTime;
 
     /**
      * Constructor.
      *
      * @param eventSubscriptionStorage given {@link EventSubscriptionStorage}
      * @param eventSubscriptionFactory given {@link EventSubscriptionFactory}
+     * @param eventSubscriptionBootstrapper given {@link EventSubscriptionBootstrapper} used on startup
      */
     public EventSubscriptionServiceImpl(final EventSubscriptionStorage eventSubscriptionStorage,
             final EventSubscriptionFactory eventSubscriptionFactory, final EventConsumerRegistry eventConsumerRegistry,
-            final EventSubscriptionRegistry eventSubscriptionRegistry) {
+            final EventSubscriptionRegistry eventSubscriptionRegistry,
+            final EventSubscriptionBootstrapper eventSubscriptionBootstrapper) {
+        this(eventSubscriptionStorage, eventSubscriptionFactory, eventConsumerRegistry, eventSubscriptionRegistry,
+                eventSubscriptionBootstrapper, null);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param eventSubscriptionStorage      given {@link EventSubscriptionStorage}
+     * @param eventSubscriptionFactory      given {@link EventSubscriptionFactory}
+     * @param eventConsumerRegistry         given {@link EventConsumerRegistry}
+     * @param eventSubscriptionRegistry     given {@link EventSubscriptionRegistry}
+     * @param eventSubscriptionBootstrapper given {@link EventSubscriptionBootstrapper} used on startup
+     * @param subscriptionChangeListeners   given {@link List} of {@link SubscriptionChangeListener}'s notified after
+     *                                      every committed change
+     */
+    public EventSubscriptionServiceImpl(final EventSubscriptionStorage eventSubscriptionStorage,
+            final EventSubscriptionFactory eventSubscriptionFactory, final EventConsumerRegistry eventConsumerRegistry,
+            final EventSubscriptionRegistry eventSubscriptionRegistry,
+            final EventSubscriptionBootstrapper eventSubscriptionBootstrapper,
+            final List<SubscriptionChangeListener> subscriptionChangeListeners) {
+        this(eventSubscriptionStorage, eventSubscriptionFactory, eventConsumerRegistry, eventSubscriptionRegistry,
+                eventSubscriptionBootstrapper, subscriptionChangeListeners, null);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param eventSubscriptionStorage      given {@link EventSubscriptionStorage}
+     * @param eventSubscriptionFactory      given {@link EventSubscriptionFactory}
+     * @param eventConsumerRegistry         given {@link EventConsumerRegistry}
+     * @param eventSubscriptionRegistry     given {@link EventSubscriptionRegistry}
+     * @param eventSubscriptionBootstrapper given {@link EventSubscriptionBootstrapper} used on startup
+     * @param subscriptionChangeListeners   given {@link List} of {@link SubscriptionChangeListener}'s notified after
+     *                                      every committed change
+     * @param subscriptionOwnership         given {@link SubscriptionOwnership} deciding which subscriptions are
+     *                                      registered in this node (<code>null</code> to register all of them)
+     */
+    public EventSubscriptionServiceImpl(final EventSubscriptionStorage eventSubscriptionStorage,
+            final EventSubscriptionFactory eventSubscriptionFactory, final EventConsumerRegistry eventConsumerRegistry,
+            final EventSubscriptionRegistry eventSubscriptionRegistry,
+            final EventSubscriptionBootstrapper eventSubscriptionBootstrapper,
+            final List<SubscriptionChangeListener> subscriptionChangeListeners,
+            final SubscriptionOwnership subscriptionOwnership) {
         this.eventSubscriptionStorage = eventSubscriptionStorage;
         this.eventSubscriptionFactory = eventSubscriptionFactory;
         this.eventConsumerRegistry = eventConsumerRegistry;
         this.eventSubscriptionRegistry = eventSubscriptionRegistry;
+        this.eventSubscriptionBootstrapper = eventSubscriptionBootstrapper;
+        this.subscriptionChangeListeners = Objects.nonNull(subscriptionChangeListeners)
+                ? List.copyOf(subscriptionChangeListeners)
+                : List.of();
+        this.subscriptionOwnership = Objects.nonNull(subscriptionOwnership)
+                ? subscriptionOwnership
+                : subscriptionId -> true;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            subscriptionLocks[i] = new Object();
+        }
     }
 
     /**
      * Fetches all previously persisted active {@link Subscription} and creates {@link EventSubscription} out of them
+     * (concurrently, see {@link EventSubscriptionBootstrapper})
      */
     @PostConstruct
     @Transactional(readOnly = true)
     public void initializeSubscriptionsFromStorage() {
-        eventSubscriptionStorage.findSubscriptionsByStatus(SubscriptionStatus.ACTIVE)
-                .forEach(this::createAndRegisterEventSubscription);
+        long loadStartTime = System.currentTimeMillis();
+        storageLoadTime = loadStartTime;
+        List<Subscription> activeSubscriptions = eventSubscriptionStorage
+                .findSubscriptionsByStatus(SubscriptionStatus.ACTIVE)
+                .stream()
+                .filter(subscription -> subscriptionOwnership.isOwned(subscription.getId()))
+                .toList();
+        LOGGER.info("{} active subscriptions owned by this node loaded from storage in {} milliseconds",
+                activeSubscriptions.size(), System.currentTimeMillis() - loadStartTime);
+        eventSubscriptionBootstrapper.bootstrap(activeSubscriptions, this::registerEventSubscriptions);
     }
 
     @Override
@@ -83,6 +177,7 @@ public class EventSubscriptionServiceImpl implements EventSubscriptionService {
         Subscription subscriptionCreated = persistSubscription(subscription);
         // Event subscription registration (consumer & subscription)
         createAndRegisterEventSubscription(subscriptionCreated);
+        notifySubscriptionsChanged(List.of(subscriptionCreated.getId()));
         return subscriptionCreated;
     }
 
@@ -95,9 +190,110 @@ public class EventSubscriptionServiceImpl implements EventSubscriptionService {
         subscription.setModifiedDate(System.currentTimeMillis());
         Subscription updatedSubscription = eventSubscriptionStorage.save(subscription);
         applyStatusToEventSubscription(subscription);
+        notifySubscriptionsChanged(List.of(updatedSubscription.getId()));
         return updatedSubscription;
     }
 
+    @Override
+    @Transactional
+    public List<SubscriptionOperationResult> createSubscriptions(List<Subscription> subscriptions) {
+        Objects.requireNonNull(subscriptions);
+        LOGGER.debug("Creating {} subscriptions", subscriptions.size());
+        subscriptions.forEach(subscription -> {
+            subscription.setStatus(SubscriptionStatus.ACTIVE);
+            setSubscriptionUser(subscription);
+        });
+        // The identifiers are assigned here, but the (batched) inserts are not issued until the flush
+        List<Subscription> persistedSubscriptions = eventSubscriptionStorage.saveAll(subscriptions);
+
+        List<BuildResult> buildResults = eventSubscriptionBootstrapper.build(persistedSubscriptions);
+        List<SubscriptionOperationResult> results = new ArrayList<>(buildResults.size());
+        List<BuildResult> builtResults = new ArrayList<>(buildResults.size());
+        for (int i = 0; i < buildResults.size(); i++) {
+            BuildResult buildResult = buildResults.get(i);
+            if (buildResult.isBuilt()) {
+                builtResults.add(buildResult);
+                results.add(SubscriptionOperationResult.succeeded(buildResult.subscription()));
+            }
+            else {
+                eventSubscriptionStorage.delete(buildResult.subscription());
+                // The identifier assigned is discarded with the subscription, so it is identified by its position
+                results.add(SubscriptionOperationResult.failed(i, buildResult.error().getMessage()));
+            }
+        }
+
+        flushStorage(builtResults);
+        registerEventSubscriptionsAfterCommit(builtResults);
+        notifySubscriptionsChanged(builtResults.stream().map(buildResult -> buildResult.subscription().getId())
+                .toList());
+        return results;
+    }
+
+    @Override
+    @Transactional
+    public List<SubscriptionOperationResult> updateSubscriptions(List<Subscription> subscriptions) {
+        Objects.requireNonNull(subscriptions);
+        LOGGER.debug("Updating {} subscriptions", subscriptions.size());
+        SubscriptionOperationResult[] results = new SubscriptionOperationResult[subscriptions.size()];
+
+        // Build the event subscriptions to be registered first, so that the ones that fail are not updated
+        List<Integer> activationIndexes = new ArrayList<>();
+        for (int i = 0; i < results.length; i++) {
+            Subscription subscription = subscriptions.get(i);
+            if (SubscriptionStatus.ACTIVE.equals(subscription.getStatus())) {
+                if (Objects.isNull(eventSubscriptionRegistry.getById(subscription.getId()))) {
+                    activationIndexes.add(i);
+                }
+            }
+            else if (!SubscriptionStatus.INACTIVE.equals(subscription.getStatus())) {
+                results[i] = SubscriptionOperationResult.failed(subscription.getId(),
+                        String.format("Invalid subscription status %s", subscription.getStatus()));
+            }
+        }
+        List<BuildResult> buildResults = eventSubscriptionBootstrapper
+                .build(activationIndexes.stream().map(subscriptions::get).toList());
+        List<BuildResult> builtResults = new ArrayList<>(buildResults.size());
+        for (int i = 0; i < buildResults.size(); i++) {
+            BuildResult buildResult = buildResults.get(i);
+            if (buildResult.isBuilt()) {
+                builtResults.add(buildResult);
+            }
+            else {
+                results[activationIndexes.get(i)] = SubscriptionOperationResult
+                        .failed(buildResult.subscription().getId(), buildResult.error().getMessage());
+            }
+        }
+
+        List<Integer> updateIndexes = new ArrayList<>();
+        List<Subscription> subscriptionsToUpdate = new ArrayList<>();
+        long modifiedDate = System.currentTimeMillis();
+        for (int i = 0; i < results.length; i++) {
+            if (Objects.isNull(results[i])) {
+                Subscription subscription = subscriptions.get(i);
+                subscription.setModifiedDate(modifiedDate);
+                updateIndexes.add(i);
+                subscriptionsToUpdate.add(subscription);
+            }
+        }
+        List<Subscription> updatedSubscriptions = eventSubscriptionStorage.saveAll(subscriptionsToUpdate);
+        flushStorage(builtResults);
+
+        registerEventSubscriptionsAfterCommit(builtResults);
+        List<String> inactiveIds = new ArrayList<>();
+        for (int i = 0; i < updatedSubscriptions.size(); i++) {
+            Subscription updatedSubscription = updatedSubscriptions.get(i);
+            if (SubscriptionStatus.INACTIVE.equals(updatedSubscription.getStatus())) {
+                inactiveIds.add(updatedSubscription.getId());
+            }
+            results[updateIndexes.get(i)] = SubscriptionOperationResult.succeeded(updatedSubscription);
+        }
+        if (!inactiveIds.isEmpty()) {
+            runAfterCommit(() -> unregisterEventSubscriptions(inactiveIds), () -> {});
+        }
+        notifySubscriptionsChanged(updatedSubscriptions.stream().map(Subscription::getId).toList());
+        return Arrays.asList(results);
+    }
+
     @Override
     @Transactional
     public void refreshEventSubscription(String subscriptionId) {
@@ -106,8 +302,8 @@ public class EventSubscriptionServiceImpl implements EventSubscriptionService {
 
         Subscription subscription = getSubscription(subscriptionId);
         if (Objects.nonNull(subscription)) {
-            unregisterEventSubscription(subscriptionId);
-            createAndRegisterEventSubscription(subscription);
+            replaceEventSubscription(subscription);
+            notifySubscriptionsChanged(List.of(subscriptionId));
         }
         else {
             throw new SubscriptionNotFoundException(String.format("Subscription %s not found", subscriptionId));
@@ -126,18 +322,196 @@ public class EventSubscriptionServiceImpl implements EventSubscriptionService {
         return eventSubscriptionStorage.findSubscriptionsByUserAndStatus(user, subscriptionStatus);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public void streamSubscriptions(final SubscriptionPageRequest pageRequest, final Consumer<Subscription> consumer) {
+        LOGGER.debug("Streaming subscriptions page {}", pageRequest);
+        long afterCreatedDate = pageRequest.isFirstPage() ? Long.MIN_VALUE : pageRequest.afterCreatedDate();
+        String afterId = pageRequest.isFirstPage() ? "" : pageRequest.afterId();
+        try (Stream<Subscription> subscriptions = eventSubscriptionStorage.streamSubscriptionsAfter(afterCreatedDate,
+                afterId, pageRequest.user(), pageRequest.status(), Limit.of(pageRequest.limit()))) {
+            // Read ahead in chunks, so that the lazy filters of a whole chunk are fetched by a single query when the
+            // consumer accesses the filters of its first subscription, instead of one query per subscription
+            List<Subscription> chunk = new ArrayList<>(Subscription.FILTERS_BATCH_SIZE);
+            Iterator<Subscription> iterator = subscriptions.iterator();
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+                if (chunk.size() == Subscription.FILTERS_BATCH_SIZE || !iterator.hasNext()) {
+                    chunk.forEach(consumer);
+                    chunk.clear();
+                }
+            }
+        }
+    }
+
+    @Override
+    @Transactional
+    public List<String> deactivateSubscriptionsNotModifiedSince(final long cutoffTime) {
+        LOGGER.debug("Deactivating the active subscriptions not modified since {}", cutoffTime);
+        return deactivateSubscriptions(
+                eventSubscriptionStorage.lockSubscriptionsNotModifiedSince(SubscriptionStatus.ACTIVE, cutoffTime));
+    }
+
+    @Override
+    @Transactional
+    public List<String> deactivateSubscriptionsOfUsers(final Collection<String> users) {
+        Objects.requireNonNull(users);
+        if (users.isEmpty()) {
+            return List.of();
+        }
+        LOGGER.debug("Deactivating the active subscriptions of users {}", users);
+        return deactivateSubscriptions(
+                eventSubscriptionStorage.lockSubscriptionsOfUsers(SubscriptionStatus.ACTIVE, users));
+    }
+
+    private List<String> deactivateSubscriptions(final List<Subscription> lockedSubscriptions) {
+        if (lockedSubscriptions.isEmpty()) {
+            return List.of();
+        }
+        // The subscriptions are locked when selected, so exactly those are updated (and deregistered) by id, which
+        // unlike UPDATE ... RETURNING is portable across the supported databases
+        List<String> deactivatedIds = lockedSubscriptions.stream().map(Subscription::getId).toList();
+        long deactivationTime = Instant.now().toEpochMilli();
+        for (int fromIndex = 0; fromIndex < deactivatedIds.size(); fromIndex += DEACTIVATION_BATCH_SIZE) {
+            eventSubscriptionStorage.updateStatusOfSubscriptions(deactivatedIds.subList(fromIndex,
+                    Math.min(fromIndex + DEACTIVATION_BATCH_SIZE, deactivatedIds.size())), SubscriptionStatus.INACTIVE,
+                    deactivationTime);
+        }
+        runAfterCommit(() -> unregisterEventSubscriptions(deactivatedIds), () -> {});
+        notifySubscriptionsChanged(deactivatedIds);
+        LOGGER.info("{} subscriptions deactivated", deactivatedIds.size());
+        return deactivatedIds;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void refreshSubscriptions(final Collection<String> subscriptionIds) {
+        Objects.requireNonNull(subscriptionIds);
+        LOGGER.debug("Refreshing the subscriptions {} from storage", subscriptionIds);
+        Map<String, Subscription> subscriptionsById = new HashMap<>();
+        eventSubscriptionStorage.findAllById(subscriptionIds)
+                .forEach(subscription -> subscriptionsById.put(subscription.getId(), subscription));
+        List<Subscription> activeSubscriptions = new ArrayList<>();
+        List<String> inactiveIds = new ArrayList<>();
+        for (String subscriptionId : subscriptionIds) {
+            Subscription subscription = subscriptionsById.get(subscriptionId);
+            if (Objects.nonNull(subscription) && SubscriptionStatus.ACTIVE.equals(subscription.getStatus())
+                    && subscriptionOwnership.isOwned(subscriptionId)) {
+                activeSubscriptions.add(subscription);
+            }
+            else {
+                inactiveIds.add(subscriptionId);
+            }
+        }
+        // Built concurrently, as a whole shard of subscriptions can be refreshed at once (e.g. when it is taken over)
+        for (BuildResult buildResult : eventSubscriptionBootstrapper.build(activeSubscriptions)) {
+            if (buildResult.isBuilt()) {
+                replaceEventSubscription(buildResult.subscription(), buildResult.eventSubscription());
+            }
+            else {
+                LOGGER.error("Error refreshing the subscription {}", buildResult.subscription().getId(),
+                        buildResult.error());
+            }
+        }
+        unregisterEventSubscriptions(inactiveIds);
+    }
+
+    @Override
+    public List<String> refreshSubscriptionsModifiedSince(final long time) {
+        List<String> subscriptionIds = eventSubscriptionStorage.findSubscriptionIdsModifiedSince(time);
+        LOGGER.debug("{} subscriptions modified since {}", subscriptionIds.size(), time);
+        if (!subscriptionIds.isEmpty()) {
+            refreshSubscriptions(subscriptionIds);
+        }
+        return subscriptionIds;
+    }
+
+    @Override
+    public long getStorageLoadTime() {
+        return storageLoadTime;
+    }
+
     @Override
     @Transactional
     public void unregisterEventSubscription(String subscriptionId) {
         LOGGER.debug("De-registering subscription with id {}", subscriptionId);
-        EventSubscription eventSubscription = eventSubscriptionRegistry.getById(subscriptionId);
-        if (Objects.nonNull(eventSubscription)) {
-            eventSubscription.release();
-            eventConsumerRegistry.deregister((EventConsumer) eventSubscription);
-            eventSubscriptionRegistry.deregister(subscriptionId);
+        synchronized (getSubscriptionLock(subscriptionId)) {
+            EventSubscription eventSubscription = eventSubscriptionRegistry.getById(subscriptionId);
+            if (Objects.nonNull(eventSubscription)) {
+                // Stop routing events to the subscription before releasing its resources
+                eventConsumerRegistry.deregister((EventConsumer) eventSubscription);
+                eventSubscriptionRegistry.deregister(subscriptionId);
+                eventSubscription.release();
+            }
         }
     }
 
+    private void unregisterEventSubscriptions(final List<String> subscriptionIds) {
+        List<EventSubscription> unregisteredEventSubscriptions = new ArrayList<>();
+        for (String subscriptionId : subscriptionIds) {
+            synchronized (getSubscriptionLock(subscriptionId)) {
+                EventSubscription eventSubscription = eventSubscriptionRegistry.getById(subscriptionId);
+                if (Objects.nonNull(eventSubscription)) {
+                    eventSubscriptionRegistry.deregister(subscriptionId);
+                    unregisteredEventSubscriptions.add(eventSubscription);
+                }
+            }
+        }
+        // Stop routing events to all the subscriptions at once before releasing their resources
+        eventConsumerRegistry.deregisterAll(unregisteredEventSubscriptions.stream()
+                .map(EventConsumer.class::cast)
+                .toList());
+        unregisteredEventSubscriptions.forEach(EventSubscription::release);
+        LOGGER.debug("{} event subscriptions de-registered", unregisteredEventSubscriptions.size());
+    }
+
+    private void notifySubscriptionsChanged(final List<String> subscriptionIds) {
+        if (subscriptionChangeListeners.isEmpty() || subscriptionIds.isEmpty()) {
+            return;
+        }
+        // The listeners must not see a change that could still be rolled back
+        runAfterCommit(() -> fireSubscriptionsChanged(subscriptionIds), () -> {});
+    }
+
+    private void runAfterCommit(final Runnable action, final Runnable rollbackAction) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        // The synchronizations are invoked in the order they are registered
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    rollbackAction.run();
+                }
+            }
+        });
+    }
+
+    private void registerEventSubscriptionsAfterCommit(final List<BuildResult> builtResults) {
+        if (builtResults.isEmpty()) {
+            return;
+        }
+        runAfterCommit(() -> registerEventSubscriptions(builtResults),
+                () -> builtResults.forEach(buildResult -> buildResult.eventSubscription().release()));
+    }
+
+    private void fireSubscriptionsChanged(final List<String> subscriptionIds) {
+        subscriptionChangeListeners.forEach(subscriptionChangeListener -> {
+            try {
+                subscriptionChangeListener.subscriptionsChanged(subscriptionIds);
+            } catch (RuntimeException excp) {
+                LOGGER.error("Error notifying the change of the subscriptions {}", subscriptionIds, excp);
+            }
+        });
+    }
+
     private Subscription persistSubscription(Subscription subscription) {
         Subscription subscriptionPersisted = eventSubscriptionStorage.save(subscription);
         LOGGER.debug("Subscription persisted: {}", subscriptionPersisted);
@@ -146,11 +520,113 @@ public class EventSubscriptionServiceImpl implements EventSubscriptionService {
 
     private void createAndRegisterEventSubscription(Subscription subscription) {
         if (Objects.isNull(eventSubscriptionRegistry.getById(subscription.getId()))) {
+            // Built before the commit, so that an invalid configuration rolls the change back. It is built even if it
+            // is not owned by this node (then it is released instead of registered), the same as in the bulk operations
             EventSubscription eventSubscription = eventSubscriptionFactory.getEventSubscription(subscription);
-            eventConsumerRegistry.register((EventConsumer) eventSubscription);
-            eventSubscriptionRegistry.register(subscription.getId(), eventSubscription);
-            LOGGER.debug("Event subscription registered: {}", eventSubscription);
+            registerEventSubscriptionsAfterCommit(List.of(new BuildResult(subscription, eventSubscription, null)));
+        }
+    }
+
+    private void flushStorage(List<BuildResult> builtResults) {
+        try {
+            eventSubscriptionStorage.flush();
+        } catch (RuntimeException excp) {
+            // Nothing will be persisted, so the event subscriptions already built must be discarded
+            builtResults.forEach(buildResult -> buildResult.eventSubscription().release());
+            throw excp;
+        }
+    }
+
+    private void registerEventSubscriptions(final List<BuildResult> builtResults) {
+        List<BuildResult> ownedResults = new ArrayList<>(builtResults.size());
+        for (BuildResult buildResult : builtResults) {
+            if (subscriptionOwnership.isOwned(buildResult.subscription().getId())) {
+                ownedResults.add(buildResult);
+            }
+            else {
+                // Built anyway to validate its configuration, but delivered by another node
+                buildResult.eventSubscription().release();
+            }
         }
+        if (ownedResults.isEmpty()) {
+            return;
+        }
+        // All the lock stripes involved are held, so that the consumers are registered at once (publishing a single
+        // snapshot) while no other registration, replacement or removal of the same subscriptions interleaves
+        int[] lockStripes = ownedResults.stream()
+                .mapToInt(buildResult -> getSubscriptionLockStripe(buildResult.subscription().getId()))
+                .distinct()
+                .sorted()
+                .toArray();
+        withSubscriptionLocks(lockStripes, 0, () -> {
+            List<EventConsumer> eventConsumers = new ArrayList<>(ownedResults.size());
+            for (BuildResult buildResult : ownedResults) {
+                String subscriptionId = buildResult.subscription().getId();
+                EventSubscription eventSubscription = buildResult.eventSubscription();
+                if (Objects.isNull(eventSubscriptionRegistry.getById(subscriptionId))) {
+                    eventSubscriptionRegistry.register(subscriptionId, eventSubscription);
+                    eventConsumers.add((EventConsumer) eventSubscription);
+                }
+                else {
+                    // Already registered by a concurrent request, discard the one built
+                    eventSubscription.release();
+                }
+            }
+            eventConsumerRegistry.registerAll(eventConsumers);
+            LOGGER.debug("{} event subscriptions registered", eventConsumers.size());
+        });
+    }
+
+    private void withSubscriptionLocks(final int[] lockStripes, final int from, final Runnable action) {
+        if (from == lockStripes.length) {
+            action.run();
+            return;
+        }
+        // Always acquired in ascending order, so that two bulk registrations cannot deadlock
+        synchronized (subscriptionLocks[lockStripes[from]]) {
+            withSubscriptionLocks(lockStripes, from + 1, action);
+        }
+    }
+
+    private void replaceEventSubscription(Subscription subscription) {
+        if (!subscriptionOwnership.isOwned(subscription.getId())) {
+            unregisterEventSubscription(subscription.getId());
+            return;
+        }
+        synchronized (getSubscriptionLock(subscription.getId())) {
+            replaceEventSubscription(subscription, eventSubscriptionFactory.getEventSubscription(subscription));
+        }
+    }
+
+    private void replaceEventSubscription(Subscription subscription, EventSubscription newEventSubscription) {
+        if (!subscriptionOwnership.isOwned(subscription.getId())) {
+            // The shard of the subscription was released while it was being built
+            newEventSubscription.release();
+            unregisterEventSubscription(subscription.getId());
+            return;
+        }
+        synchronized (getSubscriptionLock(subscription.getId())) {
+            EventSubscription previousEventSubscription = eventSubscriptionRegistry.replace(subscription.getId(),
+                    newEventSubscription);
+            if (Objects.nonNull(previousEventSubscription)) {
+                // Atomic swap of the consumers, so that no event is lost or delivered twice during the refresh
+                eventConsumerRegistry.replace((EventConsumer) previousEventSubscription,
+                        (EventConsumer) newEventSubscription);
+                previousEventSubscription.release();
+            }
+            else {
+                eventConsumerRegistry.register((EventConsumer) newEventSubscription);
+            }
+            LOGGER.debug("Event subscription replaced: {}", newEventSubscription);
+        }
+    }
+
+    private Object getSubscriptionLock(String subscriptionId) {
+        return subscriptionLocks[getSubscriptionLockStripe(subscriptionId)];
+    }
+
+    private static int getSubscriptionLockStripe(String subscriptionId) {
+        return Math.floorMod(Objects.hashCode(subscriptionId), LOCK_STRIPES);
     }
 
     private void setSubscriptionUser(Subscription subscription) {
@@ -167,7 +643,7 @@ public class EventSubscriptionServiceImpl implements EventSubscriptionService {
             createAndRegisterEventSubscription(subscription);
         }
         else if (SubscriptionStatus.INACTIVE.equals(subscriptionStatus)) {
-            unregisterEventSubscription(subscription.getId());
+            runAfterCommit(() -> unregisterEventSubscription(subscription.getId()), () -> {});
         }
         else {
             throw new SubscriptionConfigurationException(
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2021-2021 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.alfresco.event.gateway.kafka.subscription;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import org.alfresco.repo.event.v1.model.DataAttributes;
+import org.alfresco.repo.event.v1.model.RepoEvent;
+import org.alfresco.repo.event.v1.model.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link SubscriptionPublisher} that defers the creation of the actual publisher (and the resources it holds) until the
+ * first event is published, and that can tear it down again when it has been idle for a while. A new publisher is
+ * created on the next publication after that.
+ * <p>
+ * The actual publisher is never released while a publication is in progress.
+ */
+public class LazySubscriptionPublisher implements SubscriptionPublisher {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LazySubscriptionPublisher.class);
+
+    private final String subscriptionId;
+    private final Supplier<SubscriptionPublisher> subscriptionPublisherSupplier;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final LongAdder publicationCount = new LongAdder();
+    private volatile SubscriptionPublisher subscriptionPublisher;
+    private volatile long lastPublicationTime;
+    private volatile boolean released;
+
+    /**
+     * Constructor.
+     *
+     * @param subscriptionId                given identifier of the subscription the publisher belongs to
+     * @param subscriptionPublisherSupplier given {@link Supplier} that creates the actual {@link SubscriptionPublisher}
+     */
+    public LazySubscriptionPublisher(final String subscriptionId,
+            final Supplier<SubscriptionPublisher> subscriptionPublisherSupplier) {
+        this.subscriptionId = subscriptionId;
+        this.subscriptionPublisherSupplier = Objects.requireNonNull(subscriptionPublisherSupplier);
+    }
+
+    @Override
+    public void publishEvent(RepoEvent<DataAttributes<Resource>> event) {
+        publish(currentSubscriptionPublisher -> currentSubscriptionPublisher.publishEvent(event), 1);
+    }
+
+    @Override
+    public void publishEvents(List<RepoEvent<DataAttributes<Resource>>> events) {
+        publish(currentSubscriptionPublisher -> currentSubscriptionPublisher.publishEvents(events), events.size());
+    }
+
+    private void publish(final Consumer<SubscriptionPublisher> publication, final int eventCount) {
+        while (true) {
+            lock.readLock().lock();
+            try {
+                if (released) {
+                    LOGGER.debug("Publisher of subscription {} already released, discarding {} events", subscriptionId,
+                            eventCount);
+                    return;
+                }
+                SubscriptionPublisher currentSubscriptionPublisher = subscriptionPublisher;
+                if (Objects.nonNull(currentSubscriptionPublisher)) {
+                    lastPublicationTime = System.currentTimeMillis();
+                    publicationCount.add(eventCount);
+                    publication.accept(currentSubscriptionPublisher);
+                    return;
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+            materialize();
+        }
+    }
+
+    /**
+     * Create the actual publisher if it has not been created yet.
+     */
+    public void materialize() {
+        lock.writeLock().lock();
+        try {
+            if (!released && Objects.isNull(subscriptionPublisher)) {
+                LOGGER.debug("Materializing publisher of subscription {}", subscriptionId);
+                subscriptionPublisher = subscriptionPublisherSupplier.get();
+                lastPublicationTime = System.currentTimeMillis();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Release the actual publisher if nothing has been published for the given time. Nothing is done if a publication
+     * is in progress.
+     *
+     * @param idleTimeout given idle time (in milliseconds)
+     * @return <code>true</code> if the actual publisher has been released, <code>false</code> otherwise
+     */
+    public boolean releaseIfIdle(long idleTimeout) {
+        if (!lock.writeLock().tryLock()) {
+            return false;
+        }
+        try {
+            if (Objects.nonNull(subscriptionPublisher)
+                    && System.currentTimeMillis() - lastPublicationTime >= idleTimeout) {
+                LOGGER.debug("Releasing idle publisher of subscription {}", subscriptionId);
+                releaseSubscriptionPublisher();
+                return true;
+            }
+            return false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Get the number of publications since the last invocation of this method.
+     *
+     * @return the number of publications
+     */
+    public long getAndResetPublicationCount() {
+        return publicationCount.sumThenReset();
+    }
+
+    public String getSubscriptionId() {
+        return subscriptionId;
+    }
+
+    public boolean isMaterialized() {
+        return Objects.nonNull(subscriptionPublisher);
+    }
+
+    public boolean isReleased() {
+        return released;
+    }
+
+    @Override
+    public void release() {
+        lock.writeLock().lock();
+        try {
+            released = true;
+            if (Objects.nonNull(subscriptionPublisher)) {
+                releaseSubscriptionPublisher();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void releaseSubscriptionPublisher() {
+        SubscriptionPublisher currentSubscriptionPublisher = subscriptionPublisher;
+        subscriptionPublisher = null;
+        currentSubscriptionPublisher.release();
+    }
+}
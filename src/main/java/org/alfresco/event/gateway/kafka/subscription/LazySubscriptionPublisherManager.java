@@ -0,0 +1,93 @@
+/*
+ * Copyright 2021-2021 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.alfresco.event.gateway.kafka.subscription;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Component that creates and keeps track of the {@link LazySubscriptionPublisher} instances.
+ * <p>
+ * It periodically releases the publishers that have been idle for longer than the configured time. The subscriptions
+ * that published at least a given number of events since the previous check are considered warm: their publishers are
+ * not released, and they are created eagerly when the subscription is rebuilt (i.e. refreshed or re-enabled).
+ */
+public class LazySubscriptionPublisherManager {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LazySubscriptionPublisherManager.class);
+
+    private final long idleTimeout;
+    private final long warmUpThreshold;
+    private final Set<LazySubscriptionPublisher> lazySubscriptionPublishers = ConcurrentHashMap.newKeySet();
+    private final Set<String> warmSubscriptionIds = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Constructor.
+     *
+     * @param idleTimeout     given time (in milliseconds) without publications after which a publisher is released
+     * @param warmUpThreshold given number of publications between checks from which a subscription is considered warm
+     */
+    public LazySubscriptionPublisherManager(final long idleTimeout, final long warmUpThreshold) {
+        this.idleTimeout = idleTimeout;
+        this.warmUpThreshold = warmUpThreshold;
+    }
+
+    /**
+     * Obtain a {@link LazySubscriptionPublisher} for the given subscription.
+     *
+     * @param subscriptionId                given identifier of the subscription
+     * @param subscriptionPublisherSupplier given {@link Supplier} that creates the actual {@link SubscriptionPublisher}
+     * @return the corresponding {@link LazySubscriptionPublisher}
+     */
+    public LazySubscriptionPublisher getLazySubscriptionPublisher(String subscriptionId,
+            Supplier<SubscriptionPublisher> subscriptionPublisherSupplier) {
+        LazySubscriptionPublisher lazySubscriptionPublisher = new LazySubscriptionPublisher(subscriptionId,
+                subscriptionPublisherSupplier);
+        if (warmSubscriptionIds.contains(subscriptionId)) {
+            LOGGER.debug("Warming up publisher of subscription {}", subscriptionId);
+            lazySubscriptionPublisher.materialize();
+        }
+        lazySubscriptionPublishers.add(lazySubscriptionPublisher);
+        return lazySubscriptionPublisher;
+    }
+
+    /**
+     * Release the publishers that have been idle for longer than the configured time, except for the warm ones.
+     */
+    @Scheduled(fixedDelayString = "${alfresco.event.gateway.subscription.publisher.lazy.check-interval:60000}")
+    public void releaseIdlePublishers() {
+        int releasedCount = 0;
+        for (LazySubscriptionPublisher lazySubscriptionPublisher : lazySubscriptionPublishers) {
+            String subscriptionId = lazySubscriptionPublisher.getSubscriptionId();
+            if (lazySubscriptionPublisher.isReleased()) {
+                lazySubscriptionPublishers.remove(lazySubscriptionPublisher);
+            }
+            else if (lazySubscriptionPublisher.getAndResetPublicationCount() >= warmUpThreshold) {
+                warmSubscriptionIds.add(subscriptionId);
+            }
+            else {
+                warmSubscriptionIds.remove(subscriptionId);
+                if (lazySubscriptionPublisher.releaseIfIdle(idleTimeout)) {
+                    releasedCount++;
+                }
+            }
+        }
+        LOGGER.debug("{} idle publishers released, {} lazy publishers tracked ({} warm)", releasedCount,
+                lazySubscriptionPublishers.size(), warmSubscriptionIds.size());
+    }
+}
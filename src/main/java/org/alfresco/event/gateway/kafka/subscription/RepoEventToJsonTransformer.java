@@ -12,6 +12,9 @@
  */
 package org.alfresco.event.gateway.kafka.subscription;
 
+import java.util.concurrent.TimeUnit;
+
+import org.alfresco.event.gateway.kafka.metrics.GatewayMetrics;
 import org.alfresco.event.gateway.kafka.subscription.exception.EventPublicationException;
 import org.alfresco.repo.event.v1.model.DataAttributes;
 import org.alfresco.repo.event.v1.model.RepoEvent;
@@ -23,6 +26,9 @@ import org.springframework.integration.core.GenericTransformer;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
 /**
  * {@link GenericTransformer} implementation that transforms a {@link RepoEvent} object into a repository event in JSON
  * format (following the Repo Event JSON schema).
@@ -32,6 +38,8 @@ public class RepoEventToJsonTransformer implements GenericTransformer<RepoEvent<
     private static final Logger LOGGER = LoggerFactory.getLogger(RepoEventToJsonTransformer.class);
 
     private final ObjectMapper objectMapper;
+    private final Timer serializationSuccessTimer;
+    private final Timer serializationFailureTimer;
 
     /**
      * Constructor.
@@ -39,15 +47,34 @@ public class RepoEventToJsonTransformer implements GenericTransformer<RepoEvent<
      * @param objectMapper given {@link ObjectMapper}
      */
     public RepoEventToJsonTransformer(final ObjectMapper objectMapper) {
+        this(objectMapper, null);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param objectMapper  given {@link ObjectMapper}
+     * @param meterRegistry given {@link MeterRegistry} (<code>null</code> to disable the metrics)
+     */
+    public RepoEventToJsonTransformer(final ObjectMapper objectMapper, final MeterRegistry meterRegistry) {
         this.objectMapper = objectMapper;
+        MeterRegistry registry = GatewayMetrics.registryOrNoop(meterRegistry);
+        this.serializationSuccessTimer = registry.timer(GatewayMetrics.SERIALIZATION, GatewayMetrics.TAG_OUTCOME,
+                GatewayMetrics.OUTCOME_SUCCESS);
+        this.serializationFailureTimer = registry.timer(GatewayMetrics.SERIALIZATION, GatewayMetrics.TAG_OUTCOME,
+                GatewayMetrics.OUTCOME_FAILURE);
     }
 
     @Override
     public String transform(final RepoEvent<DataAttributes<Resource>> repoEvent) {
         LOGGER.debug("Transforming repo event {}", repoEvent);
+        long startTime = System.nanoTime();
         try {
-            return objectMapper.writeValueAsString(repoEvent);
+            String eventJSON = objectMapper.writeValueAsString(repoEvent);
+            serializationSuccessTimer.record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+            return eventJSON;
         } catch (final JsonProcessingException excp) {
+            serializationFailureTimer.record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
             LOGGER.error("An error occurred transforming the repo event {}", repoEvent);
             throw new EventPublicationException("An error occurred transforming the repo event", excp);
         }
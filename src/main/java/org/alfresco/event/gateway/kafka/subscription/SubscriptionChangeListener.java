@@ -0,0 +1,32 @@
+/*
+ * Copyright 2021-2021 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.alfresco.event.gateway.kafka.subscription;
+
+import java.util.Collection;
+
+import org.alfresco.event.gateway.kafka.entity.Subscription;
+
+/**
+ * Component notified whenever {@link Subscription}'s are created, updated or deactivated in this node. The notification
+ * is delivered once the change has been committed.
+ */
+@FunctionalInterface
+public interface SubscriptionChangeListener {
+
+    /**
+     * Handle the change of a group of subscriptions.
+     *
+     * @param subscriptionIds the ids of the changed {@link Subscription}'s
+     */
+    void subscriptionsChanged(Collection<String> subscriptionIds);
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2021-2021 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.alfresco.event.gateway.kafka.subscription;
+
+import java.util.Objects;
+
+import org.alfresco.event.gateway.kafka.entity.Subscription;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Result of the creation or update of a single {@link Subscription} as part of a bulk operation.
+ *
+ * @param id           identifier of the subscription (<code>null</code> if it could not be created)
+ * @param index        position of the subscription in the request, identifying the ones that could not be created
+ *                     (<code>null</code> if the subscription has an identifier)
+ * @param status       status of the operation
+ * @param error        message describing the error (<code>null</code> if the operation succeeded)
+ * @param subscription the resulting {@link Subscription} (<code>null</code> if the operation failed)
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record SubscriptionOperationResult(String id, Integer index, Status status, String error,
+        Subscription subscription) {
+
+    /**
+     * Status of a single operation.
+     */
+    public enum Status {
+        SUCCEEDED, FAILED
+    }
+
+    /**
+     * Create a result for an operation that succeeded.
+     *
+     * @param subscription the resulting {@link Subscription}
+     * @return the corresponding {@link SubscriptionOperationResult}
+     */
+    public static SubscriptionOperationResult succeeded(Subscription subscription) {
+        return new SubscriptionOperationResult(subscription.getId(), null, Status.SUCCEEDED, null, subscription);
+    }
+
+    /**
+     * Create a result for an operation that failed.
+     *
+     * @param id    identifier of the subscription (if any)
+     * @param error message describing the error
+     * @return the corresponding {@link SubscriptionOperationResult}
+     */
+    public static SubscriptionOperationResult failed(String id, String error) {
+        return new SubscriptionOperationResult(id, null, Status.FAILED, error, null);
+    }
+
+    /**
+     * Create a result for an operation that failed on a subscription without identifier (i.e. a creation).
+     *
+     * @param index position of the subscription in the request
+     * @param error message describing the error
+     * @return the corresponding {@link SubscriptionOperationResult}
+     */
+    public static SubscriptionOperationResult failed(int index, String error) {
+        return new SubscriptionOperationResult(null, index, Status.FAILED, error, null);
+    }
+
+    /**
+     * Get a copy of this result with its position in the request moved to the given one, when the operation was
+     * performed on a subset of the request.
+     *
+     * @param requestIndex position of the subscription in the whole request
+     * @return the corresponding {@link SubscriptionOperationResult} (this same one if it has no position)
+     */
+    public SubscriptionOperationResult withIndex(int requestIndex) {
+        return Objects.nonNull(index) ? new SubscriptionOperationResult(id, requestIndex, status, error, subscription)
+                : this;
+    }
+}
@@ -0,0 +1,31 @@
+/*
+ * Copyright 2021-2021 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.alfresco.event.gateway.kafka.subscription;
+
+import org.alfresco.event.gateway.kafka.entity.Subscription;
+
+/**
+ * Component that decides whether this node is in charge of delivering the events of a {@link Subscription}. Only the
+ * owned subscriptions get their {@link EventSubscription} registered in this node.
+ */
+@FunctionalInterface
+public interface SubscriptionOwnership {
+
+    /**
+     * Check if the given subscription is owned by this node.
+     *
+     * @param subscriptionId the id of the {@link Subscription}
+     * @return <code>true</code> if this node must deliver the events of the subscription
+     */
+    boolean isOwned(String subscriptionId);
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2021-2021 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.alfresco.event.gateway.kafka.subscription;
+
+import java.util.Objects;
+
+import org.alfresco.event.gateway.kafka.entity.Subscription;
+import org.alfresco.event.gateway.kafka.entity.SubscriptionStatus;
+
+/**
+ * Request of a page of {@link Subscription}'s ordered by creation date and id. The page starts right after the
+ * subscription identified by <code>afterCreatedDate</code> and <code>afterId</code> (keyset pagination), or at the
+ * first subscription if they are not given.
+ *
+ * @param user             the username by which the subscriptions are filtered (<code>null</code> for any user)
+ * @param status           the {@link SubscriptionStatus} by which the subscriptions are filtered (<code>null</code>
+ *                         for any status)
+ * @param afterCreatedDate the creation date of the last subscription of the previous page
+ * @param afterId          the id of the last subscription of the previous page
+ * @param limit            the maximum number of subscriptions of the page
+ */
+public record SubscriptionPageRequest(String user, SubscriptionStatus status, Long afterCreatedDate, String afterId,
+        int limit) {
+
+    public SubscriptionPageRequest {
+        if (Objects.isNull(afterCreatedDate) != Objects.isNull(afterId)) {
+            throw new IllegalArgumentException("Both the creation date and the id of the last subscription are required");
+        }
+        if (limit < 1) {
+            throw new IllegalArgumentException("The page limit must be greater than zero");
+        }
+    }
+
+    /**
+     * @return <code>true</code> if this is the request of the first page
+     */
+    public boolean isFirstPage() {
+        return Objects.isNull(afterId);
+    }
+}
@@ -12,6 +12,8 @@
  */
 package org.alfresco.event.gateway.kafka.subscription;
 
+import java.util.List;
+
 import org.alfresco.repo.event.v1.model.DataAttributes;
 import org.alfresco.repo.event.v1.model.RepoEvent;
 import org.alfresco.repo.event.v1.model.Resource;
@@ -31,6 +33,16 @@ public interface SubscriptionPublisher {
      */
     void publishEvent(RepoEvent<DataAttributes<Resource>> event);
 
+    /**
+     * Publish a batch of {@link RepoEvent} objects, in order. By default the events are published one by one, the
+     * implementations able to publish them more efficiently together (i.e. in a single transaction) should override it.
+     *
+     * @param events the {@link List} of {@link RepoEvent} to be published
+     */
+    default void publishEvents(List<RepoEvent<DataAttributes<Resource>>> events) {
+        events.forEach(this::publishEvent);
+    }
+
     /**
      * Method invoked when the publication resources must be release. This method is called when the subscription that
      * is using it is cancelled/removed.
@@ -0,0 +1,176 @@
+/*
+ * Copyright 2021-2021 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.alfresco.event.gateway.kafka.subscription.cluster;
+
+import java.util.Objects;
+import java.util.OptionalLong;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import jakarta.annotation.PreDestroy;
+
+import org.alfresco.event.gateway.kafka.entity.LeaderLease;
+import org.alfresco.event.gateway.kafka.subscription.storage.LeaderLeaseStorage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * {@link LeaderElection} based on a {@link LeaderLease} stored in the subscription database.
+ * <p>
+ * Every node tries to acquire or renew the lease periodically (every <code>renewInterval</code> milliseconds). The
+ * lease is taken over by incrementing its fencing token when it has expired, and it is released on shutdown so that
+ * another node takes over on its next attempt instead of waiting for the lease to expire. Locally, the leadership is
+ * considered lost as soon as the lease duration elapses since the last successful renewal attempt started, even if the
+ * database can't be reached to find it out.
+ */
+public class DatabaseLeaderElection implements LeaderElection {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DatabaseLeaderElection.class);
+    private static final long NO_FENCING_TOKEN = -1;
+
+    private final LeaderLeaseStorage leaderLeaseStorage;
+    private final TransactionTemplate transactionTemplate;
+    private final String leaseName;
+    private final String nodeId;
+    private final long leaseDuration;
+    private final long renewInterval;
+    private final ScheduledExecutorService executorService;
+    private final AtomicBoolean started = new AtomicBoolean();
+    private volatile long fencingToken = NO_FENCING_TOKEN;
+    private volatile long validUntilNanos;
+
+    /**
+     * Constructor.
+     *
+     * @param leaderLeaseStorage  given {@link LeaderLeaseStorage}
+     * @param transactionTemplate given {@link TransactionTemplate} used to acquire, renew and release the lease
+     * @param leaseName           given name of the lease (i.e. of the leadership) shared by all the nodes
+     * @param nodeId              given id of this node
+     * @param leaseDuration       given time in milliseconds a lease is valid for without being renewed
+     * @param renewInterval       given time in milliseconds between two attempts to acquire or renew the lease
+     */
+    public DatabaseLeaderElection(LeaderLeaseStorage leaderLeaseStorage, TransactionTemplate transactionTemplate,
+            String leaseName, String nodeId, long leaseDuration, long renewInterval) {
+        if (renewInterval <= 0 || renewInterval >= leaseDuration) {
+            throw new IllegalArgumentException("The renew interval must be positive and shorter than the lease duration");
+        }
+        this.leaderLeaseStorage = Objects.requireNonNull(leaderLeaseStorage);
+        this.transactionTemplate = Objects.requireNonNull(transactionTemplate);
+        this.leaseName = Objects.requireNonNull(leaseName);
+        this.nodeId = Objects.requireNonNull(nodeId);
+        this.leaseDuration = leaseDuration;
+        this.renewInterval = renewInterval;
+        this.executorService = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("LeaderElection-"));
+    }
+
+    @EventListener
+    public void onApplicationEvent(ContextRefreshedEvent event) {
+        if (started.compareAndSet(false, true)) {
+            LOGGER.info("Node {} joining the election of the leader {}", nodeId, leaseName);
+            executorService.scheduleWithFixedDelay(this::refreshLease, 0, renewInterval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Stop taking part in the election, releasing the lease if this node holds it.
+     */
+    @PreDestroy
+    public void stop() {
+        executorService.shutdownNow();
+        long currentFencingToken = fencingToken;
+        fencingToken = NO_FENCING_TOKEN;
+        if (currentFencingToken != NO_FENCING_TOKEN) {
+            try {
+                transactionTemplate.executeWithoutResult(
+                        status -> leaderLeaseStorage.releaseLease(leaseName, nodeId, currentFencingToken));
+                LOGGER.info("Node {} released the leadership of {}", nodeId, leaseName);
+            } catch (RuntimeException excp) {
+                LOGGER.warn("Error releasing the lease {}, it will be taken over once expired", leaseName, excp);
+            }
+        }
+    }
+
+    /**
+     * Acquire the lease if it is free, or renew it if this node already holds it.
+     */
+    public void refreshLease() {
+        long startNanos = System.nanoTime();
+        long now = System.currentTimeMillis();
+        long currentFencingToken = fencingToken;
+        try {
+            Long newFencingToken = transactionTemplate.execute(status -> currentFencingToken == NO_FENCING_TOKEN
+                    ? acquireLease(now)
+                    : renewLease(currentFencingToken, now));
+            updateLeadership(Objects.requireNonNullElse(newFencingToken, NO_FENCING_TOKEN), startNanos);
+        } catch (DataIntegrityViolationException excp) {
+            LOGGER.debug("Lease {} created concurrently by another node", leaseName);
+        } catch (RuntimeException excp) {
+            LOGGER.warn("Error refreshing the lease {}", leaseName, excp);
+        }
+    }
+
+    @Override
+    public OptionalLong getFencingToken() {
+        long currentFencingToken = fencingToken;
+        return currentFencingToken != NO_FENCING_TOKEN && System.nanoTime() - validUntilNanos < 0
+                ? OptionalLong.of(currentFencingToken)
+                : OptionalLong.empty();
+    }
+
+    @Override
+    public boolean validateFencingToken(long fencingToken) {
+        return leaderLeaseStorage.lockLease(leaseName, fencingToken, System.currentTimeMillis()) == 1;
+    }
+
+    private long acquireLease(long now) {
+        long expiresAt = now + leaseDuration;
+        if (leaderLeaseStorage.acquireLease(leaseName, nodeId, now, expiresAt) == 1) {
+            return leaderLeaseStorage.findById(leaseName)
+                    .map(LeaderLease::getFencingToken)
+                    .orElse(NO_FENCING_TOKEN);
+        }
+        if (!leaderLeaseStorage.existsById(leaseName)) {
+            return leaderLeaseStorage.saveAndFlush(new LeaderLease(leaseName, nodeId, 1, expiresAt)).getFencingToken();
+        }
+        return NO_FENCING_TOKEN;
+    }
+
+    private long renewLease(long currentFencingToken, long now) {
+        return leaderLeaseStorage.renewLease(leaseName, nodeId, currentFencingToken, now + leaseDuration) == 1
+                ? currentFencingToken
+                : NO_FENCING_TOKEN;
+    }
+
+    private void updateLeadership(long newFencingToken, long startNanos) {
+        if (newFencingToken != NO_FENCING_TOKEN) {
+            validUntilNanos = startNanos + TimeUnit.MILLISECONDS.toNanos(leaseDuration);
+        }
+        long previousFencingToken = fencingToken;
+        fencingToken = newFencingToken;
+        if (newFencingToken != previousFencingToken) {
+            if (newFencingToken != NO_FENCING_TOKEN) {
+                LOGGER.info("Node {} elected leader of {} with fencing token {}", nodeId, leaseName, newFencingToken);
+            }
+            else {
+                LOGGER.info("Node {} lost the leadership of {}", nodeId, leaseName);
+            }
+        }
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2021-2021 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.alfresco.event.gateway.kafka.subscription.cluster;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.alfresco.event.gateway.kafka.subscription.SubscriptionChangeListener;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.config.TopicConfig;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * {@link SubscriptionChangeListener} implementation that broadcasts the changes of the subscriptions to the rest of the
+ * event gateway nodes through a Kafka topic.
+ * <p>
+ * The notifications are keyed by subscription id and the topic is compacted, as the receiving nodes only need the
+ * latest notification of each subscription to reload it from storage.
+ */
+public class KafkaSubscriptionChangePublisher implements SubscriptionChangeListener {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(KafkaSubscriptionChangePublisher.class);
+
+    private final String nodeId;
+    private final String topic;
+    private final ObjectMapper objectMapper;
+    private final KafkaTemplate<String, String> kafkaTemplate;
+
+    /**
+     * Constructor.
+     *
+     * @param nodeId           given id of this node
+     * @param bootstrapServers given Kafka bootstrap server locations
+     * @param topic            given topic to publish the notifications in Kafka
+     * @param partitions       given number of partitions of the topic, in case it has to be created
+     * @param replicas         given replication factor of the topic, in case it has to be created
+     * @param objectMapper     given {@link ObjectMapper}
+     */
+    public KafkaSubscriptionChangePublisher(final String nodeId, final String bootstrapServers, final String topic,
+            final int partitions, final int replicas, final ObjectMapper objectMapper) {
+        this.nodeId = nodeId;
+        this.topic = topic;
+        this.objectMapper = objectMapper;
+        createTopic(bootstrapServers, topic, partitions, replicas);
+        this.kafkaTemplate = new KafkaTemplate<>(producerFactory(bootstrapServers));
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    @Override
+    public void subscriptionsChanged(Collection<String> subscriptionIds) {
+        LOGGER.debug("Broadcasting the change of the subscriptions {}", subscriptionIds);
+        long timestamp = System.currentTimeMillis();
+        for (String subscriptionId : subscriptionIds) {
+            String notification;
+            try {
+                notification = objectMapper
+                        .writeValueAsString(new SubscriptionChangeNotification(subscriptionId, nodeId, timestamp));
+            } catch (JsonProcessingException excp) {
+                LOGGER.error("Error serializing the change notification of the subscription {}", subscriptionId, excp);
+                continue;
+            }
+            kafkaTemplate.send(topic, subscriptionId, notification).whenComplete((result, excp) -> {
+                if (excp != null) {
+                    LOGGER.error("Error broadcasting the change of the subscription {}", subscriptionId, excp);
+                }
+            });
+        }
+    }
+
+    private void createTopic(String bootstrapServers, String topic, int partitions, int replicas) {
+        NewTopic newTopic = TopicBuilder.name(topic)
+                .partitions(partitions)
+                .replicas(replicas)
+                .config(TopicConfig.CLEANUP_POLICY_CONFIG, TopicConfig.CLEANUP_POLICY_COMPACT)
+                .build();
+        KafkaAdmin kafkaAdmin = new KafkaAdmin(Map.of(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers));
+        kafkaAdmin.createOrModifyTopics(newTopic);
+    }
+
+    private DefaultKafkaProducerFactory<String, String> producerFactory(String bootstrapServers) {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        return new DefaultKafkaProducerFactory<>(props);
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2021-2021 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.alfresco.event.gateway.kafka.subscription.cluster;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import jakarta.annotation.PreDestroy;
+
+import org.alfresco.event.gateway.kafka.subscription.EventSubscriptionService;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.listener.BatchMessageListener;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.KafkaMessageListenerContainer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Component that receives the subscription change notifications broadcast by the other event gateway nodes (see
+ * {@link KafkaSubscriptionChangePublisher}) and refreshes the changed subscriptions in this node.
+ * <p>
+ * Every node reads the whole topic using its own consumer group, derived from its node id (so it must be stable across
+ * restarts, otherwise a new group is left behind in the broker on every restart). The first time the group is used it
+ * starts from the latest offset, as the state of the subscriptions on startup is loaded from storage. As that offset is
+ * only resolved when the topic partitions are assigned, the subscriptions modified in storage since they were loaded
+ * (minus a margin for the clock skew between nodes) are refreshed on the first assignment, so that the changes made in
+ * between are not missed. The notifications received in the same poll are coalesced, so that each changed subscription
+ * is refreshed only once.
+ */
+public class KafkaSubscriptionChangeReceiver {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(KafkaSubscriptionChangeReceiver.class);
+    private static final String GROUP_ID_PREFIX = "alfresco-event-gateway-subscriptions-";
+    private static final long CLOCK_SKEW_MARGIN = 60_000;
+
+    private final EventSubscriptionService eventSubscriptionService;
+    private final String nodeId;
+    private final ObjectMapper objectMapper;
+    private final AtomicBoolean caughtUp = new AtomicBoolean();
+    private final KafkaMessageListenerContainer<String, String> listenerContainer;
+
+    /**
+     * Constructor.
+     *
+     * @param eventSubscriptionService given {@link EventSubscriptionService}
+     * @param nodeId                   given id of this node, whose own notifications are ignored
+     * @param bootstrapServers         given Kafka bootstrap server locations
+     * @param topic                    given topic to receive the notifications from Kafka
+     * @param objectMapper             given {@link ObjectMapper}
+     */
+    public KafkaSubscriptionChangeReceiver(final EventSubscriptionService eventSubscriptionService, final String nodeId,
+            final String bootstrapServers, final String topic, final ObjectMapper objectMapper) {
+        this.eventSubscriptionService = eventSubscriptionService;
+        this.nodeId = nodeId;
+        this.objectMapper = objectMapper;
+        ContainerProperties containerProperties = new ContainerProperties(topic);
+        containerProperties.setMessageListener((BatchMessageListener<String, String>) this::onNotifications);
+        containerProperties.setConsumerRebalanceListener(new ConsumerRebalanceListener() {
+            @Override
+            public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+                // Nothing to do, the consumer group of the node is not shared
+            }
+
+            @Override
+            public void onPartitionsAssigned(Collection<TopicPartition> partitions) {
+                catchUpWithStorage();
+            }
+        });
+        this.listenerContainer = new KafkaMessageListenerContainer<>(consumerFactory(bootstrapServers),
+                containerProperties);
+        this.listenerContainer.setBeanName("SubscriptionChangeReceiver-" + nodeId);
+    }
+
+    @EventListener
+    public void onApplicationEvent(ContextRefreshedEvent event) {
+        if (!listenerContainer.isRunning()) {
+            LOGGER.info("Starting the reception of subscription change notifications (node {})", nodeId);
+            listenerContainer.start();
+        }
+    }
+
+    /**
+     * Stop receiving notifications.
+     */
+    @PreDestroy
+    public void stop() {
+        listenerContainer.stop();
+    }
+
+    /**
+     * Refresh the subscriptions changed in other nodes.
+     *
+     * @param records given {@link List} of {@link ConsumerRecord}'s holding the notifications
+     */
+    public void onNotifications(List<ConsumerRecord<String, String>> records) {
+        catchUpWithStorage();
+        Set<String> changedSubscriptionIds = new LinkedHashSet<>();
+        for (ConsumerRecord<String, String> record : records) {
+            try {
+                SubscriptionChangeNotification notification = objectMapper.readValue(record.value(),
+                        SubscriptionChangeNotification.class);
+                if (!nodeId.equals(notification.nodeId())) {
+                    changedSubscriptionIds.add(notification.subscriptionId());
+                }
+            } catch (JsonProcessingException excp) {
+                LOGGER.error("Discarding unreadable subscription change notification {}", record.value(), excp);
+            }
+        }
+        if (!changedSubscriptionIds.isEmpty()) {
+            LOGGER.debug("Subscriptions {} changed in other nodes", changedSubscriptionIds);
+            eventSubscriptionService.refreshSubscriptions(changedSubscriptionIds);
+        }
+    }
+
+    /**
+     * Refresh the subscriptions modified in storage since they were loaded on startup, unless it was already done. If
+     * the refresh fails, it is retried on the next assignment or the next notifications received.
+     */
+    public void catchUpWithStorage() {
+        if (caughtUp.get()) {
+            return;
+        }
+        try {
+            long time = eventSubscriptionService.getStorageLoadTime() - CLOCK_SKEW_MARGIN;
+            List<String> refreshedIds = eventSubscriptionService.refreshSubscriptionsModifiedSince(time);
+            caughtUp.set(true);
+            LOGGER.info("{} subscriptions modified since they were loaded from storage refreshed (node {})",
+                    refreshedIds.size(), nodeId);
+        } catch (RuntimeException excp) {
+            LOGGER.error("Error refreshing the subscriptions modified since they were loaded from storage", excp);
+        }
+    }
+
+    private DefaultKafkaConsumerFactory<String, String> consumerFactory(String bootstrapServers) {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, GROUP_ID_PREFIX + nodeId);
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "latest");
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        return new DefaultKafkaConsumerFactory<>(props);
+    }
+}
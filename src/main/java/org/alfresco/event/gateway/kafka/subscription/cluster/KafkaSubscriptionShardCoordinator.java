@@ -0,0 +1,178 @@
+/*
+ * Copyright 2021-2021 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.alfresco.event.gateway.kafka.subscription.cluster;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import jakarta.annotation.PreDestroy;
+
+import org.alfresco.event.gateway.kafka.entity.SubscriptionStatus;
+import org.alfresco.event.gateway.kafka.subscription.EventSubscriptionRegistry;
+import org.alfresco.event.gateway.kafka.subscription.EventSubscriptionService;
+import org.alfresco.event.gateway.kafka.subscription.storage.EventSubscriptionStorage;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
+import org.apache.kafka.clients.consumer.CooperativeStickyAssignor;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.KafkaMessageListenerContainer;
+import org.springframework.kafka.listener.MessageListener;
+
+/**
+ * Component that assigns the subscription shards (see {@link ShardedSubscriptionOwnership}) to the event gateway nodes
+ * using the Kafka consumer group coordination.
+ * <p>
+ * Every shard is mapped to a partition of a dedicated topic, and all the nodes join the same consumer group on it. The
+ * partitions assigned to a node by the group coordinator are the shards owned by it. The topic itself carries no data.
+ * <p>
+ * The handoff of the shards on membership changes relies on the cooperative rebalance protocol: only the shards that
+ * move to another node are revoked, and they are assigned to that node in a follow-up rebalance, once their previous
+ * owner has released their subscriptions. So a subscription is never delivered by two nodes at the same time, and the
+ * subscriptions of the shards that stay in place keep being delivered during the rebalance. The event subscriptions of
+ * the assigned shards are built concurrently (see {@link EventSubscriptionService#refreshSubscriptions(Collection)}),
+ * to keep the time the poll thread spends taking over a shard well below <code>max.poll.interval.ms</code>.
+ */
+public class KafkaSubscriptionShardCoordinator implements ConsumerRebalanceListener {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(KafkaSubscriptionShardCoordinator.class);
+
+    private final ShardedSubscriptionOwnership subscriptionOwnership;
+    private final EventSubscriptionService eventSubscriptionService;
+    private final EventSubscriptionStorage eventSubscriptionStorage;
+    private final EventSubscriptionRegistry eventSubscriptionRegistry;
+    private final String bootstrapServers;
+    private final String topic;
+    private final int replicas;
+    private final KafkaMessageListenerContainer<String, String> listenerContainer;
+
+    /**
+     * Constructor.
+     *
+     * @param subscriptionOwnership     given {@link ShardedSubscriptionOwnership} updated with the assigned shards
+     * @param eventSubscriptionService  given {@link EventSubscriptionService}
+     * @param eventSubscriptionStorage  given {@link EventSubscriptionStorage}
+     * @param eventSubscriptionRegistry given {@link EventSubscriptionRegistry}
+     * @param bootstrapServers          given Kafka bootstrap server locations
+     * @param topic                     given topic whose partitions represent the shards
+     * @param groupId                   given consumer group shared by all the nodes
+     * @param replicas                  given replication factor of the topic, in case it has to be created
+     */
+    public KafkaSubscriptionShardCoordinator(final ShardedSubscriptionOwnership subscriptionOwnership,
+            final EventSubscriptionService eventSubscriptionService,
+            final EventSubscriptionStorage eventSubscriptionStorage,
+            final EventSubscriptionRegistry eventSubscriptionRegistry, final String bootstrapServers,
+            final String topic, final String groupId, final int replicas) {
+        this.subscriptionOwnership = subscriptionOwnership;
+        this.eventSubscriptionService = eventSubscriptionService;
+        this.eventSubscriptionStorage = eventSubscriptionStorage;
+        this.eventSubscriptionRegistry = eventSubscriptionRegistry;
+        this.bootstrapServers = bootstrapServers;
+        this.topic = topic;
+        this.replicas = replicas;
+        ContainerProperties containerProperties = new ContainerProperties(topic);
+        containerProperties.setGroupId(groupId);
+        containerProperties.setConsumerRebalanceListener(this);
+        containerProperties.setMessageListener((MessageListener<String, String>) record -> {
+            // The shard topic carries no data, only its partition assignment matters
+        });
+        this.listenerContainer = new KafkaMessageListenerContainer<>(consumerFactory(bootstrapServers),
+                containerProperties);
+        this.listenerContainer.setBeanName("SubscriptionShardCoordinator");
+    }
+
+    @EventListener
+    public void onApplicationEvent(ContextRefreshedEvent event) {
+        if (!listenerContainer.isRunning()) {
+            LOGGER.info("Joining the subscription shard coordination group");
+            createTopic();
+            listenerContainer.start();
+        }
+    }
+
+    /**
+     * Leave the coordination group, releasing the shards owned by this node.
+     */
+    @PreDestroy
+    public void stop() {
+        listenerContainer.stop();
+    }
+
+    @Override
+    public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+        Set<Integer> revokedShards = toShards(partitions);
+        if (revokedShards.isEmpty()) {
+            return;
+        }
+        LOGGER.info("Releasing subscription shards {}", revokedShards);
+        subscriptionOwnership.removeShards(revokedShards);
+        List<String> releasedIds = eventSubscriptionRegistry.getIds().stream()
+                .filter(subscriptionId -> revokedShards.contains(subscriptionOwnership.getShard(subscriptionId)))
+                .toList();
+        // Not owned anymore, so they are just deregistered
+        eventSubscriptionService.refreshSubscriptions(releasedIds);
+        LOGGER.info("{} subscriptions released", releasedIds.size());
+    }
+
+    @Override
+    public void onPartitionsAssigned(Collection<TopicPartition> partitions) {
+        Set<Integer> assignedShards = toShards(partitions);
+        if (assignedShards.isEmpty()) {
+            return;
+        }
+        LOGGER.info("Taking over subscription shards {}", assignedShards);
+        subscriptionOwnership.addShards(assignedShards);
+        List<String> acquiredIds = eventSubscriptionStorage.findSubscriptionIdsByStatus(SubscriptionStatus.ACTIVE)
+                .stream()
+                .filter(subscriptionId -> assignedShards.contains(subscriptionOwnership.getShard(subscriptionId)))
+                .toList();
+        eventSubscriptionService.refreshSubscriptions(acquiredIds);
+        LOGGER.info("{} subscriptions taken over", acquiredIds.size());
+    }
+
+    private Set<Integer> toShards(Collection<TopicPartition> partitions) {
+        return partitions.stream().map(TopicPartition::partition).collect(Collectors.toSet());
+    }
+
+    private void createTopic() {
+        NewTopic newTopic = TopicBuilder.name(topic)
+                .partitions(subscriptionOwnership.getShardCount())
+                .replicas(replicas)
+                .build();
+        KafkaAdmin kafkaAdmin = new KafkaAdmin(Map.of(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers));
+        kafkaAdmin.createOrModifyTopics(newTopic);
+    }
+
+    private DefaultKafkaConsumerFactory<String, String> consumerFactory(String bootstrapServers) {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        // Cooperative protocol, so that only the moving shards are revoked (and released before they are reassigned)
+        props.put(ConsumerConfig.PARTITION_ASSIGNMENT_STRATEGY_CONFIG, CooperativeStickyAssignor.class.getName());
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        return new DefaultKafkaConsumerFactory<>(props);
+    }
+}
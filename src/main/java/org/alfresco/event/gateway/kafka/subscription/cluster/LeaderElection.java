@@ -0,0 +1,50 @@
+/*
+ * Copyright 2021-2021 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.alfresco.event.gateway.kafka.subscription.cluster;
+
+import java.util.OptionalLong;
+
+/**
+ * Election of the event gateway node in charge of the cluster-wide maintenance tasks.
+ * <p>
+ * Every leadership term is identified by a fencing token that grows with each change of leader. The writes performed on
+ * behalf of the leadership must validate the token within their own transaction, so that a node which lost its
+ * leadership without noticing (e.g. after a long pause) cannot overwrite the work of the new leader.
+ */
+public interface LeaderElection {
+
+    /**
+     * Check if this node currently holds the leadership.
+     *
+     * @return <code>true</code> if this node is the leader
+     */
+    default boolean isLeader() {
+        return getFencingToken().isPresent();
+    }
+
+    /**
+     * Get the fencing token of the current leadership term held by this node.
+     *
+     * @return the fencing token, or an empty {@link OptionalLong} if this node is not the leader
+     */
+    OptionalLong getFencingToken();
+
+    /**
+     * Validate that the given fencing token still identifies the current leadership term. It must be called within the
+     * transaction performing the guarded writes, the leadership cannot change hands until that transaction ends.
+     *
+     * @param fencingToken given fencing token obtained from {@link #getFencingToken()}
+     * @return <code>true</code> if the token is still current
+     */
+    boolean validateFencingToken(long fencingToken);
+}
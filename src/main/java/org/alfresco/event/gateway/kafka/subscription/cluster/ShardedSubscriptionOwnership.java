@@ -0,0 +1,91 @@
+/*
+ * Copyright 2021-2021 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.alfresco.event.gateway.kafka.subscription.cluster;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.alfresco.event.gateway.kafka.subscription.SubscriptionOwnership;
+import org.apache.kafka.common.utils.Utils;
+
+/**
+ * {@link SubscriptionOwnership} implementation that splits the subscriptions in a fixed number of shards, hashing their
+ * ids, and owns the subscriptions of the shards assigned to this node.
+ * <p>
+ * As the number of shards doesn't depend on the number of nodes, a membership change only moves the shards that are
+ * reassigned, and the rest of the subscriptions stay in the same node.
+ */
+public class ShardedSubscriptionOwnership implements SubscriptionOwnership {
+
+    private final int shardCount;
+    private volatile Set<Integer> ownedShards = Set.of();
+
+    /**
+     * Constructor.
+     *
+     * @param shardCount given number of shards
+     */
+    public ShardedSubscriptionOwnership(final int shardCount) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("The number of shards must be greater than zero");
+        }
+        this.shardCount = shardCount;
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    /**
+     * Obtain the shard of a subscription.
+     *
+     * @param subscriptionId the id of the subscription
+     * @return the shard of the subscription, between 0 and the number of shards (excluded)
+     */
+    public int getShard(String subscriptionId) {
+        return Utils.toPositive(Utils.murmur2(subscriptionId.getBytes(StandardCharsets.UTF_8))) % shardCount;
+    }
+
+    @Override
+    public boolean isOwned(String subscriptionId) {
+        return ownedShards.contains(getShard(subscriptionId));
+    }
+
+    public Set<Integer> getOwnedShards() {
+        return ownedShards;
+    }
+
+    /**
+     * Add the given shards to the ones owned by this node.
+     *
+     * @param shards the shards assigned to this node
+     */
+    public synchronized void addShards(Collection<Integer> shards) {
+        Set<Integer> newOwnedShards = new HashSet<>(ownedShards);
+        newOwnedShards.addAll(shards);
+        ownedShards = Set.copyOf(newOwnedShards);
+    }
+
+    /**
+     * Remove the given shards from the ones owned by this node.
+     *
+     * @param shards the shards no longer assigned to this node
+     */
+    public synchronized void removeShards(Collection<Integer> shards) {
+        Set<Integer> newOwnedShards = new HashSet<>(ownedShards);
+        newOwnedShards.removeAll(shards);
+        ownedShards = Set.copyOf(newOwnedShards);
+    }
+}
@@ -0,0 +1,26 @@
+/*
+ * Copyright 2021-2021 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.alfresco.event.gateway.kafka.subscription.cluster;
+
+import org.alfresco.event.gateway.kafka.entity.Subscription;
+
+/**
+ * Notification broadcast to all the event gateway nodes when a {@link Subscription} changes in one of them. It only
+ * carries the id of the subscription, the receiving nodes reload its current state from storage.
+ *
+ * @param subscriptionId the id of the changed {@link Subscription}
+ * @param nodeId         the id of the node where the change happened
+ * @param timestamp      the time (in milliseconds) when the change was notified
+ */
+public record SubscriptionChangeNotification(String subscriptionId, String nodeId, long timestamp) {
+}
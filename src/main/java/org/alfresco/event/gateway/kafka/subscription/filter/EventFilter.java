@@ -12,6 +12,8 @@
  */
 package org.alfresco.event.gateway.kafka.subscription.filter;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 
 import org.alfresco.repo.event.v1.model.DataAttributes;
@@ -33,6 +35,23 @@ public interface EventFilter {
      */
     boolean test(RepoEvent<DataAttributes<Resource>> event);
 
+    /**
+     * Evaluates this predicate on every event of the given batch. Implementations with a per-call setup cost (i.e.
+     * logging checks) can override it to pay that cost once per batch.
+     *
+     * @param events the input events
+     * @return the {@link List} of events matching the predicate, in the same order as the input
+     */
+    default List<RepoEvent<DataAttributes<Resource>>> filter(final List<RepoEvent<DataAttributes<Resource>>> events) {
+        List<RepoEvent<DataAttributes<Resource>>> matchingEvents = new ArrayList<>(events.size());
+        for (RepoEvent<DataAttributes<Resource>> event : events) {
+            if (test(event)) {
+                matchingEvents.add(event);
+            }
+        }
+        return matchingEvents;
+    }
+
     /**
      * Returns a composed predicate that represents a short-circuiting logical AND of this predicate and another. When
      * evaluating the composed predicate, if this predicate is {@code false}, then the {@code other} predicate is not
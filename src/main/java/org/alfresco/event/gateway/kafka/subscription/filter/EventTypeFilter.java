@@ -12,6 +12,8 @@
  */
 package org.alfresco.event.gateway.kafka.subscription.filter;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 
 import org.alfresco.repo.event.v1.model.DataAttributes;
@@ -48,4 +50,16 @@ public class EventTypeFilter implements EventFilter {
         LOGGER.debug("Checking filter for type {} and event {}", acceptedEventType, event);
         return acceptedEventType.equals(event.getType());
     }
+
+    @Override
+    public List<RepoEvent<DataAttributes<Resource>>> filter(final List<RepoEvent<DataAttributes<Resource>>> events) {
+        LOGGER.debug("Checking filter for type {} and {} events", acceptedEventType, events.size());
+        List<RepoEvent<DataAttributes<Resource>>> matchingEvents = new ArrayList<>(events.size());
+        for (RepoEvent<DataAttributes<Resource>> event : events) {
+            if (acceptedEventType.equals(event.getType())) {
+                matchingEvents.add(event);
+            }
+        }
+        return matchingEvents;
+    }
 }
@@ -12,6 +12,8 @@
  */
 package org.alfresco.event.gateway.kafka.subscription.filter;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 
 import org.alfresco.repo.event.v1.model.DataAttributes;
@@ -57,6 +59,22 @@ public class NodeTypeFilter implements EventFilter {
         return passed;
     }
 
+    @Override
+    public List<RepoEvent<DataAttributes<Resource>>> filter(
+            final List<RepoEvent<DataAttributes<Resource>>> repoEvents) {
+        Objects.requireNonNull(repoEvents);
+        LOGGER.debug("Checking node type filter for {} events", repoEvents.size());
+        List<RepoEvent<DataAttributes<Resource>>> matchingEvents = new ArrayList<>(repoEvents.size());
+        for (RepoEvent<DataAttributes<Resource>> repoEvent : repoEvents) {
+            if (containsNodeResource(repoEvent) &&
+                    acceptedNodeType.equals(((NodeResource) repoEvent.getData().getResource()).getNodeType())) {
+                matchingEvents.add(repoEvent);
+            }
+        }
+        LOGGER.debug("Node type filter result: {} of {} events passed", matchingEvents.size(), repoEvents.size());
+        return matchingEvents;
+    }
+
     private boolean containsNodeResource(RepoEvent<DataAttributes<Resource>> repoEvent) {
         return Objects.nonNull(repoEvent.getData()) && repoEvent.getData().getResource() instanceof NodeResource;
     }
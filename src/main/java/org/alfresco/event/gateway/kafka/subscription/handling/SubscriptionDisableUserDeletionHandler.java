@@ -12,41 +12,196 @@
  */
 package org.alfresco.event.gateway.kafka.subscription.handling;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.annotation.PreDestroy;
+
 import org.alfresco.event.gateway.kafka.consumption.handling.UserDeletionHandler;
-import org.alfresco.event.gateway.kafka.entity.Subscription;
-import org.alfresco.event.gateway.kafka.entity.SubscriptionStatus;
 import org.alfresco.event.gateway.kafka.subscription.EventSubscriptionService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 
 /**
  * {@link UserDeletionHandler} implementation that disables all the subscriptions owned by the deleted user.
+ * <p>
+ * When a coalescing window is configured, the deletions are not handled in the consumption thread. They are gathered
+ * during the window (or until the maximum batch size is reached) and the subscriptions of all the deleted users are
+ * disabled in a single bulk operation from a dedicated thread. This way, a mass deletion of users (i.e. an LDAP sync)
+ * doesn't serialise one transaction per user in the hot path.
+ * <p>
+ * If the bulk operation fails, the deleted users are queued again and retried after an exponential backoff (the
+ * coalescing window doubled on every attempt), up to <code>maxRetries</code> times per user. The users whose
+ * subscriptions cannot be disabled after that are logged and dropped.
  */
 public class SubscriptionDisableUserDeletionHandler implements UserDeletionHandler {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(SubscriptionDisableUserDeletionHandler.class);
+    private static final int DEFAULT_MAX_BATCH_SIZE = 500;
+    private static final int DEFAULT_MAX_RETRIES = 5;
+    private static final int MAX_BACKOFF_EXPONENT = 10;
 
     private final EventSubscriptionService eventSubscriptionService;
+    private final long coalescingWindow;
+    private final int maxBatchSize;
+    private final int maxRetries;
+    private final ScheduledExecutorService executorService;
+    private final Set<String> pendingUsernames = new LinkedHashSet<>();
+    private final Map<String, Integer> failedAttempts = new HashMap<>();
+    private boolean flushScheduled;
 
     /**
-     * Constructor.
+     * Constructor. The deletions are handled synchronously.
      *
      * @param eventSubscriptionService given {@link EventSubscriptionService}
      */
     public SubscriptionDisableUserDeletionHandler(final EventSubscriptionService eventSubscriptionService) {
+        this(eventSubscriptionService, 0, DEFAULT_MAX_BATCH_SIZE);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param eventSubscriptionService given {@link EventSubscriptionService}
+     * @param coalescingWindow         given time (in milliseconds) during which the deletions are gathered before
+     *                                 being handled (0 or less to handle them synchronously)
+     * @param maxBatchSize             given maximum number of users whose subscriptions are disabled at once
+     */
+    public SubscriptionDisableUserDeletionHandler(final EventSubscriptionService eventSubscriptionService,
+            final long coalescingWindow, final int maxBatchSize) {
+        this(eventSubscriptionService, coalescingWindow, maxBatchSize, DEFAULT_MAX_RETRIES);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param eventSubscriptionService given {@link EventSubscriptionService}
+     * @param coalescingWindow         given time (in milliseconds) during which the deletions are gathered before
+     *                                 being handled (0 or less to handle them synchronously)
+     * @param maxBatchSize             given maximum number of users whose subscriptions are disabled at once
+     * @param maxRetries               given maximum number of times the disabling of the subscriptions of a user is
+     *                                 retried when the deletions are not handled synchronously
+     */
+    public SubscriptionDisableUserDeletionHandler(final EventSubscriptionService eventSubscriptionService,
+            final long coalescingWindow, final int maxBatchSize, final int maxRetries) {
         this.eventSubscriptionService = eventSubscriptionService;
+        this.coalescingWindow = coalescingWindow;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.maxRetries = Math.max(0, maxRetries);
+        this.executorService = coalescingWindow > 0
+                ? Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("UserDeletionHandler-"))
+                : null;
     }
 
     @Override
     public void userDeleted(String username) {
-        LOGGER.debug("Checking if the user {} is the owner of any active subscription", username);
-        eventSubscriptionService.findSubscriptionsByUserAndStatus(username, SubscriptionStatus.ACTIVE)
-                .forEach(this::disableSubscription);
+        if (Objects.isNull(executorService)) {
+            disableSubscriptions(List.of(username));
+            return;
+        }
+        LOGGER.debug("Scheduling the disabling of the subscriptions owned by the user {}", username);
+        synchronized (pendingUsernames) {
+            pendingUsernames.add(username);
+            if (pendingUsernames.size() >= maxBatchSize) {
+                executorService.execute(this::flush);
+            }
+            else if (!flushScheduled) {
+                flushScheduled = true;
+                executorService.schedule(this::flush, coalescingWindow, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    /**
+     * Disable the subscriptions of all the deleted users gathered so far.
+     */
+    public void flush() {
+        List<String> usernames;
+        synchronized (pendingUsernames) {
+            flushScheduled = false;
+            if (pendingUsernames.isEmpty()) {
+                return;
+            }
+            usernames = new ArrayList<>(pendingUsernames);
+            pendingUsernames.clear();
+        }
+        for (int fromIndex = 0; fromIndex < usernames.size(); fromIndex += maxBatchSize) {
+            List<String> batch = usernames.subList(fromIndex, Math.min(fromIndex + maxBatchSize, usernames.size()));
+            if (disableSubscriptions(batch)) {
+                synchronized (pendingUsernames) {
+                    batch.forEach(failedAttempts::remove);
+                }
+            }
+            else {
+                retryLater(batch);
+            }
+        }
+    }
+
+    /**
+     * Handle the pending deletions and stop the coalescing thread.
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (Objects.nonNull(executorService)) {
+            executorService.shutdownNow();
+            flush();
+        }
+    }
+
+    private boolean disableSubscriptions(List<String> usernames) {
+        LOGGER.debug("Disabling the subscriptions owned by the deleted users {}", usernames);
+        try {
+            List<String> disabledIds = eventSubscriptionService.deactivateSubscriptionsOfUsers(usernames);
+            LOGGER.debug("Subscriptions {} disabled due to their owners have been deleted", disabledIds);
+            return true;
+        } catch (RuntimeException excp) {
+            if (Objects.isNull(executorService)) {
+                throw excp;
+            }
+            LOGGER.error("Error disabling the subscriptions owned by the deleted users {}", usernames, excp);
+            return false;
+        }
     }
 
-    private void disableSubscription(Subscription subscription) {
-        LOGGER.debug("Disabling subscription {} due to its owner has been deleted", subscription);
-        subscription.setStatus(SubscriptionStatus.INACTIVE);
-        eventSubscriptionService.updateSubscription(subscription);
+    private void retryLater(List<String> usernames) {
+        List<String> droppedUsernames = new ArrayList<>();
+        int maxAttempts = 0;
+        synchronized (pendingUsernames) {
+            for (String username : usernames) {
+                int attempts = failedAttempts.merge(username, 1, Integer::sum);
+                if (attempts > maxRetries || executorService.isShutdown()) {
+                    failedAttempts.remove(username);
+                    droppedUsernames.add(username);
+                }
+                else {
+                    pendingUsernames.add(username);
+                    maxAttempts = Math.max(maxAttempts, attempts);
+                }
+            }
+        }
+        if (!droppedUsernames.isEmpty()) {
+            LOGGER.error("Giving up disabling the subscriptions owned by the deleted users {}", droppedUsernames);
+        }
+        if (maxAttempts > 0) {
+            long delay = coalescingWindow << Math.min(maxAttempts, MAX_BACKOFF_EXPONENT);
+            LOGGER.debug("Retrying the disabling of the subscriptions in {} milliseconds", delay);
+            try {
+                executorService.schedule(this::flush, delay, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException excp) {
+                // Shutting down, the pending deletions are handled by the final flush
+                LOGGER.debug("Retry not scheduled as the handler is shutting down");
+            }
+        }
     }
 }
@@ -18,6 +18,7 @@ import java.util.Objects;
 import org.alfresco.event.gateway.kafka.BrokerConfig;
 import org.alfresco.event.gateway.kafka.SubscriptionConfigurationConstants;
 import org.alfresco.event.gateway.kafka.entity.Subscription;
+import org.alfresco.event.gateway.kafka.subscription.LazySubscriptionPublisherManager;
 import org.alfresco.event.gateway.kafka.subscription.RepoEventToJsonTransformer;
 import org.alfresco.event.gateway.kafka.subscription.SubscriptionPublisher;
 import org.alfresco.event.gateway.kafka.subscription.SubscriptionPublisherFactory;
@@ -28,9 +29,15 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.integration.dsl.context.IntegrationFlowContext;
 
+import io.micrometer.core.instrument.MeterRegistry;
+
 /**
  * Implementation of {@link SubscriptionPublisherFactory} that creates {@link SpringIntegrationJmsSubscriptionPublisher}
  * objects for ActiveMQ destinations.
+ * <p>
+ * When a {@link LazySubscriptionPublisherManager} is provided, the configuration and the destination are still
+ * validated on creation, but the outbound flow and its connection factory are only built when the first event is
+ * published.
  */
 public class JmsActiveMQSubscriptionPublisherFactory implements SubscriptionPublisherFactory {
 
@@ -40,6 +47,8 @@ public class JmsActiveMQSubscriptionPublisherFactory implements SubscriptionPubl
     private final RepoEventToJsonTransformer repoEventToJsonTransformer;
     private final ActiveMQDestinationResolver activeMQDestinationResolver;
     private final BrokerConfigResolver brokerConfigResolver;
+    private final LazySubscriptionPublisherManager lazySubscriptionPublisherManager;
+    private final MeterRegistry meterRegistry;
 
     /**
      * Constructor.
@@ -52,10 +61,51 @@ public class JmsActiveMQSubscriptionPublisherFactory implements SubscriptionPubl
             final RepoEventToJsonTransformer repoEventToJsonTransformer,
             final ActiveMQDestinationResolver activeMQDestinationResolver,
             final BrokerConfigResolver brokerConfigResolver) {
+        this(integrationFlowContext, repoEventToJsonTransformer, activeMQDestinationResolver, brokerConfigResolver,
+                null);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param integrationFlowContext           given {@link IntegrationFlowContext}
+     * @param repoEventToJsonTransformer       given {@link RepoEventToJsonTransformer}
+     * @param activeMQDestinationResolver      given {@link ActiveMQDestinationResolver}
+     * @param lazySubscriptionPublisherManager given {@link LazySubscriptionPublisherManager} (<code>null</code> to
+     *                                         build the publishers eagerly)
+     */
+    public JmsActiveMQSubscriptionPublisherFactory(final IntegrationFlowContext integrationFlowContext,
+            final RepoEventToJsonTransformer repoEventToJsonTransformer,
+            final ActiveMQDestinationResolver activeMQDestinationResolver,
+            final BrokerConfigResolver brokerConfigResolver,
+            final LazySubscriptionPublisherManager lazySubscriptionPublisherManager) {
+        this(integrationFlowContext, repoEventToJsonTransformer, activeMQDestinationResolver, brokerConfigResolver,
+                lazySubscriptionPublisherManager, null);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param integrationFlowContext           given {@link IntegrationFlowContext}
+     * @param repoEventToJsonTransformer       given {@link RepoEventToJsonTransformer}
+     * @param activeMQDestinationResolver      given {@link ActiveMQDestinationResolver}
+     * @param lazySubscriptionPublisherManager given {@link LazySubscriptionPublisherManager} (<code>null</code> to
+     *                                         build the publishers eagerly)
+     * @param meterRegistry                    given {@link MeterRegistry} for the metrics of the publishers
+     *                                         (<code>null</code> to disable them)
+     */
+    public JmsActiveMQSubscriptionPublisherFactory(final IntegrationFlowContext integrationFlowContext,
+            final RepoEventToJsonTransformer repoEventToJsonTransformer,
+            final ActiveMQDestinationResolver activeMQDestinationResolver,
+            final BrokerConfigResolver brokerConfigResolver,
+            final LazySubscriptionPublisherManager lazySubscriptionPublisherManager,
+            final MeterRegistry meterRegistry) {
         this.integrationFlowContext = integrationFlowContext;
         this.repoEventToJsonTransformer = repoEventToJsonTransformer;
         this.activeMQDestinationResolver = activeMQDestinationResolver;
         this.brokerConfigResolver = brokerConfigResolver;
+        this.lazySubscriptionPublisherManager = lazySubscriptionPublisherManager;
+        this.meterRegistry = meterRegistry;
     }
 
     @Override
@@ -75,11 +125,19 @@ public class JmsActiveMQSubscriptionPublisherFactory implements SubscriptionPubl
         jmsDestinationContext.setUsername(subscription.getUser());
         jmsDestinationContext.setDestinationPattern(brokerConfig.getDestinationPattern());
 
-        return SpringIntegrationJmsSubscriptionPublisherBuilder.getInstance()
+        SpringIntegrationJmsSubscriptionPublisherBuilder subscriptionPublisherBuilder = SpringIntegrationJmsSubscriptionPublisherBuilder
+                .getInstance()
                 .integrationFlowContext(integrationFlowContext)
                 .destination(activeMQDestinationResolver.resolveDestination(jmsDestinationContext))
                 .repoEventToJsonTransformer(repoEventToJsonTransformer)
                 .brokerConfig(brokerConfig)
-                .build();
+                .subscriptionId(subscription.getId())
+                .meterRegistry(meterRegistry);
+
+        if (Objects.nonNull(lazySubscriptionPublisherManager)) {
+            return lazySubscriptionPublisherManager.getLazySubscriptionPublisher(subscription.getId(),
+                    subscriptionPublisherBuilder::build);
+        }
+        return subscriptionPublisherBuilder.build();
     }
 }
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2021-2021 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.alfresco.event.gateway.kafka.subscription.jms;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import jakarta.jms.ConnectionFactory;
+import jakarta.jms.Destination;
+import jakarta.jms.MessageProducer;
+
+import org.alfresco.event.gateway.kafka.subscription.RepoEventToJsonTransformer;
+import org.alfresco.repo.event.v1.model.DataAttributes;
+import org.alfresco.repo.event.v1.model.RepoEvent;
+import org.alfresco.repo.event.v1.model.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.integration.handler.AbstractMessageHandler;
+import org.springframework.jms.core.JmsTemplate;
+import org.springframework.jms.support.JmsUtils;
+import org.springframework.messaging.Message;
+
+/**
+ * Message handler that publishes a batch of {@link RepoEvent} objects (the {@link List} payload of the message) to a
+ * JMS {@link Destination} in a single transacted session, so the session is committed once per batch instead of once
+ * per event. If any of the sends fails, the session is rolled back and none of the events of the batch is published.
+ */
+class JmsBatchMessageHandler extends AbstractMessageHandler {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(JmsBatchMessageHandler.class);
+
+    private final JmsTemplate jmsTemplate;
+    private final Destination destination;
+    private final RepoEventToJsonTransformer repoEventToJsonTransformer;
+
+    /**
+     * Constructor.
+     *
+     * @param connectionFactory          given {@link ConnectionFactory}
+     * @param destination                given JMS {@link Destination}
+     * @param repoEventToJsonTransformer given {@link RepoEventToJsonTransformer}
+     */
+    JmsBatchMessageHandler(final ConnectionFactory connectionFactory, final Destination destination,
+            final RepoEventToJsonTransformer repoEventToJsonTransformer) {
+        this.jmsTemplate = new JmsTemplate(connectionFactory);
+        this.jmsTemplate.setSessionTransacted(true);
+        this.destination = destination;
+        this.repoEventToJsonTransformer = repoEventToJsonTransformer;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void handleMessageInternal(Message<?> message) {
+        List<RepoEvent<DataAttributes<Resource>>> events = (List<RepoEvent<DataAttributes<Resource>>>) message
+                .getPayload();
+        // Serialize the whole batch before opening the session, a serialization error discards the batch
+        List<String> eventsJSON = new ArrayList<>(events.size());
+        events.forEach(event -> eventsJSON.add(repoEventToJsonTransformer.transform(event)));
+        LOGGER.debug("Sending a batch of {} events to JMS destination {}", eventsJSON.size(), destination);
+        jmsTemplate.execute(session -> {
+            try (MessageProducer producer = session.createProducer(destination)) {
+                for (String eventJSON : eventsJSON) {
+                    producer.send(session.createTextMessage(eventJSON));
+                }
+            }
+            JmsUtils.commitIfNecessary(session);
+            return null;
+        }, true);
+    }
+}
@@ -12,6 +12,12 @@
  */
 package org.alfresco.event.gateway.kafka.subscription.jms;
 
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.alfresco.event.gateway.kafka.metrics.GatewayMetrics;
 import org.alfresco.event.gateway.kafka.subscription.SubscriptionPublisher;
 import org.alfresco.repo.event.v1.model.DataAttributes;
 import org.alfresco.repo.event.v1.model.RepoEvent;
@@ -21,14 +27,31 @@ import org.slf4j.LoggerFactory;
 import org.springframework.integration.core.MessagingTemplate;
 import org.springframework.integration.dsl.context.IntegrationFlowContext;
 import org.springframework.integration.dsl.context.IntegrationFlowContext.IntegrationFlowRegistration;
+import org.springframework.integration.handler.advice.RequestHandlerCircuitBreakerAdvice.CircuitBreakerOpenException;
 import org.springframework.integration.support.MessageBuilder;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.search.Search;
+
 /**
  * Implementation of {@link SubscriptionPublisher} that makes use of Spring Integration to publish the {@link RepoEvent}
  * objects to a JMS destination.
  * <p>
  * The <code>release</code> method simply remove the Spring Integration flow using the {@link IntegrationFlowContext}.
  * That subsequently releases all the resources (spring beans, connections and caches) of the corresponding flow.
+ * <p>
+ * The publication latency is recorded per outcome (success or failure), and the end-to-end latency (from the creation
+ * of the event in ACS) of every published event is recorded for the JMS destination of the subscription. As the
+ * circuit breaker of the flow doesn't expose its state, it is tracked from the publications: it is reported as open
+ * when a publication is rejected by the circuit breaker, and as closed again after the next successful publication.
+ * All the meters are tagged with the subscription and shared with the publisher that replaces this one, so they are
+ * removed when the subscription is deregistered rather than on release.
+ * <p>
+ * A batch of events is sent to the flow as a single message, so that it is published in a single JMS transaction. Its
+ * publication latency is recorded once for the whole batch.
  */
 public class SpringIntegrationJmsSubscriptionPublisher implements SubscriptionPublisher {
 
@@ -37,6 +60,10 @@ public class SpringIntegrationJmsSubscriptionPublisher implements SubscriptionPu
     private IntegrationFlowContext integrationFlowContext;
     private IntegrationFlowRegistration integrationFlowRegistration;
     private MessagingTemplate messagingTemplate;
+    private final Timer publishSuccessTimer;
+    private final Timer publishFailureTimer;
+    private final Timer latencyTimer;
+    private final AtomicInteger circuitOpen = new AtomicInteger();
 
     /**
      * Constructor.
@@ -47,15 +74,90 @@ public class SpringIntegrationJmsSubscriptionPublisher implements SubscriptionPu
      */
     SpringIntegrationJmsSubscriptionPublisher(final IntegrationFlowContext integrationFlowContext,
             final IntegrationFlowRegistration integrationFlowRegistration, final MessagingTemplate messagingTemplate) {
+        this(integrationFlowContext, integrationFlowRegistration, messagingTemplate, null, null);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param integrationFlowContext      given {@link IntegrationFlowContext}
+     * @param integrationFlowRegistration given {@link IntegrationFlowRegistration}
+     * @param messagingTemplate           given {@link MessagingTemplate}
+     * @param subscriptionId              given id of the subscription, used to tag the meters
+     * @param meterRegistry               given {@link MeterRegistry} (<code>null</code> to disable the metrics)
+     */
+    SpringIntegrationJmsSubscriptionPublisher(final IntegrationFlowContext integrationFlowContext,
+            final IntegrationFlowRegistration integrationFlowRegistration, final MessagingTemplate messagingTemplate,
+            final String subscriptionId, final MeterRegistry meterRegistry) {
         this.integrationFlowContext = integrationFlowContext;
         this.integrationFlowRegistration = integrationFlowRegistration;
         this.messagingTemplate = messagingTemplate;
+        MeterRegistry registry = GatewayMetrics.registryOrNoop(meterRegistry);
+        Tags tags = Objects.nonNull(subscriptionId) ? Tags.of(GatewayMetrics.TAG_SUBSCRIPTION, subscriptionId)
+                : Tags.empty();
+        this.publishSuccessTimer = registry.timer(GatewayMetrics.PUBLISH,
+                tags.and(GatewayMetrics.TAG_OUTCOME, GatewayMetrics.OUTCOME_SUCCESS));
+        this.publishFailureTimer = registry.timer(GatewayMetrics.PUBLISH,
+                tags.and(GatewayMetrics.TAG_OUTCOME, GatewayMetrics.OUTCOME_FAILURE));
+        this.latencyTimer = registry.timer(GatewayMetrics.LATENCY,
+                tags.and(GatewayMetrics.TAG_DESTINATION, GatewayMetrics.DESTINATION_JMS));
+        if (Objects.nonNull(subscriptionId)) {
+            // Bind the gauge to this publisher, instead of the one of the publisher being replaced
+            Search.in(registry).name(GatewayMetrics.PUBLISH_CIRCUIT_OPEN).tags(tags).gauges()
+                    .forEach(registry::remove);
+        }
+        Gauge.builder(GatewayMetrics.PUBLISH_CIRCUIT_OPEN, circuitOpen, AtomicInteger::get)
+                .tags(tags)
+                .register(registry);
     }
 
     @Override
     public void publishEvent(RepoEvent<DataAttributes<Resource>> event) {
         LOGGER.debug("Publishing the event {} to JMS", event);
-        messagingTemplate.send(MessageBuilder.withPayload(event).build());
+        long startTime = System.nanoTime();
+        try {
+            messagingTemplate.send(MessageBuilder.withPayload(event).build());
+            publishSuccessTimer.record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+            GatewayMetrics.recordEventLatency(latencyTimer, event);
+            circuitOpen.set(0);
+        } catch (RuntimeException excp) {
+            recordFailure(startTime, excp);
+            throw excp;
+        }
+    }
+
+    @Override
+    public void publishEvents(List<RepoEvent<DataAttributes<Resource>>> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        LOGGER.debug("Publishing a batch of {} events to JMS", events.size());
+        long startTime = System.nanoTime();
+        try {
+            messagingTemplate.send(MessageBuilder.withPayload(events).build());
+            publishSuccessTimer.record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+            events.forEach(event -> GatewayMetrics.recordEventLatency(latencyTimer, event));
+            circuitOpen.set(0);
+        } catch (RuntimeException excp) {
+            recordFailure(startTime, excp);
+            throw excp;
+        }
+    }
+
+    private void recordFailure(long startTime, RuntimeException excp) {
+        publishFailureTimer.record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+        if (isRejectedByCircuitBreaker(excp)) {
+            circuitOpen.set(1);
+        }
+    }
+
+    private boolean isRejectedByCircuitBreaker(Throwable excp) {
+        for (Throwable cause = excp; Objects.nonNull(cause); cause = cause.getCause()) {
+            if (cause instanceof CircuitBreakerOpenException) {
+                return true;
+            }
+        }
+        return false;
     }
 
     @Override
@@ -12,6 +12,7 @@
  */
 package org.alfresco.event.gateway.kafka.subscription.jms;
 
+import java.util.List;
 import java.util.Objects;
 import java.util.UUID;
 
@@ -33,6 +34,8 @@ import org.springframework.integration.jms.dsl.Jms;
 import org.springframework.retry.support.RetryTemplateBuilder;
 import org.springframework.util.Assert;
 
+import io.micrometer.core.instrument.MeterRegistry;
+
 /**
  * Builder for the class {@link SpringIntegrationJmsSubscriptionPublisher}.
  * <p>
@@ -41,6 +44,10 @@ import org.springframework.util.Assert;
  * (previously transformed to JSON using the transformer {@link RepoEventToJsonTransformer}) to a specific JMS
  * {@link Destination}.
  * <p>
+ * The batches of events (messages with a {@link List} payload) are routed to a {@link JmsBatchMessageHandler} instead,
+ * which sends all of them within a single transacted session. Both handlers share the same connection factory, circuit
+ * breaker and retry configuration.
+ * <p>
  * The creation of this publisher requires a {@link ConnectionFactory} and a JMS {@link Destination} to know where the
  * messages should be published.
  */
@@ -53,6 +60,8 @@ public class SpringIntegrationJmsSubscriptionPublisherBuilder {
     private Destination destination;
     private RepoEventToJsonTransformer repoEventToJsonTransformer;
     private BrokerConfig brokerConfig;
+    private String subscriptionId;
+    private MeterRegistry meterRegistry;
 
     private SpringIntegrationJmsSubscriptionPublisherBuilder() {
         // Hide default constructor
@@ -89,6 +98,16 @@ public class SpringIntegrationJmsSubscriptionPublisherBuilder {
         return this;
     }
 
+    public SpringIntegrationJmsSubscriptionPublisherBuilder subscriptionId(String subscriptionId) {
+        this.subscriptionId = subscriptionId;
+        return this;
+    }
+
+    public SpringIntegrationJmsSubscriptionPublisherBuilder meterRegistry(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        return this;
+    }
+
     /**
      * Build a new {@link SpringIntegrationJmsSubscriptionPublisher}.
      *
@@ -104,7 +123,7 @@ public class SpringIntegrationJmsSubscriptionPublisherBuilder {
         MessagingTemplate messagingTemplate = createMessagingTemplate(integrationFlowRegistration.getId());
         // create the subscription publisher object
         return new SpringIntegrationJmsSubscriptionPublisher(integrationFlowContext, integrationFlowRegistration,
-                messagingTemplate);
+                messagingTemplate, subscriptionId, meterRegistry);
     }
 
     private void checkMandatory() {
@@ -129,10 +148,20 @@ public class SpringIntegrationJmsSubscriptionPublisherBuilder {
 
     private IntegrationFlow defineIntegrationFlow(final RepoEventToJsonTransformer repoEventToJsonTransformer,
             final Destination destination) {
+        ConnectionFactory connectionFactory = buildConnectionFactory();
+        RequestHandlerCircuitBreakerAdvice circuitBreakerAdvice = buildCircuitBreaker();
+        RequestHandlerRetryAdvice retryAdvice = buildRetry();
         return f -> f
-                .transform(repoEventToJsonTransformer)
-                .handle(Jms.outboundAdapter(buildConnectionFactory())
-                        .destination(destination), s -> s.advice(buildCircuitBreaker()).advice(buildRetry()));
+                .<Object, Boolean> route(List.class::isInstance, r -> r
+                        .subFlowMapping(true, sf -> sf
+                                .handle(new JmsBatchMessageHandler(connectionFactory, destination,
+                                        repoEventToJsonTransformer),
+                                        s -> s.advice(circuitBreakerAdvice).advice(retryAdvice)))
+                        .subFlowMapping(false, sf -> sf
+                                .transform(repoEventToJsonTransformer)
+                                .handle(Jms.outboundAdapter(connectionFactory)
+                                        .destination(destination),
+                                        s -> s.advice(circuitBreakerAdvice).advice(retryAdvice))));
     }
 
     private ConnectionFactory buildConnectionFactory() {
@@ -12,10 +12,29 @@
  */
 package org.alfresco.event.gateway.kafka.subscription.rest;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import jakarta.persistence.EntityNotFoundException;
+import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
 
 import org.alfresco.event.gateway.kafka.entity.Subscription;
+import org.alfresco.event.gateway.kafka.entity.SubscriptionStatus;
 import org.alfresco.event.gateway.kafka.subscription.EventSubscriptionService;
+import org.alfresco.event.gateway.kafka.subscription.SubscriptionOperationResult;
+import org.alfresco.event.gateway.kafka.subscription.SubscriptionPageRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
@@ -23,16 +42,22 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PostAuthorize;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.github.fge.jsonpatch.JsonPatchException;
 import com.github.fge.jsonpatch.mergepatch.JsonMergePatch;
 
@@ -60,10 +85,26 @@ public class EventSubscriptionController {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(EventSubscriptionController.class);
     private static final String INVALID_SUBSCRIPTION_DESCRIPTION = "Invalid subscription format or unsupported subscription or filter type";
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int MAX_BULK_SIZE = 1000;
+    private static final Map<String, Function<Subscription, Object>> PROJECTABLE_FIELDS = new LinkedHashMap<>();
+
+    static {
+        PROJECTABLE_FIELDS.put("id", Subscription::getId);
+        PROJECTABLE_FIELDS.put("createdDate", Subscription::getCreatedDate);
+        PROJECTABLE_FIELDS.put("modifiedDate", Subscription::getModifiedDate);
+        PROJECTABLE_FIELDS.put("status", Subscription::getStatus);
+        PROJECTABLE_FIELDS.put("type", Subscription::getType);
+        PROJECTABLE_FIELDS.put("user", Subscription::getUser);
+        PROJECTABLE_FIELDS.put("config", Subscription::getConfig);
+        PROJECTABLE_FIELDS.put("filters", Subscription::getFilters);
+    }
 
     private final EventSubscriptionService eventSubscriptionService;
     private final ObjectMapper objectMapper;
     private final SubscriptionPatchValidator subscriptionPatchValidator;
+    private final Validator validator;
+    private final String managersGroup;
 
     /**
      * Constructor.
@@ -75,9 +116,26 @@ public class EventSubscriptionController {
      */
     public EventSubscriptionController(EventSubscriptionService eventSubscriptionService, ObjectMapper objectMapper,
             SubscriptionPatchValidator subscriptionPatchValidator) {
+        this(eventSubscriptionService, objectMapper, subscriptionPatchValidator, null, null);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param eventSubscriptionService   the given {@link EventSubscriptionService} to handle the operations on
+     *                                   {@link Subscription}
+     * @param objectMapper               given {@link ObjectMapper}
+     * @param subscriptionPatchValidator given {@link SubscriptionPatchValidator}
+     * @param validator                  given {@link Validator} used to validate the items of the bulk operations
+     * @param managersGroup              given authority of the subscription managers
+     */
+    public EventSubscriptionController(EventSubscriptionService eventSubscriptionService, ObjectMapper objectMapper,
+            SubscriptionPatchValidator subscriptionPatchValidator, Validator validator, String managersGroup) {
         this.eventSubscriptionService = eventSubscriptionService;
         this.objectMapper = objectMapper;
         this.subscriptionPatchValidator = subscriptionPatchValidator;
+        this.validator = validator;
+        this.managersGroup = managersGroup;
     }
 
     @PostAuthorize("(returnObject.body.user == authentication.name) OR hasAuthority(@environment.getProperty('alfresco.event.gateway.subscription.security.managers.group'))")
@@ -92,6 +150,70 @@ public class EventSubscriptionController {
         return new ResponseEntity<>(eventSubscriptionService.getSubscription(id), HttpStatus.OK);
     }
 
+    @PreAuthorize("hasAuthority(@environment.getProperty('alfresco.event.gateway.subscription.security.group'))")
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(description = "List a page of Subscriptions ordered by creation date and id, one JSON object per line. "
+            + "The next page starts after the createdDate and id of the last subscription returned")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successful operation"),
+            @ApiResponse(responseCode = "400", description = "Invalid page or unknown field", content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)),
+            @ApiResponse(responseCode = "403", description = "Subscriptions of other users requested without being a subscription manager", content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE))
+    })
+    public ResponseEntity<StreamingResponseBody> listSubscriptions(
+            @Parameter(description = "The owner of the subscriptions (defaults to the current user unless they are a subscription manager)") @RequestParam(required = false) String user,
+            @Parameter(description = "The status of the subscriptions") @RequestParam(required = false) SubscriptionStatus status,
+            @Parameter(description = "The createdDate of the last subscription of the previous page") @RequestParam(required = false) Long afterCreatedDate,
+            @Parameter(description = "The id of the last subscription of the previous page") @RequestParam(required = false) String afterId,
+            @Parameter(description = "The maximum number of subscriptions to return (up to " + MAX_PAGE_SIZE + ")") @RequestParam(defaultValue = "100") int limit,
+            @Parameter(description = "The fields of each subscription to return (id and createdDate are always returned)") @RequestParam(required = false) List<String> fields) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String owner = user;
+        if (!currentUserIsManager(authentication)) {
+            if (Objects.nonNull(user) && !user.equals(authentication.getName())) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+            }
+            owner = authentication.getName();
+        }
+
+        Map<String, Function<Subscription, Object>> projection = new LinkedHashMap<>();
+        if (Objects.isNull(fields) || fields.isEmpty()) {
+            projection.putAll(PROJECTABLE_FIELDS);
+        }
+        else if (!PROJECTABLE_FIELDS.keySet().containsAll(fields)) {
+            return ResponseEntity.badRequest().build();
+        }
+        else {
+            PROJECTABLE_FIELDS.forEach((field, accessor) -> {
+                if (fields.contains(field) || "id".equals(field) || "createdDate".equals(field)) {
+                    projection.put(field, accessor);
+                }
+            });
+        }
+
+        SubscriptionPageRequest pageRequest;
+        try {
+            pageRequest = new SubscriptionPageRequest(owner, status, afterCreatedDate, afterId,
+                    Math.min(limit, MAX_PAGE_SIZE));
+        } catch (IllegalArgumentException e) {
+            LOGGER.debug("Invalid subscriptions page requested", e);
+            return ResponseEntity.badRequest().build();
+        }
+
+        StreamingResponseBody body = outputStream -> eventSubscriptionService.streamSubscriptions(pageRequest,
+                subscription -> {
+                    ObjectNode subscriptionNode = objectMapper.createObjectNode();
+                    projection.forEach((field, accessor) -> subscriptionNode.set(field,
+                            objectMapper.valueToTree(accessor.apply(subscription))));
+                    try {
+                        outputStream.write(objectMapper.writeValueAsBytes(subscriptionNode));
+                        outputStream.write("\n".getBytes(StandardCharsets.UTF_8));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
     @PreAuthorize("hasAuthority(@environment.getProperty('alfresco.event.gateway.subscription.security.group'))")
     @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
     @Operation(description = "Create a Subscription")
@@ -126,11 +248,114 @@ public class EventSubscriptionController {
         }
     }
 
+    @PreAuthorize("hasAuthority(@environment.getProperty('alfresco.event.gateway.subscription.security.group'))")
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(description = "Create a list of Subscriptions in a single operation")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Operation performed, the result of each subscription is returned in the same order"),
+            @ApiResponse(responseCode = "400", description = "Invalid request format or more than " + MAX_BULK_SIZE + " subscriptions", content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE))
+    })
+    public ResponseEntity<List<SubscriptionOperationResult>> createSubscriptions(
+            @Parameter(description = "The subscription objects to be created (up to " + MAX_BULK_SIZE + ")") @RequestBody List<Subscription> eventSubscriptions) {
+        if (eventSubscriptions.size() > MAX_BULK_SIZE) {
+            LOGGER.debug("Bulk creation of {} subscriptions rejected, up to {} allowed", eventSubscriptions.size(),
+                    MAX_BULK_SIZE);
+            return ResponseEntity.badRequest().build();
+        }
+        SubscriptionOperationResult[] results = new SubscriptionOperationResult[eventSubscriptions.size()];
+        List<Integer> validIndexes = new ArrayList<>();
+        List<Subscription> validSubscriptions = new ArrayList<>();
+        for (int i = 0; i < results.length; i++) {
+            Set<ConstraintViolation<Subscription>> violations = validator.validate(eventSubscriptions.get(i));
+            if (violations.isEmpty()) {
+                validIndexes.add(i);
+                validSubscriptions.add(eventSubscriptions.get(i));
+            }
+            else {
+                results[i] = SubscriptionOperationResult.failed(i, violations.stream()
+                        .map(ConstraintViolation::getMessage)
+                        .collect(Collectors.joining(", ")));
+            }
+        }
+        mergeResults(results, validIndexes, eventSubscriptionService.createSubscriptions(validSubscriptions));
+        return new ResponseEntity<>(Arrays.asList(results), HttpStatus.OK);
+    }
+
+    @PatchMapping(value = "/bulk", consumes = "application/merge-patch+json", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(description = "Update the status of a list of Subscriptions in a single operation")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Operation performed, the result of each subscription is returned in the same order"),
+            @ApiResponse(responseCode = "400", description = "Invalid request format or more than " + MAX_BULK_SIZE + " subscriptions", content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE))
+    })
+    public ResponseEntity<List<SubscriptionOperationResult>> partiallyUpdateSubscriptions(
+            @Parameter(description = "The JSON snippets holding the new status of each subscription, by subscription id (up to " + MAX_BULK_SIZE + ")") @RequestBody Map<String, JsonNode> patches) {
+        if (patches.size() > MAX_BULK_SIZE) {
+            LOGGER.debug("Bulk update of {} subscriptions rejected, up to {} allowed", patches.size(), MAX_BULK_SIZE);
+            return ResponseEntity.badRequest().build();
+        }
+        SubscriptionOperationResult[] results = new SubscriptionOperationResult[patches.size()];
+        List<Integer> validIndexes = new ArrayList<>();
+        List<Subscription> patchedSubscriptions = new ArrayList<>();
+        int index = 0;
+        for (Map.Entry<String, JsonNode> patch : patches.entrySet()) {
+            try {
+                Subscription subscription = eventSubscriptionService.getSubscription(patch.getKey());
+                if (Objects.isNull(subscription)) {
+                    results[index] = subscriptionNotFound(patch.getKey());
+                }
+                else if (currentUserCanUpdate(subscription)) {
+                    patchedSubscriptions.add(patchSubscription(subscription, patch.getValue()));
+                    validIndexes.add(index);
+                }
+                else {
+                    results[index] = SubscriptionOperationResult.failed(patch.getKey(), "Access denied");
+                }
+            } catch (EntityNotFoundException e) {
+                // The subscription fetched lazily from storage does not exist
+                results[index] = subscriptionNotFound(patch.getKey());
+            } catch (JsonPatchException | JsonProcessingException | RuntimeException e) {
+                LOGGER.debug("Error reading/applying the patch of subscription {}", patch.getKey(), e);
+                results[index] = SubscriptionOperationResult.failed(patch.getKey(), e.getMessage());
+            }
+            index++;
+        }
+        mergeResults(results, validIndexes, eventSubscriptionService.updateSubscriptions(patchedSubscriptions));
+        return new ResponseEntity<>(Arrays.asList(results), HttpStatus.OK);
+    }
+
+    private static SubscriptionOperationResult subscriptionNotFound(final String id) {
+        return SubscriptionOperationResult.failed(id, String.format("Subscription %s not found", id));
+    }
+
     private Subscription patchSubscription(final String id, final JsonNode patch)
             throws JsonProcessingException, JsonPatchException {
+        return patchSubscription(eventSubscriptionService.getSubscription(id), patch);
+    }
+
+    private Subscription patchSubscription(final Subscription subscription, final JsonNode patch)
+            throws JsonProcessingException, JsonPatchException {
         subscriptionPatchValidator.validatePatch(patch);
-        JsonNode original = objectMapper.valueToTree(eventSubscriptionService.getSubscription(id));
+        JsonNode original = objectMapper.valueToTree(subscription);
         JsonNode patchedSubscriptionNode = JsonMergePatch.fromJson(patch).apply(original);
         return objectMapper.treeToValue(patchedSubscriptionNode, Subscription.class);
     }
+
+    private boolean currentUserCanUpdate(final Subscription subscription) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return Objects.nonNull(authentication) && (authentication.getName().equals(subscription.getUser())
+                || currentUserIsManager(authentication));
+    }
+
+    private boolean currentUserIsManager(final Authentication authentication) {
+        return Objects.nonNull(authentication) && authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .anyMatch(authority -> authority.equals(managersGroup));
+    }
+
+    private void mergeResults(final SubscriptionOperationResult[] results, final List<Integer> indexes,
+            final List<SubscriptionOperationResult> indexedResults) {
+        for (int i = 0; i < indexedResults.size(); i++) {
+            results[indexes.get(i)] = indexedResults.get(i).withIndex(indexes.get(i));
+        }
+    }
 }
@@ -14,57 +14,126 @@ package org.alfresco.event.gateway.kafka.subscription.scheduled;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.Objects;
+import java.util.OptionalLong;
 
-import org.alfresco.event.gateway.kafka.entity.Subscription;
-import org.alfresco.event.gateway.kafka.entity.SubscriptionStatus;
 import org.alfresco.event.gateway.kafka.subscription.EventSubscription;
 import org.alfresco.event.gateway.kafka.subscription.EventSubscriptionService;
-import org.alfresco.event.gateway.kafka.subscription.storage.EventSubscriptionStorage;
+import org.alfresco.event.gateway.kafka.subscription.cluster.LeaderElection;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionTemplate;
 
 /**
  * Scheduled Task to deregister the {@link EventSubscription} instance with active status but without activity.
+ * <p>
+ * The expired subscriptions are deactivated with a single bulk update, and only their event subscriptions are
+ * deregistered afterwards.
+ * <p>
+ * When a {@link LeaderElection} is provided, only the leader node performs the check. Its fencing token is validated in
+ * the same transaction as the bulk update, so a node that lost the leadership in the meantime doesn't run it.
+ * <p>
+ * The task is polled much more often than the check is due, so that the lease gates the work: a node performs the
+ * check as soon as it acquires the leadership (a new fencing token), and then once per sweep interval while it keeps
+ * it. Otherwise the first check would run before any node held the lease, and a new leader would wait up to a whole
+ * interval after a failover.
  */
 public class ScheduledSubscriptionStatusTask {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(ScheduledSubscriptionStatusTask.class);
 
-    private final EventSubscriptionStorage eventSubscriptionStorage;
     private final EventSubscriptionService eventSubscriptionService;
+    private final LeaderElection leaderElection;
+    private final TransactionTemplate transactionTemplate;
+    private final long sweepInterval;
     private long limitTime;
+    private long lastSweepTime = Long.MIN_VALUE;
+    private OptionalLong lastSweepFencingToken = OptionalLong.empty();
 
     /**
      * Constructor.
      *
-     * @param eventSubscriptionStorage given {@link EventSubscriptionStorage}
      * @param eventSubscriptionService given {@link EventSubscriptionService}
      * @param limitTime                given time in milliseconds to deactivate unmodified active subscriptions
      */
-    public ScheduledSubscriptionStatusTask(EventSubscriptionStorage eventSubscriptionStorage,
-            EventSubscriptionService eventSubscriptionService,
-            long limitTime) {
-        this.eventSubscriptionStorage = eventSubscriptionStorage;
+    public ScheduledSubscriptionStatusTask(EventSubscriptionService eventSubscriptionService, long limitTime) {
+        this(eventSubscriptionService, limitTime, null, null);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param eventSubscriptionService given {@link EventSubscriptionService}
+     * @param limitTime                given time in milliseconds to deactivate unmodified active subscriptions
+     * @param leaderElection           given {@link LeaderElection} (<code>null</code> to run the check on every node)
+     * @param transactionTemplate      given {@link TransactionTemplate} wrapping the fencing token validation and the
+     *                                 bulk update (only required with a {@link LeaderElection})
+     */
+    public ScheduledSubscriptionStatusTask(EventSubscriptionService eventSubscriptionService, long limitTime,
+            LeaderElection leaderElection, TransactionTemplate transactionTemplate) {
+        this(eventSubscriptionService, limitTime, leaderElection, transactionTemplate, 0);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param eventSubscriptionService given {@link EventSubscriptionService}
+     * @param limitTime                given time in milliseconds to deactivate unmodified active subscriptions
+     * @param leaderElection           given {@link LeaderElection} (<code>null</code> to run the check on every node)
+     * @param transactionTemplate      given {@link TransactionTemplate} wrapping the fencing token validation and the
+     *                                 bulk update (only required with a {@link LeaderElection})
+     * @param sweepInterval            given minimum time in milliseconds between two checks of the same leader
+     *                                 (<code>0</code> to check every time the task is polled)
+     */
+    public ScheduledSubscriptionStatusTask(EventSubscriptionService eventSubscriptionService, long limitTime,
+            LeaderElection leaderElection, TransactionTemplate transactionTemplate, long sweepInterval) {
         this.eventSubscriptionService = eventSubscriptionService;
         this.limitTime = limitTime;
+        this.leaderElection = leaderElection;
+        this.transactionTemplate = transactionTemplate;
+        this.sweepInterval = sweepInterval;
     }
 
-    @Scheduled(fixedDelayString = "${scheduled.subscription.fixed.delay:86400000}")
+    @Scheduled(fixedDelayString = "${scheduled.subscription.poll.delay:60000}")
     public void checkStatusSubscription() {
-        LOGGER.debug("Checking the status of the active subscriptions");
-        final List<Subscription> activeSubscriptions = eventSubscriptionStorage
-                .findSubscriptionsByStatus(SubscriptionStatus.ACTIVE);
-        activeSubscriptions.forEach(subscription -> {
-            final Instant instant = Instant.now();
-            final long timeStampMillis = instant.toEpochMilli();
-            final long differenceTime = timeStampMillis - subscription.getModifiedDate();
-            if (differenceTime > limitTime) {
-                LOGGER.debug("Automatically deactivating subscription {}", subscription);
-                subscription.setStatus(SubscriptionStatus.INACTIVE);
-                eventSubscriptionService.updateSubscription(subscription);
-                LOGGER.debug("Subscription {} deactivated", subscription);
+        long now = System.currentTimeMillis();
+        if (Objects.isNull(leaderElection)) {
+            if (isSweepDue(now)) {
+                deactivateExpiredSubscriptions();
+                lastSweepTime = now;
+            }
+            return;
+        }
+        OptionalLong fencingToken = leaderElection.getFencingToken();
+        if (fencingToken.isEmpty()) {
+            LOGGER.debug("Not the leader node, skipping the status check of the active subscriptions");
+            return;
+        }
+        // A new leadership performs the check right away, whenever the previous leader performed it
+        if (fencingToken.equals(lastSweepFencingToken) && !isSweepDue(now)) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            if (leaderElection.validateFencingToken(fencingToken.getAsLong())) {
+                deactivateExpiredSubscriptions();
+                lastSweepTime = now;
+                lastSweepFencingToken = fencingToken;
+            }
+            else {
+                LOGGER.info("Leadership lost, skipping the status check of the active subscriptions");
             }
         });
     }
+
+    private boolean isSweepDue(final long now) {
+        return lastSweepTime == Long.MIN_VALUE || now - lastSweepTime >= sweepInterval;
+    }
+
+    private void deactivateExpiredSubscriptions() {
+        LOGGER.debug("Checking the status of the active subscriptions");
+        final long cutoffTime = Instant.now().toEpochMilli() - limitTime;
+        final List<String> deactivatedIds = eventSubscriptionService.deactivateSubscriptionsNotModifiedSince(cutoffTime);
+        LOGGER.debug("Subscriptions {} automatically deactivated", deactivatedIds);
+    }
 }
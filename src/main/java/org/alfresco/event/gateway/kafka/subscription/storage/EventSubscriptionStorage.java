@@ -12,13 +12,24 @@
  */
 package org.alfresco.event.gateway.kafka.subscription.storage;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 
 import org.alfresco.event.gateway.kafka.entity.Subscription;
 import org.alfresco.event.gateway.kafka.entity.SubscriptionStatus;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 /**
  * Repository managing {@link Subscription} CRUD operations
@@ -42,6 +53,15 @@ public interface EventSubscriptionStorage extends JpaRepository<Subscription, St
     @Query("SELECT DISTINCT s FROM Subscription s LEFT JOIN FETCH s.filters WHERE s.status = ?1")
     List<Subscription> findSubscriptionsByStatus(SubscriptionStatus status);
 
+    /**
+     * Find the ids of the {@link Subscription}'s with the given {@link SubscriptionStatus}
+     *
+     * @param status The {@link SubscriptionStatus} by which a {@link Subscription} is going to be filtered
+     * @return A list with the ids of the {@link Subscription}'s with the provided {@link SubscriptionStatus}
+     */
+    @Query("SELECT s.id FROM Subscription s WHERE s.status = ?1")
+    List<String> findSubscriptionIdsByStatus(SubscriptionStatus status);
+
     /**
      * Find a list of {@link Subscription} filtered by the given username
      *
@@ -69,4 +89,76 @@ public interface EventSubscriptionStorage extends JpaRepository<Subscription, St
      */
     @Query("SELECT DISTINCT s FROM Subscription s LEFT JOIN FETCH s.filters WHERE s.user = ?1 AND s.status = ?2")
     List<Subscription> findSubscriptionsByUserAndStatus(String user, SubscriptionStatus status);
+
+    /**
+     * Stream the {@link Subscription}'s located after the given position, ordered by creation date and id (keyset
+     * pagination). The filters of the subscriptions are not fetched, they are loaded lazily if accessed. The returned
+     * {@link Stream} must be consumed within a transaction and closed afterwards.
+     *
+     * @param createdDate the creation date of the last {@link Subscription} of the previous page
+     * @param id          the id of the last {@link Subscription} of the previous page
+     * @param user        the username by which a {@link Subscription} is going to be filtered (<code>null</code> for
+     *                    any user)
+     * @param status      The {@link SubscriptionStatus} by which a {@link Subscription} is going to be filtered
+     *                    (<code>null</code> for any status)
+     * @param limit       the maximum number of {@link Subscription}'s to return
+     * @return A {@link Stream} of {@link Subscription} matching with the requirements
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT s FROM Subscription s WHERE (s.createdDate > :createdDate OR (s.createdDate = :createdDate AND s.id > :id))"
+            + " AND (:user IS NULL OR s.user = :user) AND (:status IS NULL OR s.status = :status)"
+            + " ORDER BY s.createdDate, s.id")
+    Stream<Subscription> streamSubscriptionsAfter(@Param("createdDate") long createdDate, @Param("id") String id,
+            @Param("user") String user, @Param("status") SubscriptionStatus status, Limit limit);
+
+    /**
+     * Find and lock (for update, until the end of the transaction) all the {@link Subscription}'s with the given
+     * status that haven't been modified since the given time.
+     *
+     * @param status     The {@link SubscriptionStatus} by which a {@link Subscription} is going to be filtered
+     * @param cutoffTime the time in milliseconds since which the {@link Subscription}'s must not have been modified
+     * @return A list with the locked {@link Subscription}'s
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM Subscription s WHERE s.status = :status AND s.modifiedDate < :cutoffTime")
+    List<Subscription> lockSubscriptionsNotModifiedSince(@Param("status") SubscriptionStatus status,
+            @Param("cutoffTime") long cutoffTime);
+
+    /**
+     * Find and lock (for update, until the end of the transaction) all the {@link Subscription}'s with the given
+     * status owned by any of the given users.
+     *
+     * @param status The {@link SubscriptionStatus} by which a {@link Subscription} is going to be filtered
+     * @param users  the usernames of the owners of the {@link Subscription}'s
+     * @return A list with the locked {@link Subscription}'s
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM Subscription s WHERE s.status = :status AND s.user IN :users")
+    List<Subscription> lockSubscriptionsOfUsers(@Param("status") SubscriptionStatus status,
+            @Param("users") Collection<String> users);
+
+    /**
+     * Update in a single statement the {@link SubscriptionStatus} of the {@link Subscription}'s with the given ids.
+     *
+     * @param ids          the ids of the {@link Subscription}'s to update
+     * @param newStatus    The new {@link SubscriptionStatus} of the {@link Subscription}'s
+     * @param modifiedDate the new modification date of the updated {@link Subscription}'s
+     * @return the number of updated {@link Subscription}'s
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Subscription s SET s.status = :newStatus, s.modifiedDate = :modifiedDate WHERE s.id IN :ids")
+    int updateStatusOfSubscriptions(@Param("ids") Collection<String> ids,
+            @Param("newStatus") SubscriptionStatus newStatus, @Param("modifiedDate") long modifiedDate);
+
+    /**
+     * Find the ids of the {@link Subscription}'s modified since the given time, whatever their status
+     *
+     * @param time the time in milliseconds since which the {@link Subscription}'s must have been modified
+     * @return A list with the ids of the matching {@link Subscription}'s
+     */
+    @Query("SELECT s.id FROM Subscription s WHERE s.modifiedDate >= ?1")
+    List<String> findSubscriptionIdsModifiedSince(long time);
 }
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2021-2021 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.alfresco.event.gateway.kafka.subscription.storage;
+
+import org.alfresco.event.gateway.kafka.entity.LeaderLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+/**
+ * Repository managing the {@link LeaderLease}'s. All the lease transitions are conditional updates, so that concurrent
+ * nodes competing for the same lease are arbitrated by the database.
+ */
+public interface LeaderLeaseStorage extends JpaRepository<LeaderLease, String> {
+
+    /**
+     * Take over an expired {@link LeaderLease}, incrementing its fencing token
+     *
+     * @param name      Name of the {@link LeaderLease}
+     * @param owner     Id of the node taking over the lease
+     * @param now       Current time in milliseconds
+     * @param expiresAt New expiration time in milliseconds
+     * @return The number of leases taken over (0 if the lease is held by another node or doesn't exist)
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE LeaderLease l SET l.owner = :owner, l.fencingToken = l.fencingToken + 1, l.expiresAt = :expiresAt "
+            + "WHERE l.name = :name AND l.expiresAt <= :now")
+    int acquireLease(@Param("name") String name, @Param("owner") String owner, @Param("now") long now,
+            @Param("expiresAt") long expiresAt);
+
+    /**
+     * Extend a {@link LeaderLease} that is still held with the given fencing token
+     *
+     * @param name         Name of the {@link LeaderLease}
+     * @param owner        Id of the node holding the lease
+     * @param fencingToken Fencing token obtained when the lease was acquired
+     * @param expiresAt    New expiration time in milliseconds
+     * @return The number of leases renewed (0 if the lease has been taken over by another node)
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE LeaderLease l SET l.expiresAt = :expiresAt "
+            + "WHERE l.name = :name AND l.owner = :owner AND l.fencingToken = :fencingToken")
+    int renewLease(@Param("name") String name, @Param("owner") String owner,
+            @Param("fencingToken") long fencingToken, @Param("expiresAt") long expiresAt);
+
+    /**
+     * Expire a {@link LeaderLease} held with the given fencing token, so that another node can take it over right away
+     *
+     * @param name         Name of the {@link LeaderLease}
+     * @param owner        Id of the node holding the lease
+     * @param fencingToken Fencing token obtained when the lease was acquired
+     * @return The number of leases released
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE LeaderLease l SET l.expiresAt = 0 "
+            + "WHERE l.name = :name AND l.owner = :owner AND l.fencingToken = :fencingToken")
+    int releaseLease(@Param("name") String name, @Param("owner") String owner,
+            @Param("fencingToken") long fencingToken);
+
+    /**
+     * Check that a {@link LeaderLease} is still held with the given fencing token. The check is a no-op update, so the
+     * lease row stays locked until the end of the calling transaction and cannot be taken over in the meantime.
+     *
+     * @param name         Name of the {@link LeaderLease}
+     * @param fencingToken Fencing token obtained when the lease was acquired
+     * @param now          Current time in milliseconds
+     * @return The number of valid leases (1 if the fencing token is still current, 0 otherwise)
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE LeaderLease l SET l.expiresAt = l.expiresAt "
+            + "WHERE l.name = :name AND l.fencingToken = :fencingToken AND l.expiresAt > :now")
+    int lockLease(@Param("name") String name, @Param("fencingToken") long fencingToken, @Param("now") long now);
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2021-2021 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.event.gateway.kafka.consumption;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.jms.Connection;
+import jakarta.jms.Destination;
+import jakarta.jms.JMSException;
+import jakarta.jms.MessageConsumer;
+import jakarta.jms.Session;
+import jakarta.jms.TextMessage;
+
+import org.alfresco.event.gateway.kafka.AbstractUnitTest;
+import org.alfresco.event.gateway.kafka.consumption.exception.EventConsumptionException;
+import org.alfresco.repo.event.v1.model.DataAttributes;
+import org.alfresco.repo.event.v1.model.RepoEvent;
+import org.alfresco.repo.event.v1.model.Resource;
+import org.apache.activemq.ActiveMQConnectionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+
+/**
+ * Unit tests for {@link BatchJmsGatewayEventConsumer}.
+ */
+public class BatchJmsGatewayEventConsumerTest extends AbstractUnitTest {
+
+    private static final String FIRST_EVENT_JSON = "first-event";
+    private static final String SECOND_EVENT_JSON = "second-event";
+
+    @Mock
+    private ActiveMQConnectionFactory mockActiveMQConnectionFactory;
+    @Mock
+    private JsonToRepoEventTransformer mockJsonToRepoEventTransformer;
+    @Mock
+    private EventRouter mockEventRouter;
+    @Mock
+    private Destination mockDestination;
+    @Mock
+    private Connection mockConnection;
+    @Mock
+    private Session mockSession;
+    @Mock
+    private MessageConsumer mockMessageConsumer;
+    @Mock
+    private TextMessage mockFirstMessage;
+    @Mock
+    private TextMessage mockSecondMessage;
+    @Mock
+    private RepoEvent<DataAttributes<Resource>> mockFirstRepoEvent;
+    @Mock
+    private RepoEvent<DataAttributes<Resource>> mockSecondRepoEvent;
+
+    private BatchJmsGatewayEventConsumer batchJmsGatewayEventConsumer;
+
+    @BeforeEach
+    public void setup() {
+        batchJmsGatewayEventConsumer = new BatchJmsGatewayEventConsumer(mockActiveMQConnectionFactory,
+            mockJsonToRepoEventTransformer, mockEventRouter, mockDestination, false, "test-subscription", 2, 10000);
+    }
+
+    @Test
+    void should_routeTheBatchAndAcknowledgeIt_when_maxBatchSizeIsReached() throws JMSException {
+        given(mockMessageConsumer.receive(anyLong())).willReturn(mockFirstMessage, mockSecondMessage);
+        given(mockFirstMessage.getText()).willReturn(FIRST_EVENT_JSON);
+        given(mockSecondMessage.getText()).willReturn(SECOND_EVENT_JSON);
+        given(mockJsonToRepoEventTransformer.transform(FIRST_EVENT_JSON)).willReturn(mockFirstRepoEvent);
+        given(mockJsonToRepoEventTransformer.transform(SECOND_EVENT_JSON)).willReturn(mockSecondRepoEvent);
+
+        batchJmsGatewayEventConsumer.consumeBatch(mockSession, mockMessageConsumer);
+
+        verify(mockEventRouter).routeEvents(List.of(mockFirstRepoEvent, mockSecondRepoEvent));
+        verify(mockSecondMessage).acknowledge();
+    }
+
+    @Test
+    void should_routeAPartialBatch_when_noMoreMessagesArriveInTime() throws JMSException {
+        given(mockMessageConsumer.receive(anyLong())).willReturn(mockFirstMessage, (TextMessage) null);
+        given(mockFirstMessage.getText()).willReturn(FIRST_EVENT_JSON);
+        given(mockJsonToRepoEventTransformer.transform(FIRST_EVENT_JSON)).willReturn(mockFirstRepoEvent);
+
+        batchJmsGatewayEventConsumer.consumeBatch(mockSession, mockMessageConsumer);
+
+        verify(mockEventRouter).routeEvents(List.of(mockFirstRepoEvent));
+        verify(mockFirstMessage).acknowledge();
+    }
+
+    @Test
+    void should_skipTheUnreadableEventAndAcknowledgeTheBatch_when_eventCannotBeParsed() throws JMSException {
+        given(mockMessageConsumer.receive(anyLong())).willReturn(mockFirstMessage, mockSecondMessage);
+        given(mockFirstMessage.getText()).willReturn(FIRST_EVENT_JSON);
+        given(mockSecondMessage.getText()).willReturn(SECOND_EVENT_JSON);
+        given(mockJsonToRepoEventTransformer.transform(FIRST_EVENT_JSON))
+            .willThrow(new EventConsumptionException("Unreadable event", null));
+        given(mockJsonToRepoEventTransformer.transform(SECOND_EVENT_JSON)).willReturn(mockSecondRepoEvent);
+
+        batchJmsGatewayEventConsumer.consumeBatch(mockSession, mockMessageConsumer);
+
+        verify(mockEventRouter).routeEvents(List.of(mockSecondRepoEvent));
+        verify(mockSecondMessage).acknowledge();
+    }
+
+    @Test
+    void should_recoverTheSessionWithoutAcknowledging_when_batchCannotBeRouted() throws JMSException {
+        given(mockMessageConsumer.receive(anyLong())).willReturn(mockFirstMessage, mockSecondMessage);
+        given(mockFirstMessage.getText()).willReturn(FIRST_EVENT_JSON);
+        given(mockSecondMessage.getText()).willReturn(SECOND_EVENT_JSON);
+        given(mockJsonToRepoEventTransformer.transform(FIRST_EVENT_JSON)).willReturn(mockFirstRepoEvent);
+        given(mockJsonToRepoEventTransformer.transform(SECOND_EVENT_JSON)).willReturn(mockSecondRepoEvent);
+        willThrow(RejectedExecutionException.class).given(mockEventRouter)
+            .routeEvents(List.of(mockFirstRepoEvent, mockSecondRepoEvent));
+
+        batchJmsGatewayEventConsumer.consumeBatch(mockSession, mockMessageConsumer);
+
+        verify(mockSession).recover();
+        verify(mockSecondMessage, never()).acknowledge();
+    }
+
+    @Test
+    void should_doNothing_when_noMessageIsReceived() throws JMSException {
+        given(mockMessageConsumer.receive(anyLong())).willReturn(null);
+
+        batchJmsGatewayEventConsumer.consumeBatch(mockSession, mockMessageConsumer);
+
+        verify(mockEventRouter, never()).routeEvents(List.of());
+    }
+
+    @Test
+    void should_recoverTheSessionAndKeepConsuming_when_anUnexpectedErrorHappens() throws JMSException {
+        given(mockActiveMQConnectionFactory.createConnection()).willReturn(mockConnection);
+        given(mockConnection.createSession(false, Session.CLIENT_ACKNOWLEDGE)).willReturn(mockSession);
+        given(mockSession.createConsumer(mockDestination)).willReturn(mockMessageConsumer);
+        given(mockMessageConsumer.receive(anyLong()))
+            .willThrow(new IllegalStateException("Unexpected error"))
+            .willAnswer(invocation -> {
+                TimeUnit.MILLISECONDS.sleep(10);
+                return null;
+            });
+
+        batchJmsGatewayEventConsumer.startConsumingEvents();
+        try {
+            verify(mockSession, timeout(5000)).recover();
+            verify(mockMessageConsumer, timeout(10000).atLeast(2)).receive(anyLong());
+        } finally {
+            batchJmsGatewayEventConsumer.stop();
+        }
+    }
+}
@@ -15,24 +15,40 @@
  */
 package org.alfresco.event.gateway.kafka.consumption;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executor;
-import java.util.stream.Stream;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import org.alfresco.event.gateway.kafka.AbstractUnitTest;
+import org.alfresco.event.gateway.kafka.metrics.GatewayMetrics;
 import org.alfresco.repo.event.v1.model.DataAttributes;
 import org.alfresco.repo.event.v1.model.EventData;
 import org.alfresco.repo.event.v1.model.NodeResource;
 import org.alfresco.repo.event.v1.model.RepoEvent;
 import org.alfresco.repo.event.v1.model.Resource;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.BDDMockito;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
 /**
  * Unit tests for {@link BroadcastEventRouter}.
  */
@@ -54,7 +70,7 @@ public class BroadcastEventRouterTest extends AbstractUnitTest {
 
     @Test
     public void should_invokeEventConsumption_when_registryProvidesConsumer() {
-        given(mockEventConsumerRegistry.getAll()).willReturn(Stream.of(mockEventConsumer));
+        given(mockEventConsumerRegistry.getSnapshot()).willReturn(new EventConsumer[] { mockEventConsumer });
 
         final RepoEvent<? extends DataAttributes<? extends Resource>> repoEvent = RepoEvent.<EventData<NodeResource>>builder().build();
         broadcastEventRouter.routeEvent((RepoEvent<DataAttributes<Resource>>) repoEvent);
@@ -62,9 +78,38 @@ public class BroadcastEventRouterTest extends AbstractUnitTest {
         verify(mockEventConsumer).consumeEvent((RepoEvent<DataAttributes<Resource>>) repoEvent);
     }
 
+    @Test
+    public void should_notifyTheConsumerAroundTheConsumption_when_eventIsRouted() {
+        given(mockEventConsumerRegistry.getSnapshot()).willReturn(new EventConsumer[] { mockEventConsumer });
+
+        final RepoEvent<? extends DataAttributes<? extends Resource>> repoEvent = RepoEvent.<EventData<NodeResource>>builder().build();
+        broadcastEventRouter.routeEvent((RepoEvent<DataAttributes<Resource>>) repoEvent);
+
+        InOrder inOrder = inOrder(mockEventConsumer);
+        inOrder.verify(mockEventConsumer).consumptionRouted();
+        inOrder.verify(mockEventConsumer).consumeEvent((RepoEvent<DataAttributes<Resource>>) repoEvent);
+        inOrder.verify(mockEventConsumer).consumptionDone();
+    }
+
+    @Test
+    public void should_endTheConsumption_when_itIsRejectedByTheExecutor() {
+        given(mockEventConsumerRegistry.getSnapshot()).willReturn(new EventConsumer[] { mockEventConsumer });
+        BroadcastEventRouter rejectingEventRouter = new BroadcastEventRouter(mockEventConsumerRegistry, task -> {
+            throw new RejectedExecutionException("Executor full");
+        });
+
+        final RepoEvent<? extends DataAttributes<? extends Resource>> repoEvent = RepoEvent.<EventData<NodeResource>>builder().build();
+        Assertions.assertThrows(RejectedExecutionException.class,
+            () -> rejectingEventRouter.routeEvent((RepoEvent<DataAttributes<Resource>>) repoEvent));
+
+        verify(mockEventConsumer).consumptionRouted();
+        verify(mockEventConsumer).consumptionDone();
+        verify(mockEventConsumer, never()).consumeEvent(any());
+    }
+
     @Test
     public void should_continueInvokingEventConsumption_when_anyConsumerFailsItsConsumption() {
-        given(mockEventConsumerRegistry.getAll()).willReturn(Stream.of(mockEventConsumer, mockEventConsumer2));
+        given(mockEventConsumerRegistry.getSnapshot()).willReturn(new EventConsumer[] { mockEventConsumer, mockEventConsumer2 });
         final RepoEvent<? extends DataAttributes<? extends Resource>> repoEvent = RepoEvent.<EventData<NodeResource>>builder().build();
         BDDMockito.willThrow(IllegalArgumentException.class).given(mockEventConsumer).consumeEvent((RepoEvent<DataAttributes<Resource>>) repoEvent);
 
@@ -74,8 +119,8 @@ public class BroadcastEventRouterTest extends AbstractUnitTest {
     }
 
     @Test
-    public void should_notInvokeAnyEventConsumption_when_registryProvidesEmptyStream() {
-        given(mockEventConsumerRegistry.getAll()).willReturn(Stream.empty());
+    public void should_notInvokeAnyEventConsumption_when_registryProvidesEmptySnapshot() {
+        given(mockEventConsumerRegistry.getSnapshot()).willReturn(new EventConsumer[0]);
 
         final RepoEvent<? extends DataAttributes<? extends Resource>> repoEvent = RepoEvent.<EventData<NodeResource>>builder().build();
         broadcastEventRouter.routeEvent((RepoEvent<DataAttributes<Resource>>) repoEvent);
@@ -83,11 +128,147 @@ public class BroadcastEventRouterTest extends AbstractUnitTest {
         verify(mockEventConsumer, never()).consumeEvent((RepoEvent<DataAttributes<Resource>>) repoEvent);
     }
 
+    @Test
+    public void should_recordTheQueueWaitOfEveryConsumption_when_eventIsRouted() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        BroadcastEventRouter meteredEventRouter = new BroadcastEventRouter(mockEventConsumerRegistry, new TestCurrentThreadExecutor(),
+            meterRegistry);
+        given(mockEventConsumerRegistry.getSnapshot()).willReturn(new EventConsumer[] { mockEventConsumer, mockEventConsumer2 });
+
+        final RepoEvent<? extends DataAttributes<? extends Resource>> repoEvent = RepoEvent.<EventData<NodeResource>>builder().build();
+        meteredEventRouter.routeEvent((RepoEvent<DataAttributes<Resource>>) repoEvent);
+
+        assertThat(meterRegistry.get(GatewayMetrics.ROUTING_QUEUE_WAIT).timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    public void should_handTheWholeBatchToEveryConsumer_when_batchIsRouted() {
+        given(mockEventConsumerRegistry.getSnapshot()).willReturn(new EventConsumer[] { mockEventConsumer, mockEventConsumer2 });
+        final List<RepoEvent<DataAttributes<Resource>>> events = buildBatch();
+        BDDMockito.willThrow(IllegalArgumentException.class).given(mockEventConsumer).consumeEvents(events);
+
+        broadcastEventRouter.routeEvents(events);
+
+        verify(mockEventConsumer2).consumeEvents(events);
+        verify(mockEventConsumer2, never()).consumeEvent(any());
+    }
+
+    @Test
+    public void should_consumeEveryEventOfTheBatchInOrder_when_consumerDoesNotOverrideTheBatchConsumption() {
+        final List<RepoEvent<DataAttributes<Resource>>> consumedEvents = new ArrayList<>();
+        final EventConsumer eventConsumer = consumedEvents::add;
+        given(mockEventConsumerRegistry.getSnapshot()).willReturn(new EventConsumer[] { eventConsumer });
+        final List<RepoEvent<DataAttributes<Resource>>> events = buildBatch();
+
+        broadcastEventRouter.routeEvents(events);
+
+        assertThat(consumedEvents).containsExactlyElementsOf(events);
+    }
+
+    private List<RepoEvent<DataAttributes<Resource>>> buildBatch() {
+        final RepoEvent<? extends DataAttributes<? extends Resource>> repoEvent = RepoEvent.<EventData<NodeResource>>builder().setId("1").build();
+        final RepoEvent<? extends DataAttributes<? extends Resource>> repoEvent2 = RepoEvent.<EventData<NodeResource>>builder().setId("2").build();
+        return List.of((RepoEvent<DataAttributes<Resource>>) repoEvent, (RepoEvent<DataAttributes<Resource>>) repoEvent2);
+    }
+
     private static class TestCurrentThreadExecutor implements Executor {
 
         public void execute(Runnable r) {
             r.run();
         }
     }
-}
 
+    @Test
+    public void should_reportTheOccupationOfTheExecutorQueueAsLoad_when_executorIsAThreadPool() throws InterruptedException {
+        CountDownLatch blockingLatch = new CountDownLatch(1);
+        ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(4));
+        try {
+            threadPoolExecutor.execute(() -> awaitQuietly(blockingLatch));
+            threadPoolExecutor.execute(() -> {});
+            threadPoolExecutor.execute(() -> {});
+            BroadcastEventRouter threadPoolEventRouter = new BroadcastEventRouter(mockEventConsumerRegistry, threadPoolExecutor);
+
+            assertThat(threadPoolEventRouter.getLoad()).isEqualTo(0.5);
+            assertThat(broadcastEventRouter.getLoad()).isZero();
+        } finally {
+            blockingLatch.countDown();
+            threadPoolExecutor.shutdown();
+            threadPoolExecutor.awaitTermination(1, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    public void should_haveNoCapacity_when_executorQueueCannotHoldTheFanOutOfTheNextEvent() throws InterruptedException {
+        CountDownLatch blockingLatch = new CountDownLatch(1);
+        ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(4));
+        try {
+            threadPoolExecutor.execute(() -> awaitQuietly(blockingLatch));
+            threadPoolExecutor.execute(() -> {});
+            threadPoolExecutor.execute(() -> {});
+            BroadcastEventRouter threadPoolEventRouter = new BroadcastEventRouter(mockEventConsumerRegistry, threadPoolExecutor);
+            given(mockEventConsumerRegistry.getSnapshot()).willReturn(new EventConsumer[] { mockEventConsumer, mockEventConsumer2 },
+                new EventConsumer[] { mockEventConsumer, mockEventConsumer2, mockEventConsumer });
+
+            assertThat(threadPoolEventRouter.hasCapacity()).isTrue();
+            assertThat(threadPoolEventRouter.hasCapacity()).isFalse();
+        } finally {
+            blockingLatch.countDown();
+            threadPoolExecutor.shutdown();
+            threadPoolExecutor.awaitTermination(1, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    public void should_consumeTheEventsOfEachNodeInOrder_when_batchIsRoutedThroughAKeyedExecutor() {
+        final List<RepoEvent<DataAttributes<Resource>>> consumedEvents = Collections.synchronizedList(new ArrayList<>());
+        final EventConsumer eventConsumer = consumedEvents::add;
+        given(mockEventConsumerRegistry.getSnapshot()).willReturn(new EventConsumer[] { eventConsumer });
+        KeyedEventExecutor keyedEventExecutor = new KeyedEventExecutor(4, 100, "Test-", null);
+        BroadcastEventRouter keyedEventRouter = new BroadcastEventRouter(mockEventConsumerRegistry, keyedEventExecutor);
+        final List<RepoEvent<DataAttributes<Resource>>> node1Events = new ArrayList<>();
+        final List<RepoEvent<DataAttributes<Resource>>> events = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            RepoEvent<DataAttributes<Resource>> node1Event = buildNodeEvent("node-1-" + i, "node-1");
+            node1Events.add(node1Event);
+            events.add(node1Event);
+            events.add(buildNodeEvent("node-2-" + i, "node-2"));
+        }
+
+        keyedEventRouter.routeEvents(events);
+        keyedEventExecutor.shutdown();
+
+        assertThat(consumedEvents).hasSize(100);
+        assertThat(consumedEvents.stream().filter(node1Events::contains).toList()).containsExactlyElementsOf(node1Events);
+    }
+
+    @Test
+    public void should_consumeTheEventWithEveryConsumer_when_consumersOutnumberTheLaneCapacity() {
+        final List<RepoEvent<DataAttributes<Resource>>> consumedEvents = Collections.synchronizedList(new ArrayList<>());
+        final EventConsumer[] eventConsumers = new EventConsumer[10];
+        Arrays.fill(eventConsumers, (EventConsumer) consumedEvents::add);
+        given(mockEventConsumerRegistry.getSnapshot()).willReturn(eventConsumers);
+        KeyedEventExecutor keyedEventExecutor = new KeyedEventExecutor(1, 2, "Test-", null);
+        BroadcastEventRouter keyedEventRouter = new BroadcastEventRouter(mockEventConsumerRegistry, keyedEventExecutor);
+
+        keyedEventRouter.routeEvent(buildNodeEvent("event-1", "node-1"));
+        keyedEventExecutor.shutdown();
+
+        assertThat(consumedEvents).hasSize(10);
+    }
+
+    private RepoEvent<DataAttributes<Resource>> buildNodeEvent(String eventId, String nodeId) {
+        final RepoEvent<? extends DataAttributes<? extends Resource>> repoEvent = RepoEvent.<EventData<NodeResource>>builder()
+            .setId(eventId)
+            .setData(EventData.<NodeResource>builder().setResource(NodeResource.builder().setId(nodeId).build()).build())
+            .build();
+        return (RepoEvent<DataAttributes<Resource>>) repoEvent;
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2021-2021 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.event.gateway.kafka.consumption;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.List;
+
+import org.alfresco.event.gateway.kafka.AbstractUnitTest;
+import org.alfresco.repo.event.v1.model.DataAttributes;
+import org.alfresco.repo.event.v1.model.RepoEvent;
+import org.alfresco.repo.event.v1.model.Resource;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+
+/**
+ * Unit tests for {@link DeduplicatingEventRouter}.
+ */
+public class DeduplicatingEventRouterTest extends AbstractUnitTest {
+
+    private static final RepoEvent<DataAttributes<Resource>> TEST_EVENT = RepoEvent.<DataAttributes<Resource>>builder()
+        .setId("event-id")
+        .build();
+
+    private DeduplicatingEventRouter deduplicatingEventRouter;
+
+    @Mock
+    private EventRouter mockEventRouter;
+
+    @BeforeEach
+    public void setup() {
+        deduplicatingEventRouter = new DeduplicatingEventRouter(mockEventRouter, new EventDeduplicator(100, 60000, 0.01, null));
+    }
+
+    @Test
+    public void should_routeTheEventOnlyOnce_when_eventIsRedelivered() {
+        deduplicatingEventRouter.routeEvent(TEST_EVENT);
+        deduplicatingEventRouter.routeEvent(TEST_EVENT);
+
+        verify(mockEventRouter).routeEvent(TEST_EVENT);
+    }
+
+    @Test
+    public void should_routeTheRedeliveredEvent_when_itsFirstRoutingFailed() {
+        willThrow(IllegalStateException.class).willDoNothing().given(mockEventRouter).routeEvent(TEST_EVENT);
+
+        Assertions.assertThrows(IllegalStateException.class, () -> deduplicatingEventRouter.routeEvent(TEST_EVENT));
+        deduplicatingEventRouter.routeEvent(TEST_EVENT);
+
+        verify(mockEventRouter, times(2)).routeEvent(TEST_EVENT);
+    }
+
+    @Test
+    public void should_notRouteTheBatch_when_allItsEventsAreDuplicates() {
+        deduplicatingEventRouter.routeEvents(List.of(TEST_EVENT));
+        deduplicatingEventRouter.routeEvents(List.of(TEST_EVENT, TEST_EVENT));
+
+        verify(mockEventRouter).routeEvents(List.of(TEST_EVENT));
+    }
+
+    @Test
+    public void should_reportTheLoadOfTheDecoratedRouter_when_loadIsRequested() {
+        given(mockEventRouter.getLoad()).willReturn(0.5);
+
+        assertThat(deduplicatingEventRouter.getLoad()).isEqualTo(0.5);
+    }
+}
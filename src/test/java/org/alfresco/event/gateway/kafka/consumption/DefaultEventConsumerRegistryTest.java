@@ -17,6 +17,7 @@ package org.alfresco.event.gateway.kafka.consumption;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -93,6 +94,29 @@ public class DefaultEventConsumerRegistryTest {
         Assertions.assertThrows(NullPointerException.class, () -> defaultEventConsumerRegistry.deregister(null));
     }
 
+    @Test
+    public void should_addEveryEventConsumerOnce_when_registerAllMethodInvoked() {
+        EventConsumer otherEventConsumer = RepoEvent::getId;
+        defaultEventConsumerRegistry.register(mockEventConsumer);
+
+        defaultEventConsumerRegistry.registerAll(List.of(mockEventConsumer, otherEventConsumer));
+
+        assertThat(defaultEventConsumerRegistry.getSnapshot()).containsExactly(mockEventConsumer, otherEventConsumer);
+    }
+
+    @Test
+    public void should_removeOnlyTheGivenEventConsumers_when_deregisterAllMethodInvoked() {
+        EventConsumer otherEventConsumer = RepoEvent::getId;
+        EventConsumer remainingEventConsumer = RepoEvent::getType;
+        defaultEventConsumerRegistry.register(mockEventConsumer);
+        defaultEventConsumerRegistry.register(otherEventConsumer);
+        defaultEventConsumerRegistry.register(remainingEventConsumer);
+
+        defaultEventConsumerRegistry.deregisterAll(List.of(mockEventConsumer, otherEventConsumer));
+
+        assertThat(defaultEventConsumerRegistry.getSnapshot()).containsExactly(remainingEventConsumer);
+    }
+
     @Test
     public void should_returnAStreamWithAllRegisteredEventConsumer_when_getAllMethodIsInvoked() {
         defaultEventConsumerRegistry.register(mockEventConsumer);
@@ -102,5 +126,42 @@ public class DefaultEventConsumerRegistryTest {
         Set<EventConsumer> allConsumersSet = allConsumers.collect(Collectors.toSet());
         assertThat(allConsumersSet).containsOnly(mockEventConsumer);
     }
-}
 
+    @Test
+    public void should_returnSnapshotWithAllRegisteredEventConsumers_when_getSnapshotMethodIsInvoked() {
+        defaultEventConsumerRegistry.register(mockEventConsumer);
+
+        EventConsumer[] snapshot = defaultEventConsumerRegistry.getSnapshot();
+
+        assertThat(snapshot).containsExactly(mockEventConsumer);
+    }
+
+    @Test
+    public void should_notModifyPreviousSnapshot_when_registryIsModified() {
+        defaultEventConsumerRegistry.register(mockEventConsumer);
+        EventConsumer[] snapshotBefore = defaultEventConsumerRegistry.getSnapshot();
+
+        defaultEventConsumerRegistry.deregister(mockEventConsumer);
+        EventConsumer[] snapshotAfter = defaultEventConsumerRegistry.getSnapshot();
+
+        assertThat(snapshotBefore).containsExactly(mockEventConsumer);
+        assertThat(snapshotAfter).isEmpty();
+    }
+
+    @Test
+    public void should_returnSameSnapshotInstance_when_registryIsNotModified() {
+        defaultEventConsumerRegistry.register(mockEventConsumer);
+
+        assertThat(defaultEventConsumerRegistry.getSnapshot()).isSameAs(defaultEventConsumerRegistry.getSnapshot());
+    }
+
+    @Test
+    public void should_swapEventConsumersInASingleSnapshot_when_replaceMethodIsInvoked() {
+        EventConsumer anotherEventConsumer = RepoEvent::getId;
+        defaultEventConsumerRegistry.register(mockEventConsumer);
+
+        defaultEventConsumerRegistry.replace(mockEventConsumer, anotherEventConsumer);
+
+        assertThat(defaultEventConsumerRegistry.getSnapshot()).containsExactly(anotherEventConsumer);
+    }
+}
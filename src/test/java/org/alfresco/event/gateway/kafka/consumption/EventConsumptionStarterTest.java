@@ -21,6 +21,8 @@ import org.alfresco.event.gateway.kafka.AbstractUnitTest;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.event.ContextRefreshedEvent;
 
@@ -43,5 +45,20 @@ public class EventConsumptionStarterTest extends AbstractUnitTest {
 
         verify(mockGatewayEventConsumer).startConsumingEvents();
     }
-}
 
+    @Test
+    public void should_pauseTheGatewayEventConsumer_when_applicationRefusesTraffic() {
+        eventConsumptionStarter.onReadinessStateChange(
+            new AvailabilityChangeEvent<>(mockApplicationContext, ReadinessState.REFUSING_TRAFFIC));
+
+        verify(mockGatewayEventConsumer).pauseConsumingEvents();
+    }
+
+    @Test
+    public void should_resumeTheGatewayEventConsumer_when_applicationAcceptsTrafficAgain() {
+        eventConsumptionStarter.onReadinessStateChange(
+            new AvailabilityChangeEvent<>(mockApplicationContext, ReadinessState.ACCEPTING_TRAFFIC));
+
+        verify(mockGatewayEventConsumer).resumeConsumingEvents();
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2021-2021 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.event.gateway.kafka.consumption;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.alfresco.event.gateway.kafka.metrics.GatewayMetrics;
+import org.alfresco.repo.event.v1.model.DataAttributes;
+import org.alfresco.repo.event.v1.model.RepoEvent;
+import org.alfresco.repo.event.v1.model.Resource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Unit tests for {@link EventDeduplicator}.
+ */
+public class EventDeduplicatorTest {
+
+    private static final long WINDOW = 1000;
+
+    private final AtomicLong clock = new AtomicLong();
+    private SimpleMeterRegistry meterRegistry;
+    private EventDeduplicator eventDeduplicator;
+
+    @BeforeEach
+    public void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        eventDeduplicator = new EventDeduplicator(100, WINDOW, 0.01, meterRegistry, clock::get);
+    }
+
+    @Test
+    public void should_detectTheDuplicate_when_eventWithTheSameIdWasAlreadyRouted() {
+        eventDeduplicator.markRouted(List.of(buildEvent("1")));
+
+        assertThat(eventDeduplicator.isDuplicate(buildEvent("1"))).isTrue();
+        assertThat(eventDeduplicator.isDuplicate(buildEvent("2"))).isFalse();
+        assertThat(eventDeduplicator.getHitRate()).isEqualTo(0.5);
+        assertThat(meterRegistry.get(GatewayMetrics.DEDUP).tags(GatewayMetrics.TAG_RESULT, GatewayMetrics.RESULT_DUPLICATE)
+            .counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void should_notDetectTheDuplicate_when_eventWasCheckedButNotRouted() {
+        assertThat(eventDeduplicator.isDuplicate(buildEvent("1"))).isFalse();
+        assertThat(eventDeduplicator.isDuplicate(buildEvent("1"))).isFalse();
+    }
+
+    @Test
+    public void should_forgetTheEventId_when_twoWindowsHaveElapsed() {
+        eventDeduplicator.markRouted(List.of(buildEvent("1")));
+
+        clock.addAndGet(WINDOW);
+        assertThat(eventDeduplicator.isDuplicate(buildEvent("1"))).isTrue();
+        clock.addAndGet(WINDOW);
+        assertThat(eventDeduplicator.isDuplicate(buildEvent("1"))).isFalse();
+    }
+
+    @Test
+    public void should_removeTheRoutedAndTheRepeatedEvents_when_batchIsChecked() {
+        eventDeduplicator.markRouted(List.of(buildEvent("1")));
+        RepoEvent<DataAttributes<Resource>> event2 = buildEvent("2");
+        RepoEvent<DataAttributes<Resource>> eventWithoutId = buildEvent(null);
+
+        List<RepoEvent<DataAttributes<Resource>>> uniqueEvents = eventDeduplicator.removeDuplicates(
+            List.of(buildEvent("1"), event2, buildEvent("2"), eventWithoutId));
+
+        assertThat(uniqueEvents).containsExactly(event2, eventWithoutId);
+    }
+
+    @Test
+    public void should_countTheEvictedIdApartFromTheFalsePositives_when_recentIdsExceedTheMaxEntries() {
+        EventDeduplicator smallEventDeduplicator = new EventDeduplicator(1, WINDOW, 0.01, meterRegistry, clock::get);
+        smallEventDeduplicator.markRouted(List.of(buildEvent("1"), buildEvent("2")));
+
+        assertThat(smallEventDeduplicator.isDuplicate(buildEvent("1"))).isFalse();
+        assertThat(meterRegistry.get(GatewayMetrics.DEDUP_EVICTED).counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(GatewayMetrics.DEDUP_UNCONFIRMED).counter().count()).isEqualTo(1);
+    }
+
+    private static RepoEvent<DataAttributes<Resource>> buildEvent(String id) {
+        return RepoEvent.<DataAttributes<Resource>>builder().setId(id).build();
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2021-2021 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.event.gateway.kafka.consumption;
+
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.util.Set;
+
+import org.alfresco.event.gateway.kafka.AbstractUnitTest;
+import org.alfresco.event.gateway.kafka.consumption.handling.GroupMembershipChangeHandler;
+import org.alfresco.repo.event.v1.model.ChildAssociationResource;
+import org.alfresco.repo.event.v1.model.DataAttributes;
+import org.alfresco.repo.event.v1.model.EventData;
+import org.alfresco.repo.event.v1.model.EventType;
+import org.alfresco.repo.event.v1.model.NodeResource;
+import org.alfresco.repo.event.v1.model.RepoEvent;
+import org.alfresco.repo.event.v1.model.Resource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+
+/**
+ * Unit tests for {@link GroupMembershipChangeEventConsumer}.
+ */
+public class GroupMembershipChangeEventConsumerTest extends AbstractUnitTest {
+
+    private static final String AUTHORITY_CONTAINER_TYPE = "cm:authorityContainer";
+    private static final String MEMBER_ASSOC_TYPE = "cm:member";
+
+    private GroupMembershipChangeEventConsumer groupMembershipChangeEventConsumer;
+
+    @Mock
+    private EventConsumerRegistry mockEventConsumerRegistry;
+    @Mock
+    private GroupMembershipChangeHandler mockGroupMembershipChangeHandler;
+
+    @BeforeEach
+    public void setup() {
+        groupMembershipChangeEventConsumer = new GroupMembershipChangeEventConsumer(mockEventConsumerRegistry,
+            Set.of(mockGroupMembershipChangeHandler));
+    }
+
+    @Test
+    public void should_processEvent_when_groupDeletionEventIsReceived() {
+        final NodeResource nodeResource = NodeResource.builder()
+            .setNodeType(AUTHORITY_CONTAINER_TYPE)
+            .build();
+        final EventData<NodeResource> eventData = EventData.<NodeResource>builder()
+            .setResource(nodeResource)
+            .build();
+        final RepoEvent<? extends DataAttributes<? extends Resource>> repoEvent = RepoEvent.<EventData<NodeResource>>builder()
+            .setType(EventType.NODE_DELETED.getType())
+            .setData(eventData)
+            .build();
+
+        groupMembershipChangeEventConsumer.consumeEvent((RepoEvent<DataAttributes<Resource>>) repoEvent);
+
+        verify(mockGroupMembershipChangeHandler).groupMembershipsChanged();
+    }
+
+    @Test
+    public void should_processEvent_when_groupMemberAssociationEventIsReceived() {
+        final ChildAssociationResource childAssociationResource = new ChildAssociationResource("parent-id", "child-id",
+            MEMBER_ASSOC_TYPE, "cm:user");
+        final EventData<ChildAssociationResource> eventData = EventData.<ChildAssociationResource>builder()
+            .setResource(childAssociationResource)
+            .build();
+        final RepoEvent<? extends DataAttributes<? extends Resource>> repoEvent = RepoEvent.<EventData<ChildAssociationResource>>builder()
+            .setType(EventType.CHILD_ASSOC_CREATED.getType())
+            .setData(eventData)
+            .build();
+
+        groupMembershipChangeEventConsumer.consumeEvent((RepoEvent<DataAttributes<Resource>>) repoEvent);
+
+        verify(mockGroupMembershipChangeHandler).groupMembershipsChanged();
+    }
+
+    @Test
+    public void should_notProcessEvent_when_notGroupMembershipChangeEventReceived() {
+        final NodeResource nodeResource = NodeResource.builder()
+            .setNodeType("cm:content")
+            .build();
+        final EventData<NodeResource> eventData = EventData.<NodeResource>builder()
+            .setResource(nodeResource)
+            .build();
+        final RepoEvent<? extends DataAttributes<? extends Resource>> repoEvent = RepoEvent.<EventData<NodeResource>>builder()
+            .setType(EventType.NODE_DELETED.getType())
+            .setData(eventData)
+            .build();
+
+        groupMembershipChangeEventConsumer.consumeEvent((RepoEvent<DataAttributes<Resource>>) repoEvent);
+
+        verify(mockGroupMembershipChangeHandler, never()).groupMembershipsChanged();
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2021-2021 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.event.gateway.kafka.consumption;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.alfresco.event.gateway.kafka.AbstractUnitTest;
+import org.alfresco.event.gateway.kafka.consumption.exception.EventConsumptionException;
+import org.alfresco.repo.event.v1.model.DataAttributes;
+import org.alfresco.repo.event.v1.model.RepoEvent;
+import org.alfresco.repo.event.v1.model.Resource;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.support.Acknowledgment;
+
+/**
+ * Unit tests for {@link KafkaGatewayEventConsumer}.
+ */
+public class KafkaGatewayEventConsumerTest extends AbstractUnitTest {
+
+    private static final String TEST_TOPIC = "test-topic";
+    private static final String FIRST_EVENT_JSON = "{\"id\":\"1\"}";
+    private static final String SECOND_EVENT_JSON = "{\"id\":\"2\"}";
+
+    @Mock
+    private JsonToRepoEventTransformer mockJsonToRepoEventTransformer;
+    @Mock
+    private EventRouter mockEventRouter;
+    @Mock
+    private RoutingBackpressure mockRoutingBackpressure;
+    @Mock
+    private Acknowledgment mockAcknowledgment;
+    @Mock
+    private RepoEvent<DataAttributes<Resource>> mockFirstRepoEvent;
+    @Mock
+    private RepoEvent<DataAttributes<Resource>> mockSecondRepoEvent;
+
+    private KafkaGatewayEventConsumer kafkaGatewayEventConsumer;
+
+    @BeforeEach
+    public void setup() {
+        kafkaGatewayEventConsumer = new KafkaGatewayEventConsumer(mockJsonToRepoEventTransformer, mockEventRouter,
+            "localhost:9092", TEST_TOPIC, "test-group", 2, 100, 1000, mockRoutingBackpressure);
+    }
+
+    @Test
+    void should_awaitCapacityAndRouteTheBatchAsAWholeBeforeCommitting_when_batchIsReceived() {
+        given(mockJsonToRepoEventTransformer.transform(FIRST_EVENT_JSON)).willReturn(mockFirstRepoEvent);
+        given(mockJsonToRepoEventTransformer.transform(SECOND_EVENT_JSON)).willReturn(mockSecondRepoEvent);
+
+        kafkaGatewayEventConsumer.onEvents(List.of(record(0, FIRST_EVENT_JSON), record(1, SECOND_EVENT_JSON)),
+            mockAcknowledgment);
+
+        InOrder inOrder = inOrder(mockRoutingBackpressure, mockEventRouter, mockAcknowledgment);
+        inOrder.verify(mockRoutingBackpressure).awaitCapacity();
+        inOrder.verify(mockEventRouter).routeEvents(List.of(mockFirstRepoEvent, mockSecondRepoEvent));
+        inOrder.verify(mockAcknowledgment).acknowledge();
+    }
+
+    @Test
+    void should_routeTheBatchWithoutBackpressure_when_noBackpressureIsGiven() {
+        kafkaGatewayEventConsumer = new KafkaGatewayEventConsumer(mockJsonToRepoEventTransformer, mockEventRouter,
+            "localhost:9092", TEST_TOPIC, "test-group", 2, 100, 1000);
+        given(mockJsonToRepoEventTransformer.transform(FIRST_EVENT_JSON)).willReturn(mockFirstRepoEvent);
+
+        kafkaGatewayEventConsumer.onEvents(List.of(record(0, FIRST_EVENT_JSON)), mockAcknowledgment);
+
+        verify(mockEventRouter).routeEvents(List.of(mockFirstRepoEvent));
+        verify(mockAcknowledgment).acknowledge();
+        verifyNoInteractions(mockRoutingBackpressure);
+    }
+
+    @Test
+    void should_commitWithoutRouting_when_noEventCanBeParsed() {
+        given(mockJsonToRepoEventTransformer.transform(FIRST_EVENT_JSON))
+            .willThrow(new EventConsumptionException("Unreadable event", null));
+
+        kafkaGatewayEventConsumer.onEvents(List.of(record(0, FIRST_EVENT_JSON)), mockAcknowledgment);
+
+        verifyNoInteractions(mockEventRouter);
+        verifyNoInteractions(mockRoutingBackpressure);
+        verify(mockAcknowledgment).acknowledge();
+    }
+
+    @Test
+    void should_skipTheEventAndCommitTheBatch_when_eventCannotBeParsed() {
+        given(mockJsonToRepoEventTransformer.transform(FIRST_EVENT_JSON))
+            .willThrow(new EventConsumptionException("Unreadable event", null));
+        given(mockJsonToRepoEventTransformer.transform(SECOND_EVENT_JSON)).willReturn(mockSecondRepoEvent);
+
+        kafkaGatewayEventConsumer.onEvents(List.of(record(0, FIRST_EVENT_JSON), record(1, SECOND_EVENT_JSON)),
+            mockAcknowledgment);
+
+        verify(mockEventRouter).routeEvents(List.of(mockSecondRepoEvent));
+        verify(mockAcknowledgment).acknowledge();
+    }
+
+    @Test
+    void should_failTheWholeBatchWithoutCommitting_when_batchCannotBeRouted() {
+        given(mockJsonToRepoEventTransformer.transform(FIRST_EVENT_JSON)).willReturn(mockFirstRepoEvent);
+        given(mockJsonToRepoEventTransformer.transform(SECOND_EVENT_JSON)).willReturn(mockSecondRepoEvent);
+        doThrow(new RejectedExecutionException("Executor full")).when(mockEventRouter)
+            .routeEvents(List.of(mockFirstRepoEvent, mockSecondRepoEvent));
+
+        BatchListenerFailedException exception = Assertions.assertThrows(BatchListenerFailedException.class,
+            () -> kafkaGatewayEventConsumer.onEvents(List.of(record(0, FIRST_EVENT_JSON), record(1, SECOND_EVENT_JSON)),
+                mockAcknowledgment));
+
+        assertThat(exception.getIndex()).isEqualTo(0);
+        verifyNoInteractions(mockAcknowledgment);
+    }
+
+    private ConsumerRecord<String, String> record(final long offset, final String value) {
+        return new ConsumerRecord<>(TEST_TOPIC, 0, offset, null, value);
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2021-2021 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.event.gateway.kafka.consumption;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.IntStream;
+
+import org.alfresco.event.gateway.kafka.metrics.GatewayMetrics;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Unit tests for {@link KeyedEventExecutor}.
+ */
+public class KeyedEventExecutorTest {
+
+    @Test
+    public void should_runTheTasksWithTheSameKeyInSubmissionOrder_when_tasksWithSeveralKeysAreSubmitted() {
+        KeyedEventExecutor keyedEventExecutor = new KeyedEventExecutor(4, 1000, "Test-", null);
+        List<Integer> node1Tasks = Collections.synchronizedList(new ArrayList<>());
+        List<Integer> node2Tasks = Collections.synchronizedList(new ArrayList<>());
+
+        for (int i = 0; i < 500; i++) {
+            final int index = i;
+            keyedEventExecutor.execute("node-1", () -> node1Tasks.add(index));
+            keyedEventExecutor.execute("node-2", () -> node2Tasks.add(index));
+        }
+        keyedEventExecutor.shutdown();
+
+        assertThat(node1Tasks).containsExactlyElementsOf(IntStream.range(0, 500).boxed().toList());
+        assertThat(node2Tasks).containsExactlyElementsOf(IntStream.range(0, 500).boxed().toList());
+    }
+
+    @Test
+    public void should_mapTheSameKeyToTheSameLane_when_laneIsRequestedSeveralTimes() {
+        KeyedEventExecutor keyedEventExecutor = new KeyedEventExecutor(8, 10, "Test-", null);
+        try {
+            assertThat(keyedEventExecutor.getLane("node-1")).isEqualTo(keyedEventExecutor.getLane("node-1"))
+                .isBetween(0, 7);
+        } finally {
+            keyedEventExecutor.shutdown();
+        }
+    }
+
+    @Test
+    public void should_rejectAndCountTheTask_when_itsLaneIsFull() throws InterruptedException {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        KeyedEventExecutor keyedEventExecutor = new KeyedEventExecutor(1, 1, "Test-", meterRegistry);
+        CountDownLatch startedLatch = new CountDownLatch(1);
+        CountDownLatch blockingLatch = new CountDownLatch(1);
+        try {
+            keyedEventExecutor.execute(() -> {
+                startedLatch.countDown();
+                awaitQuietly(blockingLatch);
+            });
+            startedLatch.await();
+            keyedEventExecutor.execute(() -> {});
+
+            Assertions.assertThrows(RejectedExecutionException.class, () -> keyedEventExecutor.execute(() -> {}));
+            assertThat(keyedEventExecutor.getLoad()).isEqualTo(1);
+            assertThat(keyedEventExecutor.hasCapacity()).isFalse();
+            assertThat(meterRegistry.get(GatewayMetrics.ROUTING_REJECTED).counter().count()).isEqualTo(1);
+        } finally {
+            blockingLatch.countDown();
+            keyedEventExecutor.shutdown();
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
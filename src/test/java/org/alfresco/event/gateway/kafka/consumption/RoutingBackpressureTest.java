@@ -0,0 +1,87 @@
+/*
+ * Copyright 2021-2021 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.event.gateway.kafka.consumption;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import org.alfresco.event.gateway.kafka.AbstractUnitTest;
+import org.alfresco.event.gateway.kafka.metrics.GatewayMetrics;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Unit tests for {@link RoutingBackpressure}.
+ */
+public class RoutingBackpressureTest extends AbstractUnitTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private RoutingBackpressure routingBackpressure;
+
+    @Mock
+    private EventRouter mockEventRouter;
+
+    @BeforeEach
+    public void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        routingBackpressure = new RoutingBackpressure(mockEventRouter, 0.8, 0.5, 1, meterRegistry);
+    }
+
+    @Test
+    public void should_returnWithoutPausing_when_loadIsBelowTheHighWaterMark() {
+        given(mockEventRouter.getLoad()).willReturn(0.7);
+        given(mockEventRouter.hasCapacity()).willReturn(true);
+
+        routingBackpressure.awaitCapacity();
+
+        verify(mockEventRouter).getLoad();
+        assertThat(meterRegistry.get(GatewayMetrics.BACKPRESSURE_PAUSE).timer().count()).isZero();
+    }
+
+    @Test
+    public void should_pauseUntilTheLowWaterMark_when_loadReachesTheHighWaterMark() {
+        given(mockEventRouter.getLoad()).willReturn(0.8, 0.7, 0.6, 0.5);
+        given(mockEventRouter.hasCapacity()).willReturn(true);
+
+        routingBackpressure.awaitCapacity();
+
+        verify(mockEventRouter, times(4)).getLoad();
+        assertThat(meterRegistry.get(GatewayMetrics.BACKPRESSURE_PAUSE).timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(GatewayMetrics.BACKPRESSURE_PAUSED).gauge().value()).isZero();
+    }
+
+    @Test
+    public void should_pauseUntilTheNextEventFits_when_routerHasNoCapacityBelowTheHighWaterMark() {
+        given(mockEventRouter.getLoad()).willReturn(0.1);
+        given(mockEventRouter.hasCapacity()).willReturn(false, false, true);
+
+        routingBackpressure.awaitCapacity();
+
+        verify(mockEventRouter, times(3)).hasCapacity();
+        assertThat(meterRegistry.get(GatewayMetrics.BACKPRESSURE_PAUSE).timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void should_throwIllegalArgumentException_when_lowWaterMarkIsAboveTheHighWaterMark() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new RoutingBackpressure(mockEventRouter, 0.5, 0.8, 1, null));
+    }
+}
@@ -17,14 +17,22 @@ package org.alfresco.event.gateway.kafka.consumption;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 
 import jakarta.jms.Destination;
 
 import org.alfresco.event.gateway.kafka.AbstractUnitTest;
+import org.alfresco.repo.event.v1.model.DataAttributes;
+import org.alfresco.repo.event.v1.model.EventData;
+import org.alfresco.repo.event.v1.model.NodeResource;
+import org.alfresco.repo.event.v1.model.RepoEvent;
+import org.alfresco.repo.event.v1.model.Resource;
 import org.apache.activemq.ActiveMQConnectionFactory;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.springframework.integration.dsl.IntegrationFlow;
@@ -85,5 +93,19 @@ public class SpringIntegrationGatewayEventConsumerTest extends AbstractUnitTest
 
         verify(mockIntegrationFlowRegistrationBuilder).register();
     }
-}
 
+    @Test
+    public void should_waitForRoutingCapacityBeforeRoutingTheEvent_when_backpressureIsEnabled() {
+        RoutingBackpressure mockRoutingBackpressure = mock(RoutingBackpressure.class);
+        SpringIntegrationGatewayEventConsumer backpressuredEventConsumer = new SpringIntegrationGatewayEventConsumer(mockIntegrationFlowContext,
+            mockActiveMQConnectionFactory, mockJsonToRepoEventTransformer, mockEventRouter, mockDestination, false, mockRoutingBackpressure,
+            false);
+        final RepoEvent<? extends DataAttributes<? extends Resource>> repoEvent = RepoEvent.<EventData<NodeResource>>builder().build();
+
+        backpressuredEventConsumer.routeEvent((RepoEvent<DataAttributes<Resource>>) repoEvent);
+
+        InOrder inOrder = inOrder(mockRoutingBackpressure, mockEventRouter);
+        inOrder.verify(mockRoutingBackpressure).awaitCapacity();
+        inOrder.verify(mockEventRouter).routeEvent((RepoEvent<DataAttributes<Resource>>) repoEvent);
+    }
+}
@@ -0,0 +1,308 @@
+/*
+ * Copyright 2021-2021 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.event.gateway.kafka.loadtest;
+
+import static org.alfresco.event.gateway.kafka.SubscriptionConfigurationConstants.SUBSCRIPTION_TYPE_JMS_ACTIVEMQ;
+import static org.alfresco.event.gateway.kafka.subscription.filter.EventFilterConfigurationConstants.EVENT_TYPE;
+import static org.alfresco.event.gateway.kafka.subscription.filter.EventFilterConfigurationConstants.EVENT_TYPES;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import jakarta.jms.Destination;
+import jakarta.jms.JMSException;
+import jakarta.jms.MessageListener;
+import jakarta.jms.TextMessage;
+
+import org.alfresco.event.gateway.kafka.AbstractIT;
+import org.alfresco.event.gateway.kafka.SubscriptionConfigurationConstants;
+import org.alfresco.event.gateway.kafka.entity.Filter;
+import org.alfresco.event.gateway.kafka.entity.Subscription;
+import org.alfresco.event.gateway.kafka.metrics.GatewayMetrics;
+import org.alfresco.event.gateway.kafka.subscription.EventSubscriptionService;
+import org.alfresco.event.gateway.kafka.subscription.SubscriptionOperationResult;
+import org.alfresco.repo.event.v1.model.DataAttributes;
+import org.alfresco.repo.event.v1.model.EventType;
+import org.alfresco.repo.event.v1.model.RepoEvent;
+import org.alfresco.repo.event.v1.model.Resource;
+import org.apache.activemq.ActiveMQConnectionFactory;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jms.connection.CachingConnectionFactory;
+import org.springframework.jms.core.JmsTemplate;
+import org.springframework.jms.listener.DefaultMessageListenerContainer;
+import org.springframework.jms.support.converter.MessageConverter;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.test.context.TestPropertySource;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * End-to-end load test of the gateway, using the embedded ActiveMQ broker both as the ACS input and as the broker of
+ * the subscriptions, and an embedded Kafka broker for the event store.
+ * <p>
+ * Every scenario registers N subscriptions publishing to the same queue, sends a synthetic stream of events at a
+ * given rate and measures the throughput, the end-to-end latency percentiles (from the event time to the delivery to
+ * the subscription queue) and the allocation rate of the whole JVM. The reports are logged and appended to
+ * <code>target/loadtest-results.csv</code>.
+ * <p>
+ * It only runs when the system property <code>loadtest</code> is <code>true</code>, and the scenarios are configured
+ * with the system properties:
+ * <ul>
+ * <li><code>loadtest.subscriptions</code>: comma-separated numbers of subscriptions, one scenario each (1,100)</li>
+ * <li><code>loadtest.events</code>: number of events sent per scenario (10000)</li>
+ * <li><code>loadtest.rate</code>: events sent per second, 0 to send them as fast as possible (1000)</li>
+ * <li><code>loadtest.mix</code>: weighted mix of event types (NODE_CREATED:50,NODE_UPDATED:40,NODE_DELETED:10)</li>
+ * <li><code>loadtest.subscriptionEventTypes</code>: event types the subscriptions filter on
+ * (NODE_CREATED,NODE_UPDATED)</li>
+ * <li><code>loadtest.properties</code>: number of properties of the generated nodes (20)</li>
+ * <li><code>loadtest.warmupEvents</code>: events sent before measuring each scenario (1000)</li>
+ * </ul>
+ */
+@EmbeddedKafka(partitions = 1)
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+@TestPropertySource(properties = {
+    "spring.kafka.bootstrap-servers=${spring.embedded.kafka.brokers}",
+    "alfresco.event.gateway.publication.jms.broker.test-broker.broker-url=vm://localhost?broker.persistent=false",
+    "logging.level.org.alfresco.event.gateway.kafka=INFO",
+    "logging.level.org.springframework.integration=WARN"
+})
+public class GatewayLoadTestIT extends AbstractIT {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(GatewayLoadTestIT.class);
+    private static final String BROKER_ID = "test-broker";
+    private static final String DELIVERY_QUEUE = "loadtest-deliveries";
+    private static final Path RESULTS_FILE = Path.of("target", "loadtest-results.csv");
+    private static final Duration DELIVERY_TIMEOUT = Duration.ofMinutes(10);
+
+    @Autowired
+    private EventSubscriptionService eventSubscriptionService;
+    @Autowired
+    private ActiveMQConnectionFactory activeMQConnectionFactory;
+    @Autowired
+    private MessageConverter jmsMessageConverter;
+    @Autowired
+    @Qualifier("eventGatewayMainInputDestination")
+    private Destination mainInputDestination;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    static Stream<LoadTestScenario> scenarios() {
+        int events = Integer.getInteger("loadtest.events", 10000);
+        int rate = Integer.getInteger("loadtest.rate", 1000);
+        String mix = System.getProperty("loadtest.mix", "NODE_CREATED:50,NODE_UPDATED:40,NODE_DELETED:10");
+        return Arrays.stream(System.getProperty("loadtest.subscriptions", "1,100").split(","))
+                .map(String::trim)
+                .map(Integer::parseInt)
+                .map(subscriptions -> new LoadTestScenario(
+                        String.format("%d-subscriptions-%d-events-per-sec", subscriptions, rate), subscriptions,
+                        events, rate, mix));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("scenarios")
+    void should_deliverEveryMatchingEvent_when_runningTheLoadTestScenario(final LoadTestScenario scenario)
+            throws IOException {
+        Set<String> subscriptionEventTypes = Arrays
+                .stream(System.getProperty("loadtest.subscriptionEventTypes", "NODE_CREATED,NODE_UPDATED").split(","))
+                .map(String::trim)
+                .map(eventType -> EventType.valueOf(eventType).getType())
+                .collect(Collectors.toSet());
+        SyntheticEventGenerator eventGenerator = new SyntheticEventGenerator(
+                SyntheticEventGenerator.parseEventMix(scenario.eventMix()),
+                Integer.getInteger("loadtest.properties", 20), scenario.subscriptions());
+        int warmupEvents = Integer.getInteger("loadtest.warmupEvents", 1000);
+        String user = "loadtest-" + scenario.name();
+        registerSubscriptions(user, scenario.subscriptions(), subscriptionEventTypes);
+
+        CachingConnectionFactory sendingConnectionFactory = new CachingConnectionFactory(activeMQConnectionFactory);
+        JmsTemplate jmsTemplate = new JmsTemplate(sendingConnectionFactory);
+        jmsTemplate.setMessageConverter(jmsMessageConverter);
+        DefaultMessageListenerContainer listenerContainer = new DefaultMessageListenerContainer();
+        try {
+            LatencyRecorder warmupRecorder = new LatencyRecorder(0);
+            startListener(listenerContainer, warmupRecorder);
+            int warmupDeliveries = sendEvents(jmsTemplate, eventGenerator, warmupEvents, 0, subscriptionEventTypes)
+                    * scenario.subscriptions();
+            awaitDeliveries(warmupRecorder, warmupDeliveries);
+
+            LatencyRecorder latencyRecorder = new LatencyRecorder(scenario.events() * scenario.subscriptions());
+            listenerContainer.setMessageListener(latencyListener(latencyRecorder));
+            long storedBefore = storedEventCount();
+            long allocatedBefore = allocatedBytes();
+            long startTime = System.nanoTime();
+            int expectedDeliveries = sendEvents(jmsTemplate, eventGenerator, scenario.events(), scenario.rate(),
+                    subscriptionEventTypes) * scenario.subscriptions();
+            awaitDeliveries(latencyRecorder, expectedDeliveries);
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+            long allocated = allocatedBytes() - allocatedBefore;
+
+            long[] latencies = latencyRecorder.sortedSnapshot();
+            LoadTestReport report = new LoadTestReport(scenario.name(), scenario.subscriptions(), scenario.events(),
+                    latencyRecorder.getCount(), storedEventCount() - storedBefore, elapsedMillis,
+                    LatencyRecorder.percentile(latencies, 0.5), LatencyRecorder.percentile(latencies, 0.99),
+                    LatencyRecorder.percentile(latencies, 0.999), LatencyRecorder.percentile(latencies, 1.0),
+                    allocated);
+            LOGGER.info("{}", report);
+            writeReport(report);
+
+            assertThat(latencyRecorder.getCount()).isEqualTo(expectedDeliveries);
+        } finally {
+            listenerContainer.shutdown();
+            sendingConnectionFactory.destroy();
+            eventSubscriptionService.deactivateSubscriptionsOfUsers(List.of(user));
+        }
+    }
+
+    private void registerSubscriptions(final String user, final int count, final Set<String> eventTypes) {
+        List<Subscription> subscriptions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Filter filter = new Filter();
+            filter.setType(EVENT_TYPE);
+            filter.setConfig(Map.of(EVENT_TYPES, String.join(",", eventTypes)));
+            Subscription subscription = new Subscription();
+            subscription.setType(SUBSCRIPTION_TYPE_JMS_ACTIVEMQ);
+            subscription.setUser(user);
+            subscription.setConfig(Map.of(SubscriptionConfigurationConstants.BROKER_ID, BROKER_ID,
+                    SubscriptionConfigurationConstants.DESTINATION, "queue:" + DELIVERY_QUEUE));
+            subscription.setFilters(List.of(filter));
+            subscriptions.add(subscription);
+        }
+        long startTime = System.currentTimeMillis();
+        assertThat(eventSubscriptionService.createSubscriptions(subscriptions))
+                .extracting(SubscriptionOperationResult::status)
+                .containsOnly(SubscriptionOperationResult.Status.SUCCEEDED);
+        LOGGER.info("{} subscriptions registered in {} milliseconds", count, System.currentTimeMillis() - startTime);
+    }
+
+    private void startListener(final DefaultMessageListenerContainer listenerContainer,
+            final LatencyRecorder latencyRecorder) {
+        listenerContainer.setConnectionFactory(activeMQConnectionFactory);
+        listenerContainer.setDestinationName(DELIVERY_QUEUE);
+        listenerContainer.setConcurrentConsumers(4);
+        listenerContainer.setMessageListener(latencyListener(latencyRecorder));
+        listenerContainer.afterPropertiesSet();
+        listenerContainer.start();
+    }
+
+    private MessageListener latencyListener(final LatencyRecorder latencyRecorder) {
+        return message -> {
+            try {
+                JsonNode event = objectMapper.readTree(((TextMessage) message).getText());
+                ZonedDateTime eventTime = objectMapper.treeToValue(event.get("time"), ZonedDateTime.class);
+                latencyRecorder.record(eventTime.until(ZonedDateTime.now(), ChronoUnit.MICROS));
+            } catch (IOException | JMSException excp) {
+                LOGGER.error("Error reading the delivered event", excp);
+            }
+        };
+    }
+
+    /**
+     * Send a stream of events to the gateway input, pacing them to the given rate.
+     *
+     * @return the number of events sent that match the filters of the subscriptions
+     */
+    private int sendEvents(final JmsTemplate jmsTemplate, final SyntheticEventGenerator eventGenerator,
+            final int count, final int rate, final Set<String> subscriptionEventTypes) {
+        long startTime = System.nanoTime();
+        long intervalNanos = rate > 0 ? TimeUnit.SECONDS.toNanos(1) / rate : 0;
+        int matchingEvents = 0;
+        for (int i = 0; i < count; i++) {
+            long waitNanos = startTime + i * intervalNanos - System.nanoTime();
+            if (waitNanos > 0) {
+                LockSupport.parkNanos(waitNanos);
+            }
+            RepoEvent<DataAttributes<Resource>> repoEvent = eventGenerator.nextEvent();
+            if (subscriptionEventTypes.contains(repoEvent.getType())) {
+                matchingEvents++;
+            }
+            jmsTemplate.convertAndSend(mainInputDestination, repoEvent);
+        }
+        return matchingEvents;
+    }
+
+    private void awaitDeliveries(final LatencyRecorder latencyRecorder, final int expectedDeliveries) {
+        await().atMost(DELIVERY_TIMEOUT)
+                .pollInterval(Duration.ofMillis(100))
+                .until(() -> latencyRecorder.getCount() >= expectedDeliveries);
+    }
+
+    private long storedEventCount() {
+        Timer storeLatencyTimer = meterRegistry.find(GatewayMetrics.LATENCY)
+                .tag(GatewayMetrics.TAG_DESTINATION, GatewayMetrics.DESTINATION_KAFKA_STORE)
+                .timer();
+        return Objects.nonNull(storeLatencyTimer) ? storeLatencyTimer.count() : 0;
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getTotalThreadAllocatedBytes();
+    }
+
+    private static void writeReport(final LoadTestReport report) throws IOException {
+        Files.createDirectories(RESULTS_FILE.getParent());
+        List<String> lines = Files.exists(RESULTS_FILE) ? List.of(report.toCsv())
+                : List.of(LoadTestReport.CSV_HEADER, report.toCsv());
+        Files.write(RESULTS_FILE, lines, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Load test scenario.
+     *
+     * @param name          the name of the scenario
+     * @param subscriptions the number of subscriptions registered
+     * @param events        the number of events sent
+     * @param rate          the events sent per second (0 to send them as fast as possible)
+     * @param eventMix      the weighted mix of event types sent
+     */
+    record LoadTestScenario(String name, int subscriptions, int events, int rate, String eventMix) {
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+}
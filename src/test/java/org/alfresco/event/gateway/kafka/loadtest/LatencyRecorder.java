@@ -0,0 +1,80 @@
+/*
+ * Copyright 2021-2021 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.event.gateway.kafka.loadtest;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Lock-free recorder of the latencies (in microseconds) measured during a load test scenario. The samples are kept in a
+ * pre-sized array so that recording them doesn't allocate and doesn't distort the measured allocation rate.
+ */
+public class LatencyRecorder {
+
+    private final long[] latencies;
+    private final AtomicInteger count = new AtomicInteger();
+
+    /**
+     * Constructor.
+     *
+     * @param capacity given maximum number of samples kept (the rest are only counted)
+     */
+    public LatencyRecorder(final int capacity) {
+        this.latencies = new long[capacity];
+    }
+
+    /**
+     * Record a latency sample.
+     *
+     * @param latencyMicros given latency in microseconds
+     */
+    public void record(final long latencyMicros) {
+        int index = count.getAndIncrement();
+        if (index < latencies.length) {
+            latencies[index] = Math.max(0, latencyMicros);
+        }
+    }
+
+    public int getCount() {
+        return count.get();
+    }
+
+    /**
+     * Get the recorded samples sorted in ascending order, ready to compute percentiles.
+     *
+     * @return the sorted samples
+     */
+    public long[] sortedSnapshot() {
+        long[] snapshot = Arrays.copyOf(latencies, Math.min(count.get(), latencies.length));
+        Arrays.sort(snapshot);
+        return snapshot;
+    }
+
+    /**
+     * Get the given percentile of some sorted samples (nearest-rank method).
+     *
+     * @param sortedLatencies given sorted samples
+     * @param percentile      given percentile, between 0 and 1
+     * @return the value of the percentile (0 when there are no samples)
+     */
+    public static long percentile(final long[] sortedLatencies, final double percentile) {
+        if (sortedLatencies.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percentile * sortedLatencies.length);
+        return sortedLatencies[Math.min(sortedLatencies.length, Math.max(1, rank)) - 1];
+    }
+}
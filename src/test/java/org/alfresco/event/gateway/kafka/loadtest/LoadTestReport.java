@@ -0,0 +1,78 @@
+/*
+ * Copyright 2021-2021 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.event.gateway.kafka.loadtest;
+
+import java.util.Locale;
+
+/**
+ * Figures measured for a load test scenario.
+ *
+ * @param scenario              the name of the scenario
+ * @param subscriptions         the number of registered subscriptions
+ * @param events                the number of events sent to the gateway
+ * @param deliveries            the number of events delivered to the subscription destinations
+ * @param stored                the number of events sent to the Kafka event store
+ * @param elapsedMillis         the time from the first event sent to the last event delivered
+ * @param p50Micros             the 50th percentile of the end-to-end latency
+ * @param p99Micros             the 99th percentile of the end-to-end latency
+ * @param p999Micros            the 99.9th percentile of the end-to-end latency
+ * @param maxMicros             the maximum end-to-end latency
+ * @param allocatedBytes        the bytes allocated by all the threads of the JVM during the scenario
+ */
+public record LoadTestReport(String scenario, int subscriptions, int events, int deliveries, long stored,
+        long elapsedMillis, long p50Micros, long p99Micros, long p999Micros, long maxMicros, long allocatedBytes) {
+
+    public static final String CSV_HEADER = "scenario,subscriptions,events,deliveries,stored,elapsed_ms,"
+            + "events_per_sec,deliveries_per_sec,p50_ms,p99_ms,p999_ms,max_ms,allocation_mb_per_sec";
+
+    public double eventsPerSecond() {
+        return perSecond(events);
+    }
+
+    public double deliveriesPerSecond() {
+        return perSecond(deliveries);
+    }
+
+    public double allocationMegabytesPerSecond() {
+        return perSecond(allocatedBytes) / (1024 * 1024);
+    }
+
+    private double perSecond(final double value) {
+        return elapsedMillis > 0 ? value * 1000 / elapsedMillis : 0;
+    }
+
+    /**
+     * Format the report as a CSV row following {@link #CSV_HEADER}.
+     *
+     * @return the CSV row
+     */
+    public String toCsv() {
+        return String.format(Locale.ROOT, "%s,%d,%d,%d,%d,%d,%.1f,%.1f,%.3f,%.3f,%.3f,%.3f,%.1f", scenario,
+                subscriptions, events, deliveries, stored, elapsedMillis, eventsPerSecond(), deliveriesPerSecond(),
+                p50Micros / 1000.0, p99Micros / 1000.0, p999Micros / 1000.0, maxMicros / 1000.0,
+                allocationMegabytesPerSecond());
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT,
+                "Scenario %s: %d subscriptions, %d events (%.1f/s), %d deliveries (%.1f/s), %d stored, "
+                        + "latency p50 %.3f ms, p99 %.3f ms, p999 %.3f ms, max %.3f ms, allocation %.1f MB/s",
+                scenario, subscriptions, events, eventsPerSecond(), deliveries, deliveriesPerSecond(), stored,
+                p50Micros / 1000.0, p99Micros / 1000.0, p999Micros / 1000.0, maxMicros / 1000.0,
+                allocationMegabytesPerSecond());
+    }
+}
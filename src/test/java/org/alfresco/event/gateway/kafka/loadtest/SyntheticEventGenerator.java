@@ -0,0 +1,119 @@
+/*
+ * Copyright 2021-2021 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.event.gateway.kafka.loadtest;
+
+import java.io.Serializable;
+import java.time.ZonedDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import org.alfresco.repo.event.v1.model.DataAttributes;
+import org.alfresco.repo.event.v1.model.EventData;
+import org.alfresco.repo.event.v1.model.EventType;
+import org.alfresco.repo.event.v1.model.NodeResource;
+import org.alfresco.repo.event.v1.model.RepoEvent;
+import org.alfresco.repo.event.v1.model.Resource;
+
+/**
+ * Generator of synthetic ACS node events following a configured mix of event types. The mix is given as a list of
+ * weighted {@link EventType} names (i.e. <code>NODE_CREATED:50,NODE_UPDATED:40,NODE_DELETED:10</code>).
+ */
+public class SyntheticEventGenerator {
+
+    private static final String[] NODE_TYPES = { "cm:content", "cm:folder" };
+
+    private final String[] eventTypes;
+    private final int[] cumulativeWeights;
+    private final int totalWeight;
+    private final int propertyCount;
+    private final Random random;
+
+    /**
+     * Constructor.
+     *
+     * @param eventMix      given weight of every {@link EventType} name
+     * @param propertyCount given number of properties of the generated nodes
+     * @param seed          given seed of the generator, so that every run produces the same stream
+     */
+    public SyntheticEventGenerator(final Map<String, Integer> eventMix, final int propertyCount, final long seed) {
+        this.eventTypes = new String[eventMix.size()];
+        this.cumulativeWeights = new int[eventMix.size()];
+        int weight = 0;
+        int i = 0;
+        for (Map.Entry<String, Integer> entry : eventMix.entrySet()) {
+            weight += entry.getValue();
+            eventTypes[i] = EventType.valueOf(entry.getKey()).getType();
+            cumulativeWeights[i] = weight;
+            i++;
+        }
+        if (weight <= 0) {
+            throw new IllegalArgumentException("The event mix must have a positive total weight");
+        }
+        this.totalWeight = weight;
+        this.propertyCount = propertyCount;
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Parse an event mix from its string representation.
+     *
+     * @param eventMix given event mix (i.e. <code>NODE_CREATED:50,NODE_UPDATED:50</code>)
+     * @return the weight of every {@link EventType} name, in the given order
+     */
+    public static Map<String, Integer> parseEventMix(final String eventMix) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String entry : eventMix.split(",")) {
+            String[] parts = entry.trim().split(":");
+            weights.put(parts[0].trim(), parts.length > 1 ? Integer.parseInt(parts[1].trim()) : 1);
+        }
+        return weights;
+    }
+
+    /**
+     * Generate the next event of the stream. Its time is set to the current time, so it must be sent straight away for
+     * the end-to-end latency to be meaningful.
+     *
+     * @return the generated {@link RepoEvent}
+     */
+    @SuppressWarnings("unchecked")
+    public RepoEvent<DataAttributes<Resource>> nextEvent() {
+        int pick = random.nextInt(totalWeight);
+        int index = 0;
+        while (pick >= cumulativeWeights[index]) {
+            index++;
+        }
+        Map<String, Serializable> properties = new HashMap<>();
+        for (int i = 0; i < propertyCount; i++) {
+            properties.put("cm:property" + i, "value " + random.nextInt());
+        }
+        NodeResource nodeResource = NodeResource.builder()
+                .setId(UUID.randomUUID().toString())
+                .setName("loadtest-node")
+                .setNodeType(NODE_TYPES[random.nextInt(NODE_TYPES.length)])
+                .setProperties(properties)
+                .build();
+        RepoEvent<? extends DataAttributes<? extends Resource>> repoEvent = RepoEvent.<EventData<NodeResource>>builder()
+                .setId(UUID.randomUUID().toString())
+                .setType(eventTypes[index])
+                .setTime(ZonedDateTime.now())
+                .setData(EventData.<NodeResource>builder().setResource(nodeResource).build())
+                .build();
+        return (RepoEvent<DataAttributes<Resource>>) repoEvent;
+    }
+}
@@ -19,6 +19,8 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 import java.util.List;
 import java.util.Set;
@@ -117,5 +119,27 @@ public class ACSAuthoritiesServiceTest extends AbstractUnitTest {
         lenient().when(mockResponseEntity.getStatusCode()).thenReturn(HttpStatus.BAD_GATEWAY);
         Assertions.assertThrows(ACSClientException.class, () -> acsAuthoritiesService.getUserAuthorities(TEST_USER));
     }
+
+    @Test
+    public void should_requestRemainingPagesConcurrently_when_pageFetchExecutorIsProvided() {
+        ACSAuthoritiesService concurrentAcsAuthoritiesService = new ACSAuthoritiesService(mockGroupsApiClient, Runnable::run);
+        lenient().when(mockGroupsApiClient.listGroupMembershipsForPerson(eq(TEST_USER), eq(0), any(), any(), any(), any(), any()))
+            .thenReturn(buildGroupPagingResponse("group-1", true));
+        lenient().when(mockGroupsApiClient.listGroupMembershipsForPerson(eq(TEST_USER), eq(100), any(), any(), any(), any(), any()))
+            .thenReturn(buildGroupPagingResponse("group-2", true));
+        lenient().when(mockGroupsApiClient.listGroupMembershipsForPerson(eq(TEST_USER), eq(200), any(), any(), any(), any(), any()))
+            .thenReturn(buildGroupPagingResponse("group-3", false));
+
+        Set<String> authorities = concurrentAcsAuthoritiesService.getUserAuthorities(TEST_USER);
+
+        assertThat(authorities).containsOnly("group-1", "group-2", "group-3");
+        verify(mockGroupsApiClient, times(3)).listGroupMembershipsForPerson(eq(TEST_USER), any(), any(), any(), any(), any(), any());
+    }
+
+    private ResponseEntity<GroupPaging> buildGroupPagingResponse(String groupId, boolean hasMoreItems) {
+        return ResponseEntity.ok(new GroupPaging().list(new GroupPagingList()
+            .entries(List.of(new GroupEntry().entry(new Group().id(groupId))))
+            .pagination(new Pagination().hasMoreItems(hasMoreItems).totalItems(250L))));
+    }
 }
 
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2021-2021 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.event.gateway.kafka.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+import org.alfresco.core.handler.GroupsApiClient;
+import org.alfresco.core.model.Group;
+import org.alfresco.core.model.GroupEntry;
+import org.alfresco.core.model.GroupPaging;
+import org.alfresco.core.model.GroupPagingList;
+import org.alfresco.core.model.Pagination;
+import org.alfresco.event.gateway.kafka.AbstractUnitTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Unit tests for {@link CachingACSAuthoritiesService}.
+ */
+public class CachingACSAuthoritiesServiceTest extends AbstractUnitTest {
+
+    private static final String TEST_USER = "user";
+    private static final String TEST_GROUP_ID = "group-id";
+
+    private CachingACSAuthoritiesService cachingACSAuthoritiesService;
+
+    @Mock
+    private GroupsApiClient mockGroupsApiClient;
+    @Mock
+    private ResponseEntity<GroupPaging> mockResponseEntity;
+    @Mock
+    private GroupPaging mockGroupPaging;
+    @Mock
+    private GroupPagingList mockGroupPagingList;
+    @Mock
+    private Pagination mockPagination;
+
+    @BeforeEach
+    public void setup() {
+        cachingACSAuthoritiesService = new CachingACSAuthoritiesService(mockGroupsApiClient, 100, Duration.ofMinutes(1));
+        lenient().when(mockGroupsApiClient.listGroupMembershipsForPerson(eq(TEST_USER), any(), any(), any(), any(), any(), any()))
+            .thenReturn(mockResponseEntity);
+        lenient().when(mockResponseEntity.getStatusCode()).thenReturn(HttpStatus.OK);
+        lenient().when(mockResponseEntity.getBody()).thenReturn(mockGroupPaging);
+        lenient().when(mockGroupPaging.getList()).thenReturn(mockGroupPagingList);
+        lenient().when(mockGroupPagingList.getEntries()).thenReturn(List.of(new GroupEntry().entry(new Group().id(TEST_GROUP_ID))));
+        lenient().when(mockGroupPagingList.getPagination()).thenReturn(mockPagination);
+        lenient().when(mockPagination.isHasMoreItems()).thenReturn(false);
+    }
+
+    @Test
+    public void should_retrieveAuthoritiesFromACSOnlyOnce_when_sameUserIsRequestedSeveralTimes() {
+        Set<String> firstAuthorities = cachingACSAuthoritiesService.getUserAuthorities(TEST_USER);
+        Set<String> secondAuthorities = cachingACSAuthoritiesService.getUserAuthorities(TEST_USER);
+
+        assertThat(firstAuthorities).containsOnly(TEST_GROUP_ID);
+        assertThat(secondAuthorities).containsOnly(TEST_GROUP_ID);
+        verify(mockGroupsApiClient).listGroupMembershipsForPerson(eq(TEST_USER), any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    public void should_retrieveAuthoritiesFromACSAgain_when_groupMembershipsChanged() {
+        cachingACSAuthoritiesService.getUserAuthorities(TEST_USER);
+
+        cachingACSAuthoritiesService.groupMembershipsChanged();
+        cachingACSAuthoritiesService.getUserAuthorities(TEST_USER);
+
+        verify(mockGroupsApiClient, times(2)).listGroupMembershipsForPerson(eq(TEST_USER), any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    public void should_retrieveAuthoritiesFromACSAgain_when_userIsDeleted() {
+        cachingACSAuthoritiesService.getUserAuthorities(TEST_USER);
+
+        cachingACSAuthoritiesService.userDeleted(TEST_USER);
+        cachingACSAuthoritiesService.getUserAuthorities(TEST_USER);
+
+        verify(mockGroupsApiClient, times(2)).listGroupMembershipsForPerson(eq(TEST_USER), any(), any(), any(), any(), any(), any());
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2021-2021 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.event.gateway.kafka.storage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import java.util.List;
+
+import org.alfresco.event.gateway.kafka.AbstractUnitTest;
+import org.alfresco.event.gateway.kafka.consumption.EventRouter;
+import org.alfresco.repo.event.v1.model.DataAttributes;
+import org.alfresco.repo.event.v1.model.RepoEvent;
+import org.alfresco.repo.event.v1.model.Resource;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+
+/**
+ * Unit tests for {@link StoringEventRouter}.
+ */
+public class StoringEventRouterTest extends AbstractUnitTest {
+
+    private static final RepoEvent<DataAttributes<Resource>> TEST_EVENT = RepoEvent.<DataAttributes<Resource>>builder()
+        .setId("event-id")
+        .build();
+
+    private StoringEventRouter storingEventRouter;
+
+    @Mock
+    private EventRouter mockEventRouter;
+    @Mock
+    private EventStore mockEventStore;
+
+    @BeforeEach
+    public void setup() {
+        storingEventRouter = new StoringEventRouter(mockEventRouter, mockEventStore);
+    }
+
+    @Test
+    public void should_storeTheEventAfterRoutingIt_when_eventIsRouted() {
+        storingEventRouter.routeEvent(TEST_EVENT);
+
+        InOrder inOrder = inOrder(mockEventRouter, mockEventStore);
+        inOrder.verify(mockEventRouter).routeEvent(TEST_EVENT);
+        inOrder.verify(mockEventStore).storeEvent(TEST_EVENT);
+    }
+
+    @Test
+    public void should_storeTheWholeBatchTogether_when_batchIsRouted() {
+        List<RepoEvent<DataAttributes<Resource>>> events = List.of(TEST_EVENT, TEST_EVENT);
+
+        storingEventRouter.routeEvents(events);
+
+        InOrder inOrder = inOrder(mockEventRouter, mockEventStore);
+        inOrder.verify(mockEventRouter).routeEvents(events);
+        inOrder.verify(mockEventStore).storeEvents(events);
+    }
+
+    @Test
+    public void should_propagateTheError_when_storageFails() {
+        willThrow(IllegalStateException.class).given(mockEventStore).storeEvent(TEST_EVENT);
+
+        Assertions.assertThrows(IllegalStateException.class, () -> storingEventRouter.routeEvent(TEST_EVENT));
+        verify(mockEventRouter).routeEvent(TEST_EVENT);
+    }
+
+    @Test
+    public void should_notStoreTheEvent_when_routingFails() {
+        willThrow(IllegalStateException.class).given(mockEventRouter).routeEvent(TEST_EVENT);
+
+        Assertions.assertThrows(IllegalStateException.class, () -> storingEventRouter.routeEvent(TEST_EVENT));
+        verifyNoInteractions(mockEventStore);
+    }
+
+    @Test
+    public void should_reportTheLoadOfTheDecoratedRouter_when_loadIsRequested() {
+        given(mockEventRouter.getLoad()).willReturn(0.5);
+
+        assertThat(storingEventRouter.getLoad()).isEqualTo(0.5);
+    }
+}
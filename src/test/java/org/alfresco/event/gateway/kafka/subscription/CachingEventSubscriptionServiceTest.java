@@ -0,0 +1,113 @@
+/*
+ * Copyright 2021-2021 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.event.gateway.kafka.subscription;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.alfresco.event.gateway.kafka.entity.Subscription;
+import org.alfresco.event.gateway.kafka.entity.SubscriptionStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link CachingEventSubscriptionService}.
+ */
+public class CachingEventSubscriptionServiceTest {
+
+    private static final String TEST_SUB_ID = "id";
+    private static final String TEST_USER = "test-user";
+
+    private EventSubscriptionService mockEventSubscriptionService;
+    private CachingEventSubscriptionService cachingEventSubscriptionService;
+
+    @BeforeEach
+    public void setup() {
+        mockEventSubscriptionService = mock(EventSubscriptionService.class);
+        cachingEventSubscriptionService = new CachingEventSubscriptionService(mockEventSubscriptionService, 100,
+                Duration.ofMinutes(1));
+    }
+
+    @Test
+    public void should_fetchSubscriptionOnlyOnce_when_gettingSameSubscriptionSeveralTimes() {
+        //given
+        when(mockEventSubscriptionService.getSubscription(TEST_SUB_ID)).thenReturn(buildSubscription(SubscriptionStatus.ACTIVE));
+        //when
+        Subscription firstSubscription = cachingEventSubscriptionService.getSubscription(TEST_SUB_ID);
+        Subscription secondSubscription = cachingEventSubscriptionService.getSubscription(TEST_SUB_ID);
+        //then
+        verify(mockEventSubscriptionService).getSubscription(TEST_SUB_ID);
+        assertThat(firstSubscription).isEqualTo(secondSubscription).isNotSameAs(secondSubscription);
+    }
+
+    @Test
+    public void should_notExposeCachedValue_when_returnedSubscriptionIsModified() {
+        //given
+        when(mockEventSubscriptionService.getSubscription(TEST_SUB_ID)).thenReturn(buildSubscription(SubscriptionStatus.ACTIVE));
+        //when
+        cachingEventSubscriptionService.getSubscription(TEST_SUB_ID).setStatus(SubscriptionStatus.INACTIVE);
+        //then
+        assertThat(cachingEventSubscriptionService.getSubscription(TEST_SUB_ID).getStatus()).isEqualTo(SubscriptionStatus.ACTIVE);
+    }
+
+    @Test
+    public void should_invalidateCachedEntries_when_subscriptionIsUpdated() {
+        //given
+        Subscription subscription = buildSubscription(SubscriptionStatus.INACTIVE);
+        when(mockEventSubscriptionService.getSubscription(TEST_SUB_ID)).thenReturn(buildSubscription(SubscriptionStatus.ACTIVE));
+        when(mockEventSubscriptionService.findSubscriptionsByUserAndStatus(TEST_USER, SubscriptionStatus.ACTIVE))
+            .thenReturn(List.of(buildSubscription(SubscriptionStatus.ACTIVE)));
+        cachingEventSubscriptionService.getSubscription(TEST_SUB_ID);
+        cachingEventSubscriptionService.findSubscriptionsByUserAndStatus(TEST_USER, SubscriptionStatus.ACTIVE);
+        //when
+        cachingEventSubscriptionService.updateSubscription(subscription);
+        cachingEventSubscriptionService.getSubscription(TEST_SUB_ID);
+        cachingEventSubscriptionService.findSubscriptionsByUserAndStatus(TEST_USER, SubscriptionStatus.ACTIVE);
+        //then
+        verify(mockEventSubscriptionService).updateSubscription(subscription);
+        verify(mockEventSubscriptionService, times(2)).getSubscription(TEST_SUB_ID);
+        verify(mockEventSubscriptionService, times(2)).findSubscriptionsByUserAndStatus(TEST_USER, SubscriptionStatus.ACTIVE);
+    }
+
+    @Test
+    public void should_invalidateUserEntries_when_subscriptionIsCreated() {
+        //given
+        Subscription subscription = buildSubscription(SubscriptionStatus.ACTIVE);
+        when(mockEventSubscriptionService.createSubscription(subscription)).thenReturn(subscription);
+        when(mockEventSubscriptionService.findSubscriptionsByUserAndStatus(TEST_USER, SubscriptionStatus.ACTIVE))
+            .thenReturn(List.of());
+        cachingEventSubscriptionService.findSubscriptionsByUserAndStatus(TEST_USER, SubscriptionStatus.ACTIVE);
+        //when
+        cachingEventSubscriptionService.createSubscription(subscription);
+        cachingEventSubscriptionService.findSubscriptionsByUserAndStatus(TEST_USER, SubscriptionStatus.ACTIVE);
+        //then
+        verify(mockEventSubscriptionService, times(2)).findSubscriptionsByUserAndStatus(TEST_USER, SubscriptionStatus.ACTIVE);
+    }
+
+    private Subscription buildSubscription(SubscriptionStatus subscriptionStatus) {
+        Subscription subscription = new Subscription();
+        subscription.setId(TEST_SUB_ID);
+        subscription.setUser(TEST_USER);
+        subscription.setStatus(subscriptionStatus);
+        return subscription;
+    }
+}
@@ -17,10 +17,13 @@ package org.alfresco.event.gateway.kafka.subscription;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import org.alfresco.event.gateway.kafka.metrics.GatewayMetrics;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
 /**
  * Unit tests for {@link DefaultEventSubscriptionRegistry}.
  */
@@ -75,6 +78,23 @@ public class DefaultEventSubscriptionRegistryTest {
         assertThat(defaultEventSubscriptionRegistry.getById(TEST_ID)).isNull();
     }
 
+    @Test
+    public void should_removeTheMetersOfTheSubscription_when_itIsDeregistered() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        meterRegistry.timer(GatewayMetrics.SUBSCRIPTION_FILTER, GatewayMetrics.TAG_SUBSCRIPTION, TEST_ID);
+        meterRegistry.timer(GatewayMetrics.SUBSCRIPTION_FILTER, GatewayMetrics.TAG_SUBSCRIPTION, "another-id");
+        defaultEventSubscriptionRegistry = new DefaultEventSubscriptionRegistry(meterRegistry);
+        defaultEventSubscriptionRegistry.register(TEST_ID, TEST_EVENT_SUBSCRIPTION);
+
+        defaultEventSubscriptionRegistry.replace(TEST_ID, TEST_ANOTHER_EVENT_SUBSCRIPTION);
+        assertThat(meterRegistry.find(GatewayMetrics.SUBSCRIPTION_FILTER).tag(GatewayMetrics.TAG_SUBSCRIPTION, TEST_ID).timer()).isNotNull();
+        defaultEventSubscriptionRegistry.deregister(TEST_ID);
+
+        assertThat(meterRegistry.find(GatewayMetrics.SUBSCRIPTION_FILTER).tag(GatewayMetrics.TAG_SUBSCRIPTION, TEST_ID).timer()).isNull();
+        assertThat(meterRegistry.find(GatewayMetrics.SUBSCRIPTION_FILTER).tag(GatewayMetrics.TAG_SUBSCRIPTION, "another-id").timer())
+            .isNotNull();
+    }
+
     @Test
     public void should_throwNullPointerException_when_deregisterMethodInvokedWithNullId() {
         Assertions.assertThrows(NullPointerException.class, () -> defaultEventSubscriptionRegistry.deregister(null));
@@ -102,5 +122,27 @@ public class DefaultEventSubscriptionRegistryTest {
     public void should_throwNullPointerException_when_getByIdMethodInvokedWithNullId() {
         Assertions.assertThrows(NullPointerException.class, () -> defaultEventSubscriptionRegistry.getById(null));
     }
-}
 
+    @Test
+    public void should_replaceEventSubscriptionAndReturnPreviousOne_when_replaceMethodInvokedWithRegisteredId() {
+        defaultEventSubscriptionRegistry.register(TEST_ID, TEST_EVENT_SUBSCRIPTION);
+
+        EventSubscription previousEventSubscription = defaultEventSubscriptionRegistry.replace(TEST_ID, TEST_ANOTHER_EVENT_SUBSCRIPTION);
+
+        assertThat(previousEventSubscription).isEqualTo(TEST_EVENT_SUBSCRIPTION);
+        assertThat(defaultEventSubscriptionRegistry.getById(TEST_ID)).isEqualTo(TEST_ANOTHER_EVENT_SUBSCRIPTION);
+    }
+
+    @Test
+    public void should_registerEventSubscriptionAndReturnNull_when_replaceMethodInvokedWithNotRegisteredId() {
+        EventSubscription previousEventSubscription = defaultEventSubscriptionRegistry.replace(TEST_ID, TEST_EVENT_SUBSCRIPTION);
+
+        assertThat(previousEventSubscription).isNull();
+        assertThat(defaultEventSubscriptionRegistry.getById(TEST_ID)).isEqualTo(TEST_EVENT_SUBSCRIPTION);
+    }
+
+    @Test
+    public void should_throwNullPointerException_when_replaceMethodInvokedWithNullEventSubscription() {
+        Assertions.assertThrows(NullPointerException.class, () -> defaultEventSubscriptionRegistry.replace(TEST_ID, null));
+    }
+}
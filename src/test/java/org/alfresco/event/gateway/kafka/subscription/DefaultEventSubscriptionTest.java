@@ -15,13 +15,18 @@
  */
 package org.alfresco.event.gateway.kafka.subscription;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 
 import java.util.Collections;
 import java.util.List;
 
+import org.alfresco.event.gateway.kafka.metrics.GatewayMetrics;
 import org.alfresco.event.gateway.kafka.subscription.filter.EventFilter;
 import org.alfresco.event.gateway.kafka.subscription.transformation.EventTransformation;
 import org.alfresco.repo.event.v1.model.DataAttributes;
@@ -31,9 +36,12 @@ import org.alfresco.repo.event.v1.model.RepoEvent;
 import org.alfresco.repo.event.v1.model.Resource;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
 /**
  * Unit tests for {@link DefaultEventSubscription}.
  */
@@ -83,6 +91,71 @@ public class DefaultEventSubscriptionTest {
         verify(mockSubscriptionPublisher, never()).publishEvent((RepoEvent<DataAttributes<Resource>>) repoEvent);
     }
 
+    @Test
+    public void should_publishOnlyTheMatchingEventsOfTheBatchTogether_when_batchIsConsumed() {
+        EventFilter passingEventFilter = event -> Boolean.TRUE;
+        EventFilter selectiveEventFilter = event -> "matching".equals(event.getId());
+        defaultEventSubscription = new DefaultEventSubscription(mockSubscriptionPublisher,
+            List.of(passingEventFilter, selectiveEventFilter), List.of());
+        final RepoEvent<? extends DataAttributes<? extends Resource>> discardedEvent = RepoEvent.<EventData<NodeResource>>builder()
+            .setId("discarded")
+            .build();
+        final RepoEvent<? extends DataAttributes<? extends Resource>> repoEvent = RepoEvent.<EventData<NodeResource>>builder()
+            .setId("matching")
+            .build();
+
+        defaultEventSubscription.consumeEvents(List.of((RepoEvent<DataAttributes<Resource>>) discardedEvent,
+            (RepoEvent<DataAttributes<Resource>>) repoEvent));
+
+        verify(mockSubscriptionPublisher).publishEvents(List.of((RepoEvent<DataAttributes<Resource>>) repoEvent));
+        verify(mockSubscriptionPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    public void should_publishTheOtherEventsOfTheBatch_when_anEventFailsItsFiltering() {
+        EventFilter failingEventFilter = event -> {
+            if ("failing".equals(event.getId())) {
+                throw new IllegalStateException("Filter failure");
+            }
+            return true;
+        };
+        defaultEventSubscription = new DefaultEventSubscription(mockSubscriptionPublisher, List.of(failingEventFilter), List.of());
+        final RepoEvent<? extends DataAttributes<? extends Resource>> failingEvent = RepoEvent.<EventData<NodeResource>>builder()
+            .setId("failing")
+            .build();
+        final RepoEvent<? extends DataAttributes<? extends Resource>> repoEvent = RepoEvent.<EventData<NodeResource>>builder()
+            .setId("published")
+            .build();
+
+        defaultEventSubscription.consumeEvents(List.of((RepoEvent<DataAttributes<Resource>>) failingEvent,
+            (RepoEvent<DataAttributes<Resource>>) repoEvent));
+
+        verify(mockSubscriptionPublisher).publishEvents(List.of((RepoEvent<DataAttributes<Resource>>) repoEvent));
+    }
+
+    @Test
+    public void should_publishTheOtherEventsOfTheBatch_when_anEventFailsItsTransformation() {
+        EventTransformation failingEventTransformation = event -> {
+            if ("failing".equals(event.getId())) {
+                throw new IllegalStateException("Transformation failure");
+            }
+            return event;
+        };
+        defaultEventSubscription = new DefaultEventSubscription(mockSubscriptionPublisher, List.of(),
+            List.of(failingEventTransformation));
+        final RepoEvent<? extends DataAttributes<? extends Resource>> failingEvent = RepoEvent.<EventData<NodeResource>>builder()
+            .setId("failing")
+            .build();
+        final RepoEvent<? extends DataAttributes<? extends Resource>> repoEvent = RepoEvent.<EventData<NodeResource>>builder()
+            .setId("published")
+            .build();
+
+        defaultEventSubscription.consumeEvents(List.of((RepoEvent<DataAttributes<Resource>>) failingEvent,
+            (RepoEvent<DataAttributes<Resource>>) repoEvent));
+
+        verify(mockSubscriptionPublisher).publishEvents(List.of((RepoEvent<DataAttributes<Resource>>) repoEvent));
+    }
+
     @Test
     public void should_releasePublisherResources_when_releaseIsInvoked() {
         defaultEventSubscription = new DefaultEventSubscription(mockSubscriptionPublisher, Collections.EMPTY_LIST, Collections.EMPTY_LIST);
@@ -91,5 +164,91 @@ public class DefaultEventSubscriptionTest {
 
         verify(mockSubscriptionPublisher).release();
     }
-}
 
+    @Test
+    public void should_deferPublisherRelease_when_releaseIsInvokedDuringAnInFlightConsumption() {
+        final RepoEvent<? extends DataAttributes<? extends Resource>> repoEvent = RepoEvent.<EventData<NodeResource>>builder()
+            .build();
+        EventFilter releasingEventFilter = event -> {
+            defaultEventSubscription.release();
+            verify(mockSubscriptionPublisher, never()).release();
+            return Boolean.TRUE;
+        };
+        defaultEventSubscription = new DefaultEventSubscription(mockSubscriptionPublisher, List.of(releasingEventFilter), Collections.emptyList());
+
+        defaultEventSubscription.consumeEvent((RepoEvent<DataAttributes<Resource>>) repoEvent);
+
+        InOrder inOrder = inOrder(mockSubscriptionPublisher);
+        inOrder.verify(mockSubscriptionPublisher).publishEvent((RepoEvent<DataAttributes<Resource>>) repoEvent);
+        inOrder.verify(mockSubscriptionPublisher).release();
+    }
+
+    @Test
+    public void should_publishTheQueuedConsumptionBeforeReleasing_when_releaseIsInvokedBeforeTheConsumptionStarts() {
+        final RepoEvent<? extends DataAttributes<? extends Resource>> repoEvent = RepoEvent.<EventData<NodeResource>>builder()
+            .build();
+        defaultEventSubscription = new DefaultEventSubscription(mockSubscriptionPublisher, Collections.emptyList(), Collections.emptyList());
+
+        defaultEventSubscription.consumptionRouted();
+        defaultEventSubscription.release();
+        verify(mockSubscriptionPublisher, never()).release();
+        defaultEventSubscription.consumeEvent((RepoEvent<DataAttributes<Resource>>) repoEvent);
+        defaultEventSubscription.consumptionDone();
+
+        InOrder inOrder = inOrder(mockSubscriptionPublisher);
+        inOrder.verify(mockSubscriptionPublisher).publishEvent((RepoEvent<DataAttributes<Resource>>) repoEvent);
+        inOrder.verify(mockSubscriptionPublisher).release();
+    }
+
+    @Test
+    public void should_discardTheEvent_when_itIsConsumedAfterTheRelease() {
+        final RepoEvent<? extends DataAttributes<? extends Resource>> repoEvent = RepoEvent.<EventData<NodeResource>>builder()
+            .build();
+        defaultEventSubscription = new DefaultEventSubscription(mockSubscriptionPublisher, Collections.emptyList(), Collections.emptyList());
+
+        defaultEventSubscription.release();
+        defaultEventSubscription.consumptionRouted();
+        defaultEventSubscription.consumeEvent((RepoEvent<DataAttributes<Resource>>) repoEvent);
+        defaultEventSubscription.consumptionDone();
+
+        verify(mockSubscriptionPublisher).release();
+        verify(mockSubscriptionPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    public void should_recordTheFilterEvaluationPerResult_when_eventsAreConsumed() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        EventFilter failingEventFilter = event -> Boolean.FALSE;
+        defaultEventSubscription = new DefaultEventSubscription(mockSubscriptionPublisher, List.of(failingEventFilter),
+            Collections.emptyList(), "test-subscription", meterRegistry);
+        final RepoEvent<? extends DataAttributes<? extends Resource>> repoEvent = RepoEvent.<EventData<NodeResource>>builder()
+            .build();
+
+        defaultEventSubscription.consumeEvent((RepoEvent<DataAttributes<Resource>>) repoEvent);
+
+        assertThat(meterRegistry.get(GatewayMetrics.SUBSCRIPTION_FILTER)
+            .tags(GatewayMetrics.TAG_SUBSCRIPTION, "test-subscription", GatewayMetrics.TAG_RESULT, GatewayMetrics.RESULT_DISCARDED)
+            .timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(GatewayMetrics.SUBSCRIPTION_FILTER)
+            .tags(GatewayMetrics.TAG_RESULT, GatewayMetrics.RESULT_MATCHED)
+            .timer().count()).isZero();
+    }
+
+    @Test
+    public void should_keepRecordingTheFilterEvaluation_when_replacedEventSubscriptionIsReleased() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        DefaultEventSubscription replacedEventSubscription = new DefaultEventSubscription(mock(SubscriptionPublisher.class),
+            Collections.emptyList(), Collections.emptyList(), "test-subscription", meterRegistry);
+        defaultEventSubscription = new DefaultEventSubscription(mockSubscriptionPublisher, Collections.emptyList(),
+            Collections.emptyList(), "test-subscription", meterRegistry);
+        final RepoEvent<? extends DataAttributes<? extends Resource>> repoEvent = RepoEvent.<EventData<NodeResource>>builder()
+            .build();
+
+        replacedEventSubscription.release();
+        defaultEventSubscription.consumeEvent((RepoEvent<DataAttributes<Resource>>) repoEvent);
+
+        assertThat(meterRegistry.get(GatewayMetrics.SUBSCRIPTION_FILTER)
+            .tags(GatewayMetrics.TAG_SUBSCRIPTION, "test-subscription", GatewayMetrics.TAG_RESULT, GatewayMetrics.RESULT_MATCHED)
+            .timer().count()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2021-2021 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.event.gateway.kafka.subscription;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import org.alfresco.event.gateway.kafka.SubscriptionConfigurationConstants;
+import org.alfresco.event.gateway.kafka.entity.Subscription;
+import org.alfresco.event.gateway.kafka.subscription.exception.UnsupportedSubscriptionTypeException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link EventSubscriptionBootstrapper}.
+ */
+public class EventSubscriptionBootstrapperTest {
+
+    private static final int TEST_PARALLELISM = 4;
+
+    private EventSubscriptionFactory mockEventSubscriptionFactory;
+    private EventSubscriptionBootstrapper eventSubscriptionBootstrapper;
+
+    @BeforeEach
+    public void setup() {
+        mockEventSubscriptionFactory = mock(EventSubscriptionFactory.class);
+        eventSubscriptionBootstrapper = new EventSubscriptionBootstrapper(mockEventSubscriptionFactory,
+                TEST_PARALLELISM);
+    }
+
+    @Test
+    public void should_buildAndRegisterAllEventSubscriptions_when_bootstrappingSubscriptionsOfSeveralBrokers() {
+        //given
+        Subscription firstSubscription = buildSubscription("first", "broker-a");
+        Subscription secondSubscription = buildSubscription("second", "broker-b");
+        Subscription thirdSubscription = buildSubscription("third", "broker-a");
+        EventSubscription firstEventSubscription = mock(EventSubscription.class);
+        EventSubscription secondEventSubscription = mock(EventSubscription.class);
+        EventSubscription thirdEventSubscription = mock(EventSubscription.class);
+        when(mockEventSubscriptionFactory.getEventSubscription(firstSubscription)).thenReturn(firstEventSubscription);
+        when(mockEventSubscriptionFactory.getEventSubscription(secondSubscription)).thenReturn(secondEventSubscription);
+        when(mockEventSubscriptionFactory.getEventSubscription(thirdSubscription)).thenReturn(thirdEventSubscription);
+        Map<Subscription, EventSubscription> registered = new HashMap<>();
+        //when
+        eventSubscriptionBootstrapper.bootstrap(List.of(firstSubscription, secondSubscription, thirdSubscription),
+                registerInto(registered));
+        //then
+        assertThat(registered).containsOnly(
+                Map.entry(firstSubscription, firstEventSubscription),
+                Map.entry(secondSubscription, secondEventSubscription),
+                Map.entry(thirdSubscription, thirdEventSubscription));
+    }
+
+    @Test
+    public void should_notRegisterAnything_when_bootstrappingEmptyList() {
+        //given
+        Map<Subscription, EventSubscription> registered = new HashMap<>();
+        //when
+        eventSubscriptionBootstrapper.bootstrap(List.of(), registerInto(registered));
+        //then
+        assertThat(registered).isEmpty();
+    }
+
+    @Test
+    public void should_releaseBuiltEventSubscriptionsAndPropagateError_when_anyEventSubscriptionCannotBeBuilt() {
+        //given
+        Subscription validSubscription = buildSubscription("valid", "broker-a");
+        Subscription invalidSubscription = buildSubscription("invalid", "broker-a");
+        EventSubscription validEventSubscription = mock(EventSubscription.class);
+        when(mockEventSubscriptionFactory.getEventSubscription(validSubscription)).thenReturn(validEventSubscription);
+        when(mockEventSubscriptionFactory.getEventSubscription(invalidSubscription))
+                .thenThrow(new UnsupportedSubscriptionTypeException("unknown", "Unsupported"));
+        Map<Subscription, EventSubscription> registered = new HashMap<>();
+        //when
+        Assertions.assertThrows(UnsupportedSubscriptionTypeException.class,
+                () -> eventSubscriptionBootstrapper.bootstrap(List.of(validSubscription, invalidSubscription),
+                        registerInto(registered)));
+        //then
+        assertThat(registered).isEmpty();
+        verify(validEventSubscription).release();
+    }
+
+    private static Consumer<List<EventSubscriptionBootstrapper.BuildResult>> registerInto(
+            Map<Subscription, EventSubscription> registered) {
+        return buildResults -> buildResults.forEach(buildResult -> registered.put(buildResult.subscription(),
+                buildResult.eventSubscription()));
+    }
+
+    private Subscription buildSubscription(String id, String brokerId) {
+        Subscription subscription = new Subscription();
+        subscription.setId(id);
+        subscription.setConfig(Map.of(SubscriptionConfigurationConstants.BROKER_ID, brokerId));
+        return subscription;
+    }
+}
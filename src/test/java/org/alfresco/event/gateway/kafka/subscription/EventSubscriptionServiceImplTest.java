@@ -16,16 +16,25 @@
 package org.alfresco.event.gateway.kafka.subscription;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Stream;
 
 import org.alfresco.event.gateway.kafka.AbstractUnitTest;
 import org.alfresco.event.gateway.kafka.consumption.EventConsumer;
 import org.alfresco.event.gateway.kafka.consumption.EventConsumerRegistry;
 import org.alfresco.event.gateway.kafka.entity.Subscription;
 import org.alfresco.event.gateway.kafka.entity.SubscriptionStatus;
+import org.alfresco.event.gateway.kafka.subscription.exception.SubscriptionConfigurationException;
 import org.alfresco.event.gateway.kafka.subscription.exception.SubscriptionNotFoundException;
 import org.alfresco.event.gateway.kafka.subscription.storage.EventSubscriptionStorage;
 import org.alfresco.repo.event.v1.model.DataAttributes;
@@ -35,10 +44,14 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
 
 /**
  * Unit tests for {@link EventSubscriptionServiceImpl}.
@@ -61,6 +74,19 @@ public class EventSubscriptionServiceImplTest extends AbstractUnitTest {
     private EventConsumerRegistry mockEventConsumerRegistry;
     @Mock
     private EventSubscriptionRegistry mockEventSubscriptionRegistry;
+    @Mock
+    private EventSubscriptionBootstrapper mockEventSubscriptionBootstrapper;
+
+    @Test
+    public void should_bootstrapActiveSubscriptions_when_initializingSubscriptionsFromStorage() {
+        //given
+        List<Subscription> activeSubscriptions = List.of(new Subscription());
+        when(eventSubscriptionStorage.findSubscriptionsByStatus(SubscriptionStatus.ACTIVE)).thenReturn(activeSubscriptions);
+        //when
+        eventSubscriptionService.initializeSubscriptionsFromStorage();
+        //then
+        verify(mockEventSubscriptionBootstrapper).bootstrap(eq(activeSubscriptions), any());
+    }
 
     @Test
     public void should_persistSubscriptionAndRegisterEventSubscription_when_subscriptionIsCreated() {
@@ -73,10 +99,48 @@ public class EventSubscriptionServiceImplTest extends AbstractUnitTest {
         eventSubscriptionService.createSubscription(subscriptionToBePersisted);
         //then
         verify(eventSubscriptionStorage).save(subscriptionToBePersisted);
-        verify(mockEventConsumerRegistry).register((EventConsumer) TEST_EVENT_SUBSCRIPTION);
+        verify(mockEventConsumerRegistry).registerAll(List.of((EventConsumer) TEST_EVENT_SUBSCRIPTION));
         verify(mockEventSubscriptionRegistry).register(TEST_SUB_ID, TEST_EVENT_SUBSCRIPTION);
     }
 
+    @Test
+    public void should_persistAndValidateSubscriptionWithoutRegisteringIt_when_subscriptionIsNotOwnedByThisNode() {
+        //given
+        EventSubscriptionServiceImpl shardedEventSubscriptionService = new EventSubscriptionServiceImpl(eventSubscriptionStorage,
+            eventSubscriptionFactory, mockEventConsumerRegistry, mockEventSubscriptionRegistry, mockEventSubscriptionBootstrapper,
+            List.of(), subscriptionId -> false);
+        Subscription subscriptionToBePersisted = new Subscription();
+        subscriptionToBePersisted.setId(TEST_SUB_ID);
+        EventSubscription notOwnedEventSubscription = mock(EventSubscription.class);
+        when(eventSubscriptionStorage.save(subscriptionToBePersisted)).thenReturn(subscriptionToBePersisted);
+        when(eventSubscriptionFactory.getEventSubscription(subscriptionToBePersisted)).thenReturn(notOwnedEventSubscription);
+        //when
+        shardedEventSubscriptionService.createSubscription(subscriptionToBePersisted);
+        //then
+        verify(eventSubscriptionStorage).save(subscriptionToBePersisted);
+        verify(notOwnedEventSubscription).release();
+        verify(mockEventSubscriptionRegistry, never()).register(any(), any());
+        verifyNoInteractions(mockEventConsumerRegistry);
+    }
+
+    @Test
+    public void should_rejectTheSubscription_when_itIsNotOwnedByThisNodeAndItsConfigurationIsInvalid() {
+        //given
+        EventSubscriptionServiceImpl shardedEventSubscriptionService = new EventSubscriptionServiceImpl(eventSubscriptionStorage,
+            eventSubscriptionFactory, mockEventConsumerRegistry, mockEventSubscriptionRegistry, mockEventSubscriptionBootstrapper,
+            List.of(), subscriptionId -> false);
+        Subscription subscriptionToBePersisted = new Subscription();
+        subscriptionToBePersisted.setId(TEST_SUB_ID);
+        when(eventSubscriptionStorage.save(subscriptionToBePersisted)).thenReturn(subscriptionToBePersisted);
+        when(eventSubscriptionFactory.getEventSubscription(subscriptionToBePersisted))
+            .thenThrow(new SubscriptionConfigurationException("Invalid filter"));
+        //when
+        Assertions.assertThrows(SubscriptionConfigurationException.class,
+            () -> shardedEventSubscriptionService.createSubscription(subscriptionToBePersisted));
+        //then
+        verifyNoInteractions(mockEventConsumerRegistry);
+    }
+
     @Test
     public void should_persistAuthenticatedUserInSubscription_when_subscriptionIsCreatedAndSecurityContextExists() {
         //given
@@ -107,7 +171,7 @@ public class EventSubscriptionServiceImplTest extends AbstractUnitTest {
         eventSubscriptionService.updateSubscription(subscriptionToBePersisted);
         //then
         verify(eventSubscriptionStorage).save(subscriptionToBePersisted);
-        verify(mockEventConsumerRegistry).register(TEST_EVENT_SUBSCRIPTION);
+        verify(mockEventConsumerRegistry).registerAll(List.of((EventConsumer) TEST_EVENT_SUBSCRIPTION));
         verify(mockEventSubscriptionRegistry).register(TEST_SUB_ID, TEST_EVENT_SUBSCRIPTION);
         assertThat(previousModifiedDate).isLessThan(subscriptionToBePersisted.getModifiedDate());
     }
@@ -156,20 +220,36 @@ public class EventSubscriptionServiceImplTest extends AbstractUnitTest {
     }
 
     @Test
-    public void should_deregisterCreateAndRegisterEventSubscription_whenRefreshingExistingSubscription() {
+    public void should_atomicallyReplaceEventSubscription_whenRefreshingExistingSubscription() {
         //given
         Subscription subscription = new Subscription();
         subscription.setId(TEST_SUB_ID);
+        TestEventSubscription previousEventSubscription = new TestEventSubscription();
         when(eventSubscriptionStorage.getById(TEST_SUB_ID)).thenReturn(subscription);
-        when(mockEventSubscriptionRegistry.getById(TEST_SUB_ID)).thenReturn(TEST_EVENT_SUBSCRIPTION, null);
         when(eventSubscriptionFactory.getEventSubscription(subscription)).thenReturn(TEST_EVENT_SUBSCRIPTION);
+        when(mockEventSubscriptionRegistry.replace(TEST_SUB_ID, TEST_EVENT_SUBSCRIPTION)).thenReturn(previousEventSubscription);
+        //when
+        eventSubscriptionService.refreshEventSubscription(TEST_SUB_ID);
+        //then
+        verify(mockEventSubscriptionRegistry).replace(TEST_SUB_ID, TEST_EVENT_SUBSCRIPTION);
+        verify(mockEventConsumerRegistry).replace(previousEventSubscription, TEST_EVENT_SUBSCRIPTION);
+        verify(mockEventConsumerRegistry, never()).deregister(any());
+        verify(mockEventSubscriptionRegistry, never()).deregister(any());
+    }
+
+    @Test
+    public void should_registerEventSubscription_whenRefreshingNotRegisteredSubscription() {
+        //given
+        Subscription subscription = new Subscription();
+        subscription.setId(TEST_SUB_ID);
+        when(eventSubscriptionStorage.getById(TEST_SUB_ID)).thenReturn(subscription);
+        when(eventSubscriptionFactory.getEventSubscription(subscription)).thenReturn(TEST_EVENT_SUBSCRIPTION);
+        when(mockEventSubscriptionRegistry.replace(TEST_SUB_ID, TEST_EVENT_SUBSCRIPTION)).thenReturn(null);
         //when
         eventSubscriptionService.refreshEventSubscription(TEST_SUB_ID);
         //then
-        verify(mockEventConsumerRegistry).deregister(TEST_EVENT_SUBSCRIPTION);
-        verify(mockEventSubscriptionRegistry).deregister(TEST_SUB_ID);
         verify(mockEventConsumerRegistry).register(TEST_EVENT_SUBSCRIPTION);
-        verify(mockEventSubscriptionRegistry).register(TEST_SUB_ID, TEST_EVENT_SUBSCRIPTION);
+        verify(mockEventConsumerRegistry, never()).replace(any(), any());
     }
 
     @Test
@@ -204,6 +284,265 @@ public class EventSubscriptionServiceImplTest extends AbstractUnitTest {
         assertThat(foundSubscriptions).containsOnly(subscription);
     }
 
+    @Test
+    public void should_streamSubscriptionsFromTheBeginning_when_firstPageRequested() {
+        //given
+        Subscription subscription = new Subscription();
+        when(eventSubscriptionStorage.streamSubscriptionsAfter(Long.MIN_VALUE, "", TEST_USER, SubscriptionStatus.ACTIVE, Limit.of(10)))
+            .thenReturn(Stream.of(subscription));
+        List<Subscription> streamedSubscriptions = new ArrayList<>();
+        //when
+        eventSubscriptionService.streamSubscriptions(new SubscriptionPageRequest(TEST_USER, SubscriptionStatus.ACTIVE, null, null, 10),
+            streamedSubscriptions::add);
+        //then
+        assertThat(streamedSubscriptions).containsExactly(subscription);
+    }
+
+    @Test
+    public void should_streamSubscriptionsAfterTheLastOne_when_nextPageRequested() {
+        //given
+        Subscription subscription = new Subscription();
+        when(eventSubscriptionStorage.streamSubscriptionsAfter(1000L, TEST_SUB_ID, null, null, Limit.of(10)))
+            .thenReturn(Stream.of(subscription));
+        List<Subscription> streamedSubscriptions = new ArrayList<>();
+        //when
+        eventSubscriptionService.streamSubscriptions(new SubscriptionPageRequest(null, null, 1000L, TEST_SUB_ID, 10),
+            streamedSubscriptions::add);
+        //then
+        assertThat(streamedSubscriptions).containsExactly(subscription);
+    }
+
+    @Test
+    public void should_streamEverySubscriptionInOrder_when_pageIsLargerThanTheFiltersBatchSize() {
+        //given
+        List<Subscription> subscriptions = Stream.generate(Subscription::new)
+            .limit(Subscription.FILTERS_BATCH_SIZE * 2L + 1)
+            .toList();
+        when(eventSubscriptionStorage.streamSubscriptionsAfter(Long.MIN_VALUE, "", null, null, Limit.of(500)))
+            .thenReturn(subscriptions.stream());
+        List<Subscription> streamedSubscriptions = new ArrayList<>();
+        //when
+        eventSubscriptionService.streamSubscriptions(new SubscriptionPageRequest(null, null, null, null, 500),
+            streamedSubscriptions::add);
+        //then
+        assertThat(streamedSubscriptions).containsExactlyElementsOf(subscriptions);
+    }
+
+    @Test
+    public void should_deactivateAndDeregisterExactlyTheLockedSubscriptions_when_subscriptionsNotModifiedSinceCutoffAreDeactivated() {
+        //given
+        Subscription expiredSubscription = new Subscription();
+        expiredSubscription.setId(TEST_SUB_ID);
+        when(eventSubscriptionStorage.lockSubscriptionsNotModifiedSince(SubscriptionStatus.ACTIVE, 1000L))
+            .thenReturn(List.of(expiredSubscription));
+        when(mockEventSubscriptionRegistry.getById(TEST_SUB_ID)).thenReturn(TEST_EVENT_SUBSCRIPTION);
+        //when
+        List<String> deactivatedIds = eventSubscriptionService.deactivateSubscriptionsNotModifiedSince(1000L);
+        //then
+        assertThat(deactivatedIds).containsExactly(TEST_SUB_ID);
+        verify(eventSubscriptionStorage).updateStatusOfSubscriptions(eq(List.of(TEST_SUB_ID)), eq(SubscriptionStatus.INACTIVE),
+            anyLong());
+        verify(mockEventSubscriptionRegistry).deregister(TEST_SUB_ID);
+        verify(mockEventConsumerRegistry).deregisterAll(List.of((EventConsumer) TEST_EVENT_SUBSCRIPTION));
+    }
+
+    @Test
+    public void should_notUpdateAnySubscription_when_noSubscriptionHasExpired() {
+        //given
+        when(eventSubscriptionStorage.lockSubscriptionsNotModifiedSince(SubscriptionStatus.ACTIVE, 1000L)).thenReturn(List.of());
+        //when
+        List<String> deactivatedIds = eventSubscriptionService.deactivateSubscriptionsNotModifiedSince(1000L);
+        //then
+        assertThat(deactivatedIds).isEmpty();
+        verify(eventSubscriptionStorage, never()).updateStatusOfSubscriptions(any(), any(), anyLong());
+    }
+
+    @Test
+    public void should_deactivateTheLockedSubscriptionsInBatches_when_manySubscriptionsHaveExpired() {
+        //given
+        List<Subscription> expiredSubscriptions = new ArrayList<>();
+        for (int i = 0; i < 1500; i++) {
+            Subscription expiredSubscription = new Subscription();
+            expiredSubscription.setId("expired-" + i);
+            expiredSubscriptions.add(expiredSubscription);
+        }
+        when(eventSubscriptionStorage.lockSubscriptionsNotModifiedSince(SubscriptionStatus.ACTIVE, 1000L))
+            .thenReturn(expiredSubscriptions);
+        //when
+        List<String> deactivatedIds = eventSubscriptionService.deactivateSubscriptionsNotModifiedSince(1000L);
+        //then
+        assertThat(deactivatedIds).hasSize(1500);
+        verify(eventSubscriptionStorage).updateStatusOfSubscriptions(eq(deactivatedIds.subList(0, 1000)),
+            eq(SubscriptionStatus.INACTIVE), anyLong());
+        verify(eventSubscriptionStorage).updateStatusOfSubscriptions(eq(deactivatedIds.subList(1000, 1500)),
+            eq(SubscriptionStatus.INACTIVE), anyLong());
+    }
+
+    @Test
+    public void should_deregisterTheDeactivatedSubscriptions_when_subscriptionsOfUsersAreDeactivated() {
+        //given
+        Subscription userSubscription = new Subscription();
+        userSubscription.setId(TEST_SUB_ID);
+        when(eventSubscriptionStorage.lockSubscriptionsOfUsers(SubscriptionStatus.ACTIVE, List.of(TEST_USER)))
+            .thenReturn(List.of(userSubscription));
+        when(mockEventSubscriptionRegistry.getById(TEST_SUB_ID)).thenReturn(TEST_EVENT_SUBSCRIPTION);
+        //when
+        List<String> deactivatedIds = eventSubscriptionService.deactivateSubscriptionsOfUsers(List.of(TEST_USER));
+        //then
+        assertThat(deactivatedIds).containsExactly(TEST_SUB_ID);
+        verify(eventSubscriptionStorage).updateStatusOfSubscriptions(eq(List.of(TEST_SUB_ID)), eq(SubscriptionStatus.INACTIVE),
+            anyLong());
+        verify(mockEventConsumerRegistry).deregisterAll(List.of((EventConsumer) TEST_EVENT_SUBSCRIPTION));
+    }
+
+    @Test
+    public void should_rebuildActiveSubscriptionsAndDeregisterTheRest_when_subscriptionsAreRefreshed() {
+        //given
+        Subscription activeSubscription = new Subscription();
+        activeSubscription.setId(TEST_SUB_ID);
+        activeSubscription.setStatus(SubscriptionStatus.ACTIVE);
+        TestEventSubscription removedEventSubscription = new TestEventSubscription();
+        when(eventSubscriptionStorage.findAllById(List.of(TEST_SUB_ID, "removed-id"))).thenReturn(List.of(activeSubscription));
+        when(mockEventSubscriptionBootstrapper.build(List.of(activeSubscription))).thenReturn(List.of(
+            new EventSubscriptionBootstrapper.BuildResult(activeSubscription, TEST_EVENT_SUBSCRIPTION, null)));
+        when(mockEventSubscriptionRegistry.getById("removed-id")).thenReturn(removedEventSubscription);
+        //when
+        eventSubscriptionService.refreshSubscriptions(List.of(TEST_SUB_ID, "removed-id"));
+        //then
+        verify(mockEventSubscriptionRegistry).replace(TEST_SUB_ID, TEST_EVENT_SUBSCRIPTION);
+        verify(mockEventSubscriptionRegistry).deregister("removed-id");
+        verify(mockEventConsumerRegistry).deregisterAll(List.of((EventConsumer) removedEventSubscription));
+    }
+
+    @Test
+    public void should_refreshTheSubscriptionsModifiedSinceTheGivenTime_when_catchingUpWithStorage() {
+        //given
+        Subscription activeSubscription = new Subscription();
+        activeSubscription.setId(TEST_SUB_ID);
+        activeSubscription.setStatus(SubscriptionStatus.ACTIVE);
+        when(eventSubscriptionStorage.findSubscriptionIdsModifiedSince(1000L)).thenReturn(List.of(TEST_SUB_ID));
+        when(eventSubscriptionStorage.findAllById(List.of(TEST_SUB_ID))).thenReturn(List.of(activeSubscription));
+        when(mockEventSubscriptionBootstrapper.build(List.of(activeSubscription))).thenReturn(List.of(
+            new EventSubscriptionBootstrapper.BuildResult(activeSubscription, TEST_EVENT_SUBSCRIPTION, null)));
+        //when
+        List<String> refreshedIds = eventSubscriptionService.refreshSubscriptionsModifiedSince(1000L);
+        //then
+        assertThat(refreshedIds).containsExactly(TEST_SUB_ID);
+        verify(mockEventSubscriptionRegistry).replace(TEST_SUB_ID, TEST_EVENT_SUBSCRIPTION);
+    }
+
+    @Test
+    public void should_notifyTheChangeListeners_when_subscriptionIsUpdated() {
+        //given
+        SubscriptionChangeListener subscriptionChangeListener = mock(SubscriptionChangeListener.class);
+        EventSubscriptionServiceImpl notifyingEventSubscriptionService = new EventSubscriptionServiceImpl(eventSubscriptionStorage,
+            eventSubscriptionFactory, mockEventConsumerRegistry, mockEventSubscriptionRegistry, mockEventSubscriptionBootstrapper,
+            List.of(subscriptionChangeListener));
+        Subscription subscription = new Subscription();
+        subscription.setId(TEST_SUB_ID);
+        subscription.setStatus(SubscriptionStatus.INACTIVE);
+        when(eventSubscriptionStorage.save(subscription)).thenReturn(subscription);
+        //when
+        notifyingEventSubscriptionService.updateSubscription(subscription);
+        //then
+        verify(subscriptionChangeListener).subscriptionsChanged(List.of(TEST_SUB_ID));
+    }
+
+    @Test
+    public void should_persistAndRegisterOnlyValidSubscriptions_when_subscriptionsAreCreatedInBulk() {
+        //given
+        Subscription validSubscription = new Subscription();
+        validSubscription.setId(TEST_SUB_ID);
+        Subscription invalidSubscription = new Subscription();
+        List<Subscription> subscriptions = List.of(validSubscription, invalidSubscription);
+        when(eventSubscriptionStorage.saveAll(subscriptions)).thenReturn(subscriptions);
+        when(mockEventSubscriptionBootstrapper.build(subscriptions)).thenReturn(List.of(
+            new EventSubscriptionBootstrapper.BuildResult(validSubscription, TEST_EVENT_SUBSCRIPTION, null),
+            new EventSubscriptionBootstrapper.BuildResult(invalidSubscription, null, new SubscriptionConfigurationException("Invalid"))));
+        //when
+        List<SubscriptionOperationResult> results = eventSubscriptionService.createSubscriptions(subscriptions);
+        //then
+        assertThat(results).extracting(SubscriptionOperationResult::status)
+            .containsExactly(SubscriptionOperationResult.Status.SUCCEEDED, SubscriptionOperationResult.Status.FAILED);
+        assertThat(results.get(1).index()).isEqualTo(1);
+        assertThat(validSubscription.getStatus()).isEqualTo(SubscriptionStatus.ACTIVE);
+        verify(eventSubscriptionStorage).delete(invalidSubscription);
+        verify(eventSubscriptionStorage).flush();
+        verify(mockEventConsumerRegistry).registerAll(List.of((EventConsumer) TEST_EVENT_SUBSCRIPTION));
+        verify(mockEventSubscriptionRegistry).register(TEST_SUB_ID, TEST_EVENT_SUBSCRIPTION);
+    }
+
+    @Test
+    public void should_updateAndApplyStatus_when_subscriptionsAreUpdatedInBulk() {
+        //given
+        Subscription activatedSubscription = new Subscription();
+        activatedSubscription.setId(TEST_SUB_ID);
+        activatedSubscription.setStatus(SubscriptionStatus.ACTIVE);
+        Subscription deactivatedSubscription = new Subscription();
+        deactivatedSubscription.setId("another-id");
+        deactivatedSubscription.setStatus(SubscriptionStatus.INACTIVE);
+        TestEventSubscription deactivatedEventSubscription = new TestEventSubscription();
+        List<Subscription> subscriptions = List.of(activatedSubscription, deactivatedSubscription);
+        when(mockEventSubscriptionBootstrapper.build(List.of(activatedSubscription))).thenReturn(List.of(
+            new EventSubscriptionBootstrapper.BuildResult(activatedSubscription, TEST_EVENT_SUBSCRIPTION, null)));
+        when(eventSubscriptionStorage.saveAll(subscriptions)).thenReturn(subscriptions);
+        when(mockEventSubscriptionRegistry.getById("another-id")).thenReturn(deactivatedEventSubscription);
+        //when
+        List<SubscriptionOperationResult> results = eventSubscriptionService.updateSubscriptions(subscriptions);
+        //then
+        assertThat(results).extracting(SubscriptionOperationResult::status)
+            .containsExactly(SubscriptionOperationResult.Status.SUCCEEDED, SubscriptionOperationResult.Status.SUCCEEDED);
+        verify(eventSubscriptionStorage).flush();
+        verify(mockEventSubscriptionRegistry).register(TEST_SUB_ID, TEST_EVENT_SUBSCRIPTION);
+        verify(mockEventConsumerRegistry).deregisterAll(List.of((EventConsumer) deactivatedEventSubscription));
+        verify(mockEventSubscriptionRegistry).deregister("another-id");
+    }
+
+    @Test
+    public void should_registerEventSubscriptionOnlyOnCommit_when_subscriptionIsCreatedInATransaction() {
+        //given
+        Subscription subscriptionToBePersisted = new Subscription();
+        subscriptionToBePersisted.setId(TEST_SUB_ID);
+        when(eventSubscriptionStorage.save(subscriptionToBePersisted)).thenReturn(subscriptionToBePersisted);
+        when(eventSubscriptionFactory.getEventSubscription(subscriptionToBePersisted)).thenReturn(TEST_EVENT_SUBSCRIPTION);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            //when
+            eventSubscriptionService.createSubscription(subscriptionToBePersisted);
+            //then
+            verify(mockEventConsumerRegistry, never()).registerAll(any());
+            TransactionSynchronizationUtils.triggerAfterCommit();
+            verify(mockEventConsumerRegistry).registerAll(List.of((EventConsumer) TEST_EVENT_SUBSCRIPTION));
+            verify(mockEventSubscriptionRegistry).register(TEST_SUB_ID, TEST_EVENT_SUBSCRIPTION);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    public void should_releaseTheBuiltEventSubscriptionsWithoutRegisteringThem_when_bulkCreationIsRolledBack() {
+        //given
+        Subscription subscription = new Subscription();
+        subscription.setId(TEST_SUB_ID);
+        List<Subscription> subscriptions = List.of(subscription);
+        EventSubscription builtEventSubscription = mock(EventSubscription.class);
+        when(eventSubscriptionStorage.saveAll(subscriptions)).thenReturn(subscriptions);
+        when(mockEventSubscriptionBootstrapper.build(subscriptions)).thenReturn(List.of(
+            new EventSubscriptionBootstrapper.BuildResult(subscription, builtEventSubscription, null)));
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            //when
+            eventSubscriptionService.createSubscriptions(subscriptions);
+            TransactionSynchronizationUtils.invokeAfterCompletion(TransactionSynchronizationManager.getSynchronizations(),
+                TransactionSynchronization.STATUS_ROLLED_BACK);
+            //then
+            verify(builtEventSubscription).release();
+            verifyNoInteractions(mockEventConsumerRegistry, mockEventSubscriptionRegistry);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
     private static class TestEventSubscription implements EventSubscription, EventConsumer {
 
         @Override
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2021-2021 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.event.gateway.kafka.subscription;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import org.alfresco.repo.event.v1.model.DataAttributes;
+import org.alfresco.repo.event.v1.model.RepoEvent;
+import org.alfresco.repo.event.v1.model.Resource;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link LazySubscriptionPublisherManager}.
+ */
+public class LazySubscriptionPublisherManagerTest {
+
+    private static final String TEST_SUBSCRIPTION_ID = "id";
+    private static final RepoEvent<DataAttributes<Resource>> TEST_EVENT = RepoEvent.<DataAttributes<Resource>>builder()
+            .setId("event-id")
+            .build();
+
+    @Test
+    public void should_releaseIdlePublisher_when_publicationsAreBelowWarmUpThreshold() {
+        LazySubscriptionPublisherManager manager = new LazySubscriptionPublisherManager(0, 2);
+        SubscriptionPublisher mockSubscriptionPublisher = mock(SubscriptionPublisher.class);
+        LazySubscriptionPublisher lazySubscriptionPublisher = manager
+                .getLazySubscriptionPublisher(TEST_SUBSCRIPTION_ID, () -> mockSubscriptionPublisher);
+        lazySubscriptionPublisher.publishEvent(TEST_EVENT);
+
+        manager.releaseIdlePublishers();
+
+        assertThat(lazySubscriptionPublisher.isMaterialized()).isFalse();
+        verify(mockSubscriptionPublisher).release();
+    }
+
+    @Test
+    public void should_keepAndWarmUpPublisher_when_publicationsReachWarmUpThreshold() {
+        LazySubscriptionPublisherManager manager = new LazySubscriptionPublisherManager(0, 2);
+        LazySubscriptionPublisher lazySubscriptionPublisher = manager
+                .getLazySubscriptionPublisher(TEST_SUBSCRIPTION_ID, () -> mock(SubscriptionPublisher.class));
+        lazySubscriptionPublisher.publishEvent(TEST_EVENT);
+        lazySubscriptionPublisher.publishEvent(TEST_EVENT);
+
+        manager.releaseIdlePublishers();
+
+        assertThat(lazySubscriptionPublisher.isMaterialized()).isTrue();
+        LazySubscriptionPublisher rebuiltLazySubscriptionPublisher = manager
+                .getLazySubscriptionPublisher(TEST_SUBSCRIPTION_ID, () -> mock(SubscriptionPublisher.class));
+        assertThat(rebuiltLazySubscriptionPublisher.isMaterialized()).isTrue();
+    }
+
+    @Test
+    public void should_notCreatePublisher_when_subscriptionIsNotWarm() {
+        LazySubscriptionPublisherManager manager = new LazySubscriptionPublisherManager(0, 2);
+
+        LazySubscriptionPublisher lazySubscriptionPublisher = manager
+                .getLazySubscriptionPublisher(TEST_SUBSCRIPTION_ID, () -> mock(SubscriptionPublisher.class));
+
+        assertThat(lazySubscriptionPublisher.isMaterialized()).isFalse();
+    }
+}
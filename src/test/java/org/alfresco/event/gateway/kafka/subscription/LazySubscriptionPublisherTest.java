@@ -0,0 +1,116 @@
+/*
+ * Copyright 2021-2021 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.event.gateway.kafka.subscription;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.alfresco.repo.event.v1.model.DataAttributes;
+import org.alfresco.repo.event.v1.model.RepoEvent;
+import org.alfresco.repo.event.v1.model.Resource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link LazySubscriptionPublisher}.
+ */
+public class LazySubscriptionPublisherTest {
+
+    private static final String TEST_SUBSCRIPTION_ID = "id";
+    private static final RepoEvent<DataAttributes<Resource>> TEST_EVENT = RepoEvent.<DataAttributes<Resource>>builder()
+            .setId("event-id")
+            .build();
+
+    private SubscriptionPublisher mockSubscriptionPublisher;
+    private Supplier<SubscriptionPublisher> mockSubscriptionPublisherSupplier;
+    private LazySubscriptionPublisher lazySubscriptionPublisher;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        mockSubscriptionPublisher = mock(SubscriptionPublisher.class);
+        mockSubscriptionPublisherSupplier = mock(Supplier.class);
+        when(mockSubscriptionPublisherSupplier.get()).thenReturn(mockSubscriptionPublisher);
+        lazySubscriptionPublisher = new LazySubscriptionPublisher(TEST_SUBSCRIPTION_ID,
+                mockSubscriptionPublisherSupplier);
+    }
+
+    @Test
+    public void should_notCreatePublisher_when_noEventHasBeenPublished() {
+        assertThat(lazySubscriptionPublisher.isMaterialized()).isFalse();
+        verifyNoInteractions(mockSubscriptionPublisherSupplier);
+    }
+
+    @Test
+    public void should_createPublisherOnlyOnce_when_publishingSeveralEvents() {
+        lazySubscriptionPublisher.publishEvent(TEST_EVENT);
+        lazySubscriptionPublisher.publishEvent(TEST_EVENT);
+
+        verify(mockSubscriptionPublisherSupplier).get();
+        verify(mockSubscriptionPublisher, times(2)).publishEvent(TEST_EVENT);
+        assertThat(lazySubscriptionPublisher.getAndResetPublicationCount()).isEqualTo(2);
+        assertThat(lazySubscriptionPublisher.getAndResetPublicationCount()).isZero();
+    }
+
+    @Test
+    public void should_releaseAndRecreatePublisher_when_idleTimeoutExpires() {
+        lazySubscriptionPublisher.publishEvent(TEST_EVENT);
+
+        assertThat(lazySubscriptionPublisher.releaseIfIdle(0)).isTrue();
+        verify(mockSubscriptionPublisher).release();
+        assertThat(lazySubscriptionPublisher.isMaterialized()).isFalse();
+
+        lazySubscriptionPublisher.publishEvent(TEST_EVENT);
+        verify(mockSubscriptionPublisherSupplier, times(2)).get();
+    }
+
+    @Test
+    public void should_keepPublisher_when_idleTimeoutHasNotExpired() {
+        lazySubscriptionPublisher.publishEvent(TEST_EVENT);
+
+        assertThat(lazySubscriptionPublisher.releaseIfIdle(Long.MAX_VALUE)).isFalse();
+        verify(mockSubscriptionPublisher, never()).release();
+    }
+
+    @Test
+    public void should_discardEventsWithoutCreatingPublisher_when_alreadyReleased() {
+        lazySubscriptionPublisher.release();
+
+        lazySubscriptionPublisher.publishEvent(TEST_EVENT);
+
+        assertThat(lazySubscriptionPublisher.isReleased()).isTrue();
+        verifyNoInteractions(mockSubscriptionPublisherSupplier);
+    }
+
+    @Test
+    public void should_delegateTheWholeBatchAndCountEveryEvent_when_publishingABatch() {
+        List<RepoEvent<DataAttributes<Resource>>> events = List.of(TEST_EVENT, TEST_EVENT);
+
+        lazySubscriptionPublisher.publishEvents(events);
+
+        verify(mockSubscriptionPublisherSupplier).get();
+        verify(mockSubscriptionPublisher).publishEvents(events);
+        assertThat(lazySubscriptionPublisher.getAndResetPublicationCount()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2021-2021 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.event.gateway.kafka.subscription.cluster;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Optional;
+
+import org.alfresco.event.gateway.kafka.AbstractUnitTest;
+import org.alfresco.event.gateway.kafka.entity.LeaderLease;
+import org.alfresco.event.gateway.kafka.subscription.storage.LeaderLeaseStorage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Unit tests for {@link DatabaseLeaderElection}.
+ */
+public class DatabaseLeaderElectionTest extends AbstractUnitTest {
+
+    private static final String TEST_LEASE = "test-lease";
+    private static final String TEST_NODE = "test-node";
+    private static final long TEST_FENCING_TOKEN = 7;
+
+    @Mock
+    private LeaderLeaseStorage mockLeaderLeaseStorage;
+    @Mock
+    private PlatformTransactionManager mockTransactionManager;
+
+    private DatabaseLeaderElection databaseLeaderElection;
+
+    @BeforeEach
+    public void setup() {
+        databaseLeaderElection = new DatabaseLeaderElection(mockLeaderLeaseStorage,
+            new TransactionTemplate(mockTransactionManager), TEST_LEASE, TEST_NODE, 15000, 5000);
+    }
+
+    @Test
+    public void should_becomeLeaderWithTheIncrementedFencingToken_when_expiredLeaseIsTakenOver() {
+        when(mockLeaderLeaseStorage.acquireLease(eq(TEST_LEASE), eq(TEST_NODE), anyLong(), anyLong())).thenReturn(1);
+        when(mockLeaderLeaseStorage.findById(TEST_LEASE))
+            .thenReturn(Optional.of(new LeaderLease(TEST_LEASE, TEST_NODE, TEST_FENCING_TOKEN, Long.MAX_VALUE)));
+
+        databaseLeaderElection.refreshLease();
+
+        assertThat(databaseLeaderElection.isLeader()).isTrue();
+        assertThat(databaseLeaderElection.getFencingToken()).hasValue(TEST_FENCING_TOKEN);
+    }
+
+    @Test
+    public void should_createTheLeaseAndBecomeLeader_when_leaseDoesNotExist() {
+        when(mockLeaderLeaseStorage.acquireLease(eq(TEST_LEASE), eq(TEST_NODE), anyLong(), anyLong())).thenReturn(0);
+        when(mockLeaderLeaseStorage.existsById(TEST_LEASE)).thenReturn(false);
+        when(mockLeaderLeaseStorage.saveAndFlush(any(LeaderLease.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        databaseLeaderElection.refreshLease();
+
+        assertThat(databaseLeaderElection.getFencingToken()).hasValue(1);
+    }
+
+    @Test
+    public void should_notBecomeLeader_when_leaseIsHeldByAnotherNode() {
+        when(mockLeaderLeaseStorage.acquireLease(eq(TEST_LEASE), eq(TEST_NODE), anyLong(), anyLong())).thenReturn(0);
+        when(mockLeaderLeaseStorage.existsById(TEST_LEASE)).thenReturn(true);
+
+        databaseLeaderElection.refreshLease();
+
+        assertThat(databaseLeaderElection.isLeader()).isFalse();
+        assertThat(databaseLeaderElection.getFencingToken()).isEmpty();
+    }
+
+    @Test
+    public void should_loseLeadership_when_leaseCannotBeRenewed() {
+        becomeLeader();
+        when(mockLeaderLeaseStorage.renewLease(eq(TEST_LEASE), eq(TEST_NODE), eq(TEST_FENCING_TOKEN), anyLong())).thenReturn(0);
+
+        databaseLeaderElection.refreshLease();
+
+        assertThat(databaseLeaderElection.isLeader()).isFalse();
+    }
+
+    @Test
+    public void should_releaseTheLease_when_stopped() {
+        becomeLeader();
+
+        databaseLeaderElection.stop();
+
+        assertThat(databaseLeaderElection.isLeader()).isFalse();
+        verify(mockLeaderLeaseStorage).releaseLease(TEST_LEASE, TEST_NODE, TEST_FENCING_TOKEN);
+    }
+
+    @Test
+    public void should_validateTheFencingTokenAgainstTheStoredLease() {
+        when(mockLeaderLeaseStorage.lockLease(eq(TEST_LEASE), eq(TEST_FENCING_TOKEN), anyLong())).thenReturn(1);
+        when(mockLeaderLeaseStorage.lockLease(eq(TEST_LEASE), eq(TEST_FENCING_TOKEN - 1), anyLong())).thenReturn(0);
+
+        assertThat(databaseLeaderElection.validateFencingToken(TEST_FENCING_TOKEN)).isTrue();
+        assertThat(databaseLeaderElection.validateFencingToken(TEST_FENCING_TOKEN - 1)).isFalse();
+    }
+
+    private void becomeLeader() {
+        when(mockLeaderLeaseStorage.acquireLease(eq(TEST_LEASE), eq(TEST_NODE), anyLong(), anyLong())).thenReturn(1);
+        when(mockLeaderLeaseStorage.findById(TEST_LEASE))
+            .thenReturn(Optional.of(new LeaderLease(TEST_LEASE, TEST_NODE, TEST_FENCING_TOKEN, Long.MAX_VALUE)));
+        databaseLeaderElection.refreshLease();
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2021-2021 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.event.gateway.kafka.subscription.cluster;
+
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.alfresco.event.gateway.kafka.subscription.EventSubscriptionService;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Integration tests for the propagation of the subscription changes across nodes using an embedded Kafka broker.
+ */
+@EmbeddedKafka(partitions = 1)
+public class KafkaSubscriptionChangePropagationIT {
+
+    private static final String TEST_TOPIC = "test-subscription-changes";
+    private static final String TEST_SUB_ID = "subscription-id";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void should_refreshTheSubscriptionInTheOtherNodes_when_itChangesInOneNode(EmbeddedKafkaBroker embeddedKafkaBroker) {
+        String bootstrapServers = embeddedKafkaBroker.getBrokersAsString();
+        EventSubscriptionService firstNodeService = mock(EventSubscriptionService.class);
+        EventSubscriptionService secondNodeService = mock(EventSubscriptionService.class);
+        KafkaSubscriptionChangePublisher firstNodePublisher = new KafkaSubscriptionChangePublisher("node-1", bootstrapServers,
+            TEST_TOPIC, 1, 1, objectMapper);
+        KafkaSubscriptionChangeReceiver firstNodeReceiver = new KafkaSubscriptionChangeReceiver(firstNodeService, "node-1",
+            bootstrapServers, TEST_TOPIC, objectMapper);
+        KafkaSubscriptionChangeReceiver secondNodeReceiver = new KafkaSubscriptionChangeReceiver(secondNodeService, "node-2",
+            bootstrapServers, TEST_TOPIC, objectMapper);
+        firstNodeReceiver.onApplicationEvent(null);
+        secondNodeReceiver.onApplicationEvent(null);
+
+        try {
+            // The receivers start from the latest offset, so the change is broadcast until they are assigned the topic
+            await().atMost(Duration.ofSeconds(30)).pollInterval(Duration.ofMillis(500)).untilAsserted(() -> {
+                firstNodePublisher.subscriptionsChanged(List.of(TEST_SUB_ID));
+                verify(secondNodeService, atLeastOnce()).refreshSubscriptions(argThat(ids -> ids.contains(TEST_SUB_ID)));
+            });
+            verify(firstNodeService, never()).refreshSubscriptions(argThat(ids -> ids.contains(TEST_SUB_ID)));
+        } finally {
+            firstNodeReceiver.stop();
+            secondNodeReceiver.stop();
+        }
+    }
+}
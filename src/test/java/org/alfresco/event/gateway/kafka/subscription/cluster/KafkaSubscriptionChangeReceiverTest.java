@@ -0,0 +1,107 @@
+/*
+ * Copyright 2021-2021 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.event.gateway.kafka.subscription.cluster;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.List;
+import java.util.Set;
+
+import org.alfresco.event.gateway.kafka.AbstractUnitTest;
+import org.alfresco.event.gateway.kafka.subscription.EventSubscriptionService;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Unit tests for {@link KafkaSubscriptionChangeReceiver}.
+ */
+public class KafkaSubscriptionChangeReceiverTest extends AbstractUnitTest {
+
+    private static final String TEST_TOPIC = "test-topic";
+    private static final String LOCAL_NODE_ID = "local-node";
+    private static final String REMOTE_NODE_ID = "remote-node";
+    private static final long STORAGE_LOAD_TIME = 1_000_000;
+
+    @Mock
+    private EventSubscriptionService mockEventSubscriptionService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private KafkaSubscriptionChangeReceiver kafkaSubscriptionChangeReceiver;
+
+    @BeforeEach
+    public void setup() {
+        kafkaSubscriptionChangeReceiver = new KafkaSubscriptionChangeReceiver(mockEventSubscriptionService, LOCAL_NODE_ID,
+            "localhost:9092", TEST_TOPIC, objectMapper);
+    }
+
+    @Test
+    public void should_refreshEachRemotelyChangedSubscriptionOnce_when_notificationsAreReceived() throws Exception {
+        kafkaSubscriptionChangeReceiver.onNotifications(List.of(
+            notificationRecord("sub-1", REMOTE_NODE_ID),
+            notificationRecord("sub-2", REMOTE_NODE_ID),
+            notificationRecord("sub-1", REMOTE_NODE_ID)));
+
+        verify(mockEventSubscriptionService).refreshSubscriptions(Set.of("sub-1", "sub-2"));
+    }
+
+    @Test
+    public void should_notRefreshAnySubscription_when_onlyNotificationsOfThisNodeAreReceived() throws Exception {
+        kafkaSubscriptionChangeReceiver.onNotifications(List.of(notificationRecord("sub-1", LOCAL_NODE_ID)));
+
+        verify(mockEventSubscriptionService, never()).refreshSubscriptions(any());
+    }
+
+    @Test
+    public void should_refreshTheSubscriptionsModifiedSinceTheyWereLoadedOnlyOnce_when_catchingUpTwice() {
+        given(mockEventSubscriptionService.getStorageLoadTime()).willReturn(STORAGE_LOAD_TIME);
+        given(mockEventSubscriptionService.refreshSubscriptionsModifiedSince(STORAGE_LOAD_TIME - 60_000))
+            .willReturn(List.of("sub-1"));
+
+        kafkaSubscriptionChangeReceiver.catchUpWithStorage();
+        kafkaSubscriptionChangeReceiver.catchUpWithStorage();
+
+        verify(mockEventSubscriptionService).refreshSubscriptionsModifiedSince(STORAGE_LOAD_TIME - 60_000);
+    }
+
+    @Test
+    public void should_retryTheCatchUpWithStorage_when_itFailed() throws Exception {
+        given(mockEventSubscriptionService.getStorageLoadTime()).willReturn(STORAGE_LOAD_TIME);
+        given(mockEventSubscriptionService.refreshSubscriptionsModifiedSince(STORAGE_LOAD_TIME - 60_000))
+            .willThrow(new IllegalStateException("Storage unavailable"))
+            .willReturn(List.of());
+
+        kafkaSubscriptionChangeReceiver.catchUpWithStorage();
+        kafkaSubscriptionChangeReceiver.onNotifications(List.of(notificationRecord("sub-1", REMOTE_NODE_ID)));
+        kafkaSubscriptionChangeReceiver.catchUpWithStorage();
+
+        verify(mockEventSubscriptionService, times(2)).refreshSubscriptionsModifiedSince(STORAGE_LOAD_TIME - 60_000);
+        verify(mockEventSubscriptionService).refreshSubscriptions(Set.of("sub-1"));
+    }
+
+    private ConsumerRecord<String, String> notificationRecord(String subscriptionId, String nodeId) throws Exception {
+        return new ConsumerRecord<>(TEST_TOPIC, 0, 0, subscriptionId,
+            objectMapper.writeValueAsString(new SubscriptionChangeNotification(subscriptionId, nodeId, 0)));
+    }
+}
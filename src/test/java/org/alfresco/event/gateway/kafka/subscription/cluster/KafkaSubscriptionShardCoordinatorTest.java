@@ -0,0 +1,93 @@
+/*
+ * Copyright 2021-2021 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.event.gateway.kafka.subscription.cluster;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Set;
+
+import org.alfresco.event.gateway.kafka.AbstractUnitTest;
+import org.alfresco.event.gateway.kafka.entity.SubscriptionStatus;
+import org.alfresco.event.gateway.kafka.subscription.EventSubscriptionRegistry;
+import org.alfresco.event.gateway.kafka.subscription.EventSubscriptionService;
+import org.alfresco.event.gateway.kafka.subscription.storage.EventSubscriptionStorage;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+
+/**
+ * Unit tests for {@link KafkaSubscriptionShardCoordinator}.
+ */
+public class KafkaSubscriptionShardCoordinatorTest extends AbstractUnitTest {
+
+    private static final String TEST_TOPIC = "test-shards";
+    private static final int SHARD_COUNT = 2;
+
+    @Mock
+    private EventSubscriptionService mockEventSubscriptionService;
+    @Mock
+    private EventSubscriptionStorage mockEventSubscriptionStorage;
+    @Mock
+    private EventSubscriptionRegistry mockEventSubscriptionRegistry;
+
+    private final ShardedSubscriptionOwnership shardedSubscriptionOwnership = new ShardedSubscriptionOwnership(SHARD_COUNT);
+
+    private KafkaSubscriptionShardCoordinator kafkaSubscriptionShardCoordinator;
+    private String firstShardSubscriptionId;
+    private String secondShardSubscriptionId;
+
+    @BeforeEach
+    public void setup() {
+        kafkaSubscriptionShardCoordinator = new KafkaSubscriptionShardCoordinator(shardedSubscriptionOwnership,
+            mockEventSubscriptionService, mockEventSubscriptionStorage, mockEventSubscriptionRegistry, "localhost:9092",
+            TEST_TOPIC, "test-group", 1);
+        for (int i = 0; firstShardSubscriptionId == null || secondShardSubscriptionId == null; i++) {
+            String subscriptionId = "subscription-" + i;
+            if (shardedSubscriptionOwnership.getShard(subscriptionId) == 0) {
+                firstShardSubscriptionId = subscriptionId;
+            }
+            else {
+                secondShardSubscriptionId = subscriptionId;
+            }
+        }
+    }
+
+    @Test
+    public void should_takeOverTheActiveSubscriptionsOfTheShard_when_shardIsAssigned() {
+        when(mockEventSubscriptionStorage.findSubscriptionIdsByStatus(SubscriptionStatus.ACTIVE))
+            .thenReturn(List.of(firstShardSubscriptionId, secondShardSubscriptionId));
+
+        kafkaSubscriptionShardCoordinator.onPartitionsAssigned(List.of(new TopicPartition(TEST_TOPIC, 0)));
+
+        assertThat(shardedSubscriptionOwnership.getOwnedShards()).containsExactly(0);
+        verify(mockEventSubscriptionService).refreshSubscriptions(List.of(firstShardSubscriptionId));
+    }
+
+    @Test
+    public void should_releaseTheRegisteredSubscriptionsOfTheShard_when_shardIsRevoked() {
+        shardedSubscriptionOwnership.addShards(List.of(0, 1));
+        when(mockEventSubscriptionRegistry.getIds()).thenReturn(Set.of(firstShardSubscriptionId, secondShardSubscriptionId));
+
+        kafkaSubscriptionShardCoordinator.onPartitionsRevoked(List.of(new TopicPartition(TEST_TOPIC, 1)));
+
+        assertThat(shardedSubscriptionOwnership.getOwnedShards()).containsExactly(0);
+        verify(mockEventSubscriptionService).refreshSubscriptions(List.of(secondShardSubscriptionId));
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2021-2021 Alfresco Software, Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.alfresco.event.gateway.kafka.subscription.cluster;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link ShardedSubscriptionOwnership}.
+ */
+public class ShardedSubscriptionOwnershipTest {
+
+    private static final String TEST_SUB_ID = "subscription-id";
+
+    private final ShardedSubscriptionOwnership shardedSubscriptionOwnership = new ShardedSubscriptionOwnership(16);
+
+    @Test
+    public void should_alwaysAssignTheSameShardInRange_when_gettingTheShardOfASubscription() {
+        int shard = shardedSubscriptionOwnership.getShard(TEST_SUB_ID);
+
+        assertThat(shard).isBetween(0, 15);
+        assertThat(new ShardedSubscriptionOwnership(16).getShard(TEST_SUB_ID)).isEqualTo(shard);
+    }
+
+    @Test
+    public void should_ownOnlyTheSubscriptionsOfTheAssignedShards() {
+        int shard = shardedSubscriptionOwnership.getShard(TEST_SUB_ID);
+
+        assertThat(shardedSubscriptionOwnership.isOwned(TEST_SUB_ID)).isFalse();
+        shardedSubscriptionOwnership.addShards(List.of(shard));
+        assertThat(shardedSubscriptionOwnership.isOwned(TEST_SUB_ID)).isTrue();
+        shardedSubscriptionOwnership.removeShards(List.of(shard));
+        assertThat(shardedSubscriptionOwnership.isOwned(TEST_SUB_ID)).isFalse();
+    }
+}
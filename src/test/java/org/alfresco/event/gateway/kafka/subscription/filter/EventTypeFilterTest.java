@@ -17,6 +17,8 @@ package org.alfresco.event.gateway.kafka.subscription.filter;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.util.List;
+
 import org.alfresco.repo.event.v1.model.DataAttributes;
 import org.alfresco.repo.event.v1.model.EventData;
 import org.alfresco.repo.event.v1.model.NodeResource;
@@ -63,5 +65,21 @@ public class EventTypeFilterTest {
 
         assertThat(result).isFalse();
     }
-}
 
+    @Test
+    public void should_returnOnlyTheEventsWithAcceptedEventType_when_batchIsFiltered() {
+        final RepoEvent<? extends DataAttributes<? extends Resource>> createdEvent = RepoEvent.<EventData<NodeResource>>builder()
+                .setId("created")
+                .setType(NODE_CREATED)
+                .build();
+        final RepoEvent<? extends DataAttributes<? extends Resource>> updatedEvent = RepoEvent.<EventData<NodeResource>>builder()
+                .setId("updated")
+                .setType(NODE_UPDATED)
+                .build();
+
+        final List<RepoEvent<DataAttributes<Resource>>> result = EventTypeFilter.of(NODE_CREATED)
+                .filter(List.of((RepoEvent<DataAttributes<Resource>>) createdEvent, (RepoEvent<DataAttributes<Resource>>) updatedEvent));
+
+        assertThat(result).containsExactly((RepoEvent<DataAttributes<Resource>>) createdEvent);
+    }
+}
@@ -17,6 +17,8 @@ package org.alfresco.event.gateway.kafka.subscription.filter;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.util.List;
+
 import org.alfresco.repo.event.v1.model.DataAttributes;
 import org.alfresco.repo.event.v1.model.EventData;
 import org.alfresco.repo.event.v1.model.NodeResource;
@@ -98,5 +100,24 @@ public class NodeTypeFilterTest {
 
         assertThat(result).isFalse();
     }
-}
 
+    @Test
+    public void should_returnOnlyTheEventsWithAcceptedType_when_batchIsFiltered() {
+        final RepoEvent<? extends DataAttributes<? extends Resource>> acceptedEvent = RepoEvent.<EventData<NodeResource>>builder()
+            .setId("accepted")
+            .setData(EventData.<NodeResource>builder().setResource(NodeResource.builder().setNodeType(TEST_TYPE).build()).build())
+            .build();
+        final RepoEvent<? extends DataAttributes<? extends Resource>> otherEvent = RepoEvent.<EventData<NodeResource>>builder()
+            .setId("other")
+            .setData(EventData.<NodeResource>builder().setResource(NodeResource.builder().setNodeType("test:other").build()).build())
+            .build();
+        final RepoEvent<? extends DataAttributes<? extends Resource>> noDataEvent = RepoEvent.<EventData<NodeResource>>builder()
+            .setId("no-data")
+            .build();
+
+        final List<RepoEvent<DataAttributes<Resource>>> result = nodeTypeFilter.filter(List.of((RepoEvent<DataAttributes<Resource>>) acceptedEvent,
+            (RepoEvent<DataAttributes<Resource>>) otherEvent, (RepoEvent<DataAttributes<Resource>>) noDataEvent));
+
+        assertThat(result).containsExactly((RepoEvent<DataAttributes<Resource>>) acceptedEvent);
+    }
+}
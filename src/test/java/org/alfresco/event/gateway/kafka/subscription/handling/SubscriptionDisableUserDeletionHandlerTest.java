@@ -18,17 +18,15 @@ package org.alfresco.event.gateway.kafka.subscription.handling;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
-import java.util.Collections;
 import java.util.List;
 
 import org.alfresco.event.gateway.kafka.AbstractUnitTest;
-import org.alfresco.event.gateway.kafka.entity.Subscription;
-import org.alfresco.event.gateway.kafka.entity.SubscriptionStatus;
 import org.alfresco.event.gateway.kafka.subscription.EventSubscriptionService;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 
 /**
@@ -37,34 +35,73 @@ import org.mockito.Mock;
 public class SubscriptionDisableUserDeletionHandlerTest extends AbstractUnitTest {
 
     private static final String TEST_USER = "test-user";
-
-    @InjectMocks
-    private SubscriptionDisableUserDeletionHandler subscriptionDisableUserDeletionHandler;
+    private static final String OTHER_TEST_USER = "other-test-user";
+    private static final long LONG_COALESCING_WINDOW = 60000;
+    private static final long SHORT_COALESCING_WINDOW = 10;
 
     @Mock
     private EventSubscriptionService mockEventSubscriptionService;
-    @Mock
-    private Subscription mockSubscription;
 
     @Test
-    public void should_disableSubscriptionsOwnedByTheDeletedUser() {
-        given(mockEventSubscriptionService.findSubscriptionsByUserAndStatus(TEST_USER, SubscriptionStatus.ACTIVE))
-            .willReturn(List.of(mockSubscription));
+    public void should_disableSubscriptionsOwnedByTheDeletedUser_when_noCoalescingWindowIsConfigured() {
+        SubscriptionDisableUserDeletionHandler subscriptionDisableUserDeletionHandler = new SubscriptionDisableUserDeletionHandler(
+            mockEventSubscriptionService);
 
         subscriptionDisableUserDeletionHandler.userDeleted(TEST_USER);
 
-        verify(mockSubscription).setStatus(SubscriptionStatus.INACTIVE);
-        verify(mockEventSubscriptionService).updateSubscription(mockSubscription);
+        verify(mockEventSubscriptionService).deactivateSubscriptionsOfUsers(List.of(TEST_USER));
     }
 
     @Test
-    public void should_notDisableAnySubscriptions_when_theDeletedUserDoesNotOwnAnySubscription() {
-        given(mockEventSubscriptionService.findSubscriptionsByUserAndStatus(TEST_USER, SubscriptionStatus.ACTIVE))
-            .willReturn(Collections.emptyList());
+    public void should_disableSubscriptionsOfAllTheDeletedUsersAtOnce_when_coalescingWindowIsOver() {
+        SubscriptionDisableUserDeletionHandler subscriptionDisableUserDeletionHandler = new SubscriptionDisableUserDeletionHandler(
+            mockEventSubscriptionService, LONG_COALESCING_WINDOW, 10);
 
         subscriptionDisableUserDeletionHandler.userDeleted(TEST_USER);
+        subscriptionDisableUserDeletionHandler.userDeleted(OTHER_TEST_USER);
 
-        verify(mockEventSubscriptionService, never()).updateSubscription(any());
+        verify(mockEventSubscriptionService, never()).deactivateSubscriptionsOfUsers(any());
+        subscriptionDisableUserDeletionHandler.shutdown();
+        verify(mockEventSubscriptionService).deactivateSubscriptionsOfUsers(List.of(TEST_USER, OTHER_TEST_USER));
     }
-}
 
+    @Test
+    public void should_disableSubscriptionsBeforeTheEndOfTheWindow_when_maxBatchSizeIsReached() {
+        SubscriptionDisableUserDeletionHandler subscriptionDisableUserDeletionHandler = new SubscriptionDisableUserDeletionHandler(
+            mockEventSubscriptionService, LONG_COALESCING_WINDOW, 2);
+
+        subscriptionDisableUserDeletionHandler.userDeleted(TEST_USER);
+        subscriptionDisableUserDeletionHandler.userDeleted(OTHER_TEST_USER);
+
+        verify(mockEventSubscriptionService, timeout(5000)).deactivateSubscriptionsOfUsers(List.of(TEST_USER, OTHER_TEST_USER));
+        subscriptionDisableUserDeletionHandler.shutdown();
+    }
+
+    @Test
+    public void should_retryDisablingTheSubscriptions_when_theBulkDeactivationFails() {
+        given(mockEventSubscriptionService.deactivateSubscriptionsOfUsers(List.of(TEST_USER)))
+            .willThrow(new IllegalStateException("Storage unavailable"))
+            .willReturn(List.of());
+        SubscriptionDisableUserDeletionHandler subscriptionDisableUserDeletionHandler = new SubscriptionDisableUserDeletionHandler(
+            mockEventSubscriptionService, SHORT_COALESCING_WINDOW, 10, 3);
+
+        subscriptionDisableUserDeletionHandler.userDeleted(TEST_USER);
+
+        verify(mockEventSubscriptionService, timeout(5000).times(2)).deactivateSubscriptionsOfUsers(List.of(TEST_USER));
+        subscriptionDisableUserDeletionHandler.shutdown();
+    }
+
+    @Test
+    public void should_giveUpDisablingTheSubscriptions_when_theBulkDeactivationKeepsFailing() {
+        given(mockEventSubscriptionService.deactivateSubscriptionsOfUsers(List.of(TEST_USER)))
+            .willThrow(new IllegalStateException("Storage unavailable"));
+        SubscriptionDisableUserDeletionHandler subscriptionDisableUserDeletionHandler = new SubscriptionDisableUserDeletionHandler(
+            mockEventSubscriptionService, SHORT_COALESCING_WINDOW, 10, 1);
+
+        subscriptionDisableUserDeletionHandler.userDeleted(TEST_USER);
+
+        verify(mockEventSubscriptionService, timeout(5000).times(2)).deactivateSubscriptionsOfUsers(List.of(TEST_USER));
+        subscriptionDisableUserDeletionHandler.shutdown();
+        verify(mockEventSubscriptionService, times(2)).deactivateSubscriptionsOfUsers(List.of(TEST_USER));
+    }
+}
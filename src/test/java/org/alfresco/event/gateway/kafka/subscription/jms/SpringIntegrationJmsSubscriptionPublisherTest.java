@@ -17,10 +17,16 @@ package org.alfresco.event.gateway.kafka.subscription.jms;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.verify;
 
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
 import org.alfresco.event.gateway.kafka.AbstractUnitTest;
+import org.alfresco.event.gateway.kafka.metrics.GatewayMetrics;
 import org.alfresco.repo.event.v1.model.DataAttributes;
 import org.alfresco.repo.event.v1.model.EventData;
 import org.alfresco.repo.event.v1.model.NodeResource;
@@ -38,8 +44,11 @@ import org.springframework.integration.dsl.IntegrationFlow;
 import org.springframework.integration.dsl.context.IntegrationFlowContext;
 import org.springframework.integration.dsl.context.IntegrationFlowContext.IntegrationFlowRegistration;
 import org.springframework.integration.dsl.context.IntegrationFlowContext.IntegrationFlowRegistrationBuilder;
+import org.springframework.integration.handler.advice.RequestHandlerCircuitBreakerAdvice.CircuitBreakerOpenException;
 import org.springframework.messaging.Message;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
 /**
  * Unit tests for {@link SpringIntegrationJmsSubscriptionPublisher}.
  */
@@ -89,5 +98,82 @@ public class SpringIntegrationJmsSubscriptionPublisherTest extends AbstractUnitT
 
         verify(mockIntegrationFlowContext).remove(TEST_FLOW_ID);
     }
-}
 
+    @Test
+    public void should_recordTheFailureAndTheOpenCircuit_when_publicationIsRejectedByTheCircuitBreaker() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        SpringIntegrationJmsSubscriptionPublisher meteredPublisher = new SpringIntegrationJmsSubscriptionPublisher(mockIntegrationFlowContext,
+            mockIntegrationFlowRegistration, mockMessagingTemplate, "test-subscription", meterRegistry);
+        final RepoEvent<? extends DataAttributes<? extends Resource>> repoEvent = RepoEvent.<EventData<NodeResource>>builder().build();
+        doThrow(new CircuitBreakerOpenException(null, "Circuit Breaker is Open")).when(mockMessagingTemplate).send(any(Message.class));
+
+        Assertions.assertThrows(CircuitBreakerOpenException.class,
+            () -> meteredPublisher.publishEvent((RepoEvent<DataAttributes<Resource>>) repoEvent));
+
+        assertThat(meterRegistry.get(GatewayMetrics.PUBLISH)
+            .tags(GatewayMetrics.TAG_SUBSCRIPTION, "test-subscription", GatewayMetrics.TAG_OUTCOME, GatewayMetrics.OUTCOME_FAILURE)
+            .timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(GatewayMetrics.PUBLISH_CIRCUIT_OPEN).gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    public void should_reportTheCircuitOfTheReplacingPublisher_when_replacedPublisherIsReleased() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        SpringIntegrationJmsSubscriptionPublisher replacedPublisher = new SpringIntegrationJmsSubscriptionPublisher(mockIntegrationFlowContext,
+            mockIntegrationFlowRegistration, mockMessagingTemplate, "test-subscription", meterRegistry);
+        SpringIntegrationJmsSubscriptionPublisher replacingPublisher = new SpringIntegrationJmsSubscriptionPublisher(mockIntegrationFlowContext,
+            mockIntegrationFlowRegistration, mockMessagingTemplate, "test-subscription", meterRegistry);
+        final RepoEvent<? extends DataAttributes<? extends Resource>> repoEvent = RepoEvent.<EventData<NodeResource>>builder().build();
+        doThrow(new CircuitBreakerOpenException(null, "Circuit Breaker is Open")).when(mockMessagingTemplate).send(any(Message.class));
+
+        replacedPublisher.release();
+        Assertions.assertThrows(CircuitBreakerOpenException.class,
+            () -> replacingPublisher.publishEvent((RepoEvent<DataAttributes<Resource>>) repoEvent));
+
+        assertThat(meterRegistry.get(GatewayMetrics.PUBLISH_CIRCUIT_OPEN).gauge().value()).isEqualTo(1);
+        assertThat(meterRegistry.get(GatewayMetrics.PUBLISH).tags(GatewayMetrics.TAG_OUTCOME, GatewayMetrics.OUTCOME_FAILURE)
+            .timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void should_recordTheEndToEndLatency_when_eventIsPublished() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        SpringIntegrationJmsSubscriptionPublisher meteredPublisher = new SpringIntegrationJmsSubscriptionPublisher(mockIntegrationFlowContext,
+            mockIntegrationFlowRegistration, mockMessagingTemplate, "test-subscription", meterRegistry);
+        final RepoEvent<? extends DataAttributes<? extends Resource>> repoEvent = RepoEvent.<EventData<NodeResource>>builder()
+            .setTime(ZonedDateTime.now().minusSeconds(5))
+            .build();
+
+        meteredPublisher.publishEvent((RepoEvent<DataAttributes<Resource>>) repoEvent);
+
+        assertThat(meterRegistry.get(GatewayMetrics.LATENCY).tags(GatewayMetrics.TAG_SUBSCRIPTION, "test-subscription").timer()
+            .totalTime(TimeUnit.SECONDS)).isGreaterThanOrEqualTo(5);
+    }
+
+    @Test
+    public void should_sendTheWholeBatchInASingleMessageAndRecordEveryEventLatency_when_batchIsPublished() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        SpringIntegrationJmsSubscriptionPublisher meteredPublisher = new SpringIntegrationJmsSubscriptionPublisher(mockIntegrationFlowContext,
+            mockIntegrationFlowRegistration, mockMessagingTemplate, "test-subscription", meterRegistry);
+        final RepoEvent<? extends DataAttributes<? extends Resource>> repoEvent = RepoEvent.<EventData<NodeResource>>builder()
+            .setId("1")
+            .setTime(ZonedDateTime.now())
+            .build();
+        final RepoEvent<? extends DataAttributes<? extends Resource>> repoEvent2 = RepoEvent.<EventData<NodeResource>>builder()
+            .setId("2")
+            .setTime(ZonedDateTime.now())
+            .build();
+        final List<RepoEvent<DataAttributes<Resource>>> events = List.of((RepoEvent<DataAttributes<Resource>>) repoEvent,
+            (RepoEvent<DataAttributes<Resource>>) repoEvent2);
+
+        meteredPublisher.publishEvents(events);
+
+        verify(mockMessagingTemplate).send(messageCaptor.capture());
+        assertThat(messageCaptor.getValue().getPayload()).isEqualTo(events);
+        assertThat(meterRegistry.get(GatewayMetrics.PUBLISH)
+            .tags(GatewayMetrics.TAG_SUBSCRIPTION, "test-subscription", GatewayMetrics.TAG_OUTCOME, GatewayMetrics.OUTCOME_SUCCESS)
+            .timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(GatewayMetrics.LATENCY).tags(GatewayMetrics.TAG_SUBSCRIPTION, "test-subscription").timer()
+            .count()).isEqualTo(2);
+    }
+}
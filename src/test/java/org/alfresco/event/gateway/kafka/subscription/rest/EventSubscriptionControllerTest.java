@@ -18,17 +18,38 @@ package org.alfresco.event.gateway.kafka.subscription.rest;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 
 import org.alfresco.event.gateway.kafka.AbstractUnitTest;
 import org.alfresco.event.gateway.kafka.entity.Subscription;
+import org.alfresco.event.gateway.kafka.entity.SubscriptionStatus;
 import org.alfresco.event.gateway.kafka.subscription.EventSubscriptionService;
+import org.alfresco.event.gateway.kafka.subscription.SubscriptionOperationResult;
+import org.alfresco.event.gateway.kafka.subscription.SubscriptionPageRequest;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
@@ -42,6 +63,8 @@ public class EventSubscriptionControllerTest extends AbstractUnitTest {
 
     private static final String TEST_SUB_ID = "subscription-id";
     private static final String TEST_SUB_TYPE = "subscription-type";
+    private static final String TEST_USER = "test-user";
+    private static final String TEST_MANAGERS_GROUP = "GROUP_MANAGERS";
 
     @InjectMocks
     private EventSubscriptionController eventSubscriptionController;
@@ -52,6 +75,10 @@ public class EventSubscriptionControllerTest extends AbstractUnitTest {
     private ObjectMapper mockObjectMapper;
     @Mock
     private SubscriptionPatchValidator mockSubscriptionPatchValidator;
+    @Mock
+    private Validator mockValidator;
+    @Mock
+    private ConstraintViolation<Subscription> mockConstraintViolation;
 
     private Subscription mockSubscription = new Subscription();
     private JsonNode mockPatch = JsonNodeFactory.instance.objectNode();
@@ -97,5 +124,97 @@ public class EventSubscriptionControllerTest extends AbstractUnitTest {
 
         assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
     }
-}
 
+    @Test
+    void should_returnResultOfEachSubscription_when_creatingSubscriptionsInBulk() {
+        Subscription invalidSubscription = new Subscription();
+        lenient().when(mockValidator.validate(mockSubscription)).thenReturn(Set.of());
+        lenient().when(mockValidator.validate(invalidSubscription)).thenReturn(Set.of(mockConstraintViolation));
+        lenient().when(mockConstraintViolation.getMessage()).thenReturn("Subscription type must not be null or empty");
+        lenient().when(mockEventSubscriptionService.createSubscriptions(List.of(mockSubscription)))
+            .thenReturn(List.of(SubscriptionOperationResult.succeeded(mockSubscription)));
+
+        ResponseEntity<List<SubscriptionOperationResult>> responseEntity = eventSubscriptionController
+            .createSubscriptions(List.of(invalidSubscription, mockSubscription));
+
+        assertThat(responseEntity.getBody().get(0).status()).isEqualTo(SubscriptionOperationResult.Status.FAILED);
+        assertThat(responseEntity.getBody().get(0).error()).isEqualTo("Subscription type must not be null or empty");
+        assertThat(responseEntity.getBody().get(0).index()).isEqualTo(0);
+        assertThat(responseEntity.getBody().get(1).status()).isEqualTo(SubscriptionOperationResult.Status.SUCCEEDED);
+    }
+
+    @Test
+    void should_returnNotFound_when_updatingUnknownSubscriptionInBulk() {
+        lenient().when(mockEventSubscriptionService.getSubscription("unknown-id")).thenReturn(null);
+        lenient().when(mockEventSubscriptionService.updateSubscriptions(List.of())).thenReturn(List.of());
+
+        ResponseEntity<List<SubscriptionOperationResult>> responseEntity = eventSubscriptionController
+            .partiallyUpdateSubscriptions(Map.of("unknown-id", mockPatch));
+
+        assertThat(responseEntity.getBody().get(0).status()).isEqualTo(SubscriptionOperationResult.Status.FAILED);
+        assertThat(responseEntity.getBody().get(0).id()).isEqualTo("unknown-id");
+        assertThat(responseEntity.getBody().get(0).error()).isEqualTo("Subscription unknown-id not found");
+    }
+
+    @Test
+    void should_returnBadRequest_when_creatingTooManySubscriptionsInBulk() {
+        ResponseEntity<List<SubscriptionOperationResult>> responseEntity = eventSubscriptionController
+            .createSubscriptions(Collections.nCopies(1001, mockSubscription));
+
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        verifyNoInteractions(mockValidator, mockEventSubscriptionService);
+    }
+
+    @Test
+    void should_returnBadRequest_when_updatingTooManySubscriptionsInBulk() {
+        Map<String, JsonNode> patches = new HashMap<>();
+        for (int i = 0; i < 1001; i++) {
+            patches.put("subscription-" + i, mockPatch);
+        }
+
+        ResponseEntity<List<SubscriptionOperationResult>> responseEntity = eventSubscriptionController
+            .partiallyUpdateSubscriptions(patches);
+
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        verifyNoInteractions(mockEventSubscriptionService);
+    }
+
+    @Test
+    void should_streamProjectedSubscriptionsOfCurrentUser_when_listingSubscriptionsWithFields() throws Exception {
+        SecurityContextHolder.setContext(new SecurityContextImpl(new UsernamePasswordAuthenticationToken(TEST_USER, "pwd", List.of())));
+        EventSubscriptionController controller = new EventSubscriptionController(mockEventSubscriptionService, new ObjectMapper(),
+            mockSubscriptionPatchValidator, mockValidator, TEST_MANAGERS_GROUP);
+        mockSubscription.setId(TEST_SUB_ID);
+        mockSubscription.setCreatedDate(1000L);
+        mockSubscription.setStatus(SubscriptionStatus.ACTIVE);
+        doAnswer(invocation -> {
+            invocation.<Consumer<Subscription>> getArgument(1).accept(mockSubscription);
+            return null;
+        }).when(mockEventSubscriptionService).streamSubscriptions(eq(new SubscriptionPageRequest(TEST_USER, null, null, null, 100)), any());
+
+        ResponseEntity<StreamingResponseBody> responseEntity = controller.listSubscriptions(null, null, null, null, 100, List.of("status"));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        responseEntity.getBody().writeTo(outputStream);
+
+        assertThat(outputStream.toString(StandardCharsets.UTF_8))
+            .isEqualTo("{\"id\":\"" + TEST_SUB_ID + "\",\"createdDate\":1000,\"status\":\"ACTIVE\"}\n");
+    }
+
+    @Test
+    void should_returnForbidden_when_listingSubscriptionsOfAnotherUserWithoutBeingManager() {
+        SecurityContextHolder.setContext(new SecurityContextImpl(new UsernamePasswordAuthenticationToken(TEST_USER, "pwd", List.of())));
+
+        ResponseEntity<StreamingResponseBody> responseEntity = eventSubscriptionController.listSubscriptions("another-user", null, null, null, 100, null);
+
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+    }
+
+    @Test
+    void should_returnBadRequest_when_listingSubscriptionsWithUnknownField() {
+        SecurityContextHolder.setContext(new SecurityContextImpl(new UsernamePasswordAuthenticationToken(TEST_USER, "pwd", List.of())));
+
+        ResponseEntity<StreamingResponseBody> responseEntity = eventSubscriptionController.listSubscriptions(null, null, null, null, 100, List.of("unknown"));
+
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+}
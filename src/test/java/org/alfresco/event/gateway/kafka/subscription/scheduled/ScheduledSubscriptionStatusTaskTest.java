@@ -16,23 +16,25 @@
 package org.alfresco.event.gateway.kafka.subscription.scheduled;
 
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.never;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 import java.util.List;
+import java.util.OptionalLong;
 
 import org.alfresco.event.gateway.kafka.AbstractUnitTest;
-import org.alfresco.event.gateway.kafka.entity.Subscription;
-import org.alfresco.event.gateway.kafka.entity.SubscriptionStatus;
 import org.alfresco.event.gateway.kafka.subscription.EventSubscriptionService;
-import org.alfresco.event.gateway.kafka.subscription.storage.EventSubscriptionStorage;
+import org.alfresco.event.gateway.kafka.subscription.cluster.LeaderElection;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.Mock;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 /**
  * Unit tests for {@link ScheduledSubscriptionStatusTask}.
@@ -40,48 +42,98 @@ import org.mockito.Mock;
 public class ScheduledSubscriptionStatusTaskTest extends AbstractUnitTest {
 
     private final static String TEST_ID = "Test";
-    private final static long PREVIOUS_DATE_TIMESTAMP = 1629034200;
+    private final static long LIMIT_TIME = 86400000;
+    private final static long FENCING_TOKEN = 3;
 
-    @Mock
-    private EventSubscriptionStorage mockEventSubscriptionStorage;
     @Mock
     private EventSubscriptionService mockEventSubscriptionService;
+    @Mock
+    private LeaderElection mockLeaderElection;
+    @Mock
+    private PlatformTransactionManager mockTransactionManager;
 
     @Captor
-    private ArgumentCaptor<Subscription> subscriptionCaptor;
+    private ArgumentCaptor<Long> cutoffTimeCaptor;
 
     private ScheduledSubscriptionStatusTask scheduledSubscriptionStatusTask;
 
     @BeforeEach
     public void setup() {
-        scheduledSubscriptionStatusTask = new ScheduledSubscriptionStatusTask(mockEventSubscriptionStorage, mockEventSubscriptionService, 86400000);
+        scheduledSubscriptionStatusTask = new ScheduledSubscriptionStatusTask(mockEventSubscriptionService, LIMIT_TIME);
     }
 
     @Test
-    public void should_deactivateTheSubscription_when_notUpdatedWithinTheConfiguredPeriod() {
-        Subscription subscription = new Subscription();
-        subscription.setStatus(SubscriptionStatus.ACTIVE);
-        subscription.setId(TEST_ID);
-        subscription.setModifiedDate(PREVIOUS_DATE_TIMESTAMP);
-        when(mockEventSubscriptionStorage.findSubscriptionsByStatus(SubscriptionStatus.ACTIVE)).thenReturn(List.of(subscription));
+    public void should_deactivateTheSubscriptionsNotUpdatedWithinTheConfiguredPeriod_when_checkingTheStatus() {
+        when(mockEventSubscriptionService.deactivateSubscriptionsNotModifiedSince(anyLong())).thenReturn(List.of(TEST_ID));
+        long timeBeforeCheck = System.currentTimeMillis();
 
         scheduledSubscriptionStatusTask.checkStatusSubscription();
 
-        verify(mockEventSubscriptionService).updateSubscription(subscriptionCaptor.capture());
-        assertThat(subscriptionCaptor.getValue().getStatus()).isEqualTo(SubscriptionStatus.INACTIVE);
+        verify(mockEventSubscriptionService).deactivateSubscriptionsNotModifiedSince(cutoffTimeCaptor.capture());
+        assertThat(cutoffTimeCaptor.getValue()).isBetween(timeBeforeCheck - LIMIT_TIME, System.currentTimeMillis() - LIMIT_TIME);
     }
 
     @Test
-    public void should_notDeactivateTheSubscription_when_updatedWithinTheConfiguredPeriod() {
-        Subscription subscription = new Subscription();
-        subscription.setStatus(SubscriptionStatus.ACTIVE);
-        subscription.setId(TEST_ID);
-        subscription.setModifiedDate(System.currentTimeMillis());
-        when(mockEventSubscriptionStorage.findSubscriptionsByStatus(SubscriptionStatus.ACTIVE)).thenReturn(List.of(subscription));
+    public void should_notCheckTheStatus_when_nodeIsNotTheLeader() {
+        when(mockLeaderElection.getFencingToken()).thenReturn(OptionalLong.empty());
 
-        scheduledSubscriptionStatusTask.checkStatusSubscription();
+        leaderElectedTask().checkStatusSubscription();
 
-        verify(mockEventSubscriptionService, never()).updateSubscription(any(Subscription.class));
+        verifyNoInteractions(mockEventSubscriptionService);
     }
-}
 
+    @Test
+    public void should_notCheckTheStatus_when_fencingTokenIsNotCurrentAnymore() {
+        when(mockLeaderElection.getFencingToken()).thenReturn(OptionalLong.of(FENCING_TOKEN));
+        when(mockLeaderElection.validateFencingToken(FENCING_TOKEN)).thenReturn(false);
+
+        leaderElectedTask().checkStatusSubscription();
+
+        verifyNoInteractions(mockEventSubscriptionService);
+    }
+
+    @Test
+    public void should_checkTheStatus_when_nodeIsTheLeader() {
+        when(mockLeaderElection.getFencingToken()).thenReturn(OptionalLong.of(FENCING_TOKEN));
+        when(mockLeaderElection.validateFencingToken(FENCING_TOKEN)).thenReturn(true);
+        when(mockEventSubscriptionService.deactivateSubscriptionsNotModifiedSince(anyLong())).thenReturn(List.of(TEST_ID));
+
+        leaderElectedTask().checkStatusSubscription();
+
+        verify(mockEventSubscriptionService).deactivateSubscriptionsNotModifiedSince(anyLong());
+    }
+
+    @Test
+    public void should_checkTheStatusOnlyOncePerInterval_when_taskIsPolledByTheSameLeader() {
+        when(mockLeaderElection.getFencingToken()).thenReturn(OptionalLong.of(FENCING_TOKEN));
+        when(mockLeaderElection.validateFencingToken(FENCING_TOKEN)).thenReturn(true);
+        when(mockEventSubscriptionService.deactivateSubscriptionsNotModifiedSince(anyLong())).thenReturn(List.of(TEST_ID));
+        ScheduledSubscriptionStatusTask task = new ScheduledSubscriptionStatusTask(mockEventSubscriptionService, LIMIT_TIME,
+            mockLeaderElection, new TransactionTemplate(mockTransactionManager), LIMIT_TIME);
+
+        task.checkStatusSubscription();
+        task.checkStatusSubscription();
+
+        verify(mockEventSubscriptionService, times(1)).deactivateSubscriptionsNotModifiedSince(anyLong());
+    }
+
+    @Test
+    public void should_checkTheStatusRightAway_when_nodeAcquiresTheLeadership() {
+        when(mockLeaderElection.getFencingToken()).thenReturn(OptionalLong.empty(), OptionalLong.of(FENCING_TOKEN));
+        when(mockLeaderElection.validateFencingToken(FENCING_TOKEN)).thenReturn(true);
+        when(mockEventSubscriptionService.deactivateSubscriptionsNotModifiedSince(anyLong())).thenReturn(List.of(TEST_ID));
+        ScheduledSubscriptionStatusTask task = new ScheduledSubscriptionStatusTask(mockEventSubscriptionService, LIMIT_TIME,
+            mockLeaderElection, new TransactionTemplate(mockTransactionManager), LIMIT_TIME);
+
+        task.checkStatusSubscription();
+        verifyNoInteractions(mockEventSubscriptionService);
+        task.checkStatusSubscription();
+
+        verify(mockEventSubscriptionService).deactivateSubscriptionsNotModifiedSince(anyLong());
+    }
+
+    private ScheduledSubscriptionStatusTask leaderElectedTask() {
+        return new ScheduledSubscriptionStatusTask(mockEventSubscriptionService, LIMIT_TIME, mockLeaderElection,
+            new TransactionTemplate(mockTransactionManager));
+    }
+}